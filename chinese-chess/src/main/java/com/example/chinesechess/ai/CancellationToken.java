@@ -0,0 +1,75 @@
+package com.example.chinesechess.ai;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 协作式取消令牌
+ * 由调用方持有并在结果不再需要时取消，引擎在搜索循环或网络请求中检查它并尽快退出。
+ */
+public final class CancellationToken {
+
+    private static final CancellationToken NONE = new CancellationToken(false);
+
+    private final boolean cancellable;
+    private final List<Runnable> callbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(true);
+    }
+
+    private CancellationToken(boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    /**
+     * 永远不会被取消的令牌，用于不需要取消的调用路径
+     */
+    public static CancellationToken none() {
+        return NONE;
+    }
+
+    /**
+     * 取消并触发已注册的回调（只触发一次）
+     */
+    public void cancel() {
+        if (!cancellable) {
+            return;
+        }
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                System.err.println("取消回调执行失败: " + e.getMessage());
+            }
+        }
+        callbacks.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 注册取消回调，例如中断进行中的HTTP请求；已取消时立即执行
+     */
+    public void onCancel(Runnable callback) {
+        if (!cancellable) {
+            return;
+        }
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+}
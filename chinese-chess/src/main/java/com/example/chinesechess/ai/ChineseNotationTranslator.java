@@ -0,0 +1,564 @@
+package com.example.chinesechess.ai;
+
+import com.example.chinesechess.core.*;
+import com.example.chinesechess.terminal.MoveParser;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 中文记谱与UCI互译器（纯Java实现）
+ * 基于MoveParser的棋子别名表预先构建查找表，结合棋盘状态完成
+ * "马二进三" ⇄ "h0g2" 的双向翻译，并支持对整条主要变例（PV）批量翻译。
+ */
+public final class ChineseNotationTranslator {
+
+    // 棋子种类索引，与MoveParser的标准名一致
+    public static final int GENERAL = 0;
+    public static final int ADVISOR = 1;
+    public static final int ELEPHANT = 2;
+    public static final int HORSE = 3;
+    public static final int CHARIOT = 4;
+    public static final int CANNON = 5;
+    public static final int SOLDIER = 6;
+
+    private static final String[] CANONICAL_NAMES = {"将", "士", "象", "马", "车", "炮", "兵"};
+    private static final String[] PIECE_CODES = {"K", "A", "B", "N", "R", "C", "P"};
+    private static final String[][] DISPLAY_NAMES = {
+        {"帅", "仕", "相", "马", "车", "炮", "兵"}, // 红方
+        {"将", "士", "象", "马", "车", "炮", "卒"}  // 黑方
+    };
+    private static final String[] RED_NUMBERS = {"", "一", "二", "三", "四", "五", "六", "七", "八", "九"};
+    private static final String[] BLACK_NUMBERS = {"", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+    private static final String[] ORDER_MARKERS_TWO = {"前", "后"};
+    private static final String[] ORDER_MARKERS_THREE = {"前", "中", "后"};
+
+    private static final char ACTION_FORWARD = '进';
+    private static final char ACTION_BACKWARD = '退';
+    private static final char ACTION_HORIZONTAL = '平';
+
+    // 动作词别名（如"前进""平移"），按长度从长到短排列，解析时优先匹配最长的别名
+    private static final List<Map.Entry<String, Character>> ACTION_ALIASES = new ArrayList<>();
+    static {
+        for (Map.Entry<String, String> entry : MoveParser.getActionAliases().entrySet()) {
+            char action = entry.getValue().charAt(0);
+            if (action == ACTION_FORWARD || action == ACTION_BACKWARD || action == ACTION_HORIZONTAL) {
+                ACTION_ALIASES.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), action));
+            }
+        }
+        ACTION_ALIASES.sort((a, b) -> b.getKey().length() - a.getKey().length());
+    }
+
+    // 字符 -> 棋子种类（不在表中的字符不是棋子）
+    private static final Map<Character, Integer> PIECE_CHAR_TABLE = new HashMap<>();
+    static {
+        for (Map.Entry<String, Set<String>> entry : MoveParser.getPieceAliases().entrySet()) {
+            int kind = indexOf(CANONICAL_NAMES, entry.getKey());
+            for (String alias : entry.getValue()) {
+                if (alias.length() == 1 && kind >= 0) {
+                    PIECE_CHAR_TABLE.put(alias.charAt(0), kind);
+                }
+            }
+        }
+        // 繁体与红方专用字
+        PIECE_CHAR_TABLE.put('帥', GENERAL);
+        PIECE_CHAR_TABLE.put('傌', HORSE);
+        PIECE_CHAR_TABLE.put('俥', CHARIOT);
+        PIECE_CHAR_TABLE.put('包', CANNON);
+    }
+
+    private ChineseNotationTranslator() {
+        // 工具类
+    }
+
+    /**
+     * 记谱的结构化解析结果（不依赖棋盘）
+     */
+    public static final class Notation {
+        /** 记谱中显式指定的一方，未指定时为null */
+        public final PieceColor color;
+        public final int pieceKind;
+        /** 起始纵线（1-9），使用前/后/中标记时为0 */
+        public final int startFile;
+        /** 前/中/后标记：0=无, 1=前, 2=中, 3=后 */
+        public final int orderMarker;
+        public final char action;
+        /** 动作后的数字：平/斜行棋子为目标纵线，直行进退为步数 */
+        public final int target;
+        public final String original;
+
+        Notation(PieceColor color, int pieceKind, int startFile, int orderMarker, char action, int target, String original) {
+            this.color = color;
+            this.pieceKind = pieceKind;
+            this.startFile = startFile;
+            this.orderMarker = orderMarker;
+            this.action = action;
+            this.target = target;
+            this.original = original;
+        }
+
+        public String getCanonicalPieceName() {
+            return CANONICAL_NAMES[pieceKind];
+        }
+
+        public String getPieceCode() {
+            return PIECE_CODES[pieceKind];
+        }
+
+        /** 目标是否为纵线（否则为步数） */
+        public boolean isTargetFile() {
+            return action == ACTION_HORIZONTAL || isDiagonalKind(pieceKind);
+        }
+    }
+
+    // ==================== 中文记谱 -> UCI ====================
+
+    /**
+     * 解析记谱结构，格式错误时返回null
+     * 支持：马二进三、炮8平5、红车九进一、前车进二、马前进三、炮二平移五
+     */
+    public static Notation parse(String notation) {
+        if (notation == null) {
+            return null;
+        }
+        String s = notation.trim();
+        int i = 0;
+        int n = s.length();
+
+        PieceColor color = null;
+        if (i < n && (s.charAt(i) == '红' || s.charAt(i) == '黑')) {
+            color = s.charAt(i) == '红' ? PieceColor.RED : PieceColor.BLACK;
+            i++;
+            if (i < n && s.charAt(i) == '方') {
+                i++;
+            }
+        }
+
+        int marker = 0;
+        if (i < n) {
+            marker = orderMarker(s.charAt(i));
+            if (marker != 0) {
+                i++;
+            }
+        }
+
+        if (i >= n) {
+            return null;
+        }
+        Integer kind = PIECE_CHAR_TABLE.get(s.charAt(i));
+        if (kind == null) {
+            return null;
+        }
+        i++;
+
+        int startFile = 0;
+        if (i < n) {
+            if (marker == 0 && orderMarker(s.charAt(i)) != 0) {
+                marker = orderMarker(s.charAt(i));
+                i++;
+            } else if (marker == 0) {
+                startFile = digitValue(s.charAt(i));
+                if (startFile == 0) {
+                    return null;
+                }
+                i++;
+            }
+        }
+        if (marker == 0 && startFile == 0) {
+            return null;
+        }
+
+        if (i >= n) {
+            return null;
+        }
+        char action = 0;
+        for (Map.Entry<String, Character> alias : ACTION_ALIASES) {
+            if (s.startsWith(alias.getKey(), i)) {
+                action = alias.getValue();
+                i += alias.getKey().length();
+                break;
+            }
+        }
+        if (action == 0) {
+            return null;
+        }
+
+        if (i >= n) {
+            return null;
+        }
+        int target = digitValue(s.charAt(i));
+        if (target == 0) {
+            return null;
+        }
+        // 斜行棋子不能平移
+        if (action == ACTION_HORIZONTAL && isDiagonalKind(kind)) {
+            return null;
+        }
+        return new Notation(color, kind, startFile, marker, action, target, notation);
+    }
+
+    /**
+     * 将中文记谱翻译为UCI
+     * @param side 走棋方（记谱中带"红/黑"前缀时以前缀为准）
+     * @return UCI字符串，无法翻译时返回null
+     */
+    public static String toUci(String notation, Board board, PieceColor side) {
+        Move move = toMove(notation, board, side);
+        return move != null ? toUci(move.getStart(), move.getEnd()) : null;
+    }
+
+    /**
+     * 将中文记谱翻译为走法
+     */
+    public static Move toMove(String notation, Board board, PieceColor side) {
+        Notation parsed = parse(notation);
+        if (parsed == null) {
+            return null;
+        }
+        return resolve(parsed, snapshot(board), parsed.color != null ? parsed.color : side);
+    }
+
+    /**
+     * 批量翻译一串中文记谱，依次在棋盘副本上走子（红黑交替）
+     * 遇到无法翻译的记谱时停止，返回已翻译的部分
+     */
+    public static List<String> translateLineToUci(List<String> notations, Board board, PieceColor firstSide) {
+        List<String> result = new ArrayList<>(notations.size());
+        Piece[][] grid = snapshot(board);
+        PieceColor side = firstSide;
+        for (String notation : notations) {
+            Notation parsed = parse(notation);
+            if (parsed == null) {
+                break;
+            }
+            PieceColor mover = parsed.color != null ? parsed.color : side;
+            Move move = resolve(parsed, grid, mover);
+            if (move == null) {
+                break;
+            }
+            result.add(toUci(move.getStart(), move.getEnd()));
+            apply(grid, move.getStart().getX(), move.getStart().getY(), move.getEnd().getX(), move.getEnd().getY());
+            side = mover.getOpposite();
+        }
+        return result;
+    }
+
+    // ==================== UCI -> 中文记谱 ====================
+
+    /**
+     * 将UCI走法翻译为中文记谱，如 "h2e2" -> "炮二平五"
+     * @return 中文记谱，起点无子或格式错误时返回null
+     */
+    public static String toChinese(String uci, Board board) {
+        return toChinese(uci, snapshot(board));
+    }
+
+    /**
+     * 批量翻译整条主要变例（空格分隔或列表形式的UCI走法）
+     * 遇到无法翻译的走法时停止，返回已翻译的部分
+     */
+    public static List<String> translateLine(List<String> uciMoves, Board board) {
+        List<String> result = new ArrayList<>(uciMoves.size());
+        Piece[][] grid = snapshot(board);
+        for (String uci : uciMoves) {
+            String chinese = toChinese(uci, grid);
+            if (chinese == null) {
+                break;
+            }
+            result.add(chinese);
+            apply(grid, 9 - (uci.charAt(1) - '0'), uci.charAt(0) - 'a', 9 - (uci.charAt(3) - '0'), uci.charAt(2) - 'a');
+        }
+        return result;
+    }
+
+    /**
+     * 批量翻译空格分隔的PV字符串，如 "h2e2 h9g7 h0g2"
+     */
+    public static List<String> translateLine(String pv, Board board) {
+        List<String> moves = new ArrayList<>();
+        for (String token : pv.trim().split("\\s+")) {
+            if (!token.isEmpty()) {
+                moves.add(token);
+            }
+        }
+        return translateLine(moves, board);
+    }
+
+    private static String toChinese(String uci, Piece[][] grid) {
+        if (uci == null || uci.length() < 4) {
+            return null;
+        }
+        int fromCol = uci.charAt(0) - 'a';
+        int fromRow = 9 - (uci.charAt(1) - '0');
+        int toCol = uci.charAt(2) - 'a';
+        int toRow = 9 - (uci.charAt(3) - '0');
+        if (!inBounds(fromRow, fromCol) || !inBounds(toRow, toCol)) {
+            return null;
+        }
+        Piece piece = grid[fromRow][fromCol];
+        if (piece == null) {
+            return null;
+        }
+        PieceColor side = piece.getColor();
+        int kind = kindOf(piece);
+        int sideIndex = side == PieceColor.RED ? 0 : 1;
+        String[] numbers = side == PieceColor.RED ? RED_NUMBERS : BLACK_NUMBERS;
+        int forward = forwardStep(side);
+
+        StringBuilder sb = new StringBuilder(4);
+
+        // 同一纵线上有多个同种棋子时用前/中/后区分
+        int sameFileCount = 0;
+        int aheadCount = 0;
+        for (int row = 0; row < 10; row++) {
+            Piece other = grid[row][fromCol];
+            if (other != null && other.getColor() == side && kindOf(other) == kind) {
+                sameFileCount++;
+                if ((row - fromRow) * forward > 0) {
+                    aheadCount++;
+                }
+            }
+        }
+        if (sameFileCount == 2) {
+            sb.append(ORDER_MARKERS_TWO[aheadCount]).append(DISPLAY_NAMES[sideIndex][kind]);
+        } else if (sameFileCount == 3) {
+            sb.append(ORDER_MARKERS_THREE[aheadCount]).append(DISPLAY_NAMES[sideIndex][kind]);
+        } else if (sameFileCount > 3) {
+            sb.append(RED_NUMBERS[aheadCount + 1]).append(DISPLAY_NAMES[sideIndex][kind]);
+        } else {
+            sb.append(DISPLAY_NAMES[sideIndex][kind]).append(numbers[colToFile(side, fromCol)]);
+        }
+
+        if (fromRow == toRow) {
+            sb.append(ACTION_HORIZONTAL).append(numbers[colToFile(side, toCol)]);
+        } else {
+            boolean isForward = (toRow - fromRow) * forward > 0;
+            sb.append(isForward ? ACTION_FORWARD : ACTION_BACKWARD);
+            if (isDiagonalKind(kind)) {
+                sb.append(numbers[colToFile(side, toCol)]);
+            } else {
+                int steps = Math.abs(toRow - fromRow);
+                sb.append(numbers[steps]);
+            }
+        }
+        return sb.toString();
+    }
+
+    // ==================== 内部实现 ====================
+
+    private static Move resolve(Notation notation, Piece[][] grid, PieceColor side) {
+        int forward = forwardStep(side);
+        List<Position> candidates = new ArrayList<>(2);
+
+        if (notation.startFile > 0) {
+            int col = fileToCol(side, notation.startFile);
+            for (int row = 0; row < 10; row++) {
+                Piece piece = grid[row][col];
+                if (piece != null && piece.getColor() == side && kindOf(piece) == notation.pieceKind) {
+                    candidates.add(new Position(row, col));
+                }
+            }
+        } else {
+            Position marked = findByOrderMarker(notation, grid, side, forward);
+            if (marked != null) {
+                candidates.add(marked);
+            }
+        }
+
+        Move first = null;
+        int matches = 0;
+        for (Position start : candidates) {
+            Position end = targetOf(notation, start, side, forward);
+            if (end == null) {
+                continue;
+            }
+            Move move = new Move(start, end);
+            if (first == null) {
+                first = move;
+            }
+            matches++;
+        }
+        if (matches <= 1) {
+            return first;
+        }
+
+        // 同一纵线上有多个候选（如两个士），用走法规则筛选
+        Board board = toBoard(grid);
+        for (Position start : candidates) {
+            Position end = targetOf(notation, start, side, forward);
+            if (end != null) {
+                Piece piece = grid[start.getX()][start.getY()];
+                if (piece.isValidMove(board, start, end)) {
+                    return new Move(start, end);
+                }
+            }
+        }
+        return first;
+    }
+
+    private static Position findByOrderMarker(Notation notation, Piece[][] grid, PieceColor side, int forward) {
+        for (int col = 0; col < 9; col++) {
+            List<Integer> rows = new ArrayList<>(3);
+            for (int row = 0; row < 10; row++) {
+                Piece piece = grid[row][col];
+                if (piece != null && piece.getColor() == side && kindOf(piece) == notation.pieceKind) {
+                    rows.add(row);
+                }
+            }
+            if (rows.size() < 2) {
+                continue;
+            }
+            // rows按行号升序；红方前方行号小，黑方前方行号大
+            if (forward > 0) {
+                Collections.reverse(rows);
+            }
+            int index;
+            switch (notation.orderMarker) {
+                case 1: index = 0; break;
+                case 2: index = rows.size() == 3 ? 1 : -1; break;
+                default: index = rows.size() - 1; break;
+            }
+            if (index >= 0) {
+                return new Position(rows.get(index), col);
+            }
+        }
+        return null;
+    }
+
+    private static Position targetOf(Notation notation, Position start, PieceColor side, int forward) {
+        int row = start.getX();
+        int col = start.getY();
+        int endRow;
+        int endCol;
+
+        if (notation.action == ACTION_HORIZONTAL) {
+            endRow = row;
+            endCol = fileToCol(side, notation.target);
+        } else {
+            int direction = notation.action == ACTION_FORWARD ? forward : -forward;
+            if (isDiagonalKind(notation.pieceKind)) {
+                endCol = fileToCol(side, notation.target);
+                int dc = Math.abs(endCol - col);
+                int dr;
+                switch (notation.pieceKind) {
+                    case HORSE: dr = dc == 1 ? 2 : (dc == 2 ? 1 : 0); break;
+                    case ELEPHANT: dr = dc == 2 ? 2 : 0; break;
+                    default: dr = dc == 1 ? 1 : 0; break;
+                }
+                if (dr == 0) {
+                    return null;
+                }
+                endRow = row + direction * dr;
+            } else {
+                endRow = row + direction * notation.target;
+                endCol = col;
+            }
+        }
+        return inBounds(endRow, endCol) ? new Position(endRow, endCol) : null;
+    }
+
+    private static Piece[][] snapshot(Board board) {
+        Piece[][] grid = new Piece[10][9];
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 9; col++) {
+                grid[row][col] = board.getPiece(row, col);
+            }
+        }
+        return grid;
+    }
+
+    private static Board toBoard(Piece[][] grid) {
+        Board board = new Board();
+        board.clearBoard();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 9; col++) {
+                if (grid[row][col] != null) {
+                    board.setPiece(row, col, grid[row][col]);
+                }
+            }
+        }
+        return board;
+    }
+
+    private static void apply(Piece[][] grid, int fromRow, int fromCol, int toRow, int toCol) {
+        grid[toRow][toCol] = grid[fromRow][fromCol];
+        grid[fromRow][fromCol] = null;
+    }
+
+    private static String toUci(Position from, Position to) {
+        return new String(new char[] {
+            (char) ('a' + from.getY()), (char) ('0' + 9 - from.getX()),
+            (char) ('a' + to.getY()), (char) ('0' + 9 - to.getX())
+        });
+    }
+
+    private static int kindOf(Piece piece) {
+        if (piece instanceof General) return GENERAL;
+        if (piece instanceof Advisor) return ADVISOR;
+        if (piece instanceof Elephant) return ELEPHANT;
+        if (piece instanceof Horse) return HORSE;
+        if (piece instanceof Chariot) return CHARIOT;
+        if (piece instanceof Cannon) return CANNON;
+        return SOLDIER;
+    }
+
+    private static boolean isDiagonalKind(int kind) {
+        return kind == ADVISOR || kind == ELEPHANT || kind == HORSE;
+    }
+
+    /** 红方向上走（行号减小），黑方向下走 */
+    private static int forwardStep(PieceColor side) {
+        return side == PieceColor.RED ? -1 : 1;
+    }
+
+    /** 红方纵线从右到左为一到九，黑方从左到右（从红方视角）为1到9 */
+    private static int fileToCol(PieceColor side, int file) {
+        return side == PieceColor.RED ? 9 - file : file - 1;
+    }
+
+    private static int colToFile(PieceColor side, int col) {
+        return side == PieceColor.RED ? 9 - col : col + 1;
+    }
+
+    private static boolean inBounds(int row, int col) {
+        return row >= 0 && row < 10 && col >= 0 && col < 9;
+    }
+
+    private static int orderMarker(char c) {
+        switch (c) {
+            case '前': return 1;
+            case '中': return 2;
+            case '后': case '後': return 3;
+            default: return 0;
+        }
+    }
+
+    private static int digitValue(char c) {
+        switch (c) {
+            case '一': case '1': case '１': return 1;
+            case '二': case '2': case '２': return 2;
+            case '三': case '3': case '３': return 3;
+            case '四': case '4': case '４': return 4;
+            case '五': case '5': case '５': return 5;
+            case '六': case '6': case '６': return 6;
+            case '七': case '7': case '７': return 7;
+            case '八': case '8': case '８': return 8;
+            case '九': case '9': case '９': return 9;
+            default: return 0;
+        }
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
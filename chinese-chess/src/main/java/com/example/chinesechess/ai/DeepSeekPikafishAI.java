@@ -3,6 +3,8 @@ package com.example.chinesechess.ai;
 import com.example.chinesechess.core.*;
 import com.example.chinesechess.ui.AILogPanel;
 import com.example.common.config.ConfigurationManager;
+import com.example.common.utils.Logger;
+import com.example.common.utils.StartupOrchestrator;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import okhttp3.*;
@@ -25,12 +27,16 @@ import java.util.regex.Pattern;
  */
 public class DeepSeekPikafishAI {
     
+    private static final Logger.Category LOG = Logger.aiCategory("DeepSeekPikafish");
+    private static final Logger.Category ENGINE_LOG = Logger.engineCategory("Pikafish");
+    
     private final PieceColor aiColor;
     private final int difficulty;
     private final String modelName;
     
     // 核心组件
     private PikafishEngine pikafishEngine;
+    private final StartupOrchestrator.Deferred<Boolean> engineWarmup; // 引擎预热，首次使用或空闲时执行
     private final OkHttpClient httpClient;
     private final Gson gson;
     private final EnhancedChessAI fallbackAI; // 备用AI
@@ -86,59 +92,76 @@ public class DeepSeekPikafishAI {
                 .writeTimeout(httpConfig.writeTimeout, TimeUnit.MILLISECONDS)
                 .build();
         
-        System.out.println("🔧 配置信息加载完成:");
-        System.out.println("   - Ollama服务: " + this.ollamaBaseUrl);
-        System.out.println("   - DeepSeek模型: " + this.modelName);
-        System.out.println("   - Pikafish引擎: " + pikafishConfig.enginePath);
-        System.out.println("   - 神经网络文件: " + pikafishConfig.neuralNetworkPath);
+        LOG.info("🔧 配置信息加载完成:");
+        LOG.info("   - Ollama服务: {}", this.ollamaBaseUrl);
+        LOG.info("   - DeepSeek模型: {}", this.modelName);
+        LOG.info("   - Pikafish引擎: {}", pikafishConfig.enginePath);
+        LOG.info("   - 神经网络文件: {}", pikafishConfig.neuralNetworkPath);
         
         this.gson = new Gson();
         this.fallbackAI = new EnhancedChessAI(aiColor, difficulty);
         this.semanticTranslator = new SemanticTranslatorService();
         
-        // 尝试初始化Pikafish引擎
-        initializePikafishEngine();
+        // Pikafish引擎启动和UCI握手较慢，推迟到首次走棋或界面空闲时再执行
+        this.engineWarmup = StartupOrchestrator.getInstance().defer("Pikafish引擎预热", this::initializePikafishEngine);
         
         // 检查语义翻译服务状态
         Map<String, Object> translatorStatus = semanticTranslator.getServiceStatus();
         if ((Boolean) translatorStatus.get("ready")) {
-            System.out.println("✅ 语义翻译服务已就绪");
+            LOG.info("✅ 语义翻译服务已就绪");
         } else {
-            System.out.println("⚠️ 语义翻译服务不可用，将使用基础记谱功能");
+            LOG.warn("⚠️ 语义翻译服务不可用，将使用基础记谱功能");
         }
     }
     
     /**
      * 初始化Pikafish引擎
      */
-    private void initializePikafishEngine() {
+    private boolean initializePikafishEngine() {
         // 设置日志回调，将Pikafish的决策过程输出到AI日志
         pikafishEngine.setLogCallback(this::addToAILog);
 
         boolean initialized = pikafishEngine.initialize();
         if (initialized) {
-            System.out.println("🐟 Pikafish引擎初始化成功");
-            System.out.println(pikafishEngine.getEngineInfo());
+            LOG.info("🐟 Pikafish引擎初始化成功");
+            LOG.info(pikafishEngine.getEngineInfo());
             addToAILog("Pikafish引擎初始化成功");
         } else {
-            System.out.println("⚠️ 真实Pikafish引擎初始化失败，尝试使用模拟引擎");
+            LOG.warn("⚠️ 真实Pikafish引擎初始化失败，尝试使用模拟引擎");
             addToAILog("真实Pikafish引擎初始化失败，尝试使用模拟引擎");
             
             // Pikafish不可用时会自动使用备用AI
-            System.out.println("⚠️ Pikafish引擎不可用，将使用增强AI作为备用方案");
+            LOG.warn("⚠️ Pikafish引擎不可用，将使用增强AI作为备用方案");
             addToAILog("Pikafish引擎不可用，将使用增强AI作为备用方案");
             addToAILog("💡 提示：请参考 PIKAFISH_INSTALL.md 安装 Pikafish 引擎");
             
             // 不要将引擎设置为null，保持引用但标记为不可用
             // this.pikafishEngine = null; // 移除这行，避免空指针异常
         }
+        return initialized;
+    }
+    
+    /**
+     * 等待引擎预热完成并检查是否可用，预热尚未开始时在当前线程完成初始化
+     */
+    private boolean isEngineReady() {
+        if (pikafishEngine == null) {
+            return false;
+        }
+        try {
+            engineWarmup.get();
+        } catch (RuntimeException e) {
+            LOG.error("❌ Pikafish引擎预热失败: {}", e.getMessage());
+            return false;
+        }
+        return pikafishEngine.isAvailable();
     }
     
     /**
      * 获取最佳移动（国际象棋版本）
      */
     public Move getBestMove(com.example.chinesechess.core.InternationalChessBoard board) {
-        System.out.println("🧠 DeepSeek-Pikafish混合AI思考中...");
+        LOG.info("🧠 DeepSeek-Pikafish混合AI思考中...");
         
         try {
             // 转换为FEN格式（国际象棋）
@@ -161,16 +184,16 @@ public class DeepSeekPikafishAI {
                 // 将走法添加到历史记录
                 addMoveToHistory(finalMove);
                 
-                System.out.println("✅ 国际象棋AI选择走法: " + finalMove);
+                LOG.info("✅ 国际象棋AI选择走法: {}", finalMove);
                 return move;
             }
             
         } catch (Exception e) {
-            System.err.println("❌ 混合AI计算失败: " + e.getMessage());
+            LOG.error("❌ 混合AI计算失败: {}", e.getMessage());
         }
         
         // 降级到传统国际象棋AI
-        System.out.println("🔄 降级使用传统国际象棋AI");
+        LOG.info("🔄 降级使用传统国际象棋AI");
         char aiColorChar = (aiColor == com.example.chinesechess.core.PieceColor.RED) ? 
             com.example.chinesechess.core.InternationalChessBoard.WHITE : 
             com.example.chinesechess.core.InternationalChessBoard.BLACK;
@@ -191,21 +214,21 @@ public class DeepSeekPikafishAI {
      * 获取最佳移动（中国象棋版本）- 优化版本，优先使用Pikafish引擎
      */
     public Move getBestMove(Board board) {
-        System.out.println("🧠 DeepSeek-Pikafish混合AI思考中...");
+        LOG.info("🧠 DeepSeek-Pikafish混合AI思考中...");
         
         try {
             // 转换为FEN格式
             String fen = FenConverter.boardToFen(board, aiColor);
-            System.out.println("🔍 [调试] FEN: " + fen);
+            LOG.debug("🔍 [调试] FEN: {}", fen);
             
             int thinkTime = thinkTimes[difficulty - 1];
             
             // 优先尝试Pikafish引擎
-            if (pikafishEngine != null && pikafishEngine.isAvailable()) {
-                System.out.println("🐟 优先使用Pikafish引擎计算");
+            if (isEngineReady()) {
+                LOG.info("🐟 优先使用Pikafish引擎计算");
                 
                 String engineMove = getPikafishMove(fen, thinkTime);
-                System.out.println("🔍 [调试] Pikafish引擎返回: " + engineMove);
+                LOG.debug("🔍 [调试] Pikafish引擎返回: {}", engineMove);
                 
                 if (engineMove != null) {
                     // 检查是否会导致循环走法
@@ -215,18 +238,18 @@ public class DeepSeekPikafishAI {
                             // 将走法添加到历史记录
                             addMoveToHistory(engineMove);
                             
-                            System.out.println("✅ Pikafish引擎选择走法: " + engineMove);
+                            LOG.info("✅ Pikafish引擎选择走法: {}", engineMove);
                             return move;
                         }
                     } else {
-                        System.out.println("🔄 检测到循环走法，尝试获取替代走法");
+                        LOG.info("🔄 检测到循环走法，尝试获取替代走法");
                         List<String> candidateMoves = getCandidateMovesFromPikafish(fen, 5);
                         for (String candidate : candidateMoves) {
                             if (!isRepetitiveMove(candidate)) {
                                 Move move = convertUciToMove(candidate, board);
                                 if (move != null) {
                                     addMoveToHistory(candidate);
-                                    System.out.println("✅ 找到替代走法: " + candidate);
+                                    LOG.info("✅ 找到替代走法: {}", candidate);
                                     return move;
                                 }
                             }
@@ -234,20 +257,20 @@ public class DeepSeekPikafishAI {
                     }
                 }
             } else {
-                System.out.println("⚠️ Pikafish引擎不可用");
+                LOG.warn("⚠️ Pikafish引擎不可用");
             }
             
             // 如果Pikafish不可用或没有返回有效走法，可选地尝试DeepSeek评估
             // 但由于DeepSeek经常超时，我们直接跳到备用AI
-            System.out.println("🔍 [调试] Pikafish引擎无结果，跳过DeepSeek评估，直接使用备用AI");
+            LOG.debug("🔍 [调试] Pikafish引擎无结果，跳过DeepSeek评估，直接使用备用AI");
             
         } catch (Exception e) {
-            System.err.println("❌ 混合AI计算失败: " + e.getMessage());
+            LOG.error("❌ 混合AI计算失败: {}", e.getMessage());
             e.printStackTrace();
         }
         
         // 降级到备用AI
-        System.out.println("🔄 降级使用增强AI");
+        LOG.info("🔄 降级使用增强AI");
         return fallbackAI.getBestMove(board);
     }
 
@@ -257,7 +280,7 @@ public class DeepSeekPikafishAI {
      * 使用Pikafish引擎获取走法
      */
     private String getPikafishMove(String fen, int thinkTime) {
-        if (pikafishEngine == null || !pikafishEngine.isAvailable()) {
+        if (!isEngineReady()) {
             return null;
         }
         
@@ -270,7 +293,7 @@ public class DeepSeekPikafishAI {
         addToAILog("=== Pikafish引擎决策结束 ===");
         
         if (move != null) {
-            System.out.println("Pikafish引擎计算完成，用时: " + (endTime - startTime) + "ms，走法: " + move);
+            LOG.info("Pikafish引擎计算完成，用时: {}ms，走法: {}", (endTime - startTime), move);
         }
         
         return move;
@@ -281,25 +304,27 @@ public class DeepSeekPikafishAI {
      */
     private double evaluatePositionWithDeepSeek(String fen) {
         try {
-            System.out.println("🔍 [调试] 开始DeepSeek评估...");
+            LOG.debug("🔍 [调试] 开始DeepSeek评估...");
             long startTime = System.currentTimeMillis();
             
             String prompt = buildEvaluationPrompt(fen);
             String response = callDeepSeekModel(prompt);
             
             long endTime = System.currentTimeMillis();
-            System.out.println("🔍 [调试] DeepSeek评估完成，用时: " + (endTime - startTime) + "ms");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("🔍 [调试] DeepSeek评估完成，用时: {}ms", (endTime - startTime));
+            }
             
             if (response != null) {
                 double score = parseEvaluationScore(response);
-                System.out.println("🔍 [调试] DeepSeek评估分数: " + score);
+                LOG.debug("🔍 [调试] DeepSeek评估分数: {}", score);
                 return score;
             } else {
-                System.out.println("🔍 [调试] DeepSeek返回null，使用默认评估");
+                LOG.debug("🔍 [调试] DeepSeek返回null，使用默认评估");
             }
         } catch (Exception e) {
-            System.err.println("❌ DeepSeek-R1评估失败: " + e.getMessage());
-            System.out.println("🔍 [调试] DeepSeek评估异常，使用默认评估");
+            LOG.error("❌ DeepSeek-R1评估失败: {}", e.getMessage());
+            LOG.debug("🔍 [调试] DeepSeek评估异常，使用默认评估");
         }
         
         return 0.0; // 默认评估为平衡
@@ -367,7 +392,7 @@ public class DeepSeekPikafishAI {
                 }
             }
         } catch (IOException e) {
-            System.err.println("❌ DeepSeek模型调用失败: " + e.getMessage());
+            LOG.error("❌ DeepSeek模型调用失败: {}", e.getMessage());
         }
         
         return null;
@@ -389,7 +414,7 @@ public class DeepSeekPikafishAI {
             try {
                 return Double.parseDouble(matcher.group(1));
             } catch (NumberFormatException e) {
-                System.err.println("❌ 解析评估分数失败: " + matcher.group(1));
+                LOG.error("❌ 解析评估分数失败: {}", matcher.group(1));
             }
         }
         
@@ -422,7 +447,7 @@ public class DeepSeekPikafishAI {
         
         // 检查是否会导致循环走法
         if (isRepetitiveMove(engineMove)) {
-            System.out.println("🔄 检测到潜在循环走法: " + engineMove + "，尝试获取替代走法");
+            LOG.info("🔄 检测到潜在循环走法: {}，尝试获取替代走法", engineMove);
             
             // 尝试获取多个候选走法
             List<String> candidateMoves = getCandidateMovesFromPikafish(fen, 5);
@@ -430,12 +455,12 @@ public class DeepSeekPikafishAI {
             // 寻找非重复的走法
             for (String candidate : candidateMoves) {
                 if (!isRepetitiveMove(candidate)) {
-                    System.out.println("✅ 找到替代走法: " + candidate);
+                    LOG.info("✅ 找到替代走法: {}", candidate);
                     return candidate;
                 }
             }
             
-            System.out.println("⚠️ 未找到非重复走法，使用原始走法但清空历史记录");
+            LOG.warn("⚠️ 未找到非重复走法，使用原始走法但清空历史记录");
             moveHistory.clear();  // 清空历史记录以打破僵局
         }
         
@@ -478,7 +503,7 @@ public class DeepSeekPikafishAI {
                     analysisResults.add(analysis);
                 }
             } catch (Exception e) {
-                System.err.println("分析走法时出错: " + moveUci + ", " + e.getMessage());
+                LOG.error("分析走法时出错: {}, {}", moveUci, e.getMessage());
             }
         }
         return analysisResults;
@@ -501,7 +526,10 @@ public class DeepSeekPikafishAI {
             "综合评估: [综合评估]",
             originalFen, moveUci, nextFen, moveUci);
 
-        return callDeepSeekModel(prompt);
+        // 同一局面的同一走法评注可直接复用缓存
+        return LLMResponseCache.getInstance().getOrLoad(
+            modelName, LLMResponseCache.TEMPLATE_MOVE_COMMENTARY, originalFen, moveUci,
+            () -> callDeepSeekModel(prompt));
     }
 
     
@@ -547,7 +575,7 @@ public class DeepSeekPikafishAI {
                 moveHistory.remove(0);
             }
             
-            System.out.println("📝 走法历史: " + moveHistory);
+            LOG.info("📝 走法历史: {}", moveHistory);
         }
     }
     
@@ -556,31 +584,33 @@ public class DeepSeekPikafishAI {
      */
     private Move convertUciToMove(String uci, Board board) {
         if (uci == null) {
-            System.out.println("🔍 [调试] UCI为null，无法转换");
+            LOG.debug("🔍 [调试] UCI为null，无法转换");
             return null;
         }
         
         try {
-            System.out.println("🔍 [调试] 开始转换UCI: " + uci);
+            LOG.debug("🔍 [调试] 开始转换UCI: {}", uci);
             
             // 验证UCI格式
             if (uci.length() != 4) {
-                System.out.println("❌ [调试] UCI格式错误，长度不为4: " + uci);
+                LOG.debug("❌ [调试] UCI格式错误，长度不为4: {}", uci);
                 return null;
             }
             
             Position[] positions = FenConverter.uciToMove(uci);
-            System.out.println("🔍 [调试] FenConverter.uciToMove结果: " + (positions != null ? "成功" : "失败"));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("🔍 [调试] FenConverter.uciToMove结果: {}", (positions != null ? "成功" : "失败"));
+            }
             
             if (positions != null && positions.length == 2) {
                 Position from = positions[0];
                 Position to = positions[1];
                 
-                System.out.println("🔍 [调试] 转换后坐标: " + from + " -> " + to);
+                LOG.debug("🔍 [调试] 转换后坐标: {} -> {}", from, to);
                 
                 // 检查坐标范围
                 if (!isValidPosition(from) || !isValidPosition(to)) {
-                    System.out.println("❌ [调试] 坐标超出棋盘范围: " + from + " -> " + to);
+                    LOG.debug("❌ [调试] 坐标超出棋盘范围: {} -> {}", from, to);
                     return null;
                 }
                 
@@ -588,7 +618,9 @@ public class DeepSeekPikafishAI {
                 
                 // 增强的走法验证
                 boolean isValid = isValidMoveEnhanced(move, board, uci);
-                System.out.println("🔍 [调试] 走法验证结果: " + (isValid ? "合法" : "不合法"));
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("🔍 [调试] 走法验证结果: {}", (isValid ? "合法" : "不合法"));
+                }
                 
                 if (isValid) {
                     return move;
@@ -596,16 +628,16 @@ public class DeepSeekPikafishAI {
                     // 如果验证失败，尝试使用所有可能走法进行匹配
                     Move fallbackMove = findMoveByUCI(uci, board);
                     if (fallbackMove != null) {
-                        System.out.println("✅ [调试] 通过备用方法找到合法走法: " + uci);
+                        LOG.debug("✅ [调试] 通过备用方法找到合法走法: {}", uci);
                         return fallbackMove;
                     }
-                    System.out.println("❌ [调试] 走法验证失败且无备用方案: " + uci);
+                    LOG.debug("❌ [调试] 走法验证失败且无备用方案: {}", uci);
                 }
             } else {
-                System.out.println("❌ [调试] FenConverter.uciToMove返回无效结果");
+                LOG.debug("❌ [调试] FenConverter.uciToMove返回无效结果");
             }
         } catch (Exception e) {
-            System.err.println("❌ UCI转换失败: " + e.getMessage());
+            LOG.error("❌ UCI转换失败: {}", e.getMessage());
             e.printStackTrace();
         }
         
@@ -630,20 +662,22 @@ public class DeepSeekPikafishAI {
             // 检查起始位置是否有棋子
             Piece piece = board.getPiece(start.getX(), start.getY());
             if (piece == null) {
-                System.out.println("❌ [验证] 起始位置无棋子: " + start + " (UCI: " + originalUci + ")");
+                LOG.debug("❌ [验证] 起始位置无棋子: {} (UCI: {})", start, originalUci);
                 return false;
             }
             
             // 检查棋子颜色是否正确
             if (piece.getColor() != aiColor) {
-                System.out.println("❌ [验证] 棋子颜色不匹配: " + piece.getColor() + " vs " + aiColor + " (UCI: " + originalUci + ")");
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("❌ [验证] 棋子颜色不匹配: {} vs {} (UCI: {})", piece.getColor(), aiColor, originalUci);
+                }
                 return false;
             }
             
             // 检查目标位置是否可以移动到
             Piece targetPiece = board.getPiece(end.getX(), end.getY());
             if (targetPiece != null && targetPiece.getColor() == aiColor) {
-                System.out.println("❌ [验证] 目标位置有同方棋子: " + end + " (UCI: " + originalUci + ")");
+                LOG.debug("❌ [验证] 目标位置有同方棋子: {} (UCI: {})", end, originalUci);
                 return false;
             }
             
@@ -651,15 +685,21 @@ public class DeepSeekPikafishAI {
             try {
                 boolean pieceValidation = piece.isValidMove(board, start, end);
                 if (!pieceValidation) {
-                    System.out.println("❌ [验证] 棋子移动规则验证失败: " + piece.getChineseName() + " " + start + "->" + end + " (UCI: " + originalUci + ")");
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("❌ [验证] 棋子移动规则验证失败: {} {}->{} (UCI: {})", piece.getChineseName(), start, end, originalUci);
+                    }
                 }
                 return pieceValidation;
             } catch (Exception e) {
-                System.out.println("⚠️ [验证] 棋子验证异常，但允许通过: " + e.getMessage() + " (UCI: " + originalUci + ")");
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("⚠️ [验证] 棋子验证异常，但允许通过: {} (UCI: {})", e.getMessage(), originalUci);
+                }
                 return true; // 如果验证方法本身有问题，允许走法通过
             }
         } catch (Exception e) {
-            System.out.println("❌ [验证] 增强验证异常: " + e.getMessage() + " (UCI: " + originalUci + ")");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("❌ [验证] 增强验证异常: {} (UCI: {})", e.getMessage(), originalUci);
+            }
             return false;
         }
     }
@@ -673,12 +713,14 @@ public class DeepSeekPikafishAI {
             for (Move move : allPossibleMoves) {
                 String moveUci = FenConverter.moveToUci(move.getStart(), move.getEnd());
                 if (uci.equals(moveUci)) {
-                    System.out.println("✅ [备用] 在可能走法中找到匹配: " + uci);
+                    LOG.debug("✅ [备用] 在可能走法中找到匹配: {}", uci);
                     return move;
                 }
             }
         } catch (Exception e) {
-            System.out.println("❌ [备用] 备用查找失败: " + e.getMessage());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("❌ [备用] 备用查找失败: {}", e.getMessage());
+            }
         }
         return null;
     }
@@ -778,9 +820,10 @@ public class DeepSeekPikafishAI {
         
         enhancedTime = Math.max(minTime, Math.min(enhancedTime, maxTime));
         
-        System.out.println(String.format(
-            "🎯 智能思考时间计算: 难度%d, 基础时间%dms, 倍数%.1f, 最终时间%dms", 
-            difficulty, baseTime, multiplier, enhancedTime));
+        if (LOG.isInfoEnabled()) {
+            LOG.info(String.format("🎯 智能思考时间计算: 难度%d, 基础时间%dms, 倍数%.1f, 最终时间%dms",
+                difficulty, baseTime, multiplier, enhancedTime));
+        }
         
         return enhancedTime;
     }
@@ -810,7 +853,7 @@ public class DeepSeekPikafishAI {
      * 检查Pikafish引擎是否可用
      */
     public boolean isPikafishAvailable() {
-        return pikafishEngine.isAvailable();
+        return isEngineReady();
     }
     
     /**
@@ -824,7 +867,8 @@ public class DeepSeekPikafishAI {
         status.append("- 模型: ").append(modelName).append("\n");
         status.append("- Pikafish: ").append(isPikafishAvailable() ? "可用" : "不可用").append("\n");
         status.append("- 引擎权重: ").append(String.format("%.1f", engineWeight)).append("\n");
-        status.append("- 模型权重: ").append(String.format("%.1f", modelWeight));
+        status.append("- 模型权重: ").append(String.format("%.1f", modelWeight)).append("\n");
+        status.append(LLMResponseCache.getInstance().getStatisticsReport());
         
         return status.toString();
     }
@@ -834,8 +878,10 @@ public class DeepSeekPikafishAI {
      */
     public void shutdown() {
         try {
-            if (pikafishEngine != null) {
-                pikafishEngine.quit();
+            // 预热尚未开始则直接取消；正在预热则等它结束后再关闭，避免留下孤儿进程
+            if (pikafishEngine != null && !engineWarmup.cancel()) {
+                PikafishEngine engine = pikafishEngine;
+                engineWarmup.start().whenComplete((ok, error) -> engine.quit());
             }
             
             if (httpClient != null) {
@@ -843,9 +889,9 @@ public class DeepSeekPikafishAI {
                 httpClient.connectionPool().evictAll();
             }
             
-            System.out.println("🔄 DeepSeek-Pikafish AI资源已释放");
+            LOG.info("🔄 DeepSeek-Pikafish AI资源已释放");
         } catch (Exception e) {
-            System.err.println("❌ 关闭资源时出错: " + e.getMessage());
+            LOG.error("❌ 关闭资源时出错: {}", e.getMessage());
         }
     }
     
@@ -864,12 +910,11 @@ public class DeepSeekPikafishAI {
      * 添加AI决策日志
      */
     private void addToAILog(String message) {
-        // 同时输出到控制台和AI日志面板
-        String logMessage = "🐟 [Pikafish] " + message;
-        System.out.println(logMessage);
+        // 引擎每个深度都会回调，控制台副本由引擎输出日志开关控制，AI日志面板照常显示
+        ENGINE_LOG.debug("🐟 [Pikafish] {}", message);
         
         if (aiLogPanel != null && aiLogPanel.isLogEnabled()) {
-            aiLogPanel.addAIDecision(logMessage);
+            aiLogPanel.addAIDecision("🐟 [Pikafish] " + message);
         }
     }
     
@@ -878,7 +923,7 @@ public class DeepSeekPikafishAI {
      */
     public String evaluateGameAndGiveAdvice(Board board, PieceColor playerColor) {
         try {
-            System.out.println("🔍 Pikafish开始评估棋局...");
+            LOG.info("🔍 Pikafish开始评估棋局...");
             
             // 转换为FEN格式
             String fen = FenConverter.boardToFen(board, playerColor);
@@ -917,7 +962,7 @@ public class DeepSeekPikafishAI {
             return advice.toString();
             
         } catch (Exception e) {
-            System.err.println("❌ Pikafish评估失败: " + e.getMessage());
+            LOG.error("❌ Pikafish评估失败: {}", e.getMessage());
             return "❌ 抱歉，Pikafish引擎暂时无法分析当前棋局。请检查引擎状态。";
         }
     }
@@ -930,7 +975,7 @@ public class DeepSeekPikafishAI {
      */
     public EvaluationResult evaluateGameWithDetails(Board board, PieceColor playerColor) {
         try {
-            System.out.println("🔍 Pikafish开始详细评估棋局...");
+            LOG.info("🔍 Pikafish开始详细评估棋局...");
             
             // 转换为FEN格式
             String fen = FenConverter.boardToFen(board, playerColor);
@@ -985,7 +1030,7 @@ public class DeepSeekPikafishAI {
             return result;
             
         } catch (Exception e) {
-            System.err.println("❌ Pikafish详细评估失败: " + e.getMessage());
+            LOG.error("❌ Pikafish详细评估失败: {}", e.getMessage());
             EvaluationResult errorResult = new EvaluationResult();
             errorResult.setAdviceText("❌ 抱歉，Pikafish引擎暂时无法分析当前棋局。请检查引擎状态。");
             return errorResult;
@@ -1017,7 +1062,7 @@ public class DeepSeekPikafishAI {
                 }
             }
         } catch (Exception e) {
-            System.err.println("❌ 解析推荐走法失败: " + uciMove + ", " + e.getMessage());
+            LOG.error("❌ 解析推荐走法失败: {}, {}", uciMove, e.getMessage());
         }
         return null;
     }
@@ -1080,7 +1125,7 @@ public class DeepSeekPikafishAI {
      * 使用Pikafish引擎深度分析局面（增强版本）
      */
     private String analyzePositionWithPikafish(String fen, int timeMs) {
-        if (pikafishEngine == null || !pikafishEngine.isAvailable()) {
+        if (!isEngineReady()) {
             addToAILog("⚠️ Pikafish引擎不可用，无法分析局面");
             return null;
         }
@@ -1125,7 +1170,7 @@ public class DeepSeekPikafishAI {
      * 获取Pikafish引擎的候选走法（增强版本）
      */
     private List<String> getCandidateMovesFromPikafish(String fen, int count) {
-        if (pikafishEngine == null || !pikafishEngine.isAvailable()) {
+        if (!isEngineReady()) {
             addToAILog("⚠️ Pikafish引擎不可用，无法获取候选走法");
             return new ArrayList<>();
         }
@@ -1223,6 +1268,12 @@ public class DeepSeekPikafishAI {
             return "走法格式错误";
         }
         
+        // 优先使用进程内记谱翻译器（含前后车等同列消歧）
+        String notation = ChineseNotationTranslator.toChinese(uciMove, board);
+        if (notation != null) {
+            return notation;
+        }
+        
         try {
             // 使用FenConverter正确解析UCI坐标
             Position fromPos = FenConverter.uciToPosition(uciMove.substring(0, 2));
@@ -1284,7 +1335,7 @@ public class DeepSeekPikafishAI {
                         }
                     }
                 } catch (Exception e) {
-                    System.err.println("语义增强失败: " + e.getMessage());
+                    LOG.error("语义增强失败: {}", e.getMessage());
                 }
             }
         }
@@ -1304,12 +1355,15 @@ public class DeepSeekPikafishAI {
             String actionDesc = "";
             switch (parsed.getAction()) {
                 case "forward":
+                case "进":
                     actionDesc = "(向前移动)";
                     break;
                 case "backward":
+                case "退":
                     actionDesc = "(向后移动)";
                     break;
                 case "horizontal":
+                case "平":
                     actionDesc = "(横向移动)";
                     break;
             }
@@ -1610,7 +1664,7 @@ public class DeepSeekPikafishAI {
                 return move;
             }
         } catch (Exception e) {
-            System.err.println("❌ 国际象棋UCI转换失败: " + e.getMessage());
+            LOG.error("❌ 国际象棋UCI转换失败: {}", e.getMessage());
         }
         
         return null;
@@ -1,6 +1,7 @@
 package com.example.chinesechess.ai;
 
 import com.example.chinesechess.core.*;
+import com.example.common.utils.Logger;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -10,6 +11,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class EnhancedChessAI {
     
+    private static final Logger.Category LOG = Logger.aiCategory("EnhancedChessAI");
+    
     private final PieceColor aiColor;
     private final int maxDepth;
     private final TranspositionTable transTable;
@@ -17,6 +20,38 @@ public class EnhancedChessAI {
     private final Map<Class<? extends Piece>, Integer> pieceValues;
     private final Map<Class<? extends Piece>, int[][]> positionTables;
     
+    // 最近一次根节点多主变搜索结果，供走法提示直接复用
+    private volatile MultiPVResult lastAnalysis;
+    // AI走棋后对手局面的多主变结果，对手请求提示时直接返回
+    private volatile MultiPVResult replyAnalysis;
+    private boolean prefetchReplyHints = false;
+    private int multiPv = DEFAULT_MULTI_PV;
+    // 置换表条目上限，服务器托管多个AI时由调度器按内存预算分配
+    private volatile int maxTtEntries = MAX_TT_ENTRIES;
+    
+    // 多主变搜索参数
+    private static final int DEFAULT_MULTI_PV = 3;
+    private static final int HINT_DEPTH = 4;
+    private static final long REPLY_PREFETCH_MS = 800;
+    private static final int MAX_PLY = 64;
+    private static final int MAX_TT_ENTRIES = 1 << 20;
+    
+    // Zobrist哈希随机数：[棋子种类*2+颜色][行][列]
+    private static final long[][][] ZOBRIST = new long[14][10][9];
+    private static final long SIDE_TO_MOVE_KEY;
+    
+    static {
+        Random random = new Random(0x5EEDC0DEL);
+        for (long[][] table : ZOBRIST) {
+            for (long[] row : table) {
+                for (int col = 0; col < row.length; col++) {
+                    row[col] = random.nextLong();
+                }
+            }
+        }
+        SIDE_TO_MOVE_KEY = random.nextLong();
+    }
+    
     // 评估权重
     private static final int MOBILITY_WEIGHT = 10;
     private static final int SAFETY_WEIGHT = 15;
@@ -32,6 +67,20 @@ public class EnhancedChessAI {
         this.positionTables = initializePositionTables();
     }
     
+    /**
+     * 设置置换表条目上限，超过上限时在下一次搜索开始前清空
+     */
+    public void setTranspositionTableLimit(int maxEntries) {
+        this.maxTtEntries = Math.max(1024, Math.min(maxEntries, MAX_TT_ENTRIES));
+    }
+    
+    /**
+     * 当前置换表条目数
+     */
+    public int getTranspositionTableSize() {
+        return transTable.size();
+    }
+    
     /**
      * 获取AI的颜色
      */
@@ -43,60 +92,269 @@ public class EnhancedChessAI {
      * 获取AI的最佳移动
      */
     public Move getBestMove(Board board) {
-        System.out.println("🧠 增强AI思考中...");
+        return getBestMove(board, CancellationToken.none());
+    }
+    
+    /**
+     * 获取AI的最佳移动（可取消）
+     * 取消后停止当前深度的搜索，返回最近一个完整深度的结果
+     */
+    public Move getBestMove(Board board, CancellationToken token) {
+        LOG.info("🧠 增强AI思考中...");
         long startTime = System.currentTimeMillis();
         
         // 1. 检查开局库
         Move openingMove = openingBook.getOpeningMove(board, aiColor);
         if (openingMove != null) {
-            System.out.println("📚 使用开局库走法: " + formatMove(openingMove));
+            if (LOG.isInfoEnabled()) {
+                LOG.info("📚 使用开局库走法: {}", formatMove(openingMove));
+            }
+            prefetchReplyAnalysis(board, openingMove, token);
             return openingMove;
         }
         
-        // 2. 迭代加深搜索
-        Move bestMove = null;
-        int bestScore = Integer.MIN_VALUE;
+        // 2. 迭代加深搜索（根节点保留前K个候选，结果同时用于走法提示）
+        MultiPVResult result = iterativeDeepening(board, aiColor, multiPv, maxDepth, token, Long.MAX_VALUE, true);
+        Move bestMove = result != null ? result.getBestMove() : null;
+        int bestScore = result != null ? result.getBestScore() : Integer.MIN_VALUE;
         
-        for (int depth = 1; depth <= maxDepth; depth++) {
-            System.out.print("🔍 搜索深度 " + depth + "...");
-            
-            SearchResult result = alphaBetaSearch(board, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
-            if (result.move != null) {
-                bestMove = result.move;
-                bestScore = result.score;
-                System.out.println(" 最佳走法: " + formatMove(bestMove) + " (评分: " + bestScore + ")");
-            } else {
-                System.out.println(" 无有效走法");
+        long endTime = System.currentTimeMillis();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("⏱️  思考时间: {}ms, 💡 最终决策: {} (评分: {})", endTime - startTime, formatMove(bestMove), bestScore);
+        }
+        
+        prefetchReplyAnalysis(board, bestMove, token);
+        return bestMove;
+    }
+    
+    /**
+     * 预先分析AI走棋后对手面对的局面，对手请求提示时不必重新搜索
+     * 复用刚搜索过的置换表，并限定在REPLY_PREFETCH_MS内，保留最近一个完整深度的结果
+     */
+    private void prefetchReplyAnalysis(Board board, Move aiMove, CancellationToken token) {
+        if (!prefetchReplyHints || aiMove == null || token.isCancelled()) {
+            return;
+        }
+        Board afterMove = copyBoard(board);
+        afterMove.movePiece(aiMove.getStart(), aiMove.getEnd());
+        MultiPVResult reply = iterativeDeepening(afterMove, getOpponentColor(aiColor), Math.max(multiPv, DEFAULT_MULTI_PV),
+                Math.min(maxDepth, HINT_DEPTH), token, System.currentTimeMillis() + REPLY_PREFETCH_MS, false);
+        if (reply != null) {
+            replyAnalysis = reply;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("💡 已预分析对手局面，预计应着: {}", formatMove(reply.getBestMove()));
+            }
+        }
+    }
+    
+    /**
+     * 获取指定走棋方的前K个候选走法（含评分和主要变例）
+     * 若AI走棋时的预分析或最近一次搜索正是该局面则直接返回，否则以较浅深度搜索并复用置换表
+     */
+    public MultiPVResult getHints(Board board, PieceColor sideToMove, int count) {
+        long hash = getBoardHash(board, sideToMove == aiColor);
+        for (MultiPVResult cached : new MultiPVResult[] {replyAnalysis, lastAnalysis}) {
+            if (cached != null && cached.positionHash == hash && cached.sideToMove == sideToMove
+                    && cached.candidates.size() >= Math.min(count, cached.legalMoveCount)) {
+                return cached.limit(count);
+            }
+        }
+        return analyzeTopMoves(board, sideToMove, count, Math.min(maxDepth, HINT_DEPTH), CancellationToken.none());
+    }
+    
+    /**
+     * 多主变搜索：返回指定走棋方的前K个候选走法
+     * 
+     * @param board 当前局面
+     * @param sideToMove 走棋方
+     * @param count 候选走法数量K
+     * @param depth 最大搜索深度
+     * @param token 取消令牌，取消后返回最近一个完整深度的结果
+     * @return 搜索结果，无合法走法时返回null
+     */
+    public MultiPVResult analyzeTopMoves(Board board, PieceColor sideToMove, int count, int depth,
+                                         CancellationToken token) {
+        return iterativeDeepening(board, sideToMove, Math.max(1, count), Math.max(1, depth), token, Long.MAX_VALUE, false);
+    }
+    
+    /**
+     * 最近一次完成的多主变搜索结果
+     */
+    public MultiPVResult getLastAnalysis() {
+        return lastAnalysis;
+    }
+    
+    /**
+     * 设置AI自身搜索时保留的候选走法数量，1表示普通的单主变搜索
+     */
+    public void setMultiPv(int multiPv) {
+        this.multiPv = Math.max(1, multiPv);
+    }
+    
+    /**
+     * 设置AI走棋后是否预先分析对手局面，供人机对局中玩家请求提示时直接使用
+     */
+    public void setPrefetchReplyHints(boolean prefetchReplyHints) {
+        this.prefetchReplyHints = prefetchReplyHints;
+    }
+    
+    /**
+     * 迭代加深的多主变根节点搜索
+     */
+    private MultiPVResult iterativeDeepening(Board board, PieceColor sideToMove, int count, int depthLimit,
+                                             CancellationToken token, long deadline, boolean verbose) {
+        long startTime = System.currentTimeMillis();
+        if (transTable.size() > maxTtEntries) {
+            transTable.clear();
+        }
+        
+        boolean rootMaximizing = sideToMove == aiColor;
+        List<Move> rootMoves = getAllPossibleMoves(board, sideToMove);
+        if (rootMoves.isEmpty()) {
+            return null;
+        }
+        rootMoves = sortMoves(rootMoves, board);
+        
+        SearchContext context = new SearchContext(token, deadline);
+        long hash = getBoardHash(board, rootMaximizing);
+        MultiPVResult best = null;
+        
+        // 每个深度的日志只在开启AI调试日志时输出，关闭时不做任何格式化
+        boolean trace = verbose && LOG.isDebugEnabled();
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            List<CandidateMove> candidates;
+            try {
+                candidates = searchRoot(board, rootMoves, depth, rootMaximizing, count, context);
+            } catch (SearchCancelledException e) {
+                if (trace) {
+                    LOG.debug("🔍 搜索深度 {}... 已取消", depth);
+                }
                 break;
             }
             
+            best = new MultiPVResult(sideToMove, depth, toSidePerspective(candidates, rootMaximizing),
+                    rootMoves.size(), hash, System.currentTimeMillis() - startTime);
+            if (trace) {
+                LOG.debug("🔍 搜索深度 {}... 最佳走法: {} (评分: {})",
+                        depth, formatMove(best.getBestMove()), candidates.get(0).score);
+            }
+            
             // 如果找到必胜走法，提前结束
-            if (Math.abs(bestScore) > 9000) {
-                System.out.println("🎯 发现决定性走法，提前结束搜索");
+            if (Math.abs(candidates.get(0).score) > 9000) {
+                if (trace) {
+                    LOG.debug("🎯 发现决定性走法，提前结束搜索");
+                }
                 break;
             }
         }
         
-        long endTime = System.currentTimeMillis();
-        System.out.println("⏱️  思考时间: " + (endTime - startTime) + "ms");
-        System.out.println("💡 最终决策: " + formatMove(bestMove) + " (评分: " + bestScore + ")");
+        if (best != null) {
+            lastAnalysis = best;
+        }
+        return best;
+    }
+    
+    /**
+     * 根节点搜索：保留前K个精确评分的候选走法
+     * 第K名的分数作为剪枝窗口，其余走法只需证明不优于第K名
+     * 搜索完成后按本层评分重排根走法，作为下一层的走法顺序
+     */
+    private List<CandidateMove> searchRoot(Board board, List<Move> rootMoves, int depth, boolean rootMaximizing,
+                                           int count, SearchContext context) {
+        List<CandidateMove> candidates = new ArrayList<>();
+        Map<Move, Integer> rootScores = new HashMap<>();
         
-        return bestMove;
+        for (Move move : rootMoves) {
+            Board tempBoard = copyBoard(board);
+            tempBoard.movePiece(move.getStart(), move.getEnd());
+            
+            boolean full = candidates.size() >= count;
+            int threshold = full ? candidates.get(candidates.size() - 1).score : 0;
+            int alpha = rootMaximizing && full ? threshold : Integer.MIN_VALUE;
+            int beta = !rootMaximizing && full ? threshold : Integer.MAX_VALUE;
+            
+            SearchResult result = alphaBetaSearch(tempBoard, depth - 1, 1, alpha, beta, !rootMaximizing, context);
+            rootScores.put(move, result.score);
+            
+            boolean better = rootMaximizing ? result.score > threshold : result.score < threshold;
+            if (!full || better) {
+                List<Move> pv = new ArrayList<>();
+                pv.add(move);
+                for (int i = 1; i < context.pvLength[1]; i++) {
+                    pv.add(context.pvTable[1][i]);
+                }
+                insertCandidate(candidates, new CandidateMove(move, result.score, pv), rootMaximizing, count);
+            }
+        }
+        
+        rootMoves.sort((a, b) -> rootMaximizing
+                ? Integer.compare(rootScores.get(b), rootScores.get(a))
+                : Integer.compare(rootScores.get(a), rootScores.get(b)));
+        return candidates;
+    }
+    
+    /**
+     * 按评分插入候选列表并截断到K个
+     */
+    private void insertCandidate(List<CandidateMove> candidates, CandidateMove candidate,
+                                 boolean rootMaximizing, int count) {
+        int index = 0;
+        while (index < candidates.size()) {
+            int score = candidates.get(index).score;
+            if (rootMaximizing ? candidate.score > score : candidate.score < score) {
+                break;
+            }
+            index++;
+        }
+        candidates.add(index, candidate);
+        if (candidates.size() > count) {
+            candidates.remove(candidates.size() - 1);
+        }
+    }
+    
+    /**
+     * 评分统一转换为走棋方视角（正数表示走棋方占优）
+     */
+    private List<CandidateMove> toSidePerspective(List<CandidateMove> candidates, boolean rootMaximizing) {
+        if (rootMaximizing) {
+            return new ArrayList<>(candidates);
+        }
+        List<CandidateMove> converted = new ArrayList<>(candidates.size());
+        for (CandidateMove candidate : candidates) {
+            int score = candidate.score == Integer.MIN_VALUE ? Integer.MAX_VALUE : -candidate.score;
+            converted.add(new CandidateMove(candidate.move, score, candidate.principalVariation));
+        }
+        return converted;
     }
     
     /**
      * Alpha-Beta搜索算法
      */
-    private SearchResult alphaBetaSearch(Board board, int depth, int alpha, int beta, boolean isMaximizing) {
-        long boardHash = getBoardHash(board);
+    private SearchResult alphaBetaSearch(Board board, int depth, int ply, int alpha, int beta, boolean isMaximizing,
+                                         SearchContext context) {
+        if (context.token.isCancelled() || context.pastDeadline()) {
+            throw SearchCancelledException.INSTANCE;
+        }
+        context.pvLength[ply] = ply;
+        long boardHash = getBoardHash(board, isMaximizing);
+        int originalAlpha = alpha;
+        int originalBeta = beta;
         
-        // 查询置换表
+        // 查询置换表（上下界只在能确定剪枝时使用）
         TranspositionEntry entry = transTable.probe(boardHash);
         if (entry != null && entry.depth >= depth) {
-            return new SearchResult(entry.move, entry.score);
+            if (entry.bound == TranspositionEntry.EXACT
+                    || (entry.bound == TranspositionEntry.LOWER && entry.score >= beta)
+                    || (entry.bound == TranspositionEntry.UPPER && entry.score <= alpha)) {
+                if (entry.move != null && ply + 1 < MAX_PLY) {
+                    context.pvTable[ply][ply] = entry.move;
+                    context.pvLength[ply] = ply + 1;
+                }
+                return new SearchResult(entry.move, entry.score);
+            }
         }
         
-        if (depth == 0) {
+        if (depth == 0 || ply >= MAX_PLY - 1) {
             int score = enhancedEvaluateBoard(board);
             return new SearchResult(null, score);
         }
@@ -120,18 +378,20 @@ public class EnhancedChessAI {
             Board tempBoard = copyBoard(board);
             tempBoard.movePiece(move.getStart(), move.getEnd());
             
-            SearchResult result = alphaBetaSearch(tempBoard, depth - 1, alpha, beta, !isMaximizing);
+            SearchResult result = alphaBetaSearch(tempBoard, depth - 1, ply + 1, alpha, beta, !isMaximizing, context);
             
             if (isMaximizing) {
                 if (result.score > bestScore) {
                     bestScore = result.score;
                     bestMove = move;
+                    context.updatePv(ply, move);
                 }
                 alpha = Math.max(alpha, bestScore);
             } else {
                 if (result.score < bestScore) {
                     bestScore = result.score;
                     bestMove = move;
+                    context.updatePv(ply, move);
                 }
                 beta = Math.min(beta, bestScore);
             }
@@ -141,8 +401,16 @@ public class EnhancedChessAI {
             }
         }
         
-        // 存储到置换表
-        transTable.store(boardHash, depth, bestScore, bestMove);
+        // 存储到置换表，记录分数是精确值还是上下界
+        int bound;
+        if (bestScore <= originalAlpha) {
+            bound = TranspositionEntry.UPPER;
+        } else if (bestScore >= originalBeta) {
+            bound = TranspositionEntry.LOWER;
+        } else {
+            bound = TranspositionEntry.EXACT;
+        }
+        transTable.store(boardHash, depth, bestScore, bestMove, bound);
         
         return new SearchResult(bestMove, bestScore);
     }
@@ -505,6 +773,7 @@ public class EnhancedChessAI {
     
     private Board copyBoard(Board original) {
         Board copy = new Board();
+        copy.clearBoard(); // 新棋盘自带初始摆子，必须先清空，否则原局面中已走开的格子会残留棋子
         for (int row = 0; row < 10; row++) {
             for (int col = 0; col < 9; col++) {
                 Piece piece = original.getPiece(row, col);
@@ -531,20 +800,34 @@ public class EnhancedChessAI {
         return color == PieceColor.RED ? PieceColor.BLACK : PieceColor.RED;
     }
     
-    private long getBoardHash(Board board) {
-        // 简化的哈希函数
-        long hash = 0;
+    /**
+     * Zobrist局面哈希，只依赖棋子种类、颜色、位置和走棋方，
+     * 因此复制出来的棋盘和后续调用中的相同局面能命中同一置换表项
+     */
+    private long getBoardHash(Board board, boolean aiToMove) {
+        long hash = aiToMove ? SIDE_TO_MOVE_KEY : 0L;
         for (int row = 0; row < 10; row++) {
             for (int col = 0; col < 9; col++) {
                 Piece piece = board.getPiece(row, col);
                 if (piece != null) {
-                    hash = hash * 31 + piece.hashCode() + row * 9 + col;
+                    int index = pieceIndex(piece) * 2 + (piece.getColor() == PieceColor.RED ? 0 : 1);
+                    hash ^= ZOBRIST[index][row][col];
                 }
             }
         }
         return hash;
     }
     
+    private int pieceIndex(Piece piece) {
+        if (piece instanceof General) return 0;
+        if (piece instanceof Advisor) return 1;
+        if (piece instanceof Elephant) return 2;
+        if (piece instanceof Horse) return 3;
+        if (piece instanceof Chariot) return 4;
+        if (piece instanceof Cannon) return 5;
+        return 6;
+    }
+    
     private String formatMove(Move move) {
         if (move == null) return "无效移动";
         return String.format("从(%d,%d)到(%d,%d)", 
@@ -563,29 +846,152 @@ public class EnhancedChessAI {
         }
     }
     
+    /**
+     * 单次搜索的上下文：取消令牌和三角形主变表
+     * pvTable[ply]保存从第ply层开始的主要变例，子节点改进时整段拷贝到父节点
+     */
+    private static final class SearchContext {
+        final CancellationToken token;
+        final Move[][] pvTable = new Move[MAX_PLY][MAX_PLY];
+        final int[] pvLength = new int[MAX_PLY];
+        final long deadline;
+        int nodes;
+        
+        SearchContext(CancellationToken token, long deadline) {
+            this.token = token;
+            this.deadline = deadline;
+        }
+        
+        /**
+         * 每1024个节点检查一次截止时间，没有截止时间时不读时钟
+         */
+        boolean pastDeadline() {
+            return deadline != Long.MAX_VALUE && (++nodes & 1023) == 0 && System.currentTimeMillis() > deadline;
+        }
+        
+        void updatePv(int ply, Move move) {
+            pvTable[ply][ply] = move;
+            int childLength = pvLength[ply + 1];
+            for (int i = ply + 1; i < childLength; i++) {
+                pvTable[ply][i] = pvTable[ply + 1][i];
+            }
+            pvLength[ply] = Math.max(childLength, ply + 1);
+        }
+    }
+    
+    /**
+     * 根节点候选走法：评分为走棋方视角
+     */
+    public static class CandidateMove {
+        private final Move move;
+        private final int score;
+        private final List<Move> principalVariation;
+        
+        CandidateMove(Move move, int score, List<Move> principalVariation) {
+            this.move = move;
+            this.score = score;
+            this.principalVariation = Collections.unmodifiableList(principalVariation);
+        }
+        
+        public Move getMove() { return move; }
+        public int getScore() { return score; }
+        public List<Move> getPrincipalVariation() { return principalVariation; }
+    }
+    
+    /**
+     * 多主变搜索结果：按评分从高到低排列的前K个候选走法
+     */
+    public static class MultiPVResult {
+        private final PieceColor sideToMove;
+        private final int depth;
+        private final List<CandidateMove> candidates;
+        private final int legalMoveCount;
+        private final long positionHash;
+        private final long elapsedMillis;
+        
+        MultiPVResult(PieceColor sideToMove, int depth, List<CandidateMove> candidates,
+                      int legalMoveCount, long positionHash, long elapsedMillis) {
+            this.sideToMove = sideToMove;
+            this.depth = depth;
+            this.candidates = Collections.unmodifiableList(candidates);
+            this.legalMoveCount = legalMoveCount;
+            this.positionHash = positionHash;
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        /**
+         * 只保留前count个候选走法
+         */
+        MultiPVResult limit(int count) {
+            if (count >= candidates.size()) {
+                return this;
+            }
+            return new MultiPVResult(sideToMove, depth, new ArrayList<>(candidates.subList(0, count)),
+                    legalMoveCount, positionHash, elapsedMillis);
+        }
+        
+        public PieceColor getSideToMove() { return sideToMove; }
+        public int getDepth() { return depth; }
+        public List<CandidateMove> getCandidates() { return candidates; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        
+        public Move getBestMove() {
+            return candidates.isEmpty() ? null : candidates.get(0).getMove();
+        }
+        
+        public int getBestScore() {
+            return candidates.isEmpty() ? 0 : candidates.get(0).getScore();
+        }
+    }
+    
+    /**
+     * 搜索被取消时用于快速退出递归，不会写入置换表
+     */
+    private static final class SearchCancelledException extends RuntimeException {
+        static final SearchCancelledException INSTANCE = new SearchCancelledException();
+        
+        private SearchCancelledException() {
+            super("search cancelled", null, false, false);
+        }
+    }
+    
     private static class TranspositionEntry {
+        static final int EXACT = 0;
+        static final int LOWER = 1; // 分数为下界（发生beta剪枝）
+        static final int UPPER = 2; // 分数为上界（所有走法都不超过alpha）
+        
         final int depth;
         final int score;
         final Move move;
+        final int bound;
         
-        TranspositionEntry(int depth, int score, Move move) {
+        TranspositionEntry(int depth, int score, Move move, int bound) {
             this.depth = depth;
             this.score = score;
             this.move = move;
+            this.bound = bound;
         }
     }
     
     private static class TranspositionTable {
         private final Map<Long, TranspositionEntry> table = new ConcurrentHashMap<>();
         
-        void store(long hash, int depth, int score, Move move) {
-            table.put(hash, new TranspositionEntry(depth, score, move));
+        void store(long hash, int depth, int score, Move move, int bound) {
+            TranspositionEntry existing = table.get(hash);
+            // 保留更深的搜索结果，便于跨回合复用
+            if (existing == null || depth >= existing.depth) {
+                table.put(hash, new TranspositionEntry(depth, score, move, bound));
+            }
         }
         
         TranspositionEntry probe(long hash) {
             return table.get(hash);
         }
         
+        int size() {
+            return table.size();
+        }
+        
         void clear() {
             table.clear();
         }
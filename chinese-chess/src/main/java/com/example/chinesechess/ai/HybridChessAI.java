@@ -3,6 +3,9 @@ package com.example.chinesechess.ai;
 import com.example.chinesechess.core.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * 混合象棋AI引擎
@@ -25,6 +28,26 @@ public class HybridChessAI {
     private static final int OPENING_PIECE_THRESHOLD = 28;  // 开局阶段棋子数量
     private static final int ENDGAME_PIECE_THRESHOLD = 16;  // 残局阶段棋子数量
     private static final int LLM_TIMEOUT_SECONDS = 30;      // 大模型超时时间
+    private static final long OPENING_LLM_DEADLINE_MS = 15000; // 开局阶段大模型软截止时间
+    private static final long ENDGAME_LLM_DEADLINE_MS = 20000; // 残局阶段大模型软截止时间
+    private static final long LOCAL_SEARCH_TIMEOUT_MS = 10000; // 中局本地搜索硬截止时间
+    private static final long CANCEL_GRACE_MS = 1000;          // 取消后等待搜索返回已完成深度结果的时间
+    
+    // 线程池上限：每个引擎一个线程，外加被取消任务收尾的余量
+    // 不设排队：新任务直接分到线程，不会排在尚未收尾的旧任务后面；超过上限时被拒绝
+    private static final int CORE_THREADS = 2;
+    private static final int MAX_THREADS = 4;
+    
+    // 大模型软截止时间上限（毫秒），可通过setLlmSoftDeadlineMillis调整
+    private volatile long llmSoftDeadlineMillis = LLM_TIMEOUT_SECONDS * 1000L;
+    
+    // 浪费工作统计
+    private final AtomicLong tasksStarted = new AtomicLong();
+    private final AtomicLong tasksUsed = new AtomicLong();
+    private final AtomicLong tasksDiscarded = new AtomicLong();
+    private final AtomicLong wastedMillis = new AtomicLong();
+    private final AtomicLong llmAcceptedBeforeDeadline = new AtomicLong();
+    private final AtomicLong llmMissedDeadline = new AtomicLong();
     
     public HybridChessAI(PieceColor aiColor, int difficulty, String modelName) {
         this.aiColor = aiColor;
@@ -36,9 +59,18 @@ public class HybridChessAI {
         
         // 初始化LLM AI
         this.llmAI = new LLMChessAI(aiColor, modelName, difficulty);
-        
-        // 初始化线程池
-        this.executorService = Executors.newCachedThreadPool();
+        this.llmAI.setFallbackEnabled(false); // 大模型失败时直接使用并行的增强AI结果
+        
+        // 初始化有界线程池
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executorService = new ThreadPoolExecutor(
+            CORE_THREADS, MAX_THREADS, 30L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            r -> {
+                Thread t = new Thread(r, "HybridAI-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
         
         // 根据难度调整策略权重
         double tempLlmWeight, tempEnhancedWeight;
@@ -115,33 +147,30 @@ public class HybridChessAI {
      */
     private Move getOpeningMove(Board board) {
         System.out.println("📚 开局阶段 - 优先使用增强AI");
+        long deadline = System.currentTimeMillis() + Math.min(OPENING_LLM_DEADLINE_MS, llmSoftDeadlineMillis);
         
-        // 开局阶段主要依赖增强AI的开局库和快速计算
-        Move enhancedMove = enhancedAI.getBestMove(board);
+        // 本地搜索和大模型同时启动，本地结果为主，大模型仅在软截止前返回时参考
+        EngineTask enhancedTask = submit("增强AI", token -> enhancedAI.getBestMove(board, token));
+        EngineTask strategicTask = submit("大模型", token -> llmAI.getBestMove(board, token));
         
-        // 如果时间允许，也获取大模型的建议作为参考
-        try {
-            CompletableFuture<Move> strategicFuture = CompletableFuture
-                .supplyAsync(() -> llmAI.getBestMove(board), executorService);
-            
-            Move strategicMove = strategicFuture.get(15, TimeUnit.SECONDS);
+        Move enhancedMove = awaitLocal(enhancedTask, Long.MAX_VALUE, board);
+        Move strategicMove = awaitLlm(strategicTask, deadline);
+        
+        if (strategicMove != null && isReasonableMove(board, strategicMove)) {
+            System.out.println("💡 大模型建议: " + formatMove(strategicMove));
             
-            if (strategicMove != null && isReasonableMove(board, strategicMove)) {
-                System.out.println("💡 大模型建议: " + formatMove(strategicMove));
-                
-                // 如果大模型建议的走法在增强AI的候选列表中，优先考虑
-                List<Move> candidates = getTopCandidates(board, 5);
-                if (candidates.contains(strategicMove)) {
-                    System.out.println("✅ 采用大模型建议（在候选列表中）");
-                    return strategicMove;
-                }
+            // 如果大模型建议的走法在增强AI的候选列表中，优先考虑
+            List<Move> candidates = getTopCandidates(board, 5);
+            if (candidates.contains(strategicMove)) {
+                System.out.println("✅ 采用大模型建议（在候选列表中）");
+                strategicTask.markUsed();
+                enhancedTask.discard();
+                return strategicMove;
             }
-        } catch (TimeoutException e) {
-            System.out.println("⏰ 大模型超时，使用增强AI结果");
-        } catch (Exception e) {
-            System.out.println("❌ 大模型异常: " + e.getMessage());
         }
         
+        enhancedTask.markUsed();
+        strategicTask.discard();
         return enhancedMove;
     }
     
@@ -150,42 +179,37 @@ public class HybridChessAI {
      */
     private Move getMiddlegameMove(Board board) {
         System.out.println("⚔️  中局阶段 - 混合决策");
+        long deadline = System.currentTimeMillis() + llmSoftDeadlineMillis;
         
         // 并行计算两种AI的建议
-        CompletableFuture<Move> enhancedFuture = CompletableFuture
-            .supplyAsync(() -> enhancedAI.getBestMove(board), executorService);
-        
-        CompletableFuture<Move> strategicFuture = CompletableFuture
-            .supplyAsync(() -> llmAI.getBestMove(board), executorService);
+        EngineTask enhancedTask = submit("增强AI", token -> enhancedAI.getBestMove(board, token));
+        EngineTask strategicTask = submit("大模型", token -> llmAI.getBestMove(board, token));
         
-        try {
-            // 等待增强AI结果（通常很快）
-            Move enhancedMove = enhancedFuture.get(10, TimeUnit.SECONDS);
+        // 等待增强AI结果（超时后取消，取回已完成深度的结果）
+        Move enhancedMove = awaitLocal(enhancedTask, LOCAL_SEARCH_TIMEOUT_MS, board);
+        if (enhancedMove != null) {
             System.out.println("🧮 增强AI建议: " + formatMove(enhancedMove));
-            
-            try {
-                // 等待大模型结果（有超时限制）
-                Move strategicMove = strategicFuture.get(LLM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-                System.out.println("🧠 大模型建议: " + formatMove(strategicMove));
-                
-                // 混合决策逻辑
-                return combineDecisions(board, enhancedMove, strategicMove);
-                
-            } catch (TimeoutException e) {
-                System.out.println("⏰ 大模型超时，使用增强AI结果");
-                return enhancedMove;
-            }
-            
-        } catch (Exception e) {
-            System.out.println("❌ 增强AI异常，尝试大模型: " + e.getMessage());
-            
-            try {
-                return strategicFuture.get(LLM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            } catch (Exception e2) {
-                System.out.println("❌ 所有AI都失败，使用备用逻辑");
-                return getEmergencyMove(board);
-            }
+        } else {
+            System.out.println("❌ 增强AI无结果，等待大模型");
         }
+        
+        // 等待大模型结果（软截止时间）
+        Move strategicMove = awaitLlm(strategicTask, deadline);
+        if (strategicMove != null) {
+            System.out.println("🧠 大模型建议: " + formatMove(strategicMove));
+        }
+        
+        if (enhancedMove == null && strategicMove == null) {
+            System.out.println("❌ 所有AI都失败，使用备用逻辑");
+            enhancedTask.discard();
+            strategicTask.discard();
+            return getEmergencyMove(board);
+        }
+        
+        // 混合决策逻辑
+        Move decision = combineDecisions(board, enhancedMove, strategicMove);
+        settle(decision, enhancedTask, enhancedMove, strategicTask, strategicMove);
+        return decision;
     }
     
     /**
@@ -193,42 +217,190 @@ public class HybridChessAI {
      */
     private Move getEndgameMove(Board board) {
         System.out.println("🏁 残局阶段 - 精确计算优先");
+        long deadline = System.currentTimeMillis() + Math.min(ENDGAME_LLM_DEADLINE_MS, llmSoftDeadlineMillis);
+        
+        EngineTask enhancedTask = submit("增强AI", token -> enhancedAI.getBestMove(board, token));
+        EngineTask strategicTask = submit("大模型", token -> llmAI.getBestMove(board, token));
         
         // 残局阶段主要依赖增强AI的精确计算
-        Move enhancedMove = enhancedAI.getBestMove(board);
+        Move enhancedMove = awaitLocal(enhancedTask, Long.MAX_VALUE, board);
         
-        // 检查是否有明显的获胜走法
+        // 检查是否有明显的获胜走法，有则立即取消大模型
         if (isWinningMove(board, enhancedMove)) {
             System.out.println("🎉 发现获胜走法!");
+            enhancedTask.markUsed();
+            strategicTask.discard();
             return enhancedMove;
         }
         
         // 如果没有明显获胜走法，考虑大模型的战略建议
-        try {
-            CompletableFuture<Move> strategicFuture = CompletableFuture
-                .supplyAsync(() -> llmAI.getBestMove(board), executorService);
+        Move strategicMove = awaitLlm(strategicTask, deadline);
+        if (strategicMove != null && isReasonableMove(board, strategicMove)) {
+            System.out.println("💭 大模型残局建议: " + formatMove(strategicMove));
             
-            Move strategicMove = strategicFuture.get(20, TimeUnit.SECONDS);
+            // 在残局阶段，如果大模型建议合理，可以考虑采用
+            int enhancedScore = evaluateMove(board, enhancedMove);
+            int strategicScore = evaluateMove(board, strategicMove);
             
-            if (strategicMove != null && isReasonableMove(board, strategicMove)) {
-                System.out.println("💭 大模型残局建议: " + formatMove(strategicMove));
-                
-                // 在残局阶段，如果大模型建议合理，可以考虑采用
-                int enhancedScore = evaluateMove(board, enhancedMove);
-                int strategicScore = evaluateMove(board, strategicMove);
-                
-                if (Math.abs(strategicScore - enhancedScore) < 50) {
-                    System.out.println("🤔 两种建议评分接近，采用大模型建议");
-                    return strategicMove;
-                }
+            if (Math.abs(strategicScore - enhancedScore) < 50) {
+                System.out.println("🤔 两种建议评分接近，采用大模型建议");
+                strategicTask.markUsed();
+                enhancedTask.discard();
+                return strategicMove;
             }
-        } catch (Exception e) {
-            System.out.println("⚠️  大模型残局分析失败: " + e.getMessage());
         }
         
+        enhancedTask.markUsed();
+        strategicTask.discard();
         return enhancedMove;
     }
     
+    // ==================== 对冲执行 ====================
+    
+    /**
+     * 提交引擎任务，每个任务持有独立的取消令牌
+     */
+    private EngineTask submit(String name, Function<CancellationToken, Move> work) {
+        EngineTask task = new EngineTask();
+        tasksStarted.incrementAndGet();
+        try {
+            task.future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.token.isCancelled() ? null : work.apply(task.token);
+                } finally {
+                    task.finish();
+                }
+            }, executorService);
+        } catch (RejectedExecutionException e) {
+            System.out.println("⚠️ " + name + "任务被拒绝（线程池已满）");
+            task.future = CompletableFuture.completedFuture(null);
+            task.finish();
+        }
+        return task;
+    }
+    
+    /**
+     * 等待本地搜索；超过硬截止时间后取消，并短暂等待它返回已完成深度的最佳走法
+     */
+    private Move awaitLocal(EngineTask task, long timeoutMs, Board board) {
+        try {
+            return timeoutMs == Long.MAX_VALUE ? task.future.get()
+                                               : task.future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("⏰ 增强AI超时，取消搜索并取回已完成深度的结果");
+            task.token.cancel();
+            try {
+                return task.future.get(CANCEL_GRACE_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e2) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.out.println("❌ 增强AI异常: " + e.getCause());
+            return null;
+        }
+    }
+    
+    /**
+     * 等待大模型直到软截止时间，过期则立即取消
+     */
+    private Move awaitLlm(EngineTask task, long deadlineMillis) {
+        long remaining = deadlineMillis - System.currentTimeMillis();
+        try {
+            Move move = remaining > 0 ? task.future.get(remaining, TimeUnit.MILLISECONDS)
+                                      : task.future.getNow(null);
+            if (move != null || task.future.isDone()) {
+                llmAcceptedBeforeDeadline.incrementAndGet();
+                return move;
+            }
+        } catch (TimeoutException e) {
+            // 落到下面统一处理
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("❌ 大模型异常: " + e.getCause());
+            return null;
+        }
+        System.out.println("⏰ 大模型未在软截止时间前返回，已取消");
+        llmMissedDeadline.incrementAndGet();
+        task.discard();
+        return null;
+    }
+    
+    /**
+     * 根据最终决策标记被采用的任务，取消并统计其余任务
+     */
+    private void settle(Move decision, EngineTask enhancedTask, Move enhancedMove,
+                        EngineTask strategicTask, Move strategicMove) {
+        boolean enhancedUsed = decision != null && decision.equals(enhancedMove);
+        boolean strategicUsed = decision != null && decision.equals(strategicMove);
+        if (enhancedUsed) enhancedTask.markUsed(); else enhancedTask.discard();
+        if (strategicUsed && !enhancedUsed) strategicTask.markUsed(); else strategicTask.discard();
+    }
+    
+    /**
+     * 设置大模型软截止时间（毫秒）：超过该时间仍未返回的大模型结果被放弃
+     */
+    public void setLlmSoftDeadlineMillis(long millis) {
+        this.llmSoftDeadlineMillis = Math.max(0, millis);
+    }
+    
+    /**
+     * 获取对冲执行统计：被放弃任务消耗的时间即浪费的工作
+     */
+    public String getHedgingStatistics() {
+        return String.format(
+            "🧮 混合AI任务统计: 启动%d, 采用%d, 放弃%d, 浪费%dms; 大模型按时%d, 超时取消%d",
+            tasksStarted.get(), tasksUsed.get(), tasksDiscarded.get(), wastedMillis.get(),
+            llmAcceptedBeforeDeadline.get(), llmMissedDeadline.get());
+    }
+    
+    public long getWastedWorkMillis() {
+        return wastedMillis.get();
+    }
+    
+    /**
+     * 单个引擎任务：令牌、结果和耗时记账
+     * 被放弃的任务在真正结束时才把耗时计入浪费，保证取消后仍在收尾的时间也被统计
+     */
+    private final class EngineTask {
+        final CancellationToken token = new CancellationToken();
+        final long startMillis = System.currentTimeMillis();
+        volatile CompletableFuture<Move> future;
+        private long elapsedMillis = -1;
+        private boolean discarded;
+        private boolean settled;
+        
+        synchronized void finish() {
+            elapsedMillis = System.currentTimeMillis() - startMillis;
+            if (discarded) {
+                wastedMillis.addAndGet(elapsedMillis);
+            }
+        }
+        
+        synchronized void markUsed() {
+            if (settled) return;
+            settled = true;
+            tasksUsed.incrementAndGet();
+        }
+        
+        void discard() {
+            synchronized (this) {
+                if (settled) return;
+                settled = true;
+                discarded = true;
+                tasksDiscarded.incrementAndGet();
+                if (elapsedMillis >= 0) {
+                    wastedMillis.addAndGet(elapsedMillis);
+                    return;
+                }
+            }
+            token.cancel();
+        }
+    }
+    
     /**
      * 混合决策逻辑
      */
@@ -569,6 +741,7 @@ public class HybridChessAI {
      * 关闭资源
      */
     public void close() {
+        System.out.println(getHedgingStatistics());
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
             try {
@@ -23,6 +23,7 @@ public class LLMChessAI {
     private final OkHttpClient httpClient;
     private final Gson gson;
     private final ChessAI fallbackAI; // 传统AI作为备选方案
+    private volatile boolean fallbackEnabled = true;
     
     // Ollama API配置
     private static final String OLLAMA_BASE_URL = "http://localhost:11434";
@@ -59,11 +60,19 @@ public class LLMChessAI {
      * 获取AI的最佳移动
      */
     public Move getBestMove(Board board) {
+        return getBestMove(board, CancellationToken.none());
+    }
+    
+    /**
+     * 获取AI的最佳移动（可取消）
+     * 取消时会中断进行中的HTTP请求，并且不再回退到传统AI，直接返回null
+     */
+    public Move getBestMove(Board board, CancellationToken token) {
         System.out.println("\n🤖 " + (aiColor == PieceColor.RED ? "红方" : "黑方") + "AI思考中...");
         
         try {
             // 尝试使用大模型AI
-            Move llmMove = getLLMMove(board);
+            Move llmMove = getLLMMove(board, token);
             if (llmMove != null && isValidMove(board, llmMove)) {
                 System.out.println("💡 大模型AI决策: " + formatMove(llmMove));
                 return llmMove;
@@ -71,24 +80,79 @@ public class LLMChessAI {
                 System.out.println("⚠️  大模型AI决策失败，切换传统AI");
             }
         } catch (Exception e) {
+            if (token.isCancelled()) {
+                System.out.println("🛑 大模型请求已取消");
+                return null;
+            }
             System.out.println("❌ 大模型AI异常，切换传统AI: " + e.getMessage());
         }
         
+        if (token.isCancelled() || !fallbackEnabled) {
+            // 在混合AI中由并行的本地搜索兜底，这里不再重复搜索
+            return null;
+        }
+        
         // 回退到传统AI
         Move fallbackMove = fallbackAI.getBestMove(board);
         System.out.println("🎯 传统AI决策: " + formatMove(fallbackMove));
         return fallbackMove;
     }
     
+    /**
+     * 设置大模型失败时是否回退到传统AI
+     * 混合AI已经并行运行本地搜索，应关闭回退并直接使用本地结果
+     */
+    public void setFallbackEnabled(boolean fallbackEnabled) {
+        this.fallbackEnabled = fallbackEnabled;
+    }
+    
     /**
      * 使用大语言模型获取移动决策
      */
-    private Move getLLMMove(Board board) throws IOException {
-        String boardState = getBoardStateDescription(board);
-        String prompt = buildChessPrompt(boardState);
+    private Move getLLMMove(Board board, CancellationToken token) throws IOException {
+        String fen = FenConverter.boardToFen(board, aiColor);
+        LLMResponseCache cache = LLMResponseCache.getInstance();
+        String llmResponse = cache.get(modelName, LLMResponseCache.TEMPLATE_LLM_MOVE, fen, null);
+        boolean fromCache = llmResponse != null;
+        
+        if (fromCache) {
+            System.out.print("   📦 命中缓存...");
+        } else {
+            String boardState = getBoardStateDescription(board);
+            String prompt = buildChessPrompt(boardState);
+            
+            System.out.print("   🧠 分析棋局...");
+            llmResponse = requestCompletion(prompt, token);
+        }
         
-        System.out.print("   🧠 分析棋局...");
+        System.out.print(" 🎯 推理中...");
         
+        // 解析大模型的回复，提取移动指令
+        Move move = parseMove(llmResponse, board);
+        
+        if (move != null) {
+            // 只缓存能解析出走法的回复
+            if (!fromCache) {
+                cache.put(modelName, LLMResponseCache.TEMPLATE_LLM_MOVE, fen, null, llmResponse);
+            }
+            System.out.println(" ✅");
+            System.out.println("\n🧠 AI详细思考过程：");
+            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            printFormattedThinking(llmResponse.trim());
+            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        } else {
+            System.out.println(" ❌");
+            System.out.println("⚠️  无法解析AI回复，原始内容：");
+            System.out.println(llmResponse.trim());
+        }
+        
+        return move;
+    }
+    
+    /**
+     * 向Ollama发送生成请求，返回模型的原始回复
+     */
+    private String requestCompletion(String prompt, CancellationToken token) throws IOException {
         // 构建请求
         JsonObject requestBody = new JsonObject();
         requestBody.addProperty("model", modelName);
@@ -111,34 +175,17 @@ public class LLMChessAI {
                 .post(body)
                 .build();
         
-        // 发送请求
-        try (Response response = httpClient.newCall(request).execute()) {
+        // 发送请求，取消令牌触发时中断连接
+        Call call = httpClient.newCall(request);
+        token.onCancel(call::cancel);
+        try (Response response = call.execute()) {
             if (!response.isSuccessful()) {
                 throw new IOException("HTTP请求失败: " + response.code());
             }
             
             String responseBody = response.body().string();
             JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-            String llmResponse = jsonResponse.get("response").getAsString();
-            
-            System.out.print(" 🎯 推理中...");
-            
-            // 解析大模型的回复，提取移动指令
-            Move move = parseMove(llmResponse, board);
-            
-            if (move != null) {
-                System.out.println(" ✅");
-                System.out.println("\n🧠 AI详细思考过程：");
-                System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-                printFormattedThinking(llmResponse.trim());
-                System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-            } else {
-                System.out.println(" ❌");
-                System.out.println("⚠️  无法解析AI回复，原始内容：");
-                System.out.println(llmResponse.trim());
-            }
-            
-            return move;
+            return jsonResponse.get("response").getAsString();
         }
     }
     
@@ -0,0 +1,447 @@
+package com.example.chinesechess.ai;
+
+import com.example.common.config.ConfigurationManager;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 大模型回复缓存
+ * 以 (模型, 提示词模板, 规范化FEN, 问题哈希) 为键，缓存Ollama的回复。
+ * 第一层为内存LRU，第二层为磁盘上的追加式日志文件（带过期时间），
+ * 跨会话复用开局等常见局面的分析结果。
+ */
+public class LLMResponseCache {
+
+    // 提示词模板标识
+    public static final String TEMPLATE_LLM_MOVE = "llm.move";
+    public static final String TEMPLATE_CHAT_ANALYSIS = "chat.analysis";
+    public static final String TEMPLATE_CHAT_MOVE_ANALYSIS = "chat.move_analysis";
+    public static final String TEMPLATE_MOVE_COMMENTARY = "deepseek.move_commentary";
+
+    private static final String CACHE_FILE_NAME = "llm-cache.log";
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024; // 小于1MB的日志不压缩
+
+    private static volatile LLMResponseCache instance;
+
+    private final boolean enabled;
+    private final int memoryCapacity;
+    private final long ttlMillis;
+    private final File cacheFile;
+    private final Gson gson = new Gson();
+
+    // 内存LRU层：键 -> 回复
+    private final LinkedHashMap<String, Entry> memoryTier;
+    // 磁盘层索引：键 -> 日志中的位置
+    private final Map<String, DiskSlot> diskIndex = new HashMap<>();
+    private RandomAccessFile journal;
+    private long deadBytes;
+
+    // 按模型统计命中率
+    private final Map<String, ModelStats> statsByModel = new ConcurrentHashMap<>();
+
+    private LLMResponseCache() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        this.enabled = config.getBooleanConfiguration("ai.llm_cache.enabled", true);
+        this.memoryCapacity = Math.max(16, config.getIntConfiguration("ai.llm_cache.memory_entries", 256));
+        this.ttlMillis = Math.max(1, config.getIntConfiguration("ai.llm_cache.ttl_hours", 24 * 7)) * 3600_000L;
+        this.cacheFile = new File(System.getProperty("user.home") + "/.chinese-chess/" + CACHE_FILE_NAME);
+        this.memoryTier = new LinkedHashMap<String, Entry>(memoryCapacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+
+        if (enabled) {
+            openJournal();
+        }
+    }
+
+    public static LLMResponseCache getInstance() {
+        if (instance == null) {
+            synchronized (LLMResponseCache.class) {
+                if (instance == null) {
+                    instance = new LLMResponseCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 查询缓存
+     * @return 命中时返回缓存的回复，否则返回null
+     */
+    public String get(String model, String templateId, String fen, String question) {
+        if (!enabled) {
+            return null;
+        }
+        ModelStats stats = statsFor(model);
+        stats.lookups.incrementAndGet();
+
+        String key = buildKey(model, templateId, fen, question);
+        long now = System.currentTimeMillis();
+        DiskSlot slot;
+        FileChannel channel;
+        synchronized (this) {
+            Entry entry = memoryTier.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    stats.memoryHits.incrementAndGet();
+                    return entry.response;
+                }
+                memoryTier.remove(key);
+            }
+            slot = findDiskSlot(key, now);
+            channel = slot != null ? journal.getChannel() : null;
+        }
+        if (slot == null) {
+            return null;
+        }
+
+        // 磁盘读取不持有锁，其他线程的内存命中不会被磁盘IO阻塞
+        Entry entry = readFromDisk(channel, key, slot);
+        synchronized (this) {
+            if (entry == null) {
+                // 记录损坏时移出索引；期间若已压缩或重写则保留新的位置
+                if (diskIndex.get(key) == slot) {
+                    diskIndex.remove(key);
+                }
+                return null;
+            }
+            memoryTier.put(key, entry);
+        }
+        stats.diskHits.incrementAndGet();
+        return entry.response;
+    }
+
+    /**
+     * 写入缓存（内存层和磁盘层）
+     */
+    public void put(String model, String templateId, String fen, String question, String response) {
+        if (!enabled || response == null || response.trim().isEmpty()) {
+            return;
+        }
+        String key = buildKey(model, templateId, fen, question);
+        Entry entry = new Entry(key, response, System.currentTimeMillis() + ttlMillis);
+        synchronized (this) {
+            memoryTier.put(key, entry);
+            appendToDisk(entry);
+        }
+    }
+
+    /**
+     * 先查缓存，未命中时调用loader并把非空结果写回缓存
+     */
+    public String getOrLoad(String model, String templateId, String fen, String question, Supplier<String> loader) {
+        String cached = get(model, templateId, fen, question);
+        if (cached != null) {
+            return cached;
+        }
+        String response = loader.get();
+        put(model, templateId, fen, question, response);
+        return response;
+    }
+
+    /**
+     * 规范化FEN：只保留棋子布局和走子方，去掉回合计数，
+     * 使同一局面在不同回合数下共享缓存
+     */
+    public static String normalizeFen(String fen) {
+        if (fen == null) {
+            return "";
+        }
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length >= 2) {
+            return parts[0] + " " + parts[1];
+        }
+        return parts[0];
+    }
+
+    /**
+     * 获取按模型统计的命中率报告
+     */
+    public String getStatisticsReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("📦 大模型缓存命中率:");
+        if (statsByModel.isEmpty()) {
+            sb.append(" 暂无查询");
+            return sb.toString();
+        }
+        for (Map.Entry<String, ModelStats> e : new TreeMap<>(statsByModel).entrySet()) {
+            ModelStats s = e.getValue();
+            long lookups = s.lookups.get();
+            long hits = s.memoryHits.get() + s.diskHits.get();
+            double ratio = lookups > 0 ? hits * 100.0 / lookups : 0.0;
+            sb.append(String.format("\n   - %s: %d/%d (%.1f%%), 内存%d, 磁盘%d",
+                e.getKey(), hits, lookups, ratio, s.memoryHits.get(), s.diskHits.get()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 获取指定模型的命中率（0-1）
+     */
+    public double getHitRatio(String model) {
+        ModelStats s = statsByModel.get(model);
+        if (s == null || s.lookups.get() == 0) {
+            return 0.0;
+        }
+        return (double) (s.memoryHits.get() + s.diskHits.get()) / s.lookups.get();
+    }
+
+    /**
+     * 清空内存层（磁盘层保留）
+     */
+    public synchronized void clearMemory() {
+        memoryTier.clear();
+    }
+
+    /**
+     * 关闭磁盘日志
+     */
+    public synchronized void close() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("关闭大模型缓存文件失败: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    private ModelStats statsFor(String model) {
+        return statsByModel.computeIfAbsent(model != null ? model : "unknown", m -> new ModelStats());
+    }
+
+    private static String buildKey(String model, String templateId, String fen, String question) {
+        return model + "|" + templateId + "|" + normalizeFen(fen) + "|" + hashQuestion(question);
+    }
+
+    private static String hashQuestion(String question) {
+        if (question == null || question.isEmpty()) {
+            return "-";
+        }
+        String normalized = question.trim().replaceAll("\\s+", " ").toLowerCase();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(normalized.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", bytes[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(normalized.hashCode());
+        }
+    }
+
+    // ==================== 磁盘层 ====================
+
+    /**
+     * 打开日志文件并重建索引，过期记录过多时进行压缩
+     */
+    private synchronized void openJournal() {
+        try {
+            cacheFile.getParentFile().mkdirs();
+            journal = new RandomAccessFile(cacheFile, "rw");
+            rebuildIndex();
+            if (journal.length() > COMPACT_MIN_BYTES && deadBytes * 2 > journal.length()) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ 大模型缓存文件不可用，仅使用内存缓存: " + e.getMessage());
+            journal = null;
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        diskIndex.clear();
+        deadBytes = 0;
+        long now = System.currentTimeMillis();
+        long length = journal.length();
+        long offset = 0;
+        journal.seek(0);
+        byte[] content = new byte[(int) Math.min(length, Integer.MAX_VALUE)];
+        journal.readFully(content);
+
+        int lineStart = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') {
+                continue;
+            }
+            int lineLength = i - lineStart;
+            Entry entry = decode(new String(content, lineStart, lineLength, StandardCharsets.UTF_8));
+            if (entry != null && entry.expiresAt > now) {
+                DiskSlot previous = diskIndex.put(entry.key, new DiskSlot(offset, lineLength, entry.expiresAt));
+                if (previous != null) {
+                    deadBytes += previous.length + 1;
+                }
+            } else {
+                deadBytes += lineLength + 1;
+            }
+            offset += lineLength + 1;
+            lineStart = i + 1;
+        }
+        // 截掉末尾不完整的记录（上次写入时崩溃）
+        if (offset < length) {
+            journal.setLength(offset);
+        }
+    }
+
+    /**
+     * 只保留有效记录重写日志
+     */
+    private void compact() throws IOException {
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        Map<String, DiskSlot> newIndex = new HashMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            out.setLength(0);
+            for (Map.Entry<String, DiskSlot> e : diskIndex.entrySet()) {
+                byte[] line = readLine(e.getValue());
+                long offset = out.getFilePointer();
+                out.write(line);
+                out.write('\n');
+                newIndex.put(e.getKey(), new DiskSlot(offset, line.length, e.getValue().expiresAt));
+            }
+        }
+        journal.close();
+        if (!tmp.renameTo(cacheFile)) {
+            throw new IOException("无法替换缓存文件");
+        }
+        journal = new RandomAccessFile(cacheFile, "rw");
+        diskIndex.clear();
+        diskIndex.putAll(newIndex);
+        deadBytes = 0;
+        System.out.println("🗜️ 大模型缓存已压缩，保留 " + diskIndex.size() + " 条记录");
+    }
+
+    /**
+     * 查找未过期的磁盘记录位置，需持有锁
+     */
+    private DiskSlot findDiskSlot(String key, long now) {
+        if (journal == null) {
+            return null;
+        }
+        DiskSlot slot = diskIndex.get(key);
+        if (slot != null && slot.expiresAt <= now) {
+            diskIndex.remove(key);
+            return null;
+        }
+        return slot;
+    }
+
+    /**
+     * 按位置读取一条记录，不持有锁
+     * 定位读取不改变文件指针，可以与追加写入并发；文件被压缩替换后读取失败或键不符时视为未命中
+     */
+    private Entry readFromDisk(FileChannel channel, String key, DiskSlot slot) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(slot.length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, slot.offset + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            Entry entry = decode(new String(buffer.array(), StandardCharsets.UTF_8));
+            if (entry != null && key.equals(entry.key)) {
+                return entry;
+            }
+        } catch (IOException e) {
+            System.err.println("读取大模型缓存失败: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private byte[] readLine(DiskSlot slot) throws IOException {
+        byte[] line = new byte[slot.length];
+        journal.seek(slot.offset);
+        journal.readFully(line);
+        return line;
+    }
+
+    private void appendToDisk(Entry entry) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            byte[] line = gson.toJson(entry).getBytes(StandardCharsets.UTF_8);
+            long offset = journal.length();
+            journal.seek(offset);
+            journal.write(line);
+            journal.write('\n');
+            DiskSlot previous = diskIndex.put(entry.key, new DiskSlot(offset, line.length, entry.expiresAt));
+            if (previous != null) {
+                deadBytes += previous.length + 1;
+            }
+        } catch (IOException e) {
+            System.err.println("写入大模型缓存失败: " + e.getMessage());
+        }
+    }
+
+    private Entry decode(String line) {
+        try {
+            Entry entry = gson.fromJson(line, Entry.class);
+            return entry != null && entry.key != null && entry.response != null ? entry : null;
+        } catch (JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 缓存记录（同时作为磁盘日志的一行JSON）
+     */
+    private static class Entry {
+        String key;
+        String response;
+        long expiresAt;
+
+        Entry(String key, String response, long expiresAt) {
+            this.key = key;
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 磁盘记录位置
+     */
+    private static class DiskSlot {
+        final long offset;
+        final int length;
+        final long expiresAt;
+
+        DiskSlot(long offset, int length, long expiresAt) {
+            this.offset = offset;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 单个模型的命中统计
+     */
+    private static class ModelStats {
+        final AtomicLong lookups = new AtomicLong();
+        final AtomicLong memoryHits = new AtomicLong();
+        final AtomicLong diskHits = new AtomicLong();
+    }
+}
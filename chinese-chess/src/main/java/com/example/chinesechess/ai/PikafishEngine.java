@@ -1,5 +1,7 @@
 package com.example.chinesechess.ai;
 
+import com.example.common.utils.Logger;
+
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +22,8 @@ public class PikafishEngine {
     private String enginePath;
     private String neuralNetworkPath; // 神经网络文件路径
     private static final int DEFAULT_TIMEOUT = 10000; // 10秒超时
+    private int hashSizeMb = 256; // 哈希表大小（MB），多引擎共享内存预算时可调小
+    private int threads = 4; // 搜索线程数，服务器引擎池按计算配额调小
     
     // 日志回调接口
     public interface LogCallback {
@@ -28,6 +32,8 @@ public class PikafishEngine {
     
     private LogCallback logCallback;
     
+    private static final Logger.Category LOG = Logger.engineCategory("Pikafish");
+    
     /**
      * 构造函数
      * @param enginePath Pikafish引擎可执行文件路径
@@ -44,6 +50,22 @@ public class PikafishEngine {
         this.logCallback = callback;
     }
     
+    /**
+     * 设置哈希表大小，需在 {@link #initialize()} 之前调用
+     * @param hashSizeMb 哈希表大小（MB）
+     */
+    public void setHashSizeMb(int hashSizeMb) {
+        this.hashSizeMb = Math.max(1, hashSizeMb);
+    }
+    
+    /**
+     * 设置搜索线程数，需在 {@link #initialize()} 之前调用
+     * @param threads 线程数
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    
     /**
      * 设置神经网络文件路径
      * @param neuralNetworkPath 神经网络文件路径
@@ -75,7 +97,7 @@ public class PikafishEngine {
             
             if (engineFile.exists()) {
                 engineExists = true;
-                System.out.println("✅ 找到Pikafish引擎文件: " + enginePath);
+                LOG.info("✅ 找到Pikafish引擎文件: {}", enginePath);
             } else if (enginePath.equals("pikafish")) {
                 // 检查系统PATH中是否有pikafish
                 try {
@@ -83,16 +105,16 @@ public class PikafishEngine {
                     int exitCode = checkProcess.waitFor();
                     if (exitCode == 0) {
                         engineExists = true;
-                        System.out.println("✅ 在系统PATH中找到Pikafish引擎");
+                        LOG.info("✅ 在系统PATH中找到Pikafish引擎");
                     }
                 } catch (Exception e) {
-                    System.out.println("⚠️ 无法检查系统PATH: " + e.getMessage());
+                    LOG.warn("⚠️ 无法检查系统PATH: {}", e.getMessage());
                 }
             }
             
             if (!engineExists) {
-                System.err.println("❌ Pikafish引擎文件不存在: " + enginePath);
-                System.err.println("请确保Pikafish已安装并在系统PATH中，或提供正确的文件路径");
+                LOG.error("❌ Pikafish引擎文件不存在: {}", enginePath);
+                LOG.error("请确保Pikafish已安装并在系统PATH中，或提供正确的文件路径");
                 return false;
             }
             
@@ -110,13 +132,13 @@ public class PikafishEngine {
             
             // 等待uciok响应
             if (!waitForResponse("uciok", DEFAULT_TIMEOUT)) {
-                System.err.println("引擎UCI初始化超时");
+                LOG.error("引擎UCI初始化超时");
                 return false;
             }
             
             // 设置引擎选项（针对棋力优化）
-            sendCommand("setoption name Threads value 4");     // 增加线程数提升计算速度
-            sendCommand("setoption name Hash value 256");      // 增加哈希表大小提升搜索效率
+            sendCommand("setoption name Threads value " + threads); // 多线程提升计算速度
+            sendCommand("setoption name Hash value " + hashSizeMb); // 增加哈希表大小提升搜索效率
             sendCommand("setoption name Move Overhead value 100"); // 设置走法开销，提高精度
             sendCommand("setoption name Skill Level value 20"); // 设置最高技能等级
             sendCommand("setoption name MultiPV value 1");     // 保证专注于最优走法
@@ -131,12 +153,12 @@ public class PikafishEngine {
                     com.example.common.config.ConfigurationManager config = 
                         com.example.common.config.ConfigurationManager.getInstance();
                     nnueFilePath = config.getPikafishConfig().neuralNetworkPath;
-                    System.out.println("从配置文件获取NNUE路径: " + nnueFilePath);
+                    LOG.info("从配置文件获取NNUE路径: {}", nnueFilePath);
                 } catch (Exception e) {
-                    System.out.println("无法获取配置管理器，使用默认路径");
+                    LOG.info("无法获取配置管理器，使用默认路径");
                 }
             } else {
-                System.out.println("使用手动设置的NNUE路径: " + nnueFilePath);
+                LOG.info("使用手动设置的NNUE路径: {}", nnueFilePath);
             }
             
             // 如果配置路径不存在，尝试多个可能的位置
@@ -162,7 +184,7 @@ public class PikafishEngine {
                     File candidate = new File(path);
                     if (candidate.exists()) {
                         nnueFile = candidate;
-                        System.out.println("在位置找到NNUE文件: " + path);
+                        LOG.info("在位置找到NNUE文件: {}", path);
                         break;
                     }
                 }
@@ -171,20 +193,20 @@ public class PikafishEngine {
             if (nnueFile != null && nnueFile.exists()) {
                 String nnuePath = nnueFile.getAbsolutePath();
                 sendCommand("setoption name EvalFile value " + nnuePath);
-                System.out.println("✅ 设置神经网络文件: " + nnuePath);
+                LOG.info("✅ 设置神经网络文件: {}", nnuePath);
             } else {
-                System.out.println("⚠️ 警告: 未找到pikafish.nnue文件，引擎将使用默认评估");
-                System.out.println("ℹ️ 这不会阻止引擎工作，但可能影响棋力");
+                LOG.warn("⚠️ 警告: 未找到pikafish.nnue文件，引擎将使用默认评估");
+                LOG.info("ℹ️ 这不会阻止引擎工作，但可能影响棋力");
             }
             
             sendCommand("isready");
             
             // 等待readyok响应
             if (!waitForResponse("readyok", DEFAULT_TIMEOUT)) {
-                System.err.println("引擎准备超时或失败");
+                LOG.error("引擎准备超时或失败");
                 // 检查引擎进程是否还在运行
                 if (engineProcess != null && !engineProcess.isAlive()) {
-                    System.err.println("引擎进程已终止，可能是因为缺少神经网络文件");
+                    LOG.error("引擎进程已终止，可能是因为缺少神经网络文件");
                     cleanup();
                     return false;
                 }
@@ -192,11 +214,11 @@ public class PikafishEngine {
             }
             
             isInitialized = true;
-            System.out.println("Pikafish引擎初始化成功");
+            LOG.info("Pikafish引擎初始化成功");
             return true;
             
         } catch (IOException e) {
-            System.err.println("初始化Pikafish引擎失败: " + e.getMessage());
+            LOG.error("初始化Pikafish引擎失败: {}", e.getMessage());
             cleanup();
             return false;
         }
@@ -206,7 +228,7 @@ public class PikafishEngine {
      * 发送命令到引擎（增强版本）
      * @param command 要发送的命令
      */
-    private void sendCommand(String command) throws IOException {
+    private synchronized void sendCommand(String command) throws IOException {
         if (writer != null) {
             writer.write(command + "\n");
             writer.flush();
@@ -253,7 +275,7 @@ public class PikafishEngine {
                 }
             }
         } catch (IOException e) {
-            System.err.println("读取引擎响应时发生错误: " + e.getMessage());
+            LOG.error("读取引擎响应时发生错误: {}", e.getMessage());
         }
         return false;
     }
@@ -353,7 +375,7 @@ public class PikafishEngine {
     public List<String> getBestMoves(String fen, int thinkTime, int numPV) {
         if (!isAvailable()) {
             log("Pikafish引擎不可用");
-            System.err.println("引擎不可用");
+            LOG.error("引擎不可用");
             return null;
         }
         
@@ -382,8 +404,8 @@ public class PikafishEngine {
                 // 显示重要的引擎响应，包括深度和分数信息
                 if (response.startsWith("info string") || response.startsWith("bestmove")) {
                     log("📥 " + response);
-                } else if (response.startsWith("info depth")) {
-                    // 解析和显示搜索进度信息
+                } else if (logCallback != null && response.startsWith("info depth")) {
+                    // 解析和显示搜索进度信息（仅用于日志，没有日志回调时跳过解析）
                     String[] parts = response.split(" ");
                     int currentDepth = 0;
                     String score = "";
@@ -466,7 +488,7 @@ public class PikafishEngine {
             
         } catch (IOException e) {
             log("计算过程发生错误: " + e.getMessage());
-            System.err.println("获取最佳走法时发生错误: " + e.getMessage());
+            LOG.error("获取最佳走法时发生错误: {}", e.getMessage());
         }
         
         return null;
@@ -515,7 +537,7 @@ public class PikafishEngine {
      */
     public int getEvaluation(String fen, int depth) {
         if (!isAvailable()) {
-            System.err.println("引擎不可用");
+            LOG.error("引擎不可用");
             return 0;
         }
         
@@ -556,7 +578,7 @@ public class PikafishEngine {
                 
                 // 防止无限等待
                 if (System.currentTimeMillis() - startTime > 30000) {
-                    System.err.println("获取评估分数超时");
+                    LOG.error("获取评估分数超时");
                     break;
                 }
             }
@@ -564,12 +586,25 @@ public class PikafishEngine {
             return lastScore;
             
         } catch (IOException e) {
-            System.err.println("获取评估分数时发生错误: " + e.getMessage());
+            LOG.error("获取评估分数时发生错误: {}", e.getMessage());
         }
         
         return 0;
     }
     
+    /**
+     * 让正在进行的搜索立即结束并给出bestmove，可以在其他线程调用
+     */
+    public void stopSearch() {
+        try {
+            if (isAvailable()) {
+                sendCommand("stop");
+            }
+        } catch (IOException e) {
+            LOG.warn("发送stop命令失败: {}", e.getMessage());
+        }
+    }
+    
     /**
      * 检查引擎是否可用
      * @return 是否可用
@@ -596,7 +631,7 @@ public class PikafishEngine {
                 engineProcess = null;
             }
         } catch (IOException e) {
-            System.err.println("清理资源时发生错误: " + e.getMessage());
+            LOG.error("清理资源时发生错误: {}", e.getMessage());
         }
         isInitialized = false;
     }
@@ -615,16 +650,16 @@ public class PikafishEngine {
             if (engineProcess != null) {
                 // 等待进程结束，最多等待3秒
                 if (!engineProcess.waitFor(3, TimeUnit.SECONDS)) {
-                    System.out.println("强制终止引擎进程");
+                    LOG.info("强制终止引擎进程");
                     engineProcess.destroyForcibly();
                 }
             }
             
         } catch (IOException | InterruptedException e) {
-            System.err.println("关闭引擎时发生错误: " + e.getMessage());
+            LOG.error("关闭引擎时发生错误: {}", e.getMessage());
         } finally {
             cleanup();
-            System.out.println("Pikafish引擎已关闭");
+            LOG.info("Pikafish引擎已关闭");
         }
     }
     
@@ -0,0 +1,137 @@
+package com.example.chinesechess.ai;
+
+import com.example.common.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pikafish引擎池
+ * 服务器托管多个AI对局时共享固定数量的引擎进程，总哈希内存按引擎数平均分配。
+ * 引擎由 {@link #start()} 在后台线程上启动，启动完成前借用直接返回null；
+ * 任何一个引擎启动失败都视为整个池不可用，调用方应降级到增强AI。
+ */
+public class PikafishEnginePool {
+
+    private static final Logger.Category LOG = Logger.engineCategory("PikafishPool");
+
+    private final String enginePath;
+    private final int size;
+    private final int hashPerEngineMb;
+    private final int threadsPerEngine;
+    private final BlockingQueue<PikafishEngine> idle;
+    private final List<PikafishEngine> all = new ArrayList<>();
+
+    private static final int NOT_STARTED = 0;
+    private static final int STARTING = 1;
+    private static final int READY = 2;
+    private static final int UNAVAILABLE = 3;
+    private volatile int state = NOT_STARTED;
+
+    /**
+     * @param enginePath 引擎可执行文件路径
+     * @param size 引擎进程数
+     * @param totalHashMb 所有引擎共享的哈希表内存预算（MB）
+     * @param threadsPerEngine 每个引擎的搜索线程数，所有引擎合计不应超过服务器AI计算配额
+     */
+    public PikafishEnginePool(String enginePath, int size, int totalHashMb, int threadsPerEngine) {
+        this.enginePath = enginePath;
+        this.size = Math.max(1, size);
+        this.hashPerEngineMb = Math.max(1, totalHashMb / this.size);
+        this.threadsPerEngine = Math.max(1, threadsPerEngine);
+        this.idle = new ArrayBlockingQueue<>(this.size);
+    }
+
+    /**
+     * 在后台线程上启动全部引擎，只有第一次调用生效
+     * 每个引擎的UCI握手可能要数秒，不能放在AI计算的时间片里完成
+     */
+    public void start() {
+        synchronized (this) {
+            if (state != NOT_STARTED) {
+                return;
+            }
+            state = STARTING;
+        }
+        Thread starter = new Thread(this::startEngines, "PikafishPoolStarter");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    /**
+     * 引擎池是否已经启动完成；尚未启动或仍在启动中都视为不可用，不会阻塞
+     */
+    public boolean isAvailable() {
+        if (state == NOT_STARTED) {
+            start();
+        }
+        return state == READY;
+    }
+
+    private void startEngines() {
+        List<PikafishEngine> started = new ArrayList<>();
+        boolean ok = true;
+        for (int i = 0; i < size && ok; i++) {
+            PikafishEngine engine = new PikafishEngine(enginePath);
+            engine.setHashSizeMb(hashPerEngineMb);
+            engine.setThreads(threadsPerEngine);
+            ok = engine.initialize();
+            started.add(engine);
+        }
+        synchronized (this) {
+            if (ok && state == STARTING) {
+                all.addAll(started);
+                idle.addAll(started);
+                state = READY;
+                LOG.info("🐟 Pikafish引擎池已启动: {} 个引擎，每个 {} 线程、哈希 {}MB", size, threadsPerEngine, hashPerEngineMb);
+                return;
+            }
+            if (state == STARTING) {
+                state = UNAVAILABLE;
+                LOG.warn("⚠️ Pikafish引擎池启动失败，服务器AI将使用增强AI");
+            }
+        }
+        // 启动失败或启动期间已关闭
+        started.forEach(PikafishEngine::quit);
+    }
+
+    /**
+     * 借出一个引擎，池未就绪时立即返回null，否则最多等待timeoutMs
+     */
+    public PikafishEngine borrow(long timeoutMs) throws InterruptedException {
+        if (!isAvailable()) {
+            return null;
+        }
+        return idle.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 归还引擎，已经退出的引擎不再放回池中
+     */
+    public void release(PikafishEngine engine) {
+        if (engine != null && engine.isAvailable()) {
+            idle.offer(engine);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * 关闭全部引擎
+     */
+    public synchronized void shutdown() {
+        all.forEach(PikafishEngine::quit);
+        all.clear();
+        idle.clear();
+        state = UNAVAILABLE;
+    }
+}
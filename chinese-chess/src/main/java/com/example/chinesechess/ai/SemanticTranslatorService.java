@@ -1,6 +1,9 @@
 package com.example.chinesechess.ai;
 
+import com.example.chinesechess.core.Board;
+import com.example.chinesechess.core.PieceColor;
 import com.example.chinesechess.ui.AILogPanel;
+import com.example.common.config.ConfigurationManager;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
@@ -13,7 +16,8 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * 中文象棋记谱语义翻译服务
- * 通过调用Python脚本实现中文记谱的语义理解和转换
+ * 默认使用进程内的ChineseNotationTranslator完成解析和翻译，
+ * Python脚本仅在配置开启且本地解析失败时作为备用
  */
 public class SemanticTranslatorService {
     
@@ -21,6 +25,13 @@ public class SemanticTranslatorService {
     private static final int TIMEOUT_SECONDS = 10;
     private final Gson gson = new Gson();
     private AILogPanel aiLogPanel; // AI日志面板
+    private final boolean pythonFallbackEnabled; // 是否启用Python备用路径
+    private volatile Boolean pythonReady; // Python环境检测结果（只检测一次）
+    
+    public SemanticTranslatorService() {
+        this.pythonFallbackEnabled = ConfigurationManager.getInstance()
+            .getBooleanConfiguration("ai.semantic_translator.python_fallback", false);
+    }
     
     /**
      * 设置AI日志面板
@@ -158,7 +169,15 @@ public class SemanticTranslatorService {
      * @return 解析结果
      */
     public ParseResult parseNotation(String notation) {
-        System.out.println("🎯 [SemanticTranslator] parseNotation() 被调用");
+        ChineseNotationTranslator.Notation parsed = ChineseNotationTranslator.parse(notation);
+        if (parsed != null) {
+            return toParseResult(parsed);
+        }
+        if (!isPythonFallbackReady()) {
+            return null;
+        }
+        
+        System.out.println("🎯 [SemanticTranslator] parseNotation() 使用Python备用路径");
         System.out.println("📝 [SemanticTranslator] 输入记谱: '" + notation + "'");
         System.out.println("🔧 [SemanticTranslator] 即将调用python-chinese-chess库进行记谱解析...");
         
@@ -185,7 +204,26 @@ public class SemanticTranslatorService {
      * @return 翻译结果列表
      */
     public List<TranslationResult> translateBatch(List<String> notations) {
-        System.out.println("🎯 [SemanticTranslator] translateBatch() 被调用");
+        List<TranslationResult> results = new ArrayList<>(notations.size());
+        boolean allParsed = true;
+        for (String notation : notations) {
+            TranslationResult result = new TranslationResult();
+            result.setOriginal(notation);
+            ChineseNotationTranslator.Notation parsed = ChineseNotationTranslator.parse(notation);
+            if (parsed != null) {
+                result.setParsed(toParseResult(parsed));
+                result.setSuccess(true);
+            } else {
+                result.setError("无法解析记谱: " + notation);
+                allParsed = false;
+            }
+            results.add(result);
+        }
+        if (allParsed || !isPythonFallbackReady()) {
+            return results;
+        }
+        
+        System.out.println("🎯 [SemanticTranslator] translateBatch() 使用Python备用路径");
         System.out.println("📝 [SemanticTranslator] 批量翻译记谱数量: " + notations.size());
         System.out.println("📋 [SemanticTranslator] 记谱列表: " + notations.toString());
         System.out.println("🔧 [SemanticTranslator] 即将调用python-chinese-chess库进行批量翻译...");
@@ -195,9 +233,9 @@ public class SemanticTranslatorService {
             String result = executePythonScript("batch", notationsJson);
             if (result != null) {
                 Type listType = new TypeToken<List<TranslationResult>>(){}.getType();
-                List<TranslationResult> results = gson.fromJson(result, listType);
-                System.out.println("✅ [SemanticTranslator] 批量翻译成功，返回 " + results.size() + " 个结果");
-                return results;
+                List<TranslationResult> pythonResults = gson.fromJson(result, listType);
+                System.out.println("✅ [SemanticTranslator] 批量翻译成功，返回 " + pythonResults.size() + " 个结果");
+                return pythonResults;
             } else {
                 System.err.println("❌ [SemanticTranslator] Python脚本返回null结果");
             }
@@ -205,7 +243,51 @@ public class SemanticTranslatorService {
             System.err.println("❌ [SemanticTranslator] 批量翻译失败: " + e.getMessage());
             e.printStackTrace();
         }
-        return new ArrayList<>();
+        return results;
+    }
+    
+    /**
+     * 在给定局面上批量翻译一串记谱为UCI（红黑交替走子）
+     * 
+     * @param notations 中文记谱列表，如整条主要变例
+     * @param board 起始局面
+     * @param firstSide 第一步的走棋方
+     * @return 翻译结果列表，无法翻译的记谱及其后续走法标记为失败
+     */
+    public List<TranslationResult> translateBatch(List<String> notations, Board board, PieceColor firstSide) {
+        List<String> ucis = ChineseNotationTranslator.translateLineToUci(notations, board, firstSide);
+        List<TranslationResult> results = new ArrayList<>(notations.size());
+        for (int i = 0; i < notations.size(); i++) {
+            String notation = notations.get(i);
+            TranslationResult result = new TranslationResult();
+            result.setOriginal(notation);
+            ChineseNotationTranslator.Notation parsed = ChineseNotationTranslator.parse(notation);
+            if (parsed != null) {
+                result.setParsed(toParseResult(parsed));
+            }
+            if (i < ucis.size()) {
+                result.setUci(ucis.get(i));
+                result.setSuccess(true);
+            } else {
+                result.setError("无法在当前局面翻译记谱: " + notation);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+    
+    /**
+     * 将UCI走法翻译为中文记谱
+     */
+    public String toChineseNotation(String uci, Board board) {
+        return ChineseNotationTranslator.toChinese(uci, board);
+    }
+    
+    /**
+     * 将中文记谱翻译为UCI走法
+     */
+    public String toUci(String notation, Board board, PieceColor side) {
+        return ChineseNotationTranslator.toUci(notation, board, side);
     }
     
     /**
@@ -215,7 +297,12 @@ public class SemanticTranslatorService {
      * @return 验证结果
      */
     public ValidationResult validateNotation(String notation) {
-        System.out.println("🎯 [SemanticTranslator] validateNotation() 被调用");
+        ChineseNotationTranslator.Notation parsed = ChineseNotationTranslator.parse(notation);
+        if (parsed != null || !isPythonFallbackReady()) {
+            return validateNatively(notation, parsed);
+        }
+        
+        System.out.println("🎯 [SemanticTranslator] validateNotation() 使用Python备用路径");
         System.out.println("📝 [SemanticTranslator] 验证记谱: '" + notation + "'");
         System.out.println("🔧 [SemanticTranslator] 即将调用python-chinese-chess库进行记谱验证...");
         
@@ -238,6 +325,68 @@ public class SemanticTranslatorService {
         return null;
     }
     
+    /**
+     * 本地验证记谱格式，错误信息与Python脚本保持一致
+     */
+    private ValidationResult validateNatively(String notation, ChineseNotationTranslator.Notation parsed) {
+        ValidationResult result = new ValidationResult();
+        result.setFormat("中文象棋标准记谱");
+        result.setSuggestions(new ArrayList<>());
+        if (parsed != null) {
+            result.setValid(true);
+            result.setParsed(toParseResult(parsed));
+            return result;
+        }
+        
+        result.setValid(false);
+        if (notation == null || notation.trim().isEmpty()) {
+            result.setError("记谱不能为空");
+            result.setSuggestions(Arrays.asList("请输入有效的中文象棋记谱"));
+        } else if (!notation.matches(".*[将帅士仕象相马馬車车炮砲兵卒].*")) {
+            result.setError("未识别到有效棋子");
+            result.setSuggestions(Arrays.asList("请确保记谱包含棋子名称：马、车、炮、兵、将、士、象等"));
+        } else if (!notation.matches(".*[进退平].*")) {
+            result.setError("未识别到有效动作");
+            result.setSuggestions(Arrays.asList("请确保记谱包含动作：进、退、平"));
+        } else {
+            result.setError("记谱格式不正确");
+            result.setSuggestions(Arrays.asList("标准格式：棋子+位置+动作+目标", "如：红马二进三、炮8平5、前车进二"));
+        }
+        return result;
+    }
+    
+    /**
+     * 转换为与Python脚本输出一致的解析结果
+     */
+    private ParseResult toParseResult(ChineseNotationTranslator.Notation parsed) {
+        ParseResult result = new ParseResult();
+        result.setColor(parsed.color == null ? "未知" : (parsed.color == PieceColor.RED ? "红方" : "黑方"));
+        result.setPieceType(parsed.getCanonicalPieceName());
+        result.setPieceCode(parsed.getPieceCode());
+        result.setStartFile(parsed.startFile > 0 ? parsed.startFile : null);
+        result.setAction(String.valueOf(parsed.action));
+        if (parsed.isTargetFile()) {
+            result.setEndFile(parsed.target);
+        } else {
+            result.setEndRank(parsed.target);
+        }
+        result.setOriginalNotation(parsed.original);
+        return result;
+    }
+    
+    /**
+     * Python备用路径是否可用：需要配置开启且环境就绪
+     */
+    private boolean isPythonFallbackReady() {
+        if (!pythonFallbackEnabled) {
+            return false;
+        }
+        if (pythonReady == null) {
+            pythonReady = isPythonAvailable() && isTranslatorScriptAvailable();
+        }
+        return pythonReady;
+    }
+    
     /**
      * 智能解析记谱（包含验证和解析）
      * 
@@ -411,9 +560,14 @@ public class SemanticTranslatorService {
      */
     public Map<String, Object> getServiceStatus() {
         Map<String, Object> status = new HashMap<>();
-        status.put("pythonAvailable", isPythonAvailable());
-        status.put("scriptAvailable", isTranslatorScriptAvailable());
-        status.put("ready", isPythonAvailable() && isTranslatorScriptAvailable());
+        status.put("nativeAvailable", true);
+        status.put("pythonFallbackEnabled", pythonFallbackEnabled);
+        if (pythonFallbackEnabled) {
+            status.put("pythonAvailable", isPythonFallbackReady());
+            status.put("scriptAvailable", isTranslatorScriptAvailable());
+        }
+        // 本地翻译器始终可用
+        status.put("ready", true);
         return status;
     }
 }
\ No newline at end of file
@@ -0,0 +1,581 @@
+package com.example.chinesechess.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * 紧凑的中国象棋局面
+ * <p>
+ * 用90字节的数组表示棋盘（格子编号 = 行*9+列，第0行为黑方底线），不创建棋子对象，
+ * 供服务器校验走法、判断胜负和生成同步快照。与 {@link Board} 的区别：
+ * <ul>
+ *   <li>合法性只检查单个棋子的走法规则，再试走一步看己方将帅是否受攻击</li>
+ *   <li>将军检测从将帅位置反查车、炮、马、兵和对面的将帅（包括白脸将），不扫描全盘</li>
+ *   <li>是否还有合法走法只生成己方棋子的目标格，找到一步即返回</li>
+ *   <li>维护增量Zobrist哈希，用于重复局面判断</li>
+ * </ul>
+ * 走法用 {@code (起点格 << 8) | 终点格} 的int表示。非线程安全。
+ */
+public final class XiangqiPosition {
+
+    public static final int ROWS = 10;
+    public static final int COLS = 9;
+    public static final int SQUARES = ROWS * COLS;
+    /** 任意局面合法走法数的上限 */
+    public static final int MAX_MOVES = 128;
+
+    /** 开局局面的FEN */
+    public static final String INITIAL_FEN = "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w - - 0 1";
+
+    // 棋子编码：低3位为兵种，BLACK_FLAG表示黑方，0为空格
+    public static final int EMPTY = 0;
+    public static final int KING = 1;
+    public static final int ADVISOR = 2;
+    public static final int BISHOP = 3;
+    public static final int KNIGHT = 4;
+    public static final int ROOK = 5;
+    public static final int CANNON = 6;
+    public static final int PAWN = 7;
+    public static final int BLACK_FLAG = 8;
+
+    private static final String FEN_CHARS = ".kabnrcp";
+
+    private static final int[][] ORTHOGONAL = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] DIAGONAL = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final int[][] BISHOP_STEPS = {{-2, -2}, {-2, 2}, {2, -2}, {2, 2}};
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {2, -1}, {2, 1}, {-1, -2}, {1, -2}, {-1, 2}, {1, 2}};
+
+    private static final long[][] ZOBRIST = new long[16][SQUARES];
+    private static final long ZOBRIST_BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5851F42D4C957F2DL);
+        for (long[] keys : ZOBRIST) {
+            for (int i = 0; i < SQUARES; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        ZOBRIST_BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private final byte[] squares = new byte[SQUARES];
+    // 红、黑将帅所在格子，-1表示不在棋盘上
+    private int redKing = -1;
+    private int blackKing = -1;
+    private PieceColor sideToMove = PieceColor.RED;
+    private long hash;
+
+    private XiangqiPosition() {
+    }
+
+    /**
+     * 开局局面
+     */
+    public static XiangqiPosition initial() {
+        return fromFen(INITIAL_FEN);
+    }
+
+    /**
+     * 从FEN解析局面（只使用棋盘和行棋方两个字段）
+     *
+     * @throws IllegalArgumentException FEN格式错误
+     */
+    public static XiangqiPosition fromFen(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+        String[] parts = fen.trim().split("\\s+");
+        XiangqiPosition position = new XiangqiPosition();
+        int row = 0;
+        int col = 0;
+        for (int i = 0; i < parts[0].length(); i++) {
+            char c = parts[0].charAt(i);
+            if (c == '/') {
+                if (col != COLS) {
+                    throw new IllegalArgumentException("Bad FEN row " + row + ": " + fen);
+                }
+                row++;
+                col = 0;
+            } else if (c >= '1' && c <= '9') {
+                col += c - '0';
+            } else {
+                int type = FEN_CHARS.indexOf(Character.toLowerCase(c));
+                if (type <= 0 || row >= ROWS || col >= COLS) {
+                    throw new IllegalArgumentException("Bad FEN: " + fen);
+                }
+                position.put(row * COLS + col, Character.isUpperCase(c) ? type : type | BLACK_FLAG);
+                col++;
+            }
+            if (col > COLS) {
+                throw new IllegalArgumentException("Bad FEN row " + row + ": " + fen);
+            }
+        }
+        if (row != ROWS - 1 || col != COLS) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+        if (parts.length > 1 && "b".equals(parts[1])) {
+            position.sideToMove = PieceColor.BLACK;
+            position.hash ^= ZOBRIST_BLACK_TO_MOVE;
+        }
+        return position;
+    }
+
+    /**
+     * 从 {@link Board} 转换
+     */
+    public static XiangqiPosition fromBoard(Board board, PieceColor sideToMove) {
+        XiangqiPosition position = new XiangqiPosition();
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                Piece piece = board.getPiece(row, col);
+                if (piece != null) {
+                    int type = typeOf(piece);
+                    position.put(row * COLS + col, piece.getColor() == PieceColor.RED ? type : type | BLACK_FLAG);
+                }
+            }
+        }
+        if (sideToMove == PieceColor.BLACK) {
+            position.sideToMove = PieceColor.BLACK;
+            position.hash ^= ZOBRIST_BLACK_TO_MOVE;
+        }
+        return position;
+    }
+
+    public XiangqiPosition copy() {
+        XiangqiPosition copy = new XiangqiPosition();
+        System.arraycopy(squares, 0, copy.squares, 0, SQUARES);
+        copy.redKing = redKing;
+        copy.blackKing = blackKing;
+        copy.sideToMove = sideToMove;
+        copy.hash = hash;
+        return copy;
+    }
+
+    private void put(int square, int piece) {
+        squares[square] = (byte) piece;
+        hash ^= ZOBRIST[piece][square];
+        if (piece == KING) {
+            redKing = square;
+        } else if (piece == (KING | BLACK_FLAG)) {
+            blackKing = square;
+        }
+    }
+
+    // ==================== 走法 ====================
+
+    public static int encodeMove(int from, int to) {
+        return (from << 8) | to;
+    }
+
+    public static int moveFrom(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    public static int moveTo(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * 当前行棋方走这一步是否合法（含不能送将、不能让将帅照面）
+     */
+    public boolean isLegalMove(int from, int to) {
+        if (from < 0 || from >= SQUARES || to < 0 || to >= SQUARES) {
+            return false;
+        }
+        int piece = squares[from];
+        if (piece == EMPTY || colorOf(piece) != sideToMove || !isPseudoLegal(from, to)) {
+            return false;
+        }
+        return isSafe(from, to);
+    }
+
+    /**
+     * 走一步棋，不做合法性检查
+     *
+     * @return 被吃掉的棋子编码，没有吃子时为 {@link #EMPTY}
+     */
+    public int makeMove(int from, int to) {
+        int piece = squares[from];
+        int captured = squares[to];
+        hash ^= ZOBRIST[piece][from] ^ ZOBRIST[piece][to] ^ ZOBRIST_BLACK_TO_MOVE;
+        if (captured != EMPTY) {
+            hash ^= ZOBRIST[captured][to];
+            if (captured == KING) {
+                redKing = -1;
+            } else if (captured == (KING | BLACK_FLAG)) {
+                blackKing = -1;
+            }
+        }
+        squares[to] = (byte) piece;
+        squares[from] = EMPTY;
+        if (piece == KING) {
+            redKing = to;
+        } else if (piece == (KING | BLACK_FLAG)) {
+            blackKing = to;
+        }
+        sideToMove = sideToMove.getOpposite();
+        return captured;
+    }
+
+    /**
+     * 撤销 {@link #makeMove}
+     */
+    public void unmakeMove(int from, int to, int captured) {
+        int piece = squares[to];
+        squares[from] = (byte) piece;
+        squares[to] = (byte) captured;
+        hash ^= ZOBRIST[piece][from] ^ ZOBRIST[piece][to] ^ ZOBRIST_BLACK_TO_MOVE;
+        if (captured != EMPTY) {
+            hash ^= ZOBRIST[captured][to];
+        }
+        if (piece == KING) {
+            redKing = from;
+        } else if (piece == (KING | BLACK_FLAG)) {
+            blackKing = from;
+        }
+        if (captured == KING) {
+            redKing = to;
+        } else if (captured == (KING | BLACK_FLAG)) {
+            blackKing = to;
+        }
+        sideToMove = sideToMove.getOpposite();
+    }
+
+    private boolean isSafe(int from, int to) {
+        PieceColor mover = sideToMove;
+        int captured = makeMove(from, to);
+        boolean safe = !isInCheck(mover);
+        unmakeMove(from, to, captured);
+        return safe;
+    }
+
+    /**
+     * 只按棋子走法规则判断（不检查送将）
+     */
+    private boolean isPseudoLegal(int from, int to) {
+        if (from == to) {
+            return false;
+        }
+        int piece = squares[from];
+        int target = squares[to];
+        if (target != EMPTY && (target & BLACK_FLAG) == (piece & BLACK_FLAG)) {
+            return false;
+        }
+        boolean red = (piece & BLACK_FLAG) == 0;
+        int fr = from / COLS;
+        int fc = from % COLS;
+        int tr = to / COLS;
+        int tc = to % COLS;
+        int dr = tr - fr;
+        int dc = tc - fc;
+        switch (piece & 7) {
+            case KING:
+                return inPalace(tr, tc, red) && Math.abs(dr) + Math.abs(dc) == 1;
+            case ADVISOR:
+                return inPalace(tr, tc, red) && Math.abs(dr) == 1 && Math.abs(dc) == 1;
+            case BISHOP:
+                return Math.abs(dr) == 2 && Math.abs(dc) == 2 && (red ? tr >= 5 : tr <= 4)
+                        && squares[from + (dr / 2) * COLS + dc / 2] == EMPTY;
+            case KNIGHT:
+                if (Math.abs(dr) == 2 && Math.abs(dc) == 1) {
+                    return squares[from + (dr / 2) * COLS] == EMPTY;
+                }
+                return Math.abs(dr) == 1 && Math.abs(dc) == 2 && squares[from + dc / 2] == EMPTY;
+            case ROOK:
+                return (dr == 0 || dc == 0) && countBetween(from, to) == 0;
+            case CANNON:
+                if (dr != 0 && dc != 0) {
+                    return false;
+                }
+                return countBetween(from, to) == (target == EMPTY ? 0 : 1);
+            case PAWN: {
+                int forward = red ? -1 : 1;
+                if (dr == forward && dc == 0) {
+                    return true;
+                }
+                boolean crossed = red ? fr <= 4 : fr >= 5;
+                return crossed && dr == 0 && Math.abs(dc) == 1;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private int countBetween(int from, int to) {
+        int fr = from / COLS;
+        int tr = to / COLS;
+        int step = fr == tr ? Integer.signum(to - from) : Integer.signum(tr - fr) * COLS;
+        int count = 0;
+        for (int s = from + step; s != to; s += step) {
+            if (squares[s] != EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean inPalace(int row, int col, boolean red) {
+        return col >= 3 && col <= 5 && (red ? row >= 7 : row <= 2);
+    }
+
+    // ==================== 将军与终局 ====================
+
+    /**
+     * 指定一方的将帅是否受到攻击（包括将帅照面）
+     */
+    public boolean isInCheck(PieceColor color) {
+        int king = color == PieceColor.RED ? redKing : blackKing;
+        if (king < 0) {
+            return false;
+        }
+        int enemy = color == PieceColor.RED ? BLACK_FLAG : 0;
+        int kr = king / COLS;
+        int kc = king % COLS;
+
+        // 直线方向：第一个子是车或对方将帅（纵向）即被将，第二个子是炮即被将
+        for (int[] dir : ORTHOGONAL) {
+            int r = kr + dir[0];
+            int c = kc + dir[1];
+            boolean screened = false;
+            while (r >= 0 && r < ROWS && c >= 0 && c < COLS) {
+                int piece = squares[r * COLS + c];
+                if (piece != EMPTY) {
+                    if (!screened) {
+                        if (piece == (ROOK | enemy) || (dir[1] == 0 && piece == (KING | enemy))) {
+                            return true;
+                        }
+                        screened = true;
+                    } else {
+                        if (piece == (CANNON | enemy)) {
+                            return true;
+                        }
+                        break;
+                    }
+                }
+                r += dir[0];
+                c += dir[1];
+            }
+        }
+
+        // 马：从将帅位置反推马的位置，马腿在马的一侧
+        for (int[] step : KNIGHT_STEPS) {
+            int r = kr + step[0];
+            int c = kc + step[1];
+            if (r < 0 || r >= ROWS || c < 0 || c >= COLS || squares[r * COLS + c] != (KNIGHT | enemy)) {
+                continue;
+            }
+            int legRow = Math.abs(step[0]) == 2 ? r - step[0] / 2 : r;
+            int legCol = Math.abs(step[1]) == 2 ? c - step[1] / 2 : c;
+            if (squares[legRow * COLS + legCol] == EMPTY) {
+                return true;
+            }
+        }
+
+        // 兵卒：正前方或过河后的左右
+        int pawn = PAWN | enemy;
+        int front = color == PieceColor.RED ? kr - 1 : kr + 1;
+        if (front >= 0 && front < ROWS && squares[front * COLS + kc] == pawn) {
+            return true;
+        }
+        return (kc > 0 && squares[king - 1] == pawn) || (kc < COLS - 1 && squares[king + 1] == pawn);
+    }
+
+    /**
+     * 当前行棋方是否还有合法走法
+     */
+    public boolean hasLegalMove() {
+        int own = sideToMove == PieceColor.RED ? 0 : BLACK_FLAG;
+        for (int from = 0; from < SQUARES; from++) {
+            int piece = squares[from];
+            if (piece != EMPTY && (piece & BLACK_FLAG) == own && addLegalMoves(from, piece & 7, null, 0) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成当前行棋方的全部合法走法（编码见 {@link #encodeMove}）
+     *
+     * @param moves 输出数组，长度至少为 {@link #MAX_MOVES}
+     * @return 走法数量
+     */
+    public int generateLegalMoves(int[] moves) {
+        int own = sideToMove == PieceColor.RED ? 0 : BLACK_FLAG;
+        int count = 0;
+        for (int from = 0; from < SQUARES; from++) {
+            int piece = squares[from];
+            if (piece != EMPTY && (piece & BLACK_FLAG) == own) {
+                count = addLegalMoves(from, piece & 7, moves, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 追加一个棋子的合法走法；moves为null时找到第一步即返回
+     */
+    private int addLegalMoves(int from, int type, int[] moves, int count) {
+        int fr = from / COLS;
+        int fc = from % COLS;
+        switch (type) {
+            case KING:
+            case PAWN:
+                return addTargets(from, fr, fc, ORTHOGONAL, moves, count);
+            case ADVISOR:
+                return addTargets(from, fr, fc, DIAGONAL, moves, count);
+            case BISHOP:
+                return addTargets(from, fr, fc, BISHOP_STEPS, moves, count);
+            case KNIGHT:
+                return addTargets(from, fr, fc, KNIGHT_STEPS, moves, count);
+            case ROOK:
+            case CANNON:
+                for (int[] dir : ORTHOGONAL) {
+                    int r = fr + dir[0];
+                    int c = fc + dir[1];
+                    while (r >= 0 && r < ROWS && c >= 0 && c < COLS) {
+                        int to = r * COLS + c;
+                        if (isPseudoLegal(from, to) && isSafe(from, to)) {
+                            if (moves == null) {
+                                return 1;
+                            }
+                            moves[count++] = encodeMove(from, to);
+                        }
+                        r += dir[0];
+                        c += dir[1];
+                    }
+                }
+                return count;
+            default:
+                return count;
+        }
+    }
+
+    private int addTargets(int from, int fr, int fc, int[][] steps, int[] moves, int count) {
+        for (int[] step : steps) {
+            int r = fr + step[0];
+            int c = fc + step[1];
+            if (r < 0 || r >= ROWS || c < 0 || c >= COLS) {
+                continue;
+            }
+            int to = r * COLS + c;
+            if (isPseudoLegal(from, to) && isSafe(from, to)) {
+                if (moves == null) {
+                    return 1;
+                }
+                moves[count++] = encodeMove(from, to);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 当前行棋方视角的对局状态。无子可走时：被将为负，未被将按困毙判和（与 {@link Board#checkGameState} 一致）。
+     * 重复局面由调用方根据 {@link #getHash()} 判断。
+     */
+    public GameState getGameState() {
+        if (redKing < 0) {
+            return GameState.BLACK_WINS;
+        }
+        if (blackKing < 0) {
+            return GameState.RED_WINS;
+        }
+        boolean inCheck = isInCheck(sideToMove);
+        if (!hasLegalMove()) {
+            if (!inCheck) {
+                return GameState.DRAW;
+            }
+            return sideToMove == PieceColor.RED ? GameState.BLACK_WINS : GameState.RED_WINS;
+        }
+        return inCheck ? GameState.IN_CHECK : GameState.PLAYING;
+    }
+
+    // ==================== 转换 ====================
+
+    /**
+     * 生成FEN，格式与 {@code FenConverter.boardToFen} 相同
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(64);
+        for (int row = 0; row < ROWS; row++) {
+            int empty = 0;
+            for (int col = 0; col < COLS; col++) {
+                int piece = squares[row * COLS + col];
+                if (piece == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char c = FEN_CHARS.charAt(piece & 7);
+                fen.append((piece & BLACK_FLAG) == 0 ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row < ROWS - 1) {
+                fen.append('/');
+            }
+        }
+        return fen.append(sideToMove == PieceColor.RED ? " w" : " b").append(" - - 0 1").toString();
+    }
+
+    /**
+     * 转换为 {@link Board}，供AI引擎和界面使用
+     */
+    public Board toBoard() {
+        Board board = new Board();
+        board.clearBoard();
+        for (int square = 0; square < SQUARES; square++) {
+            int piece = squares[square];
+            if (piece != EMPTY) {
+                board.setPiece(square / COLS, square % COLS, createPiece(piece));
+            }
+        }
+        return board;
+    }
+
+    private static Piece createPiece(int piece) {
+        PieceColor color = colorOf(piece);
+        switch (piece & 7) {
+            case KING: return new General(color);
+            case ADVISOR: return new Advisor(color);
+            case BISHOP: return new Elephant(color);
+            case KNIGHT: return new Horse(color);
+            case ROOK: return new Chariot(color);
+            case CANNON: return new Cannon(color);
+            default: return new Soldier(color);
+        }
+    }
+
+    private static int typeOf(Piece piece) {
+        if (piece instanceof General) return KING;
+        if (piece instanceof Advisor) return ADVISOR;
+        if (piece instanceof Elephant) return BISHOP;
+        if (piece instanceof Horse) return KNIGHT;
+        if (piece instanceof Chariot) return ROOK;
+        if (piece instanceof Cannon) return CANNON;
+        return PAWN;
+    }
+
+    private static PieceColor colorOf(int piece) {
+        return (piece & BLACK_FLAG) == 0 ? PieceColor.RED : PieceColor.BLACK;
+    }
+
+    // ==================== 访问器 ====================
+
+    /** 格子上的棋子编码 */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+
+    /** 局面的Zobrist哈希（含行棋方） */
+    public long getHash() {
+        return hash;
+    }
+}
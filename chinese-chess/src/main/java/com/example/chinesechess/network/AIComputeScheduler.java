@@ -0,0 +1,255 @@
+package com.example.chinesechess.network;
+
+import com.example.chinesechess.ai.CancellationToken;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 服务器AI计算调度器
+ * <p>
+ * 所有托管AI的房间共享固定数量的计算线程：
+ * <ul>
+ *   <li>每个房间同时最多只有一个计算任务，房间之间按轮转顺序分配线程，长考的房间不会饿死其他房间</li>
+ *   <li>每个任务有时间片，到期后通过 {@link CancellationToken} 取消，AI返回已完成深度的结果；
+ *       排队房间多于线程数时时间片按比例缩短</li>
+ *   <li>置换表内存预算按已注册房间数平均分配</li>
+ * </ul>
+ */
+public class AIComputeScheduler {
+
+    /** 时间片下限，保证高负载时每步至少能完成浅层搜索 */
+    private static final long MIN_SLICE_MS = 200;
+
+    /**
+     * 一次计算的上下文
+     */
+    public static class ComputeContext {
+        private final CancellationToken token;
+        private final long sliceMs;
+        private final int ttBudgetEntries;
+
+        ComputeContext(CancellationToken token, long sliceMs, int ttBudgetEntries) {
+            this.token = token;
+            this.sliceMs = sliceMs;
+            this.ttBudgetEntries = ttBudgetEntries;
+        }
+
+        /** 时间片到期或房间关闭时被取消 */
+        public CancellationToken getToken() { return token; }
+        /** 本次计算可用的时间片（毫秒） */
+        public long getSliceMs() { return sliceMs; }
+        /** 本房间可用的置换表条目数 */
+        public int getTtBudgetEntries() { return ttBudgetEntries; }
+    }
+
+    private static class Job<T> {
+        final String roomId;
+        final Function<ComputeContext, T> task;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long enqueuedAt = System.currentTimeMillis();
+        final CancellationToken token = new CancellationToken();
+
+        Job(String roomId, Function<ComputeContext, T> task) {
+            this.roomId = roomId;
+            this.task = task;
+        }
+    }
+
+    private final int threads;
+    private final long sliceMs;
+    private final long ttBudgetEntries;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService watchdog;
+    private final RoomLatencyMetrics metrics = new RoomLatencyMetrics();
+
+    // 以下状态由this锁保护
+    private final Map<String, ArrayDeque<Job<?>>> roomQueues = new HashMap<>();
+    private final ArrayDeque<String> readyRooms = new ArrayDeque<>();
+    private final Set<String> runningRooms = new HashSet<>();
+    private final Map<String, Job<?>> runningJobs = new HashMap<>();
+    private final Set<String> registeredRooms = new HashSet<>();
+    private boolean shutdown = false;
+
+    /**
+     * @param threads 计算线程数（线程配额）
+     * @param sliceMs 每步默认时间片（毫秒）
+     * @param ttBudgetEntries 所有房间共享的置换表条目预算
+     */
+    public AIComputeScheduler(int threads, long sliceMs, long ttBudgetEntries) {
+        this.threads = Math.max(1, threads);
+        this.sliceMs = Math.max(MIN_SLICE_MS, sliceMs);
+        this.ttBudgetEntries = Math.max(1024, ttBudgetEntries);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "AI-Compute-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "AI-Compute-Watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 注册托管AI的房间，参与内存预算分配
+     */
+    public synchronized void registerRoom(String roomId) {
+        registeredRooms.add(roomId);
+    }
+
+    /**
+     * 注销房间：丢弃排队任务，取消正在进行的计算
+     */
+    public synchronized void unregisterRoom(String roomId) {
+        registeredRooms.remove(roomId);
+        ArrayDeque<Job<?>> queue = roomQueues.remove(roomId);
+        if (queue != null) {
+            queue.forEach(job -> job.future.cancel(false));
+        }
+        readyRooms.remove(roomId);
+        Job<?> running = runningJobs.get(roomId);
+        if (running != null) {
+            running.token.cancel();
+            running.future.cancel(false);
+        }
+        metrics.removeRoom(roomId);
+    }
+
+    /**
+     * 提交一个房间的计算任务，同一房间的任务按提交顺序串行执行
+     */
+    public synchronized <T> CompletableFuture<T> submit(String roomId, Function<ComputeContext, T> task) {
+        Job<T> job = new Job<>(roomId, task);
+        if (shutdown) {
+            job.future.cancel(false);
+            return job.future;
+        }
+        ArrayDeque<Job<?>> queue = roomQueues.computeIfAbsent(roomId, id -> new ArrayDeque<>());
+        queue.add(job);
+        if (queue.size() == 1 && !runningRooms.contains(roomId)) {
+            readyRooms.add(roomId);
+        }
+        dispatch();
+        return job.future;
+    }
+
+    /**
+     * 在有空闲线程时按轮转顺序取出下一个房间的任务
+     */
+    private void dispatch() {
+        while (runningRooms.size() < threads && !readyRooms.isEmpty()) {
+            String roomId = readyRooms.poll();
+            ArrayDeque<Job<?>> queue = roomQueues.get(roomId);
+            Job<?> job = queue != null ? queue.poll() : null;
+            if (job == null) {
+                continue;
+            }
+            if (queue.isEmpty()) {
+                roomQueues.remove(roomId);
+            }
+            runningRooms.add(roomId);
+            runningJobs.put(roomId, job);
+            ComputeContext context = new ComputeContext(job.token, currentSliceMs(), currentTtBudget());
+            workers.execute(() -> run(job, context));
+        }
+    }
+
+    private <T> void run(Job<T> job, ComputeContext context) {
+        long startedAt = System.currentTimeMillis();
+        ScheduledFuture<?> timeout = watchdog.schedule(job.token::cancel, context.getSliceMs(), TimeUnit.MILLISECONDS);
+        try {
+            if (!job.future.isDone()) {
+                T result = job.task.apply(context);
+                metrics.record(job.roomId, startedAt - job.enqueuedAt, System.currentTimeMillis() - startedAt);
+                job.future.complete(result);
+            }
+        } catch (Throwable t) {
+            job.future.completeExceptionally(t);
+        } finally {
+            timeout.cancel(false);
+            finish(job.roomId);
+        }
+    }
+
+    private synchronized void finish(String roomId) {
+        runningRooms.remove(roomId);
+        runningJobs.remove(roomId);
+        ArrayDeque<Job<?>> queue = roomQueues.get(roomId);
+        if (queue != null && !queue.isEmpty()) {
+            // 放到队尾，让其他等待中的房间先拿到线程
+            readyRooms.add(roomId);
+        }
+        dispatch();
+    }
+
+    /**
+     * 排队房间多于线程数时按比例缩短时间片
+     */
+    private long currentSliceMs() {
+        int demand = runningRooms.size() + readyRooms.size();
+        if (demand <= threads) {
+            return sliceMs;
+        }
+        return Math.max(MIN_SLICE_MS, sliceMs * threads / demand);
+    }
+
+    private int currentTtBudget() {
+        long perRoom = ttBudgetEntries / Math.max(1, registeredRooms.size());
+        return (int) Math.min(Integer.MAX_VALUE, perRoom);
+    }
+
+    public RoomLatencyMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /** 正在计算的房间数 */
+    public synchronized int getRunningCount() {
+        return runningRooms.size();
+    }
+
+    /** 等待线程的房间数 */
+    public synchronized int getWaitingRoomCount() {
+        return readyRooms.size();
+    }
+
+    public synchronized int getRegisteredRoomCount() {
+        return registeredRooms.size();
+    }
+
+    /**
+     * 关闭调度器，取消全部任务
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            for (String roomId : new HashSet<>(registeredRooms)) {
+                unregisterRoom(roomId);
+            }
+            roomQueues.values().forEach(queue -> queue.forEach(job -> job.future.cancel(false)));
+            roomQueues.clear();
+            readyRooms.clear();
+            runningJobs.values().forEach(job -> job.token.cancel());
+        }
+        workers.shutdownNow();
+        watchdog.shutdownNow();
+    }
+}
@@ -0,0 +1,631 @@
+package com.example.chinesechess.network;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制消息编解码器
+ * <p>
+ * 每种 {@link NetworkMessage.MessageType} 有固定的字段顺序，不传字段名：
+ * <ul>
+ *   <li>首字节为 0x80 | 消息类型序号，与JSON的 '{' 区分，两种消息体可以在同一连接上混用</li>
+ *   <li>整数用zigzag varint，布尔值一个字节，走法用两个字节的格子编号（行*9+列）</li>
+ *   <li>玩家ID、房间ID、颜色等反复出现的短字符串按连接驻留：第一次发原文并登记编号，之后只发编号</li>
+ *   <li>不传消息ID和时间戳，接收方需要时在本地生成</li>
+ * </ul>
+ * 驻留表是有状态的，所以每个连接的每个方向各用一个实例，并且编码顺序必须与写出顺序一致。
+ * 没有定义格式的消息类型由调用方回退为JSON消息体。
+ */
+public class BinaryMessageCodec {
+
+    /** 二进制消息体首字节的标志位 */
+    private static final int TYPE_FLAG = 0x80;
+    /** 每个方向最多驻留的字符串数，超出后按原文发送 */
+    public static final int MAX_INTERNED = 4096;
+    /** 超过该长度的字符串不驻留 */
+    private static final int MAX_INTERNED_LENGTH = 64;
+
+    // 字符串标记：0=null，1=原文并登记驻留，2=仅原文，>=3为驻留编号+3
+    private static final int STR_NULL = 0;
+    private static final int STR_INTERN = 1;
+    private static final int STR_LITERAL = 2;
+    private static final int STR_REF_BASE = 3;
+
+    private static final int BOARD_ROWS = 10;
+    private static final int BOARD_COLS = 9;
+
+    // 编码方向：复用的输出缓冲区和驻留表
+    private final Map<String, Integer> encodeTable = new HashMap<>();
+    private byte[] out = new byte[256];
+    private int size;
+
+    // 解码方向
+    private final List<String> decodeTable = new ArrayList<>();
+
+    /**
+     * 消息体是否为二进制格式（否则为JSON文本）
+     */
+    public static boolean isBinaryPayload(ByteBuffer payload) {
+        return payload.hasRemaining() && (payload.get(payload.position()) & TYPE_FLAG) != 0;
+    }
+
+    /**
+     * 是否可以用二进制格式编码该消息
+     */
+    public static boolean supports(NetworkMessage message) {
+        switch (message.getType()) {
+            case MOVE:
+                MoveMessage move = (MoveMessage) message;
+                return onBoard(move.getFromRow(), move.getFromCol()) && onBoard(move.getToRow(), move.getToCol());
+            case CONNECT_REQUEST:
+            case CONNECT_RESPONSE:
+            case DISCONNECT:
+            case CREATE_ROOM_REQUEST:
+            case CREATE_ROOM_RESPONSE:
+            case JOIN_ROOM_REQUEST:
+            case JOIN_ROOM_RESPONSE:
+            case LEAVE_ROOM:
+            case ROOM_LIST_REQUEST:
+            case ROOM_LIST_RESPONSE:
+            case GAME_START:
+            case GAME_END:
+            case GAME_STATE_UPDATE:
+            case GAME_STATE_SYNC_REQUEST:
+            case GAME_STATE_SYNC_RESPONSE:
+            case HEARTBEAT:
+            case ERROR:
+            case CHAT:
+            case ROOM_UPDATE:
+            case REDIRECT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ==================== 编码 ====================
+
+    /**
+     * 编码一条消息为长度前缀帧。不支持二进制的消息编码为JSON消息体，接收方按首字节区分。
+     * 编码会更新驻留表，调用方必须按返回顺序写出。
+     */
+    public ByteBuffer encodeFrame(NetworkMessage message) {
+        if (!supports(message)) {
+            return FrameCodec.Framing.LENGTH_PREFIXED.encode(message.toJson());
+        }
+        size = 0;
+        writeByte(TYPE_FLAG | message.getType().ordinal());
+        writeString(message.getSenderId(), true);
+        writeBody(message);
+        return FrameCodec.Framing.LENGTH_PREFIXED.encode(out, 0, size);
+    }
+
+    private void writeBody(NetworkMessage message) {
+        switch (message.getType()) {
+            case CONNECT_REQUEST: {
+                ConnectRequestMessage m = (ConnectRequestMessage) message;
+                writeString(m.getPlayerName(), true);
+                writeString(m.getClientVersion(), true);
+                writeString(m.getWireFormat(), true);
+                writeString(m.getSessionToken(), false);
+                writeVarint(m.getLastReceivedSeq());
+                break;
+            }
+            case CONNECT_RESPONSE: {
+                ConnectResponseMessage m = (ConnectResponseMessage) message;
+                writeBoolean(m.isSuccess());
+                writeString(m.getPlayerId(), true);
+                writeString(m.getServerVersion(), true);
+                writeString(m.getErrorMessage(), false);
+                writeString(m.getWireFormat(), true);
+                writeString(m.getSessionToken(), false);
+                writeBoolean(m.isResumed());
+                writeBoolean(m.isReplayComplete());
+                writeVarint(m.getResumeSeq());
+                break;
+            }
+            case DISCONNECT:
+                writeString(((DisconnectMessage) message).getReason(), true);
+                break;
+            case CREATE_ROOM_REQUEST: {
+                CreateRoomRequestMessage m = (CreateRoomRequestMessage) message;
+                writeString(m.getRoomName(), false);
+                writeString(m.getPassword(), false);
+                writeInt(m.getMaxPlayers());
+                writeString(m.getGameType(), true);
+                writeString(m.getAiOpponent(), true);
+                writeInt(m.getAiDifficulty());
+                writeString(m.getRoomId(), true);
+                break;
+            }
+            case CREATE_ROOM_RESPONSE: {
+                CreateRoomResponseMessage m = (CreateRoomResponseMessage) message;
+                writeBoolean(m.isSuccess());
+                writeString(m.getRoomId(), true);
+                writeString(m.getErrorMessage(), false);
+                break;
+            }
+            case JOIN_ROOM_REQUEST: {
+                JoinRoomRequestMessage m = (JoinRoomRequestMessage) message;
+                writeString(m.getRoomId(), true);
+                writeString(m.getPassword(), false);
+                break;
+            }
+            case JOIN_ROOM_RESPONSE: {
+                JoinRoomResponseMessage m = (JoinRoomResponseMessage) message;
+                writeBoolean(m.isSuccess());
+                writeString(m.getRoomId(), true);
+                writeString(m.getOpponentName(), true);
+                writeString(m.getErrorMessage(), false);
+                break;
+            }
+            case LEAVE_ROOM:
+                writeString(((LeaveRoomMessage) message).getRoomId(), true);
+                break;
+            case ROOM_LIST_REQUEST: {
+                RoomListRequestMessage m = (RoomListRequestMessage) message;
+                writeString(m.getGameType(), true);
+                writeString(m.getState(), true);
+                writeInt(m.getOffset());
+                writeInt(m.getLimit());
+                writeBoolean(m.isSubscribe());
+                break;
+            }
+            case ROOM_LIST_RESPONSE: {
+                RoomListResponseMessage m = (RoomListResponseMessage) message;
+                writeRooms(m.getRooms());
+                writeInt(m.getTotalCount());
+                writeInt(m.getOffset());
+                writeBoolean(m.isSubscribed());
+                break;
+            }
+            case GAME_START: {
+                GameStartMessage m = (GameStartMessage) message;
+                writeString(m.getRedPlayer(), true);
+                writeString(m.getBlackPlayer(), true);
+                writeString(m.getYourColor(), true);
+                break;
+            }
+            case GAME_END: {
+                GameEndMessage m = (GameEndMessage) message;
+                writeString(m.getWinner(), true);
+                writeString(m.getReason(), true);
+                break;
+            }
+            case MOVE: {
+                MoveMessage m = (MoveMessage) message;
+                writeByte(m.getFromRow() * BOARD_COLS + m.getFromCol());
+                writeByte(m.getToRow() * BOARD_COLS + m.getToCol());
+                writeString(m.getMoveNotation(), false);
+                writeVarint(m.getPly());
+                break;
+            }
+            case GAME_STATE_UPDATE: {
+                GameStateUpdateMessage m = (GameStateUpdateMessage) message;
+                writeString(m.getGameState(), true);
+                writeString(m.getCurrentPlayer(), true);
+                writeBoolean(m.isGameOver());
+                writeString(m.getWinner(), true);
+                break;
+            }
+            case GAME_STATE_SYNC_REQUEST: {
+                GameStateSyncRequestMessage m = (GameStateSyncRequestMessage) message;
+                writeString(m.getRoomId(), true);
+                writeString(m.getReason(), true);
+                writeInt(m.getLastKnownPly());
+                break;
+            }
+            case GAME_STATE_SYNC_RESPONSE: {
+                GameStateSyncResponseMessage m = (GameStateSyncResponseMessage) message;
+                writeString(m.getRoomId(), true);
+                writeBoolean(m.isSuccess());
+                writeString(m.getErrorMessage(), false);
+                writeString(m.getRedPlayer(), true);
+                writeString(m.getBlackPlayer(), true);
+                writeString(m.getYourColor(), true);
+                writeString(m.getCurrentPlayer(), true);
+                writeString(m.getGameState(), true);
+                writeBoolean(m.isGameStarted());
+                writeBoolean(m.isGameOver());
+                writeString(m.getWinner(), true);
+                writeVarint(m.getPly());
+                writeVarint(m.getFromPly());
+                writeString(m.getBaseFen(), false);
+                int[] moves = m.getMoves();
+                writeVarint(moves == null ? 0 : moves.length + 1);
+                if (moves != null) {
+                    for (int move : moves) {
+                        writeByte(move >>> 8);
+                        writeByte(move & 0xFF);
+                    }
+                }
+                break;
+            }
+            case HEARTBEAT:
+                writeVarint(((HeartbeatMessage) message).getClientTime());
+                writeVarint(((HeartbeatMessage) message).getAckSeq());
+                break;
+            case ERROR: {
+                ErrorMessage m = (ErrorMessage) message;
+                writeString(m.getErrorCode(), true);
+                writeString(m.getErrorMessage(), false);
+                writeString(m.getDetails(), false);
+                break;
+            }
+            case CHAT: {
+                ChatMessage m = (ChatMessage) message;
+                writeString(m.getContent(), false);
+                writeString(m.getTargetType(), true);
+                writeString(m.getTargetId(), true);
+                break;
+            }
+            case ROOM_UPDATE: {
+                RoomUpdateMessage m = (RoomUpdateMessage) message;
+                writeString(m.getGameType(), true);
+                writeRooms(m.getAdded());
+                writeRooms(m.getChanged());
+                List<String> removed = m.getRemoved();
+                writeVarint(removed == null ? 0 : removed.size() + 1);
+                if (removed != null) {
+                    for (String roomId : removed) {
+                        writeString(roomId, true);
+                    }
+                }
+                break;
+            }
+            case REDIRECT: {
+                RedirectMessage m = (RedirectMessage) message;
+                writeString(m.getShardId(), true);
+                writeString(m.getHost(), true);
+                writeInt(m.getPort());
+                writeString(m.getRoomId(), true);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("No binary schema for " + message.getType());
+        }
+    }
+
+    /**
+     * 房间列表：数量+1（0表示null），随后逐个房间
+     */
+    private void writeRooms(List<RoomInfo> rooms) {
+        writeVarint(rooms == null ? 0 : rooms.size() + 1);
+        if (rooms != null) {
+            for (RoomInfo room : rooms) {
+                writeString(room.getRoomId(), true);
+                writeString(room.getRoomName(), false);
+                writeString(room.getHostName(), true);
+                writeInt(room.getCurrentPlayers());
+                writeInt(room.getMaxPlayers());
+                writeBoolean(room.isHasPassword());
+                writeString(room.getGameStatus(), true);
+                writeString(room.getGameType(), true);
+            }
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length * 2, size + extra));
+        }
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        out[size++] = (byte) value;
+    }
+
+    private void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    private void writeInt(int value) {
+        writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            out[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[size++] = (byte) value;
+    }
+
+    private void writeString(String value, boolean intern) {
+        if (value == null) {
+            writeVarint(STR_NULL);
+            return;
+        }
+        if (intern) {
+            Integer index = encodeTable.get(value);
+            if (index != null) {
+                writeVarint(STR_REF_BASE + index);
+                return;
+            }
+        }
+        boolean register = intern && encodeTable.size() < MAX_INTERNED && value.length() <= MAX_INTERNED_LENGTH;
+        if (register) {
+            encodeTable.put(value, encodeTable.size());
+        }
+        writeVarint(register ? STR_INTERN : STR_LITERAL);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, out, size, bytes.length);
+        size += bytes.length;
+    }
+
+    // ==================== 解码 ====================
+
+    /**
+     * 解码一个二进制消息体，必须按收到的顺序调用
+     *
+     * @throws IllegalArgumentException 消息体格式错误
+     */
+    public NetworkMessage decode(ByteBuffer payload) {
+        ByteBuffer in = payload.duplicate();
+        try {
+            int header = in.get() & 0xFF;
+            NetworkMessage.MessageType[] types = NetworkMessage.MessageType.values();
+            int ordinal = header & ~TYPE_FLAG;
+            if ((header & TYPE_FLAG) == 0 || ordinal >= types.length) {
+                throw new IllegalArgumentException("Unknown binary message header: " + header);
+            }
+            String senderId = readString(in);
+            NetworkMessage message = readBody(types[ordinal], senderId, in);
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes in " + types[ordinal] + ": " + in.remaining());
+            }
+            return message;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary message", e);
+        }
+    }
+
+    private NetworkMessage readBody(NetworkMessage.MessageType type, String senderId, ByteBuffer in) {
+        switch (type) {
+            case CONNECT_REQUEST: {
+                ConnectRequestMessage m = new ConnectRequestMessage(senderId, readString(in), readString(in));
+                m.setWireFormat(readString(in));
+                m.setSessionToken(readString(in));
+                m.setLastReceivedSeq(readVarint(in));
+                return m;
+            }
+            case CONNECT_RESPONSE: {
+                boolean success = readBoolean(in);
+                ConnectResponseMessage m = new ConnectResponseMessage(senderId, success, readString(in), readString(in));
+                m.setErrorMessage(readString(in));
+                m.setWireFormat(readString(in));
+                m.setSessionToken(readString(in));
+                m.setResumed(readBoolean(in));
+                m.setReplayComplete(readBoolean(in));
+                m.setResumeSeq(readVarint(in));
+                return m;
+            }
+            case DISCONNECT:
+                return new DisconnectMessage(senderId, readString(in));
+            case CREATE_ROOM_REQUEST: {
+                CreateRoomRequestMessage m = new CreateRoomRequestMessage(senderId, readString(in), readString(in),
+                        readInt(in), readString(in), readString(in), readInt(in));
+                m.setRoomId(readString(in));
+                return m;
+            }
+            case CREATE_ROOM_RESPONSE: {
+                boolean success = readBoolean(in);
+                CreateRoomResponseMessage m = new CreateRoomResponseMessage(senderId, readString(in));
+                m.setSuccess(success);
+                m.setErrorMessage(readString(in));
+                return m;
+            }
+            case JOIN_ROOM_REQUEST:
+                return new JoinRoomRequestMessage(senderId, readString(in), readString(in));
+            case JOIN_ROOM_RESPONSE: {
+                JoinRoomResponseMessage m = new JoinRoomResponseMessage(senderId, readBoolean(in), readString(in), readString(in));
+                m.setErrorMessage(readString(in));
+                return m;
+            }
+            case LEAVE_ROOM:
+                return new LeaveRoomMessage(senderId, readString(in));
+            case ROOM_LIST_REQUEST: {
+                RoomListRequestMessage m = new RoomListRequestMessage(senderId, readString(in));
+                m.setState(readString(in));
+                m.setOffset(readInt(in));
+                m.setLimit(readInt(in));
+                m.setSubscribe(readBoolean(in));
+                return m;
+            }
+            case ROOM_LIST_RESPONSE: {
+                RoomListResponseMessage m = new RoomListResponseMessage(senderId, readRooms(in));
+                m.setTotalCount(readInt(in));
+                m.setOffset(readInt(in));
+                m.setSubscribed(readBoolean(in));
+                return m;
+            }
+            case GAME_START:
+                return new GameStartMessage(senderId, readString(in), readString(in), readString(in));
+            case GAME_END:
+                return new GameEndMessage(senderId, readString(in), readString(in));
+            case MOVE: {
+                int from = readSquare(in);
+                int to = readSquare(in);
+                MoveMessage m = new MoveMessage(senderId, from / BOARD_COLS, from % BOARD_COLS,
+                        to / BOARD_COLS, to % BOARD_COLS, readString(in));
+                m.setPly((int) readVarint(in));
+                return m;
+            }
+            case GAME_STATE_UPDATE:
+                return new GameStateUpdateMessage(senderId, readString(in), readString(in), readBoolean(in), readString(in));
+            case GAME_STATE_SYNC_REQUEST: {
+                GameStateSyncRequestMessage m = new GameStateSyncRequestMessage(senderId, readString(in), readString(in));
+                m.setLastKnownPly(readInt(in));
+                return m;
+            }
+            case GAME_STATE_SYNC_RESPONSE: {
+                GameStateSyncResponseMessage m = new GameStateSyncResponseMessage();
+                m.setType(NetworkMessage.MessageType.GAME_STATE_SYNC_RESPONSE);
+                m.setSenderId(senderId);
+                m.setRoomId(readString(in));
+                m.setSuccess(readBoolean(in));
+                m.setErrorMessage(readString(in));
+                m.setRedPlayer(readString(in));
+                m.setBlackPlayer(readString(in));
+                m.setYourColor(readString(in));
+                m.setCurrentPlayer(readString(in));
+                m.setGameState(readString(in));
+                m.setGameStarted(readBoolean(in));
+                m.setGameOver(readBoolean(in));
+                m.setWinner(readString(in));
+                m.setPly((int) readVarint(in));
+                m.setFromPly((int) readVarint(in));
+                m.setBaseFen(readString(in));
+                long count = readVarint(in);
+                if (count > 0) {
+                    if ((count - 1) * 2 > in.remaining()) {
+                        throw new IllegalArgumentException("Invalid move count: " + (count - 1));
+                    }
+                    int[] moves = new int[(int) (count - 1)];
+                    for (int i = 0; i < moves.length; i++) {
+                        moves[i] = (readSquare(in) << 8) | readSquare(in);
+                    }
+                    m.setMoves(moves);
+                }
+                return m;
+            }
+            case HEARTBEAT: {
+                HeartbeatMessage m = new HeartbeatMessage(senderId);
+                m.setClientTime(readVarint(in));
+                m.setAckSeq(readVarint(in));
+                return m;
+            }
+            case ERROR:
+                return new ErrorMessage(senderId, readString(in), readString(in), readString(in));
+            case CHAT:
+                return new ChatMessage(senderId, readString(in), readString(in), readString(in));
+            case ROOM_UPDATE: {
+                RoomUpdateMessage m = new RoomUpdateMessage(senderId, readString(in));
+                m.setAdded(readRooms(in));
+                m.setChanged(readRooms(in));
+                long count = readCount(in);
+                List<String> removed = null;
+                if (count > 0) {
+                    removed = new ArrayList<>((int) (count - 1));
+                    for (long i = 1; i < count; i++) {
+                        removed.add(readString(in));
+                    }
+                }
+                m.setRemoved(removed);
+                return m;
+            }
+            case REDIRECT:
+                return new RedirectMessage(senderId, readString(in), readString(in), readInt(in), readString(in));
+            default:
+                throw new IllegalArgumentException("No binary schema for " + type);
+        }
+    }
+
+    private List<RoomInfo> readRooms(ByteBuffer in) {
+        long count = readCount(in);
+        if (count == 0) {
+            return null;
+        }
+        List<RoomInfo> rooms = new ArrayList<>((int) (count - 1));
+        for (long i = 1; i < count; i++) {
+            rooms.add(new RoomInfo(readString(in), readString(in), readString(in), readInt(in),
+                    readInt(in), readBoolean(in), readString(in), readString(in)));
+        }
+        return rooms;
+    }
+
+    /**
+     * 读取列表长度（数量+1，0表示null），每个元素至少一个字节，超出剩余字节数的长度视为非法
+     */
+    private static long readCount(ByteBuffer in) {
+        long count = readVarint(in);
+        if (count - 1 > in.remaining()) {
+            throw new IllegalArgumentException("Invalid list count: " + (count - 1));
+        }
+        return count;
+    }
+
+    private static boolean readBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    private static int readSquare(ByteBuffer in) {
+        int square = in.get() & 0xFF;
+        if (square >= BOARD_ROWS * BOARD_COLS) {
+            throw new IllegalArgumentException("Invalid square: " + square);
+        }
+        return square;
+    }
+
+    private static int readInt(ByteBuffer in) {
+        int raw = (int) readVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private String readString(ByteBuffer in) {
+        long tag = readVarint(in);
+        if (tag == STR_NULL) {
+            return null;
+        }
+        if (tag >= STR_REF_BASE) {
+            long index = tag - STR_REF_BASE;
+            if (index >= decodeTable.size()) {
+                throw new IllegalArgumentException("Unknown interned string: " + index);
+            }
+            return decodeTable.get((int) index);
+        }
+        long length = readVarint(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), (int) length, StandardCharsets.UTF_8);
+            in.position(in.position() + (int) length);
+        } else {
+            byte[] bytes = new byte[(int) length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (tag == STR_INTERN) {
+            decodeTable.add(value);
+        }
+        return value;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < BOARD_ROWS && col >= 0 && col < BOARD_COLS;
+    }
+
+    /** 编码方向已驻留的字符串数 */
+    public int getEncodeTableSize() {
+        return encodeTable.size();
+    }
+
+    /** 解码方向已驻留的字符串数 */
+    public int getDecodeTableSize() {
+        return decodeTable.size();
+    }
+}
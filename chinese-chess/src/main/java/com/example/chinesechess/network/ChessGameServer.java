@@ -1,7 +1,16 @@
 package com.example.chinesechess.network;
 
+import com.example.chinesechess.ai.PikafishEnginePool;
+import com.example.chinesechess.core.Board;
+import com.example.chinesechess.core.Move;
+import com.example.chinesechess.core.PieceColor;
+import com.example.chinesechess.core.Position;
+import com.example.chinesechess.core.XiangqiPosition;
+import com.example.common.config.ConfigurationManager;
+
 import java.io.*;
 import java.net.*;
+import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -12,11 +21,35 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class ChessGameServer {
     
-    private static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_PORT = 8080;
     private static final int MAX_CLIENTS = 100;
     
+    /**
+     * 传输模式：阻塞模式每个客户端一个线程；NIO模式由少量I/O线程通过Selector处理所有连接
+     */
+    public enum TransportMode {
+        BLOCKING,
+        NIO;
+        
+        public static TransportMode parse(String value) {
+            return "nio".equalsIgnoreCase(value == null ? null : value.trim()) ? NIO : BLOCKING;
+        }
+    }
+    
+    private final TransportMode transportMode;
+    private final boolean binaryProtocolEnabled;
+    
+    // 每个客户端一个有界发送队列；阻塞模式下由共享写线程池批量写出
+    private final int outboundMaxMessages;
+    private final int outboundMaxBytes;
+    private final OutboundQueue.OverflowPolicy outboundPolicy;
+    private final OutboundMetrics outboundMetrics = new OutboundMetrics();
+    private ExecutorService outboundWriters;
+    // 对局记录每隔多少手生成一次同步快照
+    private final int syncSnapshotInterval;
     private ServerSocket serverSocket;
-    private boolean isRunning = false;
+    private NioServerTransport nioTransport;
+    private volatile boolean isRunning = false;
     private ExecutorService clientThreadPool;
     
     // 客户端管理
@@ -25,16 +58,102 @@ public class ChessGameServer {
     // 房间管理
     private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
     private final AtomicInteger roomIdCounter = new AtomicInteger(1000);
+    // 分片部署：本服务器的分片ID（加在自动生成的房间ID中），以及作为路由器时的分片路由
+    private volatile String shardId;
+    private volatile ShardRouter shardRouter;
+    // 房间索引：分页查询和大厅订阅的增量推送
+    private final RoomDirectory roomDirectory;
+    private final int roomListMaxPage;
+    
+    // 运行指标，通过JMX和本地HTTP接口查看
+    private final ServerMetrics metrics;
+    private final MetricsEndpoint metricsEndpoint;
+    private final long heartbeatIntervalNanos;
+    
+    // 空闲连接检测：所有连接共用一个时间轮
+    private final IdleTimeoutWheel<ClientHandler> idleWheel;
+    private final Map<ClientHandler.ClientType, Integer> idleTimeouts = new EnumMap<>(ClientHandler.ClientType.class);
+    
+    // 可恢复的会话：令牌 -> 会话，断线后在宽限期内可以凭令牌重连
+    private final Map<String, ClientSession> sessions = new ConcurrentHashMap<>();
+    private final int sessionReplayCapacity;
+    private final SecureRandom tokenRandom = new SecureRandom();
+    
+    // 房间预写日志，未配置目录时为null；重启后从日志恢复的玩家凭原来的会话令牌重连（令牌 -> 玩家ID）
+    private final RoomJournal journal;
+    private final Map<String, String> restoredSessions = new ConcurrentHashMap<>();
+    
+    // 服务器托管AI：所有AI房间共享计算线程和Pikafish引擎池，首次创建AI房间时才初始化
+    private volatile AIComputeScheduler aiScheduler;
+    private volatile PikafishEnginePool enginePool;
     
     public ChessGameServer() {
         this(DEFAULT_PORT);
     }
     
     public ChessGameServer(int port) {
+        this(port, TransportMode.parse(ConfigurationManager.getInstance().getConfiguration("server.transport")));
+    }
+    
+    public ChessGameServer(int port, TransportMode transportMode) {
+        this.transportMode = transportMode;
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        this.binaryProtocolEnabled = config.getBooleanConfiguration("server.binary_protocol", true);
+        this.outboundMaxMessages = config.getIntConfiguration("server.outbound.max_messages", 512);
+        this.outboundMaxBytes = config.getIntConfiguration("server.outbound.max_bytes", 1 << 20);
+        this.outboundPolicy = OutboundQueue.OverflowPolicy.parse(config.getConfiguration("server.outbound.overflow_policy"));
+        this.syncSnapshotInterval = config.getIntConfiguration("server.sync.snapshot_interval", 20);
+        this.roomListMaxPage = config.getIntConfiguration("server.rooms.max_page_size", 200);
+        this.roomDirectory = new RoomDirectory(this::sendRoomUpdate,
+                config.getIntConfiguration("server.rooms.update_interval_ms", 500));
+        this.metrics = new ServerMetrics(clients::size, roomDirectory::countByState, outboundMetrics);
+        this.metricsEndpoint = new MetricsEndpoint(metrics);
+        this.heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(1, config.getIntConfiguration("server.heartbeat.interval_ms", 30000)));
+        for (ClientHandler.ClientType type : ClientHandler.ClientType.values()) {
+            idleTimeouts.put(type, config.getIntConfiguration(type.getConfigKey(), type.getDefaultTimeoutMillis()));
+        }
+        this.sessionReplayCapacity = config.getIntConfiguration("server.session.replay_buffer", 256);
+        setShardId(config.getConfiguration("cluster.shard_id"));
+        List<ShardRouter.ShardAddress> shards = ShardRouter.ShardAddress.parseList(config.getConfiguration("cluster.shards"));
+        if (!shards.isEmpty()) {
+            enableRouting(shards);
+        }
+        this.idleWheel = new IdleTimeoutWheel<>(config.getIntConfiguration("server.idle.tick_ms", 1000),
+                config.getIntConfiguration("server.idle.wheel_slots", 512), this::onIdleTimeout);
+        String journalDir = config.getConfiguration("server.journal.dir", "").trim();
+        this.journal = journalDir.isEmpty() ? null : new RoomJournal(new File(journalDir),
+                config.getIntConfiguration("server.journal.fsync_interval_ms", 20),
+                config.getIntConfiguration("server.journal.snapshot_records", 20000));
         try {
-            serverSocket = new ServerSocket(port);
-            clientThreadPool = Executors.newFixedThreadPool(MAX_CLIENTS);
-            System.out.println("🚀 象棋游戏服务器启动，端口: " + port);
+            if (journal != null) {
+                // 先恢复房间再开始监听，重连的玩家直接回到原来的房间
+                restoreRooms(journal.open());
+            }
+            if (transportMode == TransportMode.NIO) {
+                int ioThreads = ConfigurationManager.getInstance().getIntConfiguration("server.nio.io_threads",
+                        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+                nioTransport = new NioServerTransport(this, port, ioThreads);
+            } else {
+                serverSocket = new ServerSocket(port);
+                // 阻塞模式每个连接占用一个线程，超出的连接排队等待
+                clientThreadPool = Executors.newFixedThreadPool(config.getIntConfiguration("server.blocking.max_clients", MAX_CLIENTS));
+                AtomicInteger writerCounter = new AtomicInteger();
+                outboundWriters = Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "Client-Writer-" + writerCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            System.out.println("🚀 象棋游戏服务器启动，端口: " + port + "，传输模式: " + transportMode);
+            idleWheel.start();
+            if (config.getBooleanConfiguration("server.metrics.jmx", true)) {
+                metricsEndpoint.registerJmx(port);
+            }
+            int metricsPort = config.getIntConfiguration("server.metrics.http_port", 0);
+            if (metricsPort > 0) {
+                metricsEndpoint.startHttp(metricsPort);
+            }
         } catch (IOException e) {
             System.err.println("❌ 服务器启动失败: " + e.getMessage());
             throw new RuntimeException(e);
@@ -47,10 +166,19 @@ public class ChessGameServer {
     public void start() {
         isRunning = true;
         System.out.println("🌟 服务器开始监听客户端连接...");
+        if (shardRouter != null) {
+            shardRouter.start();
+        }
+        
+        if (nioTransport != null) {
+            nioTransport.run();
+            return;
+        }
         
         while (isRunning) {
             try {
                 Socket clientSocket = serverSocket.accept();
+                metrics.recordConnectionAccepted();
                 String clientIP = clientSocket.getRemoteSocketAddress().toString();
                 System.out.println("🔗 新客户端连接: " + clientIP);
                 
@@ -70,6 +198,11 @@ public class ChessGameServer {
      */
     public void stop() {
         isRunning = false;
+        // 先关闭日志：关闭过程中玩家被动离开房间不写入日志，重启后仍能恢复这些房间
+        if (journal != null) {
+            journal.close();
+            System.out.println(journal.getReport());
+        }
         
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
@@ -81,6 +214,31 @@ public class ChessGameServer {
                 client.disconnect("服务器关闭");
             }
             clients.clear();
+            sessions.clear();
+            if (shardRouter != null) {
+                shardRouter.shutdown();
+            }
+            idleWheel.shutdown();
+            roomDirectory.shutdown();
+            if (nioTransport != null) {
+                nioTransport.shutdown();
+            }
+            
+            System.out.println(getOutboundReport());
+            System.out.println(metrics.getReport());
+            metricsEndpoint.stop();
+            if (outboundWriters != null) {
+                outboundWriters.shutdownNow();
+            }
+            
+            // 关闭服务器AI
+            if (aiScheduler != null) {
+                System.out.println(aiScheduler.getMetrics().getReport());
+                aiScheduler.shutdown();
+            }
+            if (enginePool != null) {
+                enginePool.shutdown();
+            }
             
             // 关闭线程池
             if (clientThreadPool != null) {
@@ -100,6 +258,194 @@ public class ChessGameServer {
         }
     }
     
+    /**
+     * 是否接受客户端协商二进制协议（关闭后所有连接都使用JSON，便于抓包调试）
+     */
+    public boolean isBinaryProtocolEnabled() {
+        return binaryProtocolEnabled;
+    }
+    
+    public TransportMode getTransportMode() {
+        return transportMode;
+    }
+    
+    /**
+     * 作为分片运行：房间ID带上分片ID，多个分片的房间在路由器的大厅中不会重名。需在启动前调用
+     */
+    public void setShardId(String shardId) {
+        this.shardId = shardId != null ? shardId.trim() : "";
+    }
+    
+    public String getShardId() {
+        return shardId;
+    }
+    
+    /**
+     * 作为路由器运行：本服务器只提供大厅，创建和加入房间的请求重定向到负责该房间的分片。需在启动前调用
+     */
+    public void enableRouting(List<ShardRouter.ShardAddress> shards) {
+        this.shardRouter = new ShardRouter(this, shards);
+    }
+    
+    /**
+     * 路由器模式下的分片路由，单机或分片模式为null
+     */
+    ShardRouter getShardRouter() {
+        return shardRouter;
+    }
+    
+    RoomDirectory getRoomDirectory() {
+        return roomDirectory;
+    }
+    
+    /**
+     * 按配置的上限和溢出策略为新连接创建发送队列
+     */
+    OutboundQueue createOutboundQueue() {
+        return new OutboundQueue(outboundMaxMessages, outboundMaxBytes, outboundPolicy, outboundMetrics);
+    }
+    
+    /**
+     * 阻塞模式下执行写出任务的线程池
+     */
+    ExecutorService getOutboundWriters() {
+        return outboundWriters;
+    }
+    
+    public OutboundMetrics getOutboundMetrics() {
+        return outboundMetrics;
+    }
+    
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+    
+    public MetricsEndpoint getMetricsEndpoint() {
+        return metricsEndpoint;
+    }
+    
+    /**
+     * 为新连接创建编解码器，统计收发的消息和字节
+     */
+    WireCodec createWireCodec() {
+        WireCodec codec = new WireCodec();
+        codec.setMetrics(metrics);
+        return codec;
+    }
+    
+    /** 客户端心跳间隔，用于统计缺失的心跳 */
+    long getHeartbeatIntervalNanos() {
+        return heartbeatIntervalNanos;
+    }
+    
+    /**
+     * 开始按某类连接的阈值检测空闲（新连接按握手前计时，断线保留的会话按宽限期计时）
+     */
+    IdleTimeoutWheel.Handle<ClientHandler> trackIdle(ClientHandler client, ClientHandler.ClientType type) {
+        return idleWheel.register(client, getIdleTimeoutMillis(type));
+    }
+    
+    /** 某类连接的空闲超时，&lt;=0 表示不检测 */
+    int getIdleTimeoutMillis(ClientHandler.ClientType type) {
+        return idleTimeouts.get(type);
+    }
+    
+    /**
+     * 时间轮线程回调：一个刻度内到期的连接一起断开，断开后照常清理玩家和房间
+     */
+    private void onIdleTimeout(List<ClientHandler> expired) {
+        int idle = 0;
+        for (ClientHandler client : expired) {
+            if (client.getClientType() != ClientHandler.ClientType.DETACHED) {
+                idle++;
+            }
+            client.disconnect("空闲超时");
+        }
+        if (idle > 0) {
+            metrics.recordIdleTimeouts(idle);
+            System.out.println("⏱️ 空闲超时，断开 " + idle + " 个连接");
+        }
+    }
+    
+    // ==================== 会话恢复 ====================
+    
+    /**
+     * 握手成功后为玩家建立可恢复的会话，宽限期配置为0时不建立
+     */
+    ClientSession createSession(String playerId, ClientHandler client, ClientTransport transport) {
+        if (getIdleTimeoutMillis(ClientHandler.ClientType.DETACHED) <= 0) {
+            return null;
+        }
+        byte[] bytes = new byte[18];
+        tokenRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        ClientSession session = new ClientSession(token, playerId, sessionReplayCapacity, client, transport);
+        sessions.put(token, session);
+        return session;
+    }
+    
+    ClientSession findSession(String token) {
+        return sessions.get(token);
+    }
+    
+    /**
+     * 服务器重启后，从日志恢复的玩家凭重启前的令牌重连：为他建立同一令牌的新会话，由调用方推送完整状态
+     *
+     * @return 新会话；令牌不属于恢复的玩家或已过宽限期时返回null
+     */
+    ClientSession claimRestoredSession(String token, String playerId, ClientHandler client, ClientTransport transport) {
+        if (!restoredSessions.remove(token, playerId)) {
+            return null;
+        }
+        ClientSession session = new ClientSession(token, playerId, sessionReplayCapacity, client, transport);
+        sessions.put(token, session);
+        return session;
+    }
+    
+    void removeSession(ClientSession session) {
+        sessions.remove(session.getToken(), session);
+    }
+    
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
+    /**
+     * 重连时补发缓冲已经不够：推送所在房间的完整局面，订阅了房间列表的重新发送完整列表
+     */
+    void resyncPlayer(String playerId) {
+        GameRoom room = findPlayerRoom(playerId);
+        ClientHandler client = clients.get(playerId);
+        if (client == null) {
+            return;
+        }
+        if (room != null) {
+            client.sendMessage(buildSyncResponse(playerId, room.getRoomId(), GameStateSyncRequestMessage.NO_PLY));
+        }
+        String gameType = roomDirectory.getSubscription(playerId);
+        if (gameType != null) {
+            subscribeRoomList(playerId, gameType);
+        }
+    }
+    
+    boolean isRunning() {
+        return isRunning;
+    }
+    
+    /**
+     * 发送队列报告：全局统计加上当前排队最深的几个客户端
+     */
+    public String getOutboundReport() {
+        StringBuilder report = new StringBuilder(outboundMetrics.getReport());
+        clients.values().stream()
+                .filter(client -> client.getOutboundDepth() > 0)
+                .sorted((a, b) -> Integer.compare(b.getOutboundDepth(), a.getOutboundDepth()))
+                .limit(5)
+                .forEach(client -> report.append("\n   ").append(client.getPlayerName())
+                        .append(": 排队 ").append(client.getOutboundDepth()).append(" 条"));
+        return report.toString();
+    }
+    
     // ==================== 客户端管理 ====================
     
     /**
@@ -114,15 +460,26 @@ public class ChessGameServer {
      * 移除客户端
      */
     public void removeClient(String playerId) {
-        ClientHandler client = clients.remove(playerId);
+        ClientHandler client = clients.get(playerId);
         if (client != null) {
-            System.out.println("👋 玩家离线: " + playerId + " (" + client.getPlayerName() + ")");
-            
-            // 如果玩家在房间中，处理离开房间
-            GameRoom room = findPlayerRoom(playerId);
-            if (room != null) {
-                leaveRoom(playerId, room.getRoomId());
-            }
+            removeClient(playerId, client);
+        }
+    }
+    
+    /**
+     * 移除客户端，只在玩家ID仍然对应该连接时生效（重连后旧连接的清理不影响新连接）
+     */
+    void removeClient(String playerId, ClientHandler client) {
+        if (!clients.remove(playerId, client)) {
+            return;
+        }
+        roomDirectory.unsubscribe(playerId);
+        System.out.println("👋 玩家离线: " + playerId + " (" + client.getPlayerName() + ")");
+        
+        // 如果玩家在房间中，处理离开房间
+        GameRoom room = findPlayerRoom(playerId);
+        if (room != null) {
+            leaveRoom(playerId, room.getRoomId());
         }
     }
     
@@ -139,14 +496,38 @@ public class ChessGameServer {
      * 创建房间
      */
     public String createRoom(String hostPlayerId, String roomName, String password, String gameType) {
+        return createRoom(hostPlayerId, roomName, password, gameType, null);
+    }
+    
+    /**
+     * 创建房间
+     *
+     * @param requestedRoomId 路由器分配的房间ID，为空时由本服务器生成；该ID已被占用时创建失败
+     */
+    public String createRoom(String hostPlayerId, String roomName, String password, String gameType,
+                             String requestedRoomId) {
         ClientHandler host = clients.get(hostPlayerId);
         if (host == null) {
             return null;
         }
         
-        String roomId = "room_" + roomIdCounter.getAndIncrement();
-        GameRoom room = new GameRoom(roomId, roomName, password, hostPlayerId, host.getPlayerName(), gameType);
-        rooms.put(roomId, room);
+        boolean assigned = requestedRoomId != null && !requestedRoomId.isEmpty();
+        String roomId = assigned ? requestedRoomId
+                : "room_" + (shardId.isEmpty() ? "" : shardId + "_") + roomIdCounter.getAndIncrement();
+        GameRoom room = new GameRoom(roomId, roomName, password, hostPlayerId, host.getPlayerName(), gameType,
+                new GameRecord(syncSnapshotInterval));
+        synchronized (room) {
+            // 在房间锁内记录，其他玩家加入的记录一定排在创建之后
+            if (rooms.putIfAbsent(roomId, room) != null) {
+                System.err.println("⚠️ 房间ID已被占用: " + roomId);
+                return null;
+            }
+            if (journal != null) {
+                journal.roomCreated(roomId, roomName, room.getPassword(), gameType, hostPlayerId,
+                        host.getPlayerName(), host.getSessionToken());
+            }
+        }
+        publishRoom(room);
         
         System.out.println("🏠 房间创建: " + roomId + " (" + roomName + ") by " + host.getPlayerName());
         return roomId;
@@ -172,9 +553,16 @@ public class ChessGameServer {
         }
         
         // 加入房间
-        boolean joined = room.addPlayer(playerId, player.getPlayerName());
+        boolean joined;
+        synchronized (room) {
+            joined = room.addPlayer(playerId, player.getPlayerName());
+            if (joined && journal != null) {
+                journal.playerJoined(roomId, playerId, player.getPlayerName(), player.getSessionToken());
+            }
+        }
         if (joined) {
             System.out.println("🚪 玩家加入房间: " + player.getPlayerName() + " -> " + roomId);
+            publishRoom(room);
             
             // 如果房间满员，开始游戏
             if (room.isFull()) {
@@ -189,21 +577,42 @@ public class ChessGameServer {
      * 离开房间
      */
     public void leaveRoom(String playerId, String roomId) {
-        GameRoom room = rooms.get(roomId);
+        // 客户端未指定房间时离开其所在的房间
+        GameRoom room = roomId != null ? rooms.get(roomId) : findPlayerRoom(playerId);
         if (room != null) {
+            roomId = room.getRoomId();
             ClientHandler player = clients.get(playerId);
             String playerName = player != null ? player.getPlayerName() : playerId;
             
-            room.removePlayer(playerId);
+            boolean empty;
+            synchronized (room) {
+                if (!room.hasPlayer(playerId)) {
+                    return;
+                }
+                room.removePlayer(playerId);
+                empty = !room.hasHumanPlayers();
+                if (journal != null) {
+                    journal.playerLeft(roomId, playerId);
+                    if (empty) {
+                        journal.roomRemoved(roomId);
+                    }
+                }
+            }
             System.out.println("🚪 玩家离开房间: " + playerName + " <- " + roomId);
             
             // 通知房间内其他玩家
             notifyRoomPlayers(room, new DisconnectMessage(playerId, "玩家离开房间"));
             
-            // 如果房间为空，删除房间
-            if (room.isEmpty()) {
+            // 如果房间里已经没有真人玩家，删除房间
+            if (empty) {
                 rooms.remove(roomId);
+                roomDirectory.remove(roomId);
+                if (room.getAIPlayer() != null) {
+                    getAIScheduler().unregisterRoom(roomId);
+                }
                 System.out.println("🗑️ 删除空房间: " + roomId);
+            } else {
+                publishRoom(room);
             }
         }
     }
@@ -212,23 +621,59 @@ public class ChessGameServer {
      * 获取房间列表
      */
     public List<RoomInfo> getRoomList(String gameType) {
-        List<RoomInfo> roomList = new ArrayList<>();
-        for (GameRoom room : rooms.values()) {
-            if (gameType == null || gameType.isEmpty() || gameType.equals(room.getGameType())) {
-                RoomInfo info = new RoomInfo(
-                    room.getRoomId(),
-                    room.getRoomName(),
-                    room.getHostName(),
-                    room.getPlayerCount(),
-                    2, // 最大玩家数
-                    false, // 没有密码
-                    room.getGameState(),
-                    room.getGameType()
-                );
-                roomList.add(info);
-            }
+        return roomDirectory.query(gameType, null, 0, 0).getRooms();
+    }
+    
+    /**
+     * 按游戏类型和房间状态分页查询房间，每页不超过 server.rooms.max_page_size
+     */
+    public RoomDirectory.Page queryRooms(String gameType, String state, int offset, int limit) {
+        int pageSize = limit <= 0 ? roomListMaxPage : Math.min(limit, roomListMaxPage);
+        return roomDirectory.query(gameType, state, offset, pageSize);
+    }
+    
+    /**
+     * 订阅房间列表：先发送完整列表，之后按推送周期发送合并后的增量
+     */
+    public void subscribeRoomList(String playerId, String gameType) {
+        ClientHandler client = clients.get(playerId);
+        if (client == null) {
+            return;
         }
-        return roomList;
+        roomDirectory.subscribe(playerId, gameType, page -> {
+            RoomListResponseMessage response = new RoomListResponseMessage(page.getRooms());
+            response.setTotalCount(page.getTotalCount());
+            response.setSubscribed(true);
+            client.sendMessage(response);
+        });
+    }
+    
+    public void unsubscribeRoomList(String playerId) {
+        roomDirectory.unsubscribe(playerId);
+    }
+    
+    private void sendRoomUpdate(String playerId, RoomUpdateMessage update) {
+        ClientHandler client = clients.get(playerId);
+        if (client == null) {
+            roomDirectory.unsubscribe(playerId);
+        } else {
+            client.sendMessage(update);
+        }
+    }
+    
+    /**
+     * 房间人数或状态变化后更新房间目录
+     */
+    private void publishRoom(GameRoom room) {
+        roomDirectory.upsert(new RoomInfo(
+                room.getRoomId(),
+                room.getRoomName(),
+                room.getHostName(),
+                room.getPlayerCount(),
+                2, // 最大玩家数
+                !room.getPassword().isEmpty(),
+                room.getGameState(),
+                room.getGameType()));
     }
     
     /**
@@ -243,6 +688,105 @@ public class ChessGameServer {
         return null;
     }
     
+    // ==================== 重启恢复 ====================
+    
+    /**
+     * 按日志恢复的状态重建房间和对局记录。玩家在宽限期内凭重启前的会话令牌重连，
+     * 逾期仍未回来的玩家离开房间，和断线后宽限期过期的处理相同
+     */
+    private void restoreRooms(Collection<RoomJournal.RoomState> states) {
+        List<String[]> restoredPlayers = new ArrayList<>();
+        for (RoomJournal.RoomState state : states) {
+            String roomId = state.getRoomId();
+            GameRoom room = new GameRoom(roomId, state.getRoomName(), state.getPassword(), state.getHostId(),
+                    state.getHostName(), state.getGameType(), new GameRecord(syncSnapshotInterval));
+            boolean hostSeated = false;
+            for (RoomJournal.Seat seat : state.getSeats()) {
+                hostSeated |= seat.getPlayerId().equals(state.getHostId());
+                room.addPlayer(seat.getPlayerId(), seat.getPlayerName());
+                restoredPlayers.add(new String[] {seat.getPlayerId(), roomId});
+                if (seat.getToken() != null) {
+                    restoredSessions.put(seat.getToken(), seat.getPlayerId());
+                }
+            }
+            if (!hostSeated) {
+                room.removePlayer(state.getHostId());
+            }
+            ServerAIPlayer.Engine engine = ServerAIPlayer.Engine.parse(state.getAiEngine());
+            if (engine != null) {
+                String aiPlayerId = "ai_" + roomId;
+                ServerAIPlayer ai = new ServerAIPlayer(aiPlayerId, engine, PieceColor.BLACK, state.getAiDifficulty(),
+                        engine == ServerAIPlayer.Engine.PIKAFISH ? getEnginePool() : null);
+                room.setAIPlayer(ai);
+                room.addPlayer(aiPlayerId, ai.getDisplayName());
+                getAIScheduler().registerRoom(roomId);
+            }
+            
+            room.setGameState(state.getGameState());
+            room.setRedPlayer(state.getRedPlayer());
+            room.setBlackPlayer(state.getBlackPlayer());
+            GameRecord record = room.getRecord();
+            for (int i = 0; i < state.getMoveCount(); i++) {
+                GameRecord.MoveResult result = record.apply(record.getSideToMove(), state.getMoveFrom(i), state.getMoveTo(i));
+                if (result != GameRecord.MoveResult.OK) {
+                    System.err.println("⚠️ 恢复对局时走法被拒绝 (" + roomId + ")，停在第 " + record.getPly() + " 手: " + result);
+                    break;
+                }
+            }
+            if (state.getWinner() != null) {
+                record.finish(state.getWinner(), state.getEndReason());
+            }
+            
+            rooms.put(roomId, room);
+            publishRoom(room);
+            // 之后自动生成的房间ID从恢复的房间编号之后开始（分片ID可能在恢复后才设置，只看末尾的编号）
+            try {
+                int number = Integer.parseInt(roomId.substring(roomId.lastIndexOf('_') + 1));
+                roomIdCounter.accumulateAndGet(number + 1, Math::max);
+            } catch (NumberFormatException e) {
+                // 不是按编号生成的房间ID
+            }
+            ServerAIPlayer ai = room.getAIPlayer();
+            if (ai != null && "PLAYING".equals(room.getGameState()) && !record.isGameOver()
+                    && record.getSideToMove() == ai.getColor()) {
+                requestAIMove(room);
+            }
+        }
+        if (restoredPlayers.isEmpty()) {
+            return;
+        }
+        
+        int grace = getIdleTimeoutMillis(ClientHandler.ClientType.DETACHED);
+        System.out.println("♻️ 已恢复 " + rooms.size() + " 个房间，等待 " + restoredPlayers.size()
+                + " 名玩家在 " + grace + "ms 内重连");
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Restore-Expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        expiry.schedule(() -> {
+            expireRestoredPlayers(restoredPlayers);
+            expiry.shutdown();
+        }, Math.max(0, grace), TimeUnit.MILLISECONDS);
+    }
+    
+    private void expireRestoredPlayers(List<String[]> restoredPlayers) {
+        restoredSessions.clear();
+        int expired = 0;
+        for (String[] player : restoredPlayers) {
+            String playerId = player[0];
+            GameRoom room = rooms.get(player[1]);
+            // 已经重连（包括重连后又断线、会话仍在宽限期内）的玩家由自己的连接处理
+            if (room != null && room.hasPlayer(playerId) && !clients.containsKey(playerId)) {
+                leaveRoom(playerId, room.getRoomId());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            System.out.println("⌛ " + expired + " 名恢复的玩家未在宽限期内重连，已离开房间");
+        }
+    }
+    
     // ==================== 游戏逻辑 ====================
     
     /**
@@ -269,47 +813,262 @@ public class ChessGameServer {
         
         room.setRedPlayer(redPlayer);
         room.setBlackPlayer(blackPlayer);
+        room.resetRecord();
+        if (journal != null) {
+            journal.gameStarted(room.getRoomId(), redPlayer, blackPlayer);
+        }
+        publishRoom(room);
         
         // 调试信息：确认颜色分配
         System.out.println("🎯 颜色分配确认: 红方(房主)=" + redPlayer + ", 黑方(后加入)=" + blackPlayer);
         
-        // 通知所有玩家游戏开始
+        // 通知所有玩家游戏开始（AI座位没有客户端连接，只通知真人）
         ClientHandler redClient = clients.get(redPlayer);
         ClientHandler blackClient = clients.get(blackPlayer);
+        String redName = room.getPlayerName(redPlayer);
+        String blackName = room.getPlayerName(blackPlayer);
         
-        if (redClient != null && blackClient != null) {
-            GameStartMessage redMessage = new GameStartMessage(
-                "server", redClient.getPlayerName(), blackClient.getPlayerName(), "RED"
-            );
-            GameStartMessage blackMessage = new GameStartMessage(
-                "server", redClient.getPlayerName(), blackClient.getPlayerName(), "BLACK"
-            );
-            
-            redClient.sendMessage(redMessage);
-            blackClient.sendMessage(blackMessage);
-            
-            System.out.println("🎮 游戏开始: " + redClient.getPlayerName() + "(红) vs " + blackClient.getPlayerName() + "(黑)");
+        if (redClient != null) {
+            redClient.sendMessage(new GameStartMessage("server", redName, blackName, "RED"));
         }
+        if (blackClient != null) {
+            blackClient.sendMessage(new GameStartMessage("server", redName, blackName, "BLACK"));
+        }
+        System.out.println("🎮 游戏开始: " + redName + "(红) vs " + blackName + "(黑)");
+        
+        ServerAIPlayer ai = room.getAIPlayer();
+        if (ai != null && ai.getColor() == PieceColor.RED) {
+            requestAIMove(room);
+        }
+    }
+    
+    // ==================== 服务器托管AI ====================
+    
+    /**
+     * 让服务器AI在房间空位入座并立即开局，AI执黑
+     */
+    public boolean seatServerAI(String roomId, ServerAIPlayer.Engine engine, int difficulty) {
+        GameRoom room = rooms.get(roomId);
+        if (room == null || room.isFull()) {
+            return false;
+        }
+        
+        String aiPlayerId = "ai_" + roomId;
+        ServerAIPlayer ai = new ServerAIPlayer(aiPlayerId, engine, PieceColor.BLACK, difficulty,
+                engine == ServerAIPlayer.Engine.PIKAFISH ? getEnginePool() : null);
+        room.setAIPlayer(ai);
+        if (!room.addPlayer(aiPlayerId, ai.getDisplayName())) {
+            room.setAIPlayer(null);
+            return false;
+        }
+        getAIScheduler().registerRoom(roomId);
+        if (journal != null) {
+            journal.aiSeated(roomId, engine.name(), difficulty);
+        }
+        System.out.println("🤖 服务器AI入座: " + ai.getDisplayName() + " (难度" + difficulty + ") -> " + roomId);
+        
+        startGame(room);
+        return true;
     }
     
     /**
-     * 转发移动消息
+     * 把AI走棋请求交给共享调度器，结果回来后推送给真人玩家
+     */
+    private void requestAIMove(GameRoom room) {
+        ServerAIPlayer ai = room.getAIPlayer();
+        Board snapshot;
+        synchronized (room) {
+            snapshot = room.getRecord().toBoard();
+        }
+        getAIScheduler()
+                .submit(room.getRoomId(), context -> ai.computeMove(snapshot, context))
+                .whenComplete((move, error) -> {
+                    if (error == null) {
+                        applyAIMove(room, move);
+                    } else if (!(error instanceof CancellationException)) {
+                        System.err.println("❌ 服务器AI计算失败 (" + room.getRoomId() + "): " + error.getMessage());
+                    }
+                });
+    }
+    
+    private void applyAIMove(GameRoom room, Move move) {
+        ServerAIPlayer ai = room.getAIPlayer();
+        String humanColor = ai.getColor() == PieceColor.RED ? "BLACK" : "RED";
+        synchronized (room) {
+            if (rooms.get(room.getRoomId()) != room || !"PLAYING".equals(room.getGameState())) {
+                return; // 房间已关闭或对局已结束
+            }
+            if (move == null) {
+                // AI无子可走
+                finishGame(room, humanColor, "checkmate");
+                return;
+            }
+            GameRecord record = room.getRecord();
+            Position start = move.getStart();
+            Position end = move.getEnd();
+            GameRecord.MoveResult result = record.apply(ai.getColor(),
+                    toSquare(start.getX(), start.getY()), toSquare(end.getX(), end.getY()));
+            if (result != GameRecord.MoveResult.OK) {
+                System.err.println("❌ 服务器AI走法被拒绝 (" + room.getRoomId() + "): " + start + " -> " + end + " " + result);
+                finishGame(room, humanColor, "ai_invalid_move");
+                return;
+            }
+            if (journal != null) {
+                journal.moveMade(room.getRoomId(), toSquare(start.getX(), start.getY()), toSquare(end.getX(), end.getY()));
+            }
+            MoveMessage reply = new MoveMessage(ai.getPlayerId(), start.getX(), start.getY(), end.getX(), end.getY());
+            reply.setPly(record.getPly());
+            notifyRoomPlayers(room, reply);
+            if (record.isGameOver()) {
+                finishGame(room, record.getWinner(), record.getEndReason());
+            }
+        }
+    }
+    
+    /**
+     * 按服务器对局记录校验并执行走法，调用方持有房间锁。
+     * 被拒绝时通知走棋方，并推送当前局面让客户端撤回本地已走的棋。
+     *
+     * @return 走法是否被接受；接受时moveMessage带上确认后的手数
+     */
+    private boolean applyPlayerMove(String fromPlayerId, GameRoom room, MoveMessage moveMessage) {
+        GameRecord record = room.getRecord();
+        PieceColor color = room.getPlayerColor(fromPlayerId);
+        GameRecord.MoveResult result = color == null ? GameRecord.MoveResult.NOT_YOUR_TURN
+                : record.apply(color, toSquare(moveMessage.getFromRow(), moveMessage.getFromCol()),
+                        toSquare(moveMessage.getToRow(), moveMessage.getToCol()));
+        switch (result) {
+            case OK:
+                moveMessage.setPly(record.getPly());
+                if (journal != null) {
+                    journal.moveMade(room.getRoomId(), toSquare(moveMessage.getFromRow(), moveMessage.getFromCol()),
+                            toSquare(moveMessage.getToRow(), moveMessage.getToCol()));
+                }
+                return true;
+            case NOT_YOUR_TURN:
+                sendError(fromPlayerId, "NOT_YOUR_TURN", "还没轮到你走棋");
+                break;
+            case GAME_OVER:
+                sendError(fromPlayerId, "GAME_OVER", "对局已结束");
+                break;
+            default:
+                sendError(fromPlayerId, "INVALID_MOVE", "非法走法: (" + moveMessage.getFromRow() + "," + moveMessage.getFromCol()
+                        + ") -> (" + moveMessage.getToRow() + "," + moveMessage.getToCol() + ")");
+                break;
+        }
+        ClientHandler client = clients.get(fromPlayerId);
+        if (client != null) {
+            client.sendMessage(buildSyncResponse(fromPlayerId, room.getRoomId(), GameStateSyncRequestMessage.NO_PLY));
+        }
+        return false;
+    }
+    
+    /**
+     * 行列转换为格子编号，不在棋盘上时返回-1
+     */
+    private static int toSquare(int row, int col) {
+        if (row < 0 || row >= XiangqiPosition.ROWS || col < 0 || col >= XiangqiPosition.COLS) {
+            return -1;
+        }
+        return row * XiangqiPosition.COLS + col;
+    }
+    
+    private void finishGame(GameRoom room, String winner, String reason) {
+        room.getRecord().finish(winner, reason);
+        room.setGameState("FINISHED");
+        if (journal != null) {
+            journal.gameFinished(room.getRoomId(), winner, reason);
+        }
+        publishRoom(room);
+        notifyRoomPlayers(room, new GameEndMessage("server", winner, reason));
+        System.out.println("🏁 对局结束: " + room.getRoomId() + " 胜方=" + winner + " (" + reason + ")");
+    }
+    
+    private void sendError(String playerId, String code, String message) {
+        ClientHandler client = clients.get(playerId);
+        if (client != null) {
+            client.sendMessage(new ErrorMessage("server", code, message));
+        }
+    }
+    
+    private AIComputeScheduler getAIScheduler() {
+        if (aiScheduler == null) {
+            synchronized (this) {
+                if (aiScheduler == null) {
+                    ConfigurationManager config = ConfigurationManager.getInstance();
+                    aiScheduler = new AIComputeScheduler(
+                            config.getIntConfiguration("server.ai.threads", 2),
+                            config.getIntConfiguration("server.ai.slice_ms", 2000),
+                            config.getIntConfiguration("server.ai.tt_budget_entries", 2_000_000));
+                    System.out.println("🧮 服务器AI调度器已启动，计算线程: " + aiScheduler.getThreadCount());
+                }
+            }
+        }
+        return aiScheduler;
+    }
+    
+    private PikafishEnginePool getEnginePool() {
+        if (enginePool == null) {
+            synchronized (this) {
+                if (enginePool == null) {
+                    ConfigurationManager config = ConfigurationManager.getInstance();
+                    int poolSize = Math.max(1, config.getIntConfiguration("server.ai.pikafish.pool_size", 2));
+                    // 默认按服务器AI计算配额平分线程，避免多个引擎超额占用CPU
+                    int threadQuota = config.getIntConfiguration("server.ai.threads", 2);
+                    enginePool = new PikafishEnginePool(
+                            config.getPikafishConfig().enginePath,
+                            poolSize,
+                            config.getIntConfiguration("server.ai.pikafish.hash_mb", 256),
+                            config.getIntConfiguration("server.ai.pikafish.threads", Math.max(1, threadQuota / poolSize)));
+                    // 第一个Pikafish房间入座时就在后台启动引擎，避免握手占用第一步的计算时间片
+                    enginePool.start();
+                }
+            }
+        }
+        return enginePool;
+    }
+    
+    /**
+     * 服务器AI房间的延迟统计报告
+     */
+    public String getAIMetricsReport() {
+        return aiScheduler != null ? aiScheduler.getMetrics().getReport() : "📊 尚未创建服务器AI房间";
+    }
+    
+    /**
+     * 校验并转发移动消息
      */
     public void forwardMove(String fromPlayerId, MoveMessage moveMessage) {
+        long start = System.nanoTime();
         GameRoom room = findPlayerRoom(fromPlayerId);
-        if (room == null || !room.getGameState().equals("PLAYING")) {
+        if (room == null) {
             return;
         }
         
-        // 转发给对手
-        for (String playerId : room.getPlayerIds()) {
-            if (!playerId.equals(fromPlayerId)) {
-                ClientHandler opponent = clients.get(playerId);
-                if (opponent != null) {
-                    opponent.sendMessage(moveMessage);
+        boolean aiToMove;
+        synchronized (room) {
+            if (!"PLAYING".equals(room.getGameState()) || !applyPlayerMove(fromPlayerId, room, moveMessage)) {
+                return;
+            }
+            // 在房间锁内转发，保证对手按手数顺序收到走法
+            for (String playerId : room.getPlayerIds()) {
+                if (!playerId.equals(fromPlayerId)) {
+                    ClientHandler opponent = clients.get(playerId);
+                    if (opponent != null) {
+                        opponent.sendMessage(moveMessage);
+                    }
+                    break;
                 }
-                break;
             }
+            GameRecord record = room.getRecord();
+            if (record.isGameOver()) {
+                finishGame(room, record.getWinner(), record.getEndReason());
+            }
+            aiToMove = room.getAIPlayer() != null && !record.isGameOver();
+        }
+        metrics.recordForwardMove(start);
+        if (aiToMove) {
+            requestAIMove(room);
         }
     }
     
@@ -342,14 +1101,20 @@ public class ChessGameServer {
         private String redPlayer;
         private String blackPlayer;
         private final String gameType;
+        // 服务器AI房间的AI座位
+        private volatile ServerAIPlayer aiPlayer;
+        // 服务器维护的权威对局记录，由房间锁保护
+        private final GameRecord record;
         
-        public GameRoom(String roomId, String roomName, String password, String hostId, String hostName, String gameType) {
+        public GameRoom(String roomId, String roomName, String password, String hostId, String hostName, String gameType,
+                        GameRecord record) {
             this.roomId = roomId;
             this.roomName = roomName;
             this.password = password != null ? password : "";
             this.hostId = hostId;
             this.hostName = hostName;
             this.gameType = gameType;
+            this.record = record;
             this.playerIds = new ArrayList<>();
             this.playerNames = new ArrayList<>();
             this.gameState = "WAITING";
@@ -388,6 +1153,34 @@ public class ChessGameServer {
             return playerIds.isEmpty();
         }
         
+        /** 除服务器AI以外是否还有真人玩家 */
+        public synchronized boolean hasHumanPlayers() {
+            for (String playerId : playerIds) {
+                if (aiPlayer == null || !playerId.equals(aiPlayer.getPlayerId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        public synchronized String getPlayerName(String playerId) {
+            int index = playerIds.indexOf(playerId);
+            return index >= 0 ? playerNames.get(index) : "";
+        }
+        
+        /** 对局记录重置为开局局面，红方先走 */
+        public synchronized void resetRecord() {
+            record.reset();
+        }
+        
+        /** 玩家在对局中的颜色，不是对局双方时返回null */
+        public PieceColor getPlayerColor(String playerId) {
+            if (playerId.equals(redPlayer)) {
+                return PieceColor.RED;
+            }
+            return playerId.equals(blackPlayer) ? PieceColor.BLACK : null;
+        }
+        
         public int getPlayerCount() {
             return playerIds.size();
         }
@@ -404,26 +1197,54 @@ public class ChessGameServer {
         public String getRedPlayer() { return redPlayer; }
         public String getBlackPlayer() { return blackPlayer; }
         public String getGameType() { return gameType; }
+        public ServerAIPlayer getAIPlayer() { return aiPlayer; }
+        public GameRecord getRecord() { return record; }
         
         public void setGameState(String gameState) { this.gameState = gameState; }
         public void setRedPlayer(String redPlayer) { this.redPlayer = redPlayer; }
         public void setBlackPlayer(String blackPlayer) { this.blackPlayer = blackPlayer; }
+        public void setAIPlayer(ServerAIPlayer aiPlayer) { this.aiPlayer = aiPlayer; }
     }
     
     // ==================== 主方法 ====================
     
     public static void main(String[] args) {
         int port = DEFAULT_PORT;
+        TransportMode mode = null;
+        String shard = null;
+        String routes = null;
         
-        if (args.length > 0) {
+        for (String arg : args) {
+            if ("--nio".equals(arg)) {
+                mode = TransportMode.NIO;
+                continue;
+            }
+            if (arg.startsWith("--shard=")) {
+                shard = arg.substring("--shard=".length());
+                continue;
+            }
+            if (arg.startsWith("--router=")) {
+                routes = arg.substring("--router=".length());
+                continue;
+            }
+            if (arg.startsWith("--journal=")) {
+                ConfigurationManager.getInstance().setConfiguration("server.journal.dir", arg.substring("--journal=".length()));
+                continue;
+            }
             try {
-                port = Integer.parseInt(args[0]);
+                port = Integer.parseInt(arg);
             } catch (NumberFormatException e) {
                 System.err.println("⚠️ 端口号格式错误，使用默认端口: " + DEFAULT_PORT);
             }
         }
         
-        ChessGameServer server = new ChessGameServer(port);
+        ChessGameServer server = mode != null ? new ChessGameServer(port, mode) : new ChessGameServer(port);
+        if (shard != null) {
+            server.setShardId(shard);
+        }
+        if (routes != null) {
+            server.enableRouting(ShardRouter.ShardAddress.parseList(routes));
+        }
         
         // 添加关闭钩子
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -440,9 +1261,12 @@ public class ChessGameServer {
     }
 
     /**
-     * 构建给定玩家的房间状态快照（用于同步）
+     * 构建给定玩家的房间状态（用于同步）
+     *
+     * @param lastKnownPly 客户端已确认的手数，只补发之后的走法；
+     *                     {@link GameStateSyncRequestMessage#NO_PLY} 表示从最近的快照完整同步
      */
-    public GameStateSyncResponseMessage buildSyncResponse(String requesterPlayerId, String roomId) {
+    public GameStateSyncResponseMessage buildSyncResponse(String requesterPlayerId, String roomId, int lastKnownPly) {
         GameRoom room = rooms.get(roomId);
         if (room == null || !room.hasPlayer(requesterPlayerId)) {
             return new GameStateSyncResponseMessage(
@@ -456,11 +1280,11 @@ public class ChessGameServer {
         String redPlayerId = room.getRedPlayer();
         String blackPlayerId = room.getBlackPlayer();
 
-        // 通过客户端映射获取玩家名称
+        // 通过客户端映射获取玩家名称；服务器重启后对手可能还没有重连，使用房间记录的名称
         String redPlayerName = redPlayerId != null && clients.get(redPlayerId) != null
-                ? clients.get(redPlayerId).getPlayerName() : "";
+                ? clients.get(redPlayerId).getPlayerName() : redPlayerId != null ? room.getPlayerName(redPlayerId) : "";
         String blackPlayerName = blackPlayerId != null && clients.get(blackPlayerId) != null
-                ? clients.get(blackPlayerId).getPlayerName() : "";
+                ? clients.get(blackPlayerId).getPlayerName() : blackPlayerId != null ? room.getPlayerName(blackPlayerId) : "";
 
         // 计算请求者颜色
         String yourColor = null;
@@ -473,15 +1297,23 @@ public class ChessGameServer {
             return new GameStateSyncResponseMessage("server", roomId, "当前仅支持对局双方同步");
         }
 
-        // 当前服务器未跟踪轮到谁，开局默认红方先手
-        String currentPlayer = "RED";
-
-        // 游戏开始/结束状态
-        boolean isGameStarted = "PLAYING".equalsIgnoreCase(room.getGameState());
-        boolean isGameOver = false; // 服务器暂不跟踪胜负
-        String winner = null;
+        // 轮到谁、胜负和补发的走法都来自服务器的对局记录
+        String currentPlayer;
+        boolean isGameOver;
+        String winner;
+        int ply;
+        GameRecord.Delta delta;
+        synchronized (room) {
+            GameRecord record = room.getRecord();
+            currentPlayer = record.getSideToMove().name();
+            isGameOver = record.isGameOver();
+            winner = record.getWinner();
+            ply = record.getPly();
+            delta = record.deltaSince(lastKnownPly);
+        }
+        boolean isGameStarted = "PLAYING".equalsIgnoreCase(room.getGameState()) || isGameOver;
 
-        return new GameStateSyncResponseMessage(
+        GameStateSyncResponseMessage response = new GameStateSyncResponseMessage(
             "server",
             room.getRoomId(),
             redPlayerName,
@@ -493,6 +1325,11 @@ public class ChessGameServer {
             isGameOver,
             winner
         );
+        response.setPly(ply);
+        response.setFromPly(delta.getFromPly());
+        response.setBaseFen(delta.getBaseFen());
+        response.setMoves(delta.getMoves());
+        return response;
     }
 
 }
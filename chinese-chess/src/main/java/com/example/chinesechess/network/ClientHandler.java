@@ -2,45 +2,104 @@ package com.example.chinesechess.network;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.example.chinesechess.util.RateLimitedLogger;
 
 /**
  * 客户端处理器
- * 负责处理单个客户端的连接、消息接收和发送
+ * 负责处理单个客户端的会话、消息接收和发送。
+ * 阻塞模式下作为Runnable独占一个线程读取Socket；NIO模式下由 {@link NioServerTransport}
+ * 在I/O线程上回调 {@link #onMessageReceived(NetworkMessage)}，写出交给对应的 {@link ClientTransport}。
+ * 两种模式都通过 {@link WireCodec} 编解码，握手时可协商二进制协议。
  */
 public class ClientHandler implements Runnable {
     
-    private final Socket socket;
+    private final Socket socket; // 仅阻塞模式使用
     private final ChessGameServer server;
-    private BufferedReader reader;
-    private PrintWriter writer;
+    private OutputStream output;
+    private volatile ClientTransport transport;
     private String playerId;
     private String playerName;
-    private boolean isConnected = false;
+    private volatile boolean isConnected = false;
+    private long lastHeartbeatNanos;
+    private volatile IdleTimeoutWheel.Handle<ClientHandler> idleHandle;
+    private volatile ClientType clientType = ClientType.HANDSHAKE;
+    // 握手后建立的可恢复会话；重连接管后新旧两个处理器共享同一个会话
+    private volatile ClientSession session;
+    private volatile boolean detached; // 连接已断开，会话在宽限期内等待重连
+    private volatile boolean sessionEnding; // 客户端主动断开，不保留会话
+    private volatile ClientType previousClientType = ClientType.LOBBY; // 断线前的连接类型，重连后恢复
+    
+    /**
+     * 连接类型，决定空闲多久后被服务器断开：握手前的连接尽快回收，
+     * 对局中的玩家掉线后尽快释放房间，大厅中的玩家可以宽松一些；
+     * 断线后保留会话的宽限期也由时间轮计时
+     */
+    enum ClientType {
+        HANDSHAKE("server.idle.handshake_timeout_ms", 15000),
+        LOBBY("server.idle.lobby_timeout_ms", 120000),
+        IN_GAME("server.idle.game_timeout_ms", 90000),
+        DETACHED("server.session.grace_ms", 30000);
+        
+        private final String configKey;
+        private final int defaultTimeoutMillis;
+        
+        ClientType(String configKey, int defaultTimeoutMillis) {
+            this.configKey = configKey;
+            this.defaultTimeoutMillis = defaultTimeoutMillis;
+        }
+        
+        String getConfigKey() {
+            return configKey;
+        }
+        
+        int getDefaultTimeoutMillis() {
+            return defaultTimeoutMillis;
+        }
+    }
     
     public ClientHandler(Socket socket, ChessGameServer server) {
         this.socket = socket;
         this.server = server;
     }
     
+    /**
+     * NIO模式：连接已经由传输层建立
+     */
+    ClientHandler(ChessGameServer server, ClientTransport transport) {
+        this.socket = null;
+        this.server = server;
+        this.transport = transport;
+        this.isConnected = true;
+        this.idleHandle = server.trackIdle(this, ClientType.HANDSHAKE);
+    }
+    
     @Override
     public void run() {
         try {
             // 初始化输入输出流
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
-            writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
+            InputStream input = socket.getInputStream();
+            output = new BufferedOutputStream(socket.getOutputStream());
+            WireCodec codec = server.createWireCodec();
+            transport = new SocketTransport(codec);
             isConnected = true;
+            idleHandle = server.trackIdle(this, ClientType.HANDSHAKE);
             
             // 消息循环
-            String line;
-            while (isConnected && (line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    processMessage(line);
-                }
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            int read;
+            while (isConnected && (read = input.read(buffer.array(), buffer.position(), buffer.remaining())) != -1) {
+                buffer.position(buffer.position() + read);
+                buffer.flip();
+                codec.decode(buffer, this::onMessageReceived, this::onMalformedMessage);
+                buffer.compact();
+                buffer = WireCodec.growIfFull(buffer);
             }
             
+        } catch (FrameCodec.FrameTooLargeException e) {
+            System.err.println("❌ 客户端消息过大，断开连接: " + e.getMessage());
         } catch (IOException e) {
             if (isConnected) {
                 System.err.println("⚠️ 客户端连接中断: " + e.getMessage());
@@ -51,21 +110,42 @@ public class ClientHandler implements Runnable {
     }
     
     /**
-     * 处理接收到的消息
+     * 收到一条完整的消息（阻塞模式在读线程上，NIO模式在I/O线程上）
      */
-    private void processMessage(String jsonMessage) {
-        try {
-            NetworkMessage message = NetworkMessage.fromJson(jsonMessage);
-            RateLimitedLogger.log("client-recv-" + playerName + "-" + message.getType(),
-                    "📨 收到客户端消息: " + message.getType() + " from " + playerName);
-            
-            handleMessage(message);
-            
-        } catch (Exception e) {
-            System.err.println("❌ 消息处理失败: " + e.getMessage());
-            System.err.println("原始消息: " + jsonMessage);
-            sendError("INVALID_MESSAGE", "消息格式错误: " + e.getMessage());
+    void onMessageReceived(NetworkMessage message) {
+        IdleTimeoutWheel.Handle<ClientHandler> idle = idleHandle;
+        if (idle != null) {
+            idle.touch();
         }
+        if (isConnected) {
+            processMessage(message);
+        }
+    }
+    
+    /**
+     * 收到无法解析的消息帧
+     */
+    void onMalformedMessage(String rawMessage, RuntimeException e) {
+        System.err.println("❌ 消息处理失败: " + e.getMessage());
+        System.err.println("原始消息: " + rawMessage);
+        sendError("INVALID_MESSAGE", "消息格式错误: " + e.getMessage());
+    }
+    
+    /**
+     * NIO模式下连接关闭后由I/O线程回调
+     */
+    void onTransportClosed() {
+        cleanup();
+    }
+    
+    /**
+     * 处理接收到的消息
+     */
+    private void processMessage(NetworkMessage message) {
+        RateLimitedLogger.log("client-recv-" + playerName + "-" + message.getType(),
+                "📨 收到客户端消息: " + message.getType() + " from " + playerName);
+        
+        handleMessage(message);
     }
     
     /**
@@ -118,26 +198,143 @@ public class ClientHandler implements Runnable {
      * 处理连接请求
      */
     private void handleConnectRequest(ConnectRequestMessage request) {
+        if (playerId != null) {
+            return; // 同一连接上重复握手
+        }
+        boolean binary = server.isBinaryProtocolEnabled()
+                && WireCodec.WireFormat.parse(request.getWireFormat()) == WireCodec.WireFormat.BINARY;
+        if (request.getSessionToken() != null && resumeSession(request, binary)) {
+            return;
+        }
         this.playerId = request.getSenderId();
         this.playerName = request.getPlayerName();
         
-        // 注册客户端到服务器
-        server.registerClient(playerId, this);
-        
-        // 发送连接成功响应
+        // 发送连接成功响应，客户端请求二进制协议且服务器允许时在响应中确认，之后的消息改用二进制
         ConnectResponseMessage response = new ConnectResponseMessage("server", true, playerId, "1.0.0");
+        ClientSession newSession = server.createSession(playerId, this, transport);
+        if (newSession != null) {
+            response.setSessionToken(newSession.getToken());
+        }
+        sendHandshakeResponse(response, binary);
+        
+        // 切换格式之后再注册到服务器，其他线程发来的消息不会夹在响应和切换之间
+        session = newSession;
+        server.registerClient(playerId, this);
+        setClientType(ClientType.LOBBY);
+    }
+    
+    /**
+     * 握手响应直接交给传输层，不编号；需要时随后切换为二进制格式
+     */
+    private void sendHandshakeResponse(ConnectResponseMessage response, boolean binary) {
+        if (binary) {
+            response.setWireFormat(WireCodec.WireFormat.BINARY.getWireName());
+        }
         sendMessage(response);
+        ClientTransport out = transport;
+        if (binary && out != null) {
+            out.setWireFormat(WireCodec.WireFormat.BINARY);
+        }
+    }
+    
+    /**
+     * 凭令牌恢复会话：新连接接管会话，补发客户端断线期间没有收到的消息，玩家的房间和对局保持不变。
+     * 服务器重启后会话已不存在，令牌属于从日志恢复的玩家时建立同一令牌的新会话，推送完整状态
+     *
+     * @return 是否恢复成功；令牌无效或会话已结束时按新连接处理
+     */
+    private boolean resumeSession(ConnectRequestMessage request, boolean binary) {
+        ClientSession found = server.findSession(request.getSessionToken());
+        boolean restored = found == null;
+        if (restored) {
+            found = server.claimRestoredSession(request.getSessionToken(), request.getSenderId(), this, transport);
+        }
+        ClientSession resumed = found;
+        if (resumed == null || !resumed.getPlayerId().equals(request.getSenderId())) {
+            System.out.println("⚠️ 会话已失效，按新连接处理: " + request.getSenderId());
+            return false;
+        }
+        this.playerId = resumed.getPlayerId();
+        this.playerName = request.getPlayerName();
+        long[] replayed = new long[1];
+        ClientHandler previous = resumed.attach(this, transport, request.getLastReceivedSeq(), (complete, resumeSeq) -> {
+            ConnectResponseMessage response = new ConnectResponseMessage("server", true, playerId, "1.0.0");
+            response.setSessionToken(resumed.getToken());
+            response.setResumed(true);
+            response.setReplayComplete(complete);
+            response.setResumeSeq(resumeSeq);
+            sendHandshakeResponse(response, binary);
+            replayed[0] = complete ? resumed.getSentSeq() - resumeSeq : -1;
+            // 在会话锁内替换，之后按玩家ID查到的都是新连接
+            session = resumed;
+            server.registerClient(playerId, this);
+        });
+        if (previous == null) {
+            this.playerId = null;
+            return false;
+        }
+        if (previous != this) {
+            ClientType type = previous.retire();
+            setClientType(type == ClientType.HANDSHAKE ? ClientType.LOBBY : type);
+        } else if (restored) {
+            // 恢复的玩家都在房间中
+            setClientType(ClientType.IN_GAME);
+        }
+        server.getMetrics().recordSessionResumed(replayed[0]);
+        System.out.println("🔄 会话已恢复: " + playerName + (restored ? "，服务器重启后回到房间，推送完整状态"
+                : replayed[0] >= 0 ? "，补发 " + replayed[0] + " 条消息" : "，缓冲不足，推送完整状态"));
+        if (replayed[0] < 0 || restored) {
+            server.resyncPlayer(playerId);
+        }
+        return true;
+    }
+    
+    /**
+     * 会话已被新连接接管：停止空闲检测，关闭仍然打开的旧连接
+     *
+     * @return 接管前的连接类型
+     */
+    private ClientType retire() {
+        IdleTimeoutWheel.Handle<ClientHandler> idle = idleHandle;
+        if (idle != null) {
+            idle.cancel();
+        }
+        ClientType type = detached ? previousClientType : clientType;
+        detached = false;
+        isConnected = false;
+        return type;
     }
     
     /**
      * 处理创建房间请求
      */
     private void handleCreateRoomRequest(CreateRoomRequestMessage request) {
-        String roomId = server.createRoom(playerId, request.getRoomName(), request.getPassword(), request.getGameType());
+        ServerAIPlayer.Engine aiEngine = ServerAIPlayer.Engine.parse(request.getAiOpponent());
+        if (request.getAiOpponent() != null && !request.getAiOpponent().trim().isEmpty() && aiEngine == null) {
+            sendMessage(CreateRoomResponseMessage.createErrorResponse("server", "不支持的AI引擎: " + request.getAiOpponent()));
+            return;
+        }
+        
+        ShardRouter router = server.getShardRouter();
+        if (router != null) {
+            // 路由器只负责大厅：分配房间ID和分片，客户端到分片上创建
+            RedirectMessage redirect = router.assignRoom();
+            sendMessage(redirect != null ? redirect
+                    : CreateRoomResponseMessage.createErrorResponse("server", "没有可用的游戏服务器"));
+            return;
+        }
+        
+        String roomId = server.createRoom(playerId, request.getRoomName(), request.getPassword(), request.getGameType(),
+                request.getRoomId());
         
         if (roomId != null) {
             CreateRoomResponseMessage response = new CreateRoomResponseMessage("server", roomId);
             sendMessage(response);
+            setClientType(ClientType.IN_GAME);
+            if (aiEngine != null) {
+                // 先回复房间创建成功，再让AI入座开局，保证客户端按顺序收到消息
+                server.seatServerAI(roomId, aiEngine, request.getAiDifficulty());
+            }
         } else {
             CreateRoomResponseMessage response = CreateRoomResponseMessage.createErrorResponse("server", "创建房间失败");
             sendMessage(response);
@@ -148,6 +345,13 @@ public class ClientHandler implements Runnable {
      * 处理加入房间请求
      */
     private void handleJoinRoomRequest(JoinRoomRequestMessage request) {
+        ShardRouter router = server.getShardRouter();
+        if (router != null) {
+            RedirectMessage redirect = router.routeJoin(request.getRoomId());
+            sendMessage(redirect != null ? redirect
+                    : new JoinRoomResponseMessage("server", false, "房间不存在或所在服务器不可用"));
+            return;
+        }
         boolean success = server.joinRoom(playerId, request.getRoomId(), request.getPassword());
         
         if (success) {
@@ -155,6 +359,7 @@ public class ClientHandler implements Runnable {
             String opponentName = getOpponentName(request.getRoomId());
             JoinRoomResponseMessage response = new JoinRoomResponseMessage("server", true, request.getRoomId(), opponentName);
             sendMessage(response);
+            setClientType(ClientType.IN_GAME);
         } else {
             JoinRoomResponseMessage response = new JoinRoomResponseMessage("server", false, "加入房间失败");
             sendMessage(response);
@@ -165,11 +370,20 @@ public class ClientHandler implements Runnable {
      * 处理房间列表请求
      */
     private void handleRoomListRequest(RoomListRequestMessage request) {
-        var roomList = server.getRoomList(request.getGameType());
-        RoomListResponseMessage response = new RoomListResponseMessage(roomList);
+        if (request.isSubscribe() && playerId != null) {
+            // 订阅模式：完整列表只发一次，之后由服务器推送增量
+            server.subscribeRoomList(playerId, request.getGameType());
+            System.out.println("📋 玩家订阅房间列表: " + playerName);
+            return;
+        }
+        RoomDirectory.Page page = server.queryRooms(request.getGameType(), request.getState(),
+                request.getOffset(), request.getLimit());
+        RoomListResponseMessage response = new RoomListResponseMessage(page.getRooms());
+        response.setTotalCount(page.getTotalCount());
+        response.setOffset(page.getOffset());
         sendMessage(response);
         RateLimitedLogger.log("room-list-send-" + playerName,
-                "📋 发送房间列表给: " + playerName + " (共" + roomList.size() + "个房间)");
+                "📋 发送房间列表给: " + playerName + " (共" + page.getTotalCount() + "个房间)");
     }
     
     /**
@@ -185,12 +399,14 @@ public class ClientHandler implements Runnable {
      */
     private void handleLeaveRoomMessage(LeaveRoomMessage message) {
         server.leaveRoom(playerId, message.getRoomId());
+        setClientType(ClientType.LOBBY);
     }
     
     /**
      * 处理断开连接消息
      */
     private void handleDisconnectMessage(DisconnectMessage message) {
+        sessionEnding = true;
         disconnect("客户端主动断开");
     }
     
@@ -198,6 +414,17 @@ public class ClientHandler implements Runnable {
      * 处理心跳消息
      */
     private void handleHeartbeatMessage(HeartbeatMessage message) {
+        // 两次心跳之间超过1.5个间隔时，按间隔数计入缺失的心跳
+        long now = System.nanoTime();
+        long interval = server.getHeartbeatIntervalNanos();
+        int missed = lastHeartbeatNanos == 0 ? 0 : (int) ((now - lastHeartbeatNanos + interval / 2) / interval) - 1;
+        lastHeartbeatNanos = now;
+        server.getMetrics().recordHeartbeat(missed);
+        ClientSession current = session;
+        if (current != null) {
+            current.acknowledge(message.getAckSeq());
+        }
+        
         // 发送心跳响应
         HeartbeatMessage response = new HeartbeatMessage(playerId);
         sendMessage(response);
@@ -212,17 +439,28 @@ public class ClientHandler implements Runnable {
     
     /**
      * 发送消息给客户端
+     * 只编码放入该客户端的发送队列，不等待网络写出，任何线程都可以调用，不会被慢客户端阻塞
      */
-    public synchronized void sendMessage(NetworkMessage message) {
-        if (!isConnected || writer == null) {
+    public void sendMessage(NetworkMessage message) {
+        ClientSession current = session;
+        if (current != null) {
+            // 握手之后统一经会话编号发送，断线宽限期内只进入补发缓冲
+            try {
+                current.send(message);
+            } catch (Exception e) {
+                System.err.println("❌ 发送消息失败给 " + playerName + ": " + e.getMessage());
+                disconnect("发送消息失败");
+            }
+            return;
+        }
+        ClientTransport out = transport;
+        if (!isConnected || out == null) {
             System.err.println("❌ 无法发送消息给 " + playerName + ": 连接已断开");
             return;
         }
         
         try {
-            String json = message.toJson();
-            writer.println(json);
-            writer.flush();
+            out.send(message);
             RateLimitedLogger.log("send-" + playerName + "-" + message.getType(),
                     "📤 发送消息给 " + playerName + ": " + message.getType());
         } catch (Exception e) {
@@ -251,8 +489,19 @@ public class ClientHandler implements Runnable {
      * 断开连接
      */
     public void disconnect(String reason) {
+        if (detached) {
+            // 宽限期结束仍未重连
+            detached = false;
+            endSession();
+            return;
+        }
         if (isConnected) {
             isConnected = false;
+            // 关闭传输层：阻塞模式下读线程随之退出，NIO模式下I/O线程回调清理
+            ClientTransport out = transport;
+            if (out != null) {
+                out.close();
+            }
         }
     }
     
@@ -261,26 +510,41 @@ public class ClientHandler implements Runnable {
      */
     private void cleanup() {
         isConnected = false;
-        
-        // 从服务器移除客户端
-        if (playerId != null) {
-            server.removeClient(playerId);
+        IdleTimeoutWheel.Handle<ClientHandler> idle = idleHandle;
+        if (idle != null) {
+            idle.cancel();
         }
         
-        // 关闭IO流
-        try {
-            if (reader != null) {
-                reader.close();
+        ClientSession current = session;
+        if (current != null) {
+            // 意外断线时保留会话，等待客户端在宽限期内重连
+            boolean keep = !sessionEnding && server.isRunning() && server.getIdleTimeoutMillis(ClientType.DETACHED) > 0;
+            switch (current.release(this, keep)) {
+                case DETACHED:
+                    previousClientType = clientType;
+                    clientType = ClientType.DETACHED;
+                    detached = true;
+                    idleHandle = server.trackIdle(this, ClientType.DETACHED);
+                    System.out.println("⏸️ 玩家连接中断，保留会话等待重连: " + playerName);
+                    break;
+                case ENDED:
+                    server.removeSession(current);
+                    server.removeClient(playerId, this);
+                    break;
+                default:
+                    break; // 已由新连接接管
             }
-        } catch (IOException e) {
-            // 忽略关闭异常
+        } else if (playerId != null) {
+            // 从服务器移除客户端
+            server.removeClient(playerId, this);
         }
         
-        if (writer != null) {
-            writer.close();
+        if (socket == null) {
+            // NIO模式的通道由传输层负责关闭
+            return;
         }
         
-        // 关闭socket
+        // 关闭socket（同时关闭输入输出流）
         try {
             if (socket != null && !socket.isClosed()) {
                 socket.close();
@@ -296,7 +560,7 @@ public class ClientHandler implements Runnable {
      */
     private void handleGameStateSyncRequest(GameStateSyncRequestMessage request) {
         try {
-            GameStateSyncResponseMessage resp = server.buildSyncResponse(playerId, request.getRoomId());
+            GameStateSyncResponseMessage resp = server.buildSyncResponse(playerId, request.getRoomId(), request.getLastKnownPly());
             sendMessage(resp);
         } catch (Exception e) {
             System.err.println("❌ 同步请求处理失败: " + e.getMessage());
@@ -306,6 +570,30 @@ public class ClientHandler implements Runnable {
     }
 
 
+    /**
+     * 宽限期结束：结束会话，玩家照常下线并离开房间
+     */
+    private void endSession() {
+        ClientSession current = session;
+        if (current != null && current.release(this, false) == ClientSession.Release.ENDED) {
+            server.removeSession(current);
+            server.getMetrics().recordSessionExpired();
+            System.out.println("⌛ 会话未在宽限期内恢复，玩家下线: " + playerName);
+            server.removeClient(playerId, this);
+        }
+    }
+    
+    /**
+     * 切换连接类型，按新类型的阈值重新计算空闲超时
+     */
+    private void setClientType(ClientType type) {
+        IdleTimeoutWheel.Handle<ClientHandler> idle = idleHandle;
+        if (clientType != type && idle != null) {
+            idle.setTimeout(server.getIdleTimeoutMillis(type));
+        }
+        clientType = type;
+    }
+
     // ==================== Getters ====================
     
     public String getPlayerId() {
@@ -316,11 +604,116 @@ public class ClientHandler implements Runnable {
         return playerName;
     }
     
+    /** 会话令牌，没有建立可恢复会话时为null */
+    String getSessionToken() {
+        ClientSession current = session;
+        return current != null ? current.getToken() : null;
+    }
+    
     public boolean isConnected() {
         return isConnected;
     }
     
+    ClientType getClientType() {
+        return clientType;
+    }
+    
     public String getRemoteAddress() {
-        return socket != null ? socket.getRemoteSocketAddress().toString() : "unknown";
+        ClientTransport out = transport;
+        return out != null ? out.getRemoteAddress() : "unknown";
+    }
+    
+    /**
+     * 发送队列中等待写出的消息数
+     */
+    public int getOutboundDepth() {
+        ClientTransport out = transport;
+        return out != null ? out.getQueueDepth() : 0;
+    }
+    
+    /**
+     * 阻塞模式的传输层：消息进入有界发送队列，由共享写线程池中的写出任务批量写Socket
+     */
+    private class SocketTransport implements ClientTransport {
+        private static final int MAX_BATCH = 64;
+        
+        private final WireCodec codec;
+        private final OutboundQueue outbound;
+        
+        SocketTransport(WireCodec codec) {
+            this.codec = codec;
+            this.outbound = server.createOutboundQueue();
+        }
+        
+        @Override
+        public void send(NetworkMessage message) {
+            switch (outbound.offer(message, codec::encode)) {
+                case SCHEDULE_WRITER:
+                    server.getOutboundWriters().execute(this::drain);
+                    break;
+                case OVERFLOW:
+                    System.err.println("⚠️ 客户端发送队列溢出，断开连接: " + getRemoteAddress());
+                    close();
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        /**
+         * 写出任务：每批最多写出MAX_BATCH条消息后flush一次，直到队列为空
+         */
+        private void drain() {
+            ByteBuffer[] batch = new ByteBuffer[MAX_BATCH];
+            try {
+                while (true) {
+                    int count = outbound.peekBatch(batch);
+                    if (count == 0) {
+                        if (outbound.finishIfEmpty()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        ByteBuffer frame = batch[i];
+                        output.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+                        frame.position(frame.limit());
+                        batch[i] = null;
+                    }
+                    output.flush();
+                    outbound.removeWritten();
+                }
+            } catch (IOException e) {
+                outbound.close();
+                if (isConnected) {
+                    System.err.println("⚠️ 写出失败，断开连接: " + getRemoteAddress() + " - " + e.getMessage());
+                }
+                close();
+            }
+        }
+        
+        @Override
+        public int getQueueDepth() {
+            return outbound.getDepth();
+        }
+        
+        @Override
+        public void setWireFormat(WireCodec.WireFormat format) {
+            codec.setOutboundFormat(format);
+        }
+        
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 忽略关闭异常
+            }
+        }
+        
+        @Override
+        public String getRemoteAddress() {
+            return socket.getRemoteSocketAddress().toString();
+        }
     }
 }
@@ -0,0 +1,167 @@
+package com.example.chinesechess.network;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * 可恢复的客户端会话
+ * <p>
+ * 握手成功后服务器发给该玩家的消息都经会话发送，并按顺序编号：
+ * 序号不写在消息里，客户端和服务器都按 {@link #isSequenced} 的同一规则各自计数。
+ * 最近发出的编号消息保存在有界的补发缓冲中，客户端在心跳里确认收到的序号后释放。
+ * <p>
+ * 连接意外断开时会话进入宽限期：玩家仍留在房间，发给他的消息只进入缓冲；
+ * 客户端在宽限期内凭令牌重连，新连接接管会话，服务器只补发客户端没有收到的消息。
+ */
+final class ClientSession {
+
+    /** 连接断开时会话的去向 */
+    enum Release {
+        /** 进入宽限期，等待重连 */
+        DETACHED,
+        /** 会话结束，玩家照常下线 */
+        ENDED,
+        /** 会话已被新连接接管，旧连接无需处理 */
+        TAKEN_OVER
+    }
+
+    /**
+     * 新连接接管会话时由调用方发出连接响应（在补发之前）
+     */
+    interface Handshake {
+        /**
+         * @param replayComplete 缓冲中是否还有客户端缺失的全部消息
+         * @param resumeSeq      紧接着发出的消息的序号减一
+         */
+        void accept(boolean replayComplete, long resumeSeq);
+    }
+
+    private final String token;
+    private final String playerId;
+    private final int capacity;
+
+    // 以下状态由this锁保护：编号、入缓冲和交给传输层在同一把锁内完成，保证序号与发送顺序一致
+    private final ArrayDeque<NetworkMessage> replay = new ArrayDeque<>();
+    private long sentSeq;
+    private ClientTransport transport;
+    private ClientHandler owner;
+    private boolean ended;
+
+    ClientSession(String token, String playerId, int capacity, ClientHandler owner, ClientTransport transport) {
+        this.token = token;
+        this.playerId = playerId;
+        this.capacity = Math.max(1, capacity);
+        this.owner = owner;
+        this.transport = transport;
+    }
+
+    /**
+     * 需要编号和补发的消息：握手响应之后发出的、不会被发送队列丢弃的消息
+     */
+    static boolean isSequenced(NetworkMessage message) {
+        return message.getType() != NetworkMessage.MessageType.CONNECT_RESPONSE
+                && !OutboundQueue.isDroppable(message);
+    }
+
+    /**
+     * 发送一条消息；宽限期内只进入补发缓冲
+     */
+    synchronized void send(NetworkMessage message) {
+        if (ended) {
+            return;
+        }
+        if (isSequenced(message)) {
+            sentSeq++;
+            replay.addLast(message);
+            if (replay.size() > capacity) {
+                replay.removeFirst();
+            }
+        }
+        if (transport != null) {
+            transport.send(message);
+        }
+    }
+
+    /**
+     * 客户端确认收到了seq及之前的消息
+     */
+    synchronized void acknowledge(long seq) {
+        long acked = Math.min(seq, sentSeq);
+        while (!replay.isEmpty() && firstBufferedSeq() <= acked) {
+            replay.removeFirst();
+        }
+    }
+
+    private long firstBufferedSeq() {
+        return sentSeq - replay.size() + 1;
+    }
+
+    /**
+     * 连接断开：当前连接仍持有会话时，按keep进入宽限期或结束会话
+     */
+    synchronized Release release(ClientHandler handler, boolean keep) {
+        if (owner != handler) {
+            return Release.TAKEN_OVER;
+        }
+        if (keep && !ended) {
+            transport = null;
+            return Release.DETACHED;
+        }
+        ended = true;
+        transport = null;
+        replay.clear();
+        return Release.ENDED;
+    }
+
+    /**
+     * 新连接接管会话：先发连接响应，再补发lastReceivedSeq之后的消息，之后的消息都发往新连接。
+     * 缓冲里已经没有客户端缺失的消息时不补发，由调用方随后推送完整状态。
+     *
+     * @return 之前持有会话的连接处理器，会话已结束时返回null
+     */
+    synchronized ClientHandler attach(ClientHandler handler, ClientTransport newTransport,
+                                      long lastReceivedSeq, Handshake handshake) {
+        if (ended) {
+            return null;
+        }
+        boolean complete = lastReceivedSeq >= firstBufferedSeq() - 1 && lastReceivedSeq <= sentSeq;
+        long resumeSeq = complete ? lastReceivedSeq : sentSeq;
+        ClientHandler previous = owner;
+        ClientTransport previousTransport = transport;
+        owner = handler;
+        transport = newTransport;
+        if (previousTransport != null) {
+            previousTransport.close();
+        }
+        handshake.accept(complete, resumeSeq);
+        if (complete) {
+            long seq = firstBufferedSeq();
+            for (Iterator<NetworkMessage> it = replay.iterator(); it.hasNext(); seq++) {
+                NetworkMessage message = it.next();
+                if (seq > lastReceivedSeq) {
+                    newTransport.send(message);
+                }
+            }
+        }
+        acknowledge(resumeSeq);
+        return previous;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    String getPlayerId() {
+        return playerId;
+    }
+
+    /** 最后一条编号消息的序号 */
+    synchronized long getSentSeq() {
+        return sentSeq;
+    }
+
+    /** 缓冲中等待确认的消息数 */
+    synchronized int getBufferedCount() {
+        return replay.size();
+    }
+}
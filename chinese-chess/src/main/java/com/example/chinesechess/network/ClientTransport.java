@@ -0,0 +1,33 @@
+package com.example.chinesechess.network;
+
+/**
+ * 客户端连接的传输层
+ * {@link ClientHandler} 只负责会话和消息处理，具体的读写方式（阻塞Socket或NIO）由传输层实现。
+ */
+public interface ClientTransport {
+
+    /**
+     * 发送一条消息：只编码入队，不等待写出，队列溢出时按策略丢弃消息或断开连接
+     */
+    void send(NetworkMessage message);
+    
+    /**
+     * 当前排队等待写出的消息数
+     */
+    int getQueueDepth();
+    
+    /**
+     * 切换之后发送的消息使用的线路格式（握手协商成功后调用）
+     */
+    void setWireFormat(WireCodec.WireFormat format);
+
+    /**
+     * 关闭连接，可重复调用
+     */
+    void close();
+
+    /**
+     * 远端地址，用于日志
+     */
+    String getRemoteAddress();
+}
@@ -6,6 +6,9 @@ package com.example.chinesechess.network;
 public class ConnectRequestMessage extends NetworkMessage {
     private String playerName;
     private String clientVersion;
+    private String wireFormat; // 客户端希望使用的线路格式（binary），为空表示只支持JSON
+    private String sessionToken; // 断线重连时带上之前的会话令牌，服务器据此恢复会话
+    private long lastReceivedSeq; // 重连前最后收到的消息序号，服务器补发之后的消息
     
     public ConnectRequestMessage(String senderId, String playerName, String clientVersion) {
         super(MessageType.CONNECT_REQUEST, senderId);
@@ -29,4 +32,28 @@ public class ConnectRequestMessage extends NetworkMessage {
     public void setClientVersion(String clientVersion) {
         this.clientVersion = clientVersion;
     }
+    
+    public String getWireFormat() {
+        return wireFormat;
+    }
+    
+    public void setWireFormat(String wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+    
+    public String getSessionToken() {
+        return sessionToken;
+    }
+    
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+    
+    public long getLastReceivedSeq() {
+        return lastReceivedSeq;
+    }
+    
+    public void setLastReceivedSeq(long lastReceivedSeq) {
+        this.lastReceivedSeq = lastReceivedSeq;
+    }
 }
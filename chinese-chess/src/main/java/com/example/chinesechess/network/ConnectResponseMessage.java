@@ -8,6 +8,11 @@ public class ConnectResponseMessage extends NetworkMessage {
     private String playerId;
     private String serverVersion;
     private String errorMessage;
+    private String wireFormat; // 服务器接受的线路格式，为空表示继续使用JSON
+    private String sessionToken; // 会话令牌，断线后凭它在宽限期内恢复会话
+    private boolean resumed; // 是否恢复了之前的会话（房间和对局都保留）
+    private boolean replayComplete; // 恢复时断线期间的消息是否全部补发，否则服务器随后推送完整状态
+    private long resumeSeq; // 本响应之后的第一条编号消息的序号减一
     
     public ConnectResponseMessage(String senderId, boolean success, String playerId, String serverVersion) {
         super(MessageType.CONNECT_RESPONSE, senderId);
@@ -54,4 +59,44 @@ public class ConnectResponseMessage extends NetworkMessage {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+    
+    public String getWireFormat() {
+        return wireFormat;
+    }
+    
+    public void setWireFormat(String wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+    
+    public String getSessionToken() {
+        return sessionToken;
+    }
+    
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+    
+    public boolean isResumed() {
+        return resumed;
+    }
+    
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+    
+    public boolean isReplayComplete() {
+        return replayComplete;
+    }
+    
+    public void setReplayComplete(boolean replayComplete) {
+        this.replayComplete = replayComplete;
+    }
+    
+    public long getResumeSeq() {
+        return resumeSeq;
+    }
+    
+    public void setResumeSeq(long resumeSeq) {
+        this.resumeSeq = resumeSeq;
+    }
 }
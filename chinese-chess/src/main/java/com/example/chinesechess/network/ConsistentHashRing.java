@@ -0,0 +1,70 @@
+package com.example.chinesechess.network;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ * <p>
+ * 每个节点在环上放置若干虚拟节点，键顺时针归属遇到的第一个虚拟节点。
+ * 增删节点时只有相邻区间的键改变归属，其余键的位置不变。
+ *
+ * @param <T> 节点类型
+ */
+final class ConsistentHashRing<T> {
+
+    private final int virtualNodes;
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    ConsistentHashRing(int virtualNodes) {
+        this.virtualNodes = Math.max(1, virtualNodes);
+    }
+
+    /**
+     * 加入节点；同一ID重复加入时替换
+     */
+    synchronized void add(String nodeId, T node) {
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(nodeId + "#" + i), node);
+        }
+    }
+
+    synchronized void remove(String nodeId) {
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.remove(hash(nodeId + "#" + i));
+        }
+    }
+
+    /**
+     * 键归属的节点，环为空时返回null
+     */
+    synchronized T locate(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    synchronized boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /**
+     * 64位FNV-1a，再用murmur3的终结混合打散相近的输入
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
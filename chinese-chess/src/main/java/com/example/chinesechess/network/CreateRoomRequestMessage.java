@@ -8,6 +8,9 @@ public class CreateRoomRequestMessage extends NetworkMessage {
     private String password;
     private int maxPlayers;
     private String gameType;
+    private String aiOpponent;   // 服务器托管AI引擎（ENHANCED/PIKAFISH），为空表示等待真人对手
+    private int aiDifficulty;    // 服务器AI难度 1-10
+    private String roomId;       // 分片部署时由路由器分配的房间ID，直连服务器时为空
 
     public CreateRoomRequestMessage(String senderId, String roomName, String password,
                                     int maxPlayers, String gameType) {
@@ -17,6 +20,13 @@ public class CreateRoomRequestMessage extends NetworkMessage {
         this.maxPlayers = maxPlayers;
         this.gameType = gameType;
     }
+
+    public CreateRoomRequestMessage(String senderId, String roomName, String password,
+                                    int maxPlayers, String gameType, String aiOpponent, int aiDifficulty) {
+        this(senderId, roomName, password, maxPlayers, gameType);
+        this.aiOpponent = aiOpponent;
+        this.aiDifficulty = aiDifficulty;
+    }
     
     // Getters and Setters
     public String getRoomName() { return roomName; }
@@ -30,4 +40,13 @@ public class CreateRoomRequestMessage extends NetworkMessage {
 
     public String getGameType() { return gameType; }
     public void setGameType(String gameType) { this.gameType = gameType; }
+
+    public String getAiOpponent() { return aiOpponent; }
+    public void setAiOpponent(String aiOpponent) { this.aiOpponent = aiOpponent; }
+
+    public int getAiDifficulty() { return aiDifficulty; }
+    public void setAiDifficulty(int aiDifficulty) { this.aiDifficulty = aiDifficulty; }
+    
+    public String getRoomId() { return roomId; }
+    public void setRoomId(String roomId) { this.roomId = roomId; }
 }
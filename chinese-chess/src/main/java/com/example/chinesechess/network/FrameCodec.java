@@ -0,0 +1,201 @@
+package com.example.chinesechess.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 消息分帧编解码器（每个连接一个实例，只在该连接的读线程上使用）
+ * <p>
+ * 支持两种分帧方式，每一帧都由开头的第一个字节自动识别，因此同一连接上可以混用：
+ * <ul>
+ *   <li>{@link Framing#NEWLINE}：每行一条JSON，兼容现有客户端</li>
+ *   <li>{@link Framing#LENGTH_PREFIXED}：4字节大端长度 + 消息体，长度上限远小于16MB，
+ *       所以首字节必然为0，不会与JSON的 '{' 混淆</li>
+ * </ul>
+ */
+public class FrameCodec {
+
+    /** 默认单帧上限 */
+    public static final int DEFAULT_MAX_FRAME_BYTES = 1 << 20;
+
+    /**
+     * 分帧方式
+     */
+    public enum Framing {
+        NEWLINE,
+        LENGTH_PREFIXED;
+
+        /**
+         * 按本分帧方式编码一条文本消息
+         */
+        public ByteBuffer encode(String payload) {
+            return encode(payload.getBytes(StandardCharsets.UTF_8), 0, -1);
+        }
+
+        /**
+         * 按本分帧方式编码一段消息体
+         *
+         * @param length 消息体长度，-1表示整个数组
+         */
+        public ByteBuffer encode(byte[] body, int offset, int length) {
+            int size = length < 0 ? body.length - offset : length;
+            if (this == NEWLINE) {
+                ByteBuffer frame = ByteBuffer.allocate(size + 1);
+                frame.put(body, offset, size).put((byte) '\n');
+                frame.flip();
+                return frame;
+            }
+            ByteBuffer frame = ByteBuffer.allocate(size + 4);
+            frame.putInt(size).put(body, offset, size);
+            frame.flip();
+            return frame;
+        }
+    }
+
+    /**
+     * 帧超过长度上限或长度字段非法
+     */
+    public static class FrameTooLargeException extends IOException {
+        public FrameTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    private final int maxFrameBytes;
+    private volatile Framing framing;
+    // 换行模式下从缓冲区position起已经扫描过、确认不含换行符的字节数
+    private int scanned;
+
+    public FrameCodec() {
+        this(DEFAULT_MAX_FRAME_BYTES);
+    }
+
+    public FrameCodec(int maxFrameBytes) {
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * 从读缓冲区中解出所有完整的文本帧，见 {@link #decodeFrames(ByteBuffer, Consumer)}
+     */
+    public void decode(ByteBuffer buffer, Consumer<String> sink) throws FrameTooLargeException {
+        decodeFrames(buffer, payload -> sink.accept(decodeUtf8(payload)));
+    }
+
+    /**
+     * 从读缓冲区中解出所有完整的帧。
+     * 缓冲区处于读模式（flip之后）；返回时position停在第一个不完整帧的开头，调用方随后compact即可。
+     *
+     * @param buffer 读缓冲区
+     * @param sink 每个完整帧的消息体，只在回调期间有效
+     * @throws FrameTooLargeException 单帧超过上限
+     */
+    public void decodeFrames(ByteBuffer buffer, Consumer<ByteBuffer> sink) throws FrameTooLargeException {
+        while (buffer.hasRemaining()) {
+            if (scanned == 0) {
+                // 位于帧边界，按首字节识别本帧的分帧方式
+                framing = buffer.get(buffer.position()) == 0 ? Framing.LENGTH_PREFIXED : Framing.NEWLINE;
+            }
+            boolean complete = framing == Framing.NEWLINE
+                    ? decodeLine(buffer, sink)
+                    : decodeLengthPrefixed(buffer, sink);
+            if (!complete) {
+                return;
+            }
+        }
+    }
+
+    private boolean decodeLine(ByteBuffer buffer, Consumer<ByteBuffer> sink) throws FrameTooLargeException {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int newline = -1;
+        for (int i = start + scanned; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                newline = i;
+                break;
+            }
+        }
+        if (newline < 0) {
+            scanned = limit - start;
+            if (scanned > maxFrameBytes) {
+                throw new FrameTooLargeException("消息行超过上限: " + scanned + " 字节");
+            }
+            return false;
+        }
+        scanned = 0;
+        int end = newline;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        ByteBuffer payload = slice(buffer, start, end - start);
+        buffer.position(newline + 1);
+        if (!isBlank(payload)) {
+            sink.accept(payload);
+        }
+        return true;
+    }
+
+    private boolean decodeLengthPrefixed(ByteBuffer buffer, Consumer<ByteBuffer> sink) throws FrameTooLargeException {
+        if (buffer.remaining() < 4) {
+            return false;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length < 0 || length > maxFrameBytes) {
+            throw new FrameTooLargeException("非法帧长度: " + length);
+        }
+        if (buffer.remaining() < 4 + length) {
+            return false;
+        }
+        ByteBuffer payload = slice(buffer, start + 4, length);
+        buffer.position(start + 4 + length);
+        sink.accept(payload);
+        return true;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + length).position(offset);
+        return payload.slice();
+    }
+
+    private static boolean isBlank(ByteBuffer payload) {
+        for (int i = payload.position(); i < payload.limit(); i++) {
+            byte b = payload.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把消息体按UTF-8解码为文本，不改变缓冲区的position
+     */
+    public static String decodeUtf8(ByteBuffer payload) {
+        return decodeUtf8(payload, payload.position(), payload.remaining());
+    }
+
+    private static String decodeUtf8(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 最近一帧使用的分帧方式，尚未收到数据时为null
+     */
+    public Framing getFraming() {
+        return framing;
+    }
+
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.chinesechess.network;
+
+import com.example.chinesechess.core.Board;
+import com.example.chinesechess.core.GameState;
+import com.example.chinesechess.core.PieceColor;
+import com.example.chinesechess.core.XiangqiPosition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务器维护的权威对局记录
+ * <p>
+ * 每个房间一份：当前局面、按手数排列的走法日志（每步一个int，见 {@link XiangqiPosition#encodeMove}）、
+ * 胜负结果，以及每隔若干手生成一次的FEN快照。客户端重连或错过消息时只需要补发它最后确认的手数之后的走法；
+ * 差距超过快照间隔时改为发送最近的快照加上之后的走法。
+ * <p>
+ * 非线程安全，调用方持有房间锁。
+ */
+public class GameRecord {
+
+    /**
+     * 走法提交结果
+     */
+    public enum MoveResult {
+        OK,
+        NOT_YOUR_TURN,
+        ILLEGAL,
+        GAME_OVER
+    }
+
+    /**
+     * 客户端追上当前局面所需的数据：从fromPly开始（baseFen非空时先恢复到该快照）依次执行moves
+     */
+    public static final class Delta {
+        private final int fromPly;
+        private final String baseFen;
+        private final int[] moves;
+
+        Delta(int fromPly, String baseFen, int[] moves) {
+            this.fromPly = fromPly;
+            this.baseFen = baseFen;
+            this.moves = moves;
+        }
+
+        public int getFromPly() { return fromPly; }
+        public String getBaseFen() { return baseFen; }
+        public int[] getMoves() { return moves; }
+    }
+
+    /** 同一局面出现该次数判和，与 {@link Board} 一致 */
+    private static final int REPETITION_LIMIT = 3;
+
+    private final int snapshotInterval;
+    private XiangqiPosition position;
+    private int[] moves = new int[128];
+    private int ply;
+    private final Map<Long, Integer> repetitions = new HashMap<>();
+    private String snapshotFen;
+    private int snapshotPly;
+    private String winner;
+    private String endReason;
+
+    public GameRecord(int snapshotInterval) {
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        reset();
+    }
+
+    /**
+     * 重置为开局局面
+     */
+    public void reset() {
+        position = XiangqiPosition.initial();
+        ply = 0;
+        repetitions.clear();
+        repetitions.put(position.getHash(), 1);
+        snapshotFen = position.toFen();
+        snapshotPly = 0;
+        winner = null;
+        endReason = null;
+    }
+
+    /**
+     * 校验并执行一步棋，执行后判断对局是否结束
+     */
+    public MoveResult apply(PieceColor mover, int from, int to) {
+        if (winner != null) {
+            return MoveResult.GAME_OVER;
+        }
+        if (mover != position.getSideToMove()) {
+            return MoveResult.NOT_YOUR_TURN;
+        }
+        if (!position.isLegalMove(from, to)) {
+            return MoveResult.ILLEGAL;
+        }
+        position.makeMove(from, to);
+        if (ply == moves.length) {
+            moves = Arrays.copyOf(moves, ply * 2);
+        }
+        moves[ply++] = XiangqiPosition.encodeMove(from, to);
+        if (ply % snapshotInterval == 0) {
+            snapshotFen = position.toFen();
+            snapshotPly = ply;
+        }
+        updateOutcome();
+        return MoveResult.OK;
+    }
+
+    private void updateOutcome() {
+        if (repetitions.merge(position.getHash(), 1, Integer::sum) >= REPETITION_LIMIT) {
+            finish("DRAW", "repetition");
+            return;
+        }
+        GameState state = position.getGameState();
+        if (state == GameState.RED_WINS) {
+            finish("RED", "checkmate");
+        } else if (state == GameState.BLACK_WINS) {
+            finish("BLACK", "checkmate");
+        } else if (state == GameState.DRAW) {
+            finish("DRAW", "draw");
+        }
+    }
+
+    /**
+     * 以非走棋原因结束对局（认输、AI无法走棋等）
+     */
+    public void finish(String winner, String reason) {
+        if (this.winner == null) {
+            this.winner = winner;
+            this.endReason = reason;
+        }
+    }
+
+    /**
+     * 客户端已确认到lastKnownPly手时需要补发的数据。
+     * lastKnownPly为负、超过当前手数或落后超过快照间隔时，从最近的快照开始。
+     */
+    public Delta deltaSince(int lastKnownPly) {
+        if (lastKnownPly >= 0 && lastKnownPly <= ply && ply - lastKnownPly <= snapshotInterval) {
+            return new Delta(lastKnownPly, null, Arrays.copyOfRange(moves, lastKnownPly, ply));
+        }
+        return new Delta(snapshotPly, snapshotFen, Arrays.copyOfRange(moves, snapshotPly, ply));
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public PieceColor getSideToMove() {
+        return position.getSideToMove();
+    }
+
+    public boolean isGameOver() {
+        return winner != null;
+    }
+
+    /** "RED"、"BLACK"、"DRAW"，未结束时为null */
+    public String getWinner() {
+        return winner;
+    }
+
+    public String getEndReason() {
+        return endReason;
+    }
+
+    public String getFen() {
+        return position.toFen();
+    }
+
+    /**
+     * 当前局面的 {@link Board} 副本，供AI计算
+     */
+    public Board toBoard() {
+        return position.toBoard();
+    }
+}
@@ -7,6 +7,10 @@ package com.example.chinesechess.network;
 public class GameStateSyncRequestMessage extends NetworkMessage {
     private String roomId;
     private String reason; // 请求同步的原因，用于调试和日志记录
+    private int lastKnownPly = NO_PLY; // 客户端已确认的手数，服务器只补发之后的走法
+    
+    /** 客户端没有可用的本地局面，需要完整同步 */
+    public static final int NO_PLY = -1;
     
     /**
      * 默认构造函数（用于序列化）
@@ -53,9 +57,17 @@ public class GameStateSyncRequestMessage extends NetworkMessage {
         this.reason = reason;
     }
     
+    public int getLastKnownPly() {
+        return lastKnownPly;
+    }
+    
+    public void setLastKnownPly(int lastKnownPly) {
+        this.lastKnownPly = lastKnownPly;
+    }
+    
     @Override
     public String toString() {
-        return String.format("GameStateSyncRequestMessage[roomId=%s, reason=%s, %s]", 
-                roomId, reason, super.toString());
+        return String.format("GameStateSyncRequestMessage[roomId=%s, reason=%s, lastKnownPly=%d, %s]", 
+                roomId, reason, lastKnownPly, super.toString());
     }
 }
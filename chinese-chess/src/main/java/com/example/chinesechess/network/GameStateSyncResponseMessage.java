@@ -19,6 +19,12 @@ public class GameStateSyncResponseMessage extends NetworkMessage {
     private boolean isGameOver; // 游戏是否结束
     private String winner; // 获胜者（如果游戏结束）
     
+    // 局面同步：客户端从fromPly开始（baseFen非空时先恢复到该局面）依次执行moves，到达ply
+    private int ply; // 服务器当前手数
+    private int fromPly;
+    private String baseFen;
+    private int[] moves; // 每步为 (起点格 << 8) | 终点格，格子编号 = 行*9+列
+    
     /**
      * 默认构造函数（用于序列化）
      */
@@ -158,11 +164,43 @@ public class GameStateSyncResponseMessage extends NetworkMessage {
         this.winner = winner;
     }
     
+    public int getPly() {
+        return ply;
+    }
+    
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+    
+    public int getFromPly() {
+        return fromPly;
+    }
+    
+    public void setFromPly(int fromPly) {
+        this.fromPly = fromPly;
+    }
+    
+    public String getBaseFen() {
+        return baseFen;
+    }
+    
+    public void setBaseFen(String baseFen) {
+        this.baseFen = baseFen;
+    }
+    
+    public int[] getMoves() {
+        return moves;
+    }
+    
+    public void setMoves(int[] moves) {
+        this.moves = moves;
+    }
+    
     @Override
     public String toString() {
         if (success) {
-            return String.format("GameStateSyncResponseMessage[success=true, roomId=%s, yourColor=%s, currentPlayer=%s, gameState=%s, %s]",
-                    roomId, yourColor, currentPlayer, gameState, super.toString());
+            return String.format("GameStateSyncResponseMessage[success=true, roomId=%s, yourColor=%s, currentPlayer=%s, gameState=%s, ply=%d, fromPly=%d, %s]",
+                    roomId, yourColor, currentPlayer, gameState, ply, fromPly, super.toString());
         } else {
             return String.format("GameStateSyncResponseMessage[success=false, roomId=%s, error=%s, %s]",
                     roomId, errorMessage, super.toString());
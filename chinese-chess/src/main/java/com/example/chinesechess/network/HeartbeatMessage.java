@@ -5,6 +5,7 @@ package com.example.chinesechess.network;
  */
 public class HeartbeatMessage extends NetworkMessage {
     private long clientTime;
+    private long ackSeq; // 客户端已收到的最后一条编号消息，服务器据此释放补发缓冲
     
     public HeartbeatMessage(String senderId) {
         super(MessageType.HEARTBEAT, senderId);
@@ -14,4 +15,6 @@ public class HeartbeatMessage extends NetworkMessage {
     // Getters and Setters
     public long getClientTime() { return clientTime; }
     public void setClientTime(long clientTime) { this.clientTime = clientTime; }
+    public long getAckSeq() { return ackSeq; }
+    public void setAckSeq(long ackSeq) { this.ackSeq = ackSeq; }
 }
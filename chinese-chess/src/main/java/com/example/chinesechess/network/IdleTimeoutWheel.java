@@ -0,0 +1,254 @@
+package com.example.chinesechess.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 空闲连接检测的哈希时间轮
+ * <p>
+ * 所有连接共用一个时间轮和一个线程，而不是每个连接一个定时任务：
+ * <ul>
+ *   <li>收到消息时 {@link Handle#touch()} 只记下当前刻度，不加锁、不调用系统时钟</li>
+ *   <li>每个刻度只检查一个槽：到期的连接收集起来一次性交给回调，
+ *       期间有过活动的连接按新的截止刻度挪到对应的槽（惰性重排）</li>
+ *   <li>槽是侵入式双向链表，连接关闭或调短超时后由时间轮线程在下一个刻度摘除或重新排期</li>
+ * </ul>
+ * 每个连接每个超时周期只被检查一次左右，开销与连接数成正比而与消息数无关。
+ *
+ * @param <T> 连接对象
+ */
+public class IdleTimeoutWheel<T> {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Handle<T>[] slots; // 每个槽的链表头，只在时间轮线程访问
+    private final ConcurrentLinkedQueue<Handle<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<List<T>> expiryHandler;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private volatile long currentTick;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * @param tickMillis    刻度长度，即超时检测的精度
+     * @param slotCount     槽数，向上取2的幂；超时超过一圈的连接会在中途被检查一次后继续排期
+     * @param expiryHandler 每个刻度收到本次到期的全部连接（在时间轮线程上调用）
+     */
+    public IdleTimeoutWheel(long tickMillis, int slotCount, Consumer<List<T>> expiryHandler) {
+        this(tickMillis, slotCount, expiryHandler, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    IdleTimeoutWheel(long tickMillis, int slotCount, Consumer<List<T>> expiryHandler, LongSupplier clock) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new Handle[size];
+        this.expiryHandler = expiryHandler;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    /**
+     * 启动时间轮线程
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Idle-Wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        long tickMicros = TimeUnit.NANOSECONDS.toMicros(tickNanos);
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ 空闲检测出错: " + e.getMessage());
+            }
+        }, tickMicros, tickMicros, TimeUnit.MICROSECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * 登记一个连接，从现在开始计时
+     *
+     * @param timeoutMillis 空闲超时，&lt;=0 表示不超时
+     */
+    public Handle<T> register(T owner, long timeoutMillis) {
+        Handle<T> handle = new Handle<>(this, owner);
+        handle.lastActiveTick = currentTick;
+        handle.timeoutTicks = toTicks(timeoutMillis);
+        pending.add(handle);
+        return handle;
+    }
+
+    private long toTicks(long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        return (nanos + tickNanos - 1) / tickNanos;
+    }
+
+    /**
+     * 推进到当前时间：逐个处理经过的刻度，最后一次性回调到期的连接
+     */
+    void advance() {
+        long target = (clock.getAsLong() - startNanos) / tickNanos;
+        List<T> expired = new ArrayList<>();
+        long tick = currentTick;
+        while (tick < target) {
+            tick++;
+            currentTick = tick;
+            schedulePending(tick);
+            processSlot(tick, expired);
+        }
+        if (!expired.isEmpty()) {
+            expiryHandler.accept(expired);
+        }
+    }
+
+    /**
+     * 接收新登记、调整了超时或已关闭的连接
+     */
+    private void schedulePending(long tick) {
+        Handle<T> handle;
+        while ((handle = pending.poll()) != null) {
+            unlink(handle);
+            if (!handle.cancelled) {
+                schedule(handle, tick);
+            }
+        }
+    }
+
+    /**
+     * 按截止刻度放入对应的槽，不超时的连接每圈检查一次
+     */
+    private void schedule(Handle<T> handle, long tick) {
+        long timeout = handle.timeoutTicks;
+        long due = timeout == 0 ? tick + slots.length : handle.lastActiveTick + timeout;
+        link(handle, Math.max(due, tick + 1));
+    }
+
+    private void link(Handle<T> handle, long due) {
+        int index = (int) (due & mask);
+        handle.scheduledTick = due;
+        handle.slot = index;
+        handle.prev = null;
+        handle.next = slots[index];
+        if (handle.next != null) {
+            handle.next.prev = handle;
+        }
+        slots[index] = handle;
+    }
+
+    private void unlink(Handle<T> handle) {
+        if (handle.slot < 0) {
+            return;
+        }
+        if (handle.prev != null) {
+            handle.prev.next = handle.next;
+        } else {
+            slots[handle.slot] = handle.next;
+        }
+        if (handle.next != null) {
+            handle.next.prev = handle.prev;
+        }
+        handle.prev = null;
+        handle.next = null;
+        handle.slot = -1;
+    }
+
+    private void processSlot(long tick, List<T> expired) {
+        int index = (int) (tick & mask);
+        Handle<T> handle = slots[index];
+        slots[index] = null;
+        while (handle != null) {
+            Handle<T> next = handle.next;
+            handle.prev = null;
+            handle.next = null;
+            handle.slot = -1;
+            if (handle.cancelled) {
+                // 已关闭，直接丢弃
+            } else if (handle.scheduledTick > tick) {
+                link(handle, handle.scheduledTick); // 还没转到它的那一圈
+            } else if (handle.timeoutTicks > 0 && handle.lastActiveTick + handle.timeoutTicks <= tick) {
+                handle.cancelled = true;
+                expired.add(handle.owner);
+            } else {
+                schedule(handle, tick);
+            }
+            handle = next;
+        }
+    }
+
+    /**
+     * 时间轮中的一个连接
+     */
+    public static final class Handle<T> {
+        private final IdleTimeoutWheel<T> wheel;
+        private final T owner;
+        private volatile long lastActiveTick;
+        private volatile long timeoutTicks;
+        private volatile boolean cancelled;
+        // 以下字段只在时间轮线程访问
+        private long scheduledTick;
+        private int slot = -1;
+        private Handle<T> prev;
+        private Handle<T> next;
+
+        private Handle(IdleTimeoutWheel<T> wheel, T owner) {
+            this.wheel = wheel;
+            this.owner = owner;
+        }
+
+        /**
+         * 记录一次活动
+         */
+        public void touch() {
+            lastActiveTick = wheel.currentTick;
+        }
+
+        /**
+         * 调整超时时间并视为一次活动；调短时重新排期，避免按旧的截止时间才被检查
+         */
+        public void setTimeout(long timeoutMillis) {
+            long ticks = wheel.toTicks(timeoutMillis);
+            long previous = timeoutTicks;
+            timeoutTicks = ticks;
+            touch();
+            if (!cancelled && ticks > 0 && (previous == 0 || ticks < previous)) {
+                wheel.pending.add(this);
+            }
+        }
+
+        /**
+         * 不再检测该连接（连接关闭时调用），时间轮在下一个刻度摘除它
+         */
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                wheel.pending.add(this);
+            }
+        }
+
+        public T getOwner() {
+            return owner;
+        }
+    }
+}
@@ -0,0 +1,764 @@
+package com.example.chinesechess.network;
+
+import com.example.chinesechess.core.PieceColor;
+import com.example.chinesechess.core.XiangqiPosition;
+import com.example.common.config.ConfigurationManager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 网络服务器压测工具
+ * <p>
+ * 在本机启动一个 {@link ChessGameServer}（默认在独立JVM中，便于单独统计服务器的CPU和堆），
+ * 再用成千上万个无界面的 {@link NetworkClient} 连接：两两配对建房、加入、按设定的间隔走随机合法棋，
+ * 对局结束或达到手数上限后离开房间重新开局，期间按设定间隔发送心跳。
+ * <p>
+ * 统计连接延迟、走子转发延迟（走子方发出到对手收到，同一进程内计时）的p50/p99/p999、
+ * 各类错误数，以及服务器进程的CPU（核数）和堆占用。只在localhost上运行，用于客观比较不同传输实现。
+ * <p>
+ * 用法：
+ * <pre>
+ * java -cp ... com.example.chinesechess.network.LoadGenerator --clients=2000 --transport=nio --duration=60
+ * </pre>
+ * 参数（均为 --名称=值）：
+ * <ul>
+ *   <li>clients：客户端数（取偶数），默认200</li>
+ *   <li>transport：服务器传输模式 blocking/nio，默认取配置 server.transport</li>
+ *   <li>wire：客户端线路格式 binary/json，默认binary</li>
+ *   <li>duration：压测秒数，默认60</li>
+ *   <li>move-interval：每步思考时间（毫秒，±50%随机），默认200</li>
+ *   <li>heartbeat：心跳间隔毫秒，默认5000</li>
+ *   <li>connect-rate：每秒发起的连接数，默认200</li>
+ *   <li>max-plies：每局手数上限，默认150</li>
+ *   <li>mode：random 每对客户端使用不同的随机种子；scripted 所有对局按同一种子走出完全相同的棋，便于复现</li>
+ *   <li>seed：随机种子，默认42</li>
+ *   <li>server：fork 独立进程（默认）、inprocess 同进程（CPU和堆包含客户端）、external 连接已启动的服务器</li>
+ *   <li>port：服务器端口，默认自动选择空闲端口（external模式为8080）；分片部署时为路由器端口</li>
+ *   <li>shards：分片数，默认0为单台服务器；大于0时启动对应数量的分片服务器和一个路由器，
+ *       客户端连接路由器后被重定向到分片（fork模式下每个分片一个进程，CPU和堆为所有进程之和）</li>
+ *   <li>journal：房间日志目录，默认不写日志；每台服务器（分片）使用其中的一个子目录，路由器没有房间不写日志</li>
+ *   <li>report：进度报告间隔秒数，默认5</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private static final String STATS_PREFIX = "LOADSTATS ";
+    private static final String SERVE_FLAG = "--serve";
+
+    /**
+     * 命令行参数
+     */
+    static final class Options {
+        int clients = 200;
+        String transport = ConfigurationManager.getInstance().getConfiguration("server.transport");
+        String wire = "binary";
+        int durationSec = 60;
+        int moveIntervalMs = 200;
+        int heartbeatMs = 5000;
+        int connectRate = 200;
+        int maxPlies = 150;
+        boolean scripted;
+        long seed = 42;
+        String server = "fork";
+        int port;
+        int reportSec = 5;
+        int shards;
+        String journal;
+        // 以下两项只用于子进程
+        String shardId;
+        String routes;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                    continue;
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (key) {
+                    case "clients": options.clients = Math.max(2, Integer.parseInt(value) & ~1); break;
+                    case "transport": options.transport = value; break;
+                    case "wire": options.wire = value; break;
+                    case "duration": options.durationSec = Integer.parseInt(value); break;
+                    case "move-interval": options.moveIntervalMs = Integer.parseInt(value); break;
+                    case "heartbeat": options.heartbeatMs = Integer.parseInt(value); break;
+                    case "connect-rate": options.connectRate = Math.max(1, Integer.parseInt(value)); break;
+                    case "max-plies": options.maxPlies = Integer.parseInt(value); break;
+                    case "mode": options.scripted = "scripted".equalsIgnoreCase(value); break;
+                    case "seed": options.seed = Long.parseLong(value); break;
+                    case "server": options.server = value.toLowerCase(); break;
+                    case "port": options.port = Integer.parseInt(value); break;
+                    case "report": options.reportSec = Math.max(1, Integer.parseInt(value)); break;
+                    case "shards": options.shards = Math.max(0, Integer.parseInt(value)); break;
+                    case "journal": options.journal = value; break;
+                    case "shard-id": options.shardId = value; break;
+                    case "routes": options.routes = value; break;
+                    default:
+                        System.err.println("⚠️ 未知参数: " + arg);
+                }
+            }
+            return options;
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    private final LatencyHistogram connectLatency = new LatencyHistogram();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder movesSent = new LongAdder();
+    private final LongAdder movesReceived = new LongAdder();
+    private final LongAdder desyncs = new LongAdder();
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder gamesTruncated = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    // 服务器进程采样：CPU核数和堆占用
+    private volatile double serverCpuCores = Double.NaN;
+    private volatile long serverHeapBytes = -1;
+    private double serverCpuSum;
+    private int serverCpuSamples;
+    private double serverCpuMax;
+    private long serverHeapMax;
+    // 多进程时各进程最近一次采样，进程0（路由器或单台服务器）报告时汇总为一次采样
+    private double[] processCpu = new double[1];
+    private long[] processHeap = new long[1];
+
+    private final Options options;
+    private final ScheduledExecutorService scheduler;
+    private final List<Pair> pairs = new ArrayList<>();
+    private volatile boolean running = true;
+
+    LoadGenerator(Options options) {
+        this.options = options;
+        AtomicInteger counter = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(
+                Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())), r -> {
+                    Thread t = new Thread(r, "Load-Scheduler-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    private void recordError(String error) {
+        String kind = error;
+        int start = error.indexOf('[');
+        int end = error.indexOf(']');
+        if (start >= 0 && end > start) {
+            kind = error.substring(start + 1, end);
+        } else if (kind.length() > 40) {
+            kind = kind.substring(0, 40);
+        }
+        errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    private long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    // ==================== 模拟客户端 ====================
+
+    /**
+     * 一对客户端：房主建房，另一方加入，对局结束后双方离开并重新开局
+     */
+    private final class Pair {
+        final SimClient host;
+        final SimClient guest;
+        final Random random;
+        // 以下字段由this锁保护
+        int game;
+        String roomId;
+        boolean joinSent;
+        // 最近一步棋的发出时间，由对手收到时计算转发延迟
+        volatile long lastMoveNanos;
+
+        Pair(int index) {
+            host = new SimClient(this, "load_" + (index * 2));
+            guest = new SimClient(this, "load_" + (index * 2 + 1));
+            random = new Random(options.seed + index * 7919L);
+        }
+
+        void roomCreated(String createdRoomId) {
+            synchronized (this) {
+                roomId = createdRoomId;
+            }
+            tryJoin();
+        }
+
+        void tryJoin() {
+            String target;
+            synchronized (this) {
+                if (roomId == null || joinSent || !guest.connectedFlag) {
+                    return;
+                }
+                joinSent = true;
+                target = roomId;
+            }
+            guest.client.joinRoom(target, "");
+        }
+
+        /**
+         * 结束当前对局并重新建房，同一局只执行一次
+         */
+        void restart(int expectedGame) {
+            synchronized (this) {
+                if (game != expectedGame || !running) {
+                    return;
+                }
+                game++;
+                roomId = null;
+                joinSent = false;
+            }
+            guest.client.leaveRoom();
+            host.client.leaveRoom();
+            scheduler.schedule(host::createRoom, jitter(options.moveIntervalMs), TimeUnit.MILLISECONDS);
+        }
+
+        synchronized int currentGame() {
+            return game;
+        }
+
+        int chooseMove(int[] moves, int count, int ply) {
+            if (options.scripted) {
+                // 所有对局使用同一序列，局面相同时选出相同的走法
+                long mixed = (options.seed + ply) * 0x9E3779B97F4A7C15L;
+                mixed ^= mixed >>> 31;
+                return moves[(int) Math.floorMod(mixed, (long) count)];
+            }
+            synchronized (random) {
+                return moves[random.nextInt(count)];
+            }
+        }
+    }
+
+    private final class SimClient implements NetworkClient.ClientEventListener {
+        final Pair pair;
+        final NetworkClient client = new NetworkClient();
+        final String name;
+        final int[] moveBuffer = new int[XiangqiPosition.MAX_MOVES];
+        volatile boolean connectedFlag;
+        long connectStartNanos;
+        // 以下字段由this锁保护
+        XiangqiPosition position;
+        PieceColor color;
+        int game = -1;
+        int ply;
+
+        SimClient(Pair pair, String name) {
+            this.pair = pair;
+            this.name = name;
+            client.setEventListener(this);
+            client.setCallbackExecutor(Runnable::run);
+            client.setHeartbeatInterval(options.heartbeatMs);
+        }
+
+        void connect(String host, int port) {
+            connectStartNanos = System.nanoTime();
+            client.connect(host, port, name);
+        }
+
+        boolean isHost() {
+            return pair.host == this;
+        }
+
+        void createRoom() {
+            if (running) {
+                client.createRoom("压测房间 " + name, "");
+            }
+        }
+
+        synchronized boolean isMyTurn() {
+            return position != null && game == pair.currentGame() && position.getSideToMove() == color;
+        }
+
+        void scheduleMove() {
+            scheduler.schedule(this::makeMove, jitter(options.moveIntervalMs), TimeUnit.MILLISECONDS);
+        }
+
+        void makeMove() {
+            int move;
+            int gameAtMove;
+            synchronized (this) {
+                if (!running || !isMyTurn()) {
+                    return;
+                }
+                gameAtMove = game;
+                if (ply >= options.maxPlies) {
+                    move = -1;
+                } else {
+                    int count = position.generateLegalMoves(moveBuffer);
+                    if (count == 0) {
+                        return; // 等待服务器判定胜负
+                    }
+                    move = pair.chooseMove(moveBuffer, count, ply);
+                    position.makeMove(XiangqiPosition.moveFrom(move), XiangqiPosition.moveTo(move));
+                    ply++;
+                }
+            }
+            if (move < 0) {
+                gamesTruncated.increment();
+                pair.restart(gameAtMove);
+                return;
+            }
+            int from = XiangqiPosition.moveFrom(move);
+            int to = XiangqiPosition.moveTo(move);
+            pair.lastMoveNanos = System.nanoTime();
+            client.sendMove(from / XiangqiPosition.COLS, from % XiangqiPosition.COLS,
+                    to / XiangqiPosition.COLS, to % XiangqiPosition.COLS);
+            movesSent.increment();
+        }
+
+        @Override
+        public void onConnected() {
+            connectLatency.recordSince(connectStartNanos);
+            connected.increment();
+            connectedFlag = true;
+            if (isHost()) {
+                createRoom();
+            } else {
+                pair.tryJoin();
+            }
+        }
+
+        @Override
+        public void onDisconnected(String reason) {
+            if (running) {
+                disconnects.increment();
+            }
+        }
+
+        @Override
+        public void onConnectionError(String error) {
+            connectFailures.increment();
+            recordError(error);
+        }
+
+        @Override
+        public void onMessageReceived(NetworkMessage message) {
+        }
+
+        @Override
+        public void onRoomCreated(String roomId) {
+            pair.roomCreated(roomId);
+        }
+
+        @Override
+        public void onRoomJoined(String roomId, String opponentName) {
+        }
+
+        @Override
+        public void onRoomListReceived(List<RoomInfo> rooms) {
+        }
+
+        @Override
+        public void onGameStarted(String redPlayer, String blackPlayer, String yourColor) {
+            synchronized (this) {
+                position = XiangqiPosition.initial();
+                color = "BLACK".equals(yourColor) ? PieceColor.BLACK : PieceColor.RED;
+                game = pair.currentGame();
+                ply = 0;
+            }
+            if (isHost()) {
+                gamesStarted.increment();
+            }
+            if (isMyTurn()) {
+                scheduleMove();
+            }
+        }
+
+        @Override
+        public void onMoveReceived(int fromRow, int fromCol, int toRow, int toCol) {
+            moveLatency.recordSince(pair.lastMoveNanos);
+            movesReceived.increment();
+            int from = fromRow * XiangqiPosition.COLS + fromCol;
+            int to = toRow * XiangqiPosition.COLS + toCol;
+            synchronized (this) {
+                if (position == null || game != pair.currentGame()) {
+                    return;
+                }
+                if (!position.isLegalMove(from, to)) {
+                    desyncs.increment();
+                    return;
+                }
+                position.makeMove(from, to);
+                ply++;
+            }
+            scheduleMove();
+        }
+
+        @Override
+        public void onGameEnded(String winner, String reason) {
+            int ended;
+            synchronized (this) {
+                ended = game;
+                position = null;
+            }
+            if (isHost()) {
+                gamesFinished.increment();
+                pair.restart(ended);
+            }
+        }
+
+        @Override
+        public void onGameStateUpdate(String gameState, String currentPlayer, boolean isGameOver, String winner) {
+        }
+
+        @Override
+        public void onError(String error) {
+            recordError(error);
+        }
+    }
+
+    private static long jitter(int millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        return millis / 2 + ThreadLocalRandom.current().nextInt(millis + 1);
+    }
+
+    // ==================== 运行 ====================
+
+    void run() throws Exception {
+        ConfigurationManager.getInstance().setConfiguration("network.wire_format", options.wire);
+        int port = options.port;
+        List<Process> serverProcesses = new ArrayList<>();
+        List<ChessGameServer> inProcessServers = new ArrayList<>();
+        switch (options.server) {
+            case "external":
+                port = port > 0 ? port : ChessGameServer.DEFAULT_PORT;
+                break;
+            case "inprocess":
+                port = port > 0 ? port : freePort();
+                ConfigurationManager.getInstance().setConfiguration("server.blocking.max_clients", options.clients + 16);
+                String routes = null;
+                for (int i = 0; i < options.shards; i++) {
+                    int shardPort = freePort();
+                    configureJournal(options, "s" + i);
+                    ChessGameServer shard = new ChessGameServer(shardPort, ChessGameServer.TransportMode.parse(options.transport));
+                    shard.setShardId("s" + i);
+                    new Thread(shard::start, "Load-Shard-" + i).start();
+                    inProcessServers.add(shard);
+                    routes = (routes == null ? "" : routes + ",") + "s" + i + "@localhost:" + shardPort;
+                }
+                configureJournal(options, routes != null ? null : "server");
+                ChessGameServer server = new ChessGameServer(port, ChessGameServer.TransportMode.parse(options.transport));
+                if (routes != null) {
+                    server.enableRouting(ShardRouter.ShardAddress.parseList(routes));
+                }
+                new Thread(server::start, "Load-Server").start();
+                inProcessServers.add(server);
+                startSelfSampler();
+                break;
+            default:
+                port = port > 0 ? port : freePort();
+                serverProcesses = forkCluster(port);
+                break;
+        }
+
+        System.out.println("🚦 压测开始: 客户端=" + options.clients + ", 服务器=" + options.server
+                + (options.shards > 0 ? " (" + options.shards + "个分片+路由器)" : "")
+                + " (" + options.transport + "), 线路=" + options.wire + ", 端口=" + port
+                + ", 时长=" + options.durationSec + "s, 走子间隔=" + options.moveIntervalMs + "ms"
+                + (options.scripted ? ", 固定棋谱" : ", 随机棋局"));
+
+        for (int i = 0; i < options.clients / 2; i++) {
+            pairs.add(new Pair(i));
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(options.durationSec);
+        long nextReport = start + TimeUnit.SECONDS.toNanos(options.reportSec);
+        long lastMoves = 0;
+        int launched = 0;
+        while (System.nanoTime() < deadline) {
+            // 按连接速率分批发起连接
+            long elapsed = System.nanoTime() - start;
+            long allowed = Math.min(pairs.size() * 2L, options.connectRate * elapsed / 1_000_000_000L + 1);
+            while (launched < allowed) {
+                Pair pair = pairs.get(launched / 2);
+                (launched % 2 == 0 ? pair.host : pair.guest).connect("localhost", port);
+                launched++;
+            }
+            if (System.nanoTime() >= nextReport) {
+                long moves = movesReceived.sum();
+                printProgress((System.nanoTime() - start) / 1_000_000_000L, moves, (moves - lastMoves) / options.reportSec);
+                lastMoves = moves;
+                nextReport += TimeUnit.SECONDS.toNanos(options.reportSec);
+            }
+            Thread.sleep(20);
+        }
+        running = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        printReport(seconds);
+
+        for (Pair pair : pairs) {
+            pair.host.client.disconnect();
+            pair.guest.client.disconnect();
+        }
+        scheduler.shutdownNow();
+        for (Process process : serverProcesses) {
+            process.destroy();
+        }
+        for (Process process : serverProcesses) {
+            process.waitFor(5, TimeUnit.SECONDS);
+        }
+        // 先停路由器（最后启动的一个），避免它在分片关闭时尝试重连
+        for (int i = inProcessServers.size() - 1; i >= 0; i--) {
+            inProcessServers.get(i).stop();
+        }
+    }
+
+    private void printProgress(long second, long moves, long movesPerSec) {
+        System.out.printf("⏱️ %3ds 连接=%d/%d 对局=%d 走子=%d (%d/s) 转发p99=%.2fms 错误=%d 服务器CPU=%s 堆=%s%n",
+                second, connected.sum(), options.clients, gamesStarted.sum(), moves, movesPerSec,
+                moveLatency.getPercentile(99) / 1000.0, totalErrors(), formatCpu(serverCpuCores), formatHeap(serverHeapBytes));
+    }
+
+    private void printReport(double seconds) {
+        StringBuilder report = new StringBuilder("\n📊 压测结果 (").append(String.format("%.1f", seconds)).append("s)\n");
+        report.append("   连接: 成功 ").append(connected.sum()).append('/').append(options.clients)
+                .append(", 失败 ").append(connectFailures.sum())
+                .append(", 意外断开 ").append(disconnects.sum()).append('\n');
+        report.append("   连接延迟: ").append(connectLatency.summary()).append('\n');
+        report.append("   对局: 开始 ").append(gamesStarted.sum()).append(", 正常结束 ").append(gamesFinished.sum())
+                .append(", 达到手数上限 ").append(gamesTruncated.sum()).append('\n');
+        report.append("   走子: 发出 ").append(movesSent.sum()).append(", 收到 ").append(movesReceived.sum())
+                .append(String.format(" (%.0f/s)", movesReceived.sum() / seconds))
+                .append(", 局面不一致 ").append(desyncs.sum()).append('\n');
+        report.append("   走子转发延迟: ").append(moveLatency.summary()).append('\n');
+        report.append("   错误: ").append(totalErrors());
+        errors.forEach((kind, count) -> report.append("\n      ").append(kind).append(": ").append(count.sum()));
+        report.append('\n');
+        synchronized (this) {
+            report.append("   服务器: CPU平均 ")
+                    .append(formatCpu(serverCpuSamples == 0 ? Double.NaN : serverCpuSum / serverCpuSamples))
+                    .append(", 峰值 ").append(formatCpu(serverCpuSamples == 0 ? Double.NaN : serverCpuMax))
+                    .append(", 堆峰值 ").append(formatHeap(serverCpuSamples == 0 ? -1 : serverHeapMax));
+        }
+        if ("inprocess".equals(options.server)) {
+            report.append(" (同进程，包含客户端开销)");
+        }
+        System.out.println(report);
+    }
+
+    private static String formatCpu(double cores) {
+        return Double.isNaN(cores) ? "-" : String.format("%.2f核", cores);
+    }
+
+    private static String formatHeap(long bytes) {
+        return bytes < 0 ? "-" : (bytes >> 20) + "MB";
+    }
+
+    private synchronized void recordProcessSample(int process, double cpuCores, long heapBytes) {
+        processCpu[process] = cpuCores;
+        processHeap[process] = heapBytes;
+        if (process == 0) {
+            double cpu = 0;
+            long heap = 0;
+            for (int i = 0; i < processCpu.length; i++) {
+                cpu += processCpu[i];
+                heap += processHeap[i];
+            }
+            recordServerSample(cpu, heap);
+        }
+    }
+
+    private synchronized void recordServerSample(double cpuCores, long heapBytes) {
+        serverCpuCores = cpuCores;
+        serverHeapBytes = heapBytes;
+        serverCpuSum += cpuCores;
+        serverCpuSamples++;
+        serverCpuMax = Math.max(serverCpuMax, cpuCores);
+        serverHeapMax = Math.max(serverHeapMax, heapBytes);
+    }
+
+    // ==================== 服务器进程 ====================
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 启动服务器进程：单台服务器，或者各分片一个进程再加一个路由器进程（进程0）
+     */
+    private List<Process> forkCluster(int port) throws Exception {
+        List<Process> processes = new ArrayList<>();
+        synchronized (this) {
+            processCpu = new double[options.shards + 1];
+            processHeap = new long[options.shards + 1];
+        }
+        StringBuilder routes = new StringBuilder();
+        for (int i = 0; i < options.shards; i++) {
+            int shardPort = freePort();
+            processes.add(forkServer(i + 1, shardPort, "--shard-id=s" + i));
+            routes.append(i == 0 ? "" : ",").append("s").append(i).append("@localhost:").append(shardPort);
+        }
+        processes.add(forkServer(0, port, options.shards > 0 ? "--routes=" + routes : null));
+        return processes;
+    }
+
+    /**
+     * 在独立JVM中启动服务器，解析其标准输出中的采样行，其余日志丢弃
+     */
+    private Process forkServer(int processIndex, int port, String clusterArg) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-Dfile.encoding=UTF-8");
+        command.add("-Djava.awt.headless=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadGenerator.class.getName());
+        command.add(SERVE_FLAG);
+        command.add("--port=" + port);
+        command.add("--transport=" + options.transport);
+        command.add("--clients=" + options.clients);
+        if (clusterArg != null) {
+            command.add(clusterArg);
+        }
+        if (options.journal != null) {
+            command.add("--journal=" + options.journal);
+        }
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        Object ready = new Object();
+        boolean[] started = new boolean[1];
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.startsWith(STATS_PREFIX)) {
+                        continue;
+                    }
+                    String[] parts = line.substring(STATS_PREFIX.length()).split(" ");
+                    if ("ready".equals(parts[0])) {
+                        synchronized (ready) {
+                            started[0] = true;
+                            ready.notifyAll();
+                        }
+                    } else {
+                        recordProcessSample(processIndex, Double.parseDouble(parts[0]), Long.parseLong(parts[1]));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // 服务器进程结束
+            }
+        }, "Load-Server-Output");
+        reader.setDaemon(true);
+        reader.start();
+
+        synchronized (ready) {
+            long waitUntil = System.currentTimeMillis() + 15_000;
+            while (!started[0] && process.isAlive() && System.currentTimeMillis() < waitUntil) {
+                ready.wait(200);
+            }
+        }
+        if (!started[0]) {
+            process.destroyForcibly();
+            throw new IllegalStateException("服务器进程启动失败");
+        }
+        return process;
+    }
+
+    /**
+     * 同进程模式下采样本JVM
+     */
+    private void startSelfSampler() {
+        Thread sampler = new Thread(() -> sampleLoop(this::recordServerSample), "Load-Sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    private interface SampleSink {
+        void accept(double cpuCores, long heapBytes);
+    }
+
+    /**
+     * 每秒采样一次进程CPU（核数）和已用堆
+     */
+    private static void sampleLoop(SampleSink sink) {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        if (!(os instanceof com.sun.management.OperatingSystemMXBean)) {
+            return;
+        }
+        com.sun.management.OperatingSystemMXBean processOs = (com.sun.management.OperatingSystemMXBean) os;
+        long lastCpu = processOs.getProcessCpuTime();
+        long lastWall = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long cpu = processOs.getProcessCpuTime();
+            long wall = System.nanoTime();
+            sink.accept((double) (cpu - lastCpu) / (wall - lastWall), memory.getHeapMemoryUsage().getUsed());
+            lastCpu = cpu;
+            lastWall = wall;
+        }
+    }
+
+    /**
+     * 下一台创建的服务器使用的日志目录，name为null时不写日志
+     */
+    private static void configureJournal(Options options, String name) {
+        String dir = options.journal != null && name != null ? new File(options.journal, name).getPath() : "";
+        ConfigurationManager.getInstance().setConfiguration("server.journal.dir", dir);
+    }
+
+    /**
+     * 子进程入口：启动服务器，在标准输出打印就绪和采样行
+     */
+    private static void serve(Options options) {
+        ConfigurationManager.getInstance().setConfiguration("server.blocking.max_clients", options.clients + 16);
+        configureJournal(options, options.shardId != null ? options.shardId : options.routes != null ? null : "server");
+        ChessGameServer server = new ChessGameServer(options.port, ChessGameServer.TransportMode.parse(options.transport));
+        if (options.shardId != null) {
+            server.setShardId(options.shardId);
+        }
+        if (options.routes != null) {
+            server.enableRouting(ShardRouter.ShardAddress.parseList(options.routes));
+        }
+        Thread serverThread = new Thread(server::start, "Load-Server");
+        serverThread.start();
+        System.out.println(STATS_PREFIX + "ready");
+        sampleLoop((cpu, heap) -> System.out.println(STATS_PREFIX + cpu + " " + heap));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        for (String arg : args) {
+            if (SERVE_FLAG.equals(arg)) {
+                serve(options);
+                return;
+            }
+        }
+        new LoadGenerator(options).run();
+        System.exit(0);
+    }
+}
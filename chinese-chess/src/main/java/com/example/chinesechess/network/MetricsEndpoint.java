@@ -0,0 +1,103 @@
+package com.example.chinesechess.network;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 服务器指标的对外入口
+ * <ul>
+ *   <li>JMX：注册 {@link ServerMetricsMXBean}，可以用 jconsole/VisualVM 查看</li>
+ *   <li>HTTP：只监听127.0.0.1，{@code /metrics} 为Prometheus文本格式，{@code /report} 为可读报告</li>
+ * </ul>
+ */
+public class MetricsEndpoint {
+
+    private final ServerMetrics metrics;
+    private ObjectName objectName;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+
+    public MetricsEndpoint(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 注册JMX，同一进程内多个服务器按端口区分
+     */
+    public void registerJmx(int serverPort) {
+        try {
+            MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.example.chinesechess:type=ChessGameServer,port=" + serverPort);
+            if (mbeanServer.isRegistered(name)) {
+                mbeanServer.unregisterMBean(name);
+            }
+            mbeanServer.registerMBean(metrics, name);
+            objectName = name;
+            System.out.println("📈 JMX指标已注册: " + name);
+        } catch (Exception e) {
+            System.err.println("⚠️ JMX指标注册失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 在本机端口上启动HTTP文本接口
+     */
+    public void startHttp(int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            httpServer.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", metrics.toPrometheus()));
+            httpServer.createContext("/report", exchange -> respond(exchange, "text/plain", metrics.getReport()));
+            httpExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "Metrics-Http");
+                t.setDaemon(true);
+                return t;
+            });
+            httpServer.setExecutor(httpExecutor);
+            httpServer.start();
+            System.out.println("📈 指标HTTP接口: http://127.0.0.1:" + httpServer.getAddress().getPort() + "/metrics");
+        } catch (IOException e) {
+            System.err.println("⚠️ 指标HTTP接口启动失败: " + e.getMessage());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** HTTP接口实际监听的端口，未启动时为-1 */
+    public int getHttpPort() {
+        return httpServer != null ? httpServer.getAddress().getPort() : -1;
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpExecutor.shutdownNow();
+            httpServer = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (Exception e) {
+                // 已经注销
+            }
+            objectName = null;
+        }
+    }
+}
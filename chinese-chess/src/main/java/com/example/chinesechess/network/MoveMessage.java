@@ -9,6 +9,7 @@ public class MoveMessage extends NetworkMessage {
     private int toRow;
     private int toCol;
     private String moveNotation; // 标准象棋记谱法
+    private int ply; // 服务器确认后的手数（从1开始），客户端发出的走法为0
     
     public MoveMessage(String senderId, int fromRow, int fromCol, int toRow, int toCol) {
         super(MessageType.MOVE, senderId);
@@ -42,4 +43,7 @@ public class MoveMessage extends NetworkMessage {
     
     public String getMoveNotation() { return moveNotation; }
     public void setMoveNotation(String moveNotation) { this.moveNotation = moveNotation; }
+    
+    public int getPly() { return ply; }
+    public void setPly(int ply) { this.ply = ply; }
 }
@@ -2,10 +2,19 @@ package com.example.chinesechess.network;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.SwingUtilities;
 
+import com.example.chinesechess.core.XiangqiPosition;
 import com.example.chinesechess.util.RateLimitedLogger;
+import com.example.common.config.ConfigurationManager;
 
 /**
  * 网络客户端类
@@ -15,12 +24,20 @@ public class NetworkClient {
     
     private static final String CLIENT_VERSION = "1.0.0";
     private static final int HEARTBEAT_INTERVAL = 30000; // 30秒心跳间隔
+    private static final AtomicInteger CLIENT_SEQUENCE = new AtomicInteger();
     private static final int CONNECTION_TIMEOUT = 10000; // 10秒连接超时
+    // 所有客户端共用一个心跳定时线程，只负责到点把发送交给各自的线程池，慢连接不会拖住其他客户端的心跳
+    private static final ScheduledExecutorService HEARTBEAT_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Client-Heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
     
     // 网络连接相关
     private Socket socket;
-    private BufferedReader reader;
-    private PrintWriter writer;
+    private InputStream input;
+    private OutputStream output;
+    private WireCodec codec;
     private volatile boolean isConnected = false;
     private volatile ConnectionState connectionState = ConnectionState.DISCONNECTED;
     
@@ -30,13 +47,33 @@ public class NetworkClient {
     private String serverHost;
     private int serverPort;
     
+    // 本局已确认的手数（收到服务器带手数的走法时校正），同步时服务器只补发之后的走法
+    private volatile int lastKnownPly = GameStateSyncRequestMessage.NO_PLY;
+    
+    // 会话恢复：服务器发放的令牌和已收到的编号消息数（按 ClientSession.isSequenced 的规则在读线程计数）
+    private volatile String sessionToken;
+    private volatile long receivedSeq;
+    private volatile long resumeDeadline; // 正在恢复会话时的截止时间，0表示没有在恢复
+    private long resumeBackoffMillis; // 下次重连前等待的时间，只在读线程访问
+    
+    // 分片部署：最近一次创建/加入房间的请求，路由器重定向后连接到分片并重新发送
+    private volatile NetworkMessage lastRoomRequest;
+    private volatile NetworkMessage redirectedRequest; // 与分片握手成功后发送
+    
+    // 订阅的房间列表：收到完整列表后按ROOM_UPDATE增量维护，只在消息线程访问
+    private final Map<String, RoomInfo> subscribedRooms = new LinkedHashMap<>();
+    private volatile boolean roomListSubscribed;
+    
     // 线程管理
     private ExecutorService executorService;
-    private ScheduledExecutorService heartbeatScheduler;
+    private volatile ScheduledFuture<?> heartbeatTask;
     private Future<?> messageListenerTask;
     
     // 事件监听器
     private ClientEventListener eventListener;
+    // 消息处理和回调在哪个线程执行：界面客户端为Swing事件线程，压测等无界面场景可以直接在读线程执行
+    private Executor callbackExecutor = SwingUtilities::invokeLater;
+    private long heartbeatIntervalMillis = HEARTBEAT_INTERVAL;
     
     /**
      * 客户端事件监听器接口
@@ -54,6 +91,14 @@ public class NetworkClient {
         void onGameEnded(String winner, String reason);
         void onGameStateUpdate(String gameState, String currentPlayer, boolean isGameOver, String winner);
         void onError(String error);
+        
+        /**
+         * 本地局面无法通过回放对手走法追上服务器时，用服务器的权威局面整体覆盖
+         * @param fen 服务器当前局面（标准坐标）
+         * @param ply 该局面的手数
+         */
+        default void onBoardResync(String fen, int ply) {
+        }
     }
     
     /**
@@ -65,11 +110,6 @@ public class NetworkClient {
             t.setDaemon(true);
             return t;
         });
-        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "Heartbeat-" + System.currentTimeMillis());
-            t.setDaemon(true);
-            return t;
-        });
     }
     
     /**
@@ -79,6 +119,20 @@ public class NetworkClient {
         this.eventListener = listener;
     }
     
+    /**
+     * 设置消息处理和事件回调的执行器，需在连接前设置
+     */
+    public void setCallbackExecutor(Executor executor) {
+        this.callbackExecutor = executor;
+    }
+    
+    /**
+     * 设置心跳间隔，需在连接前设置
+     */
+    public void setHeartbeatInterval(long millis) {
+        this.heartbeatIntervalMillis = millis;
+    }
+    
     /**
      * 连接到服务器
      */
@@ -95,22 +149,10 @@ public class NetworkClient {
 
         executorService.submit(() -> {
             try {
-                
-                // 创建socket连接
-                socket = new Socket();
-                socket.connect(new InetSocketAddress(host, port), CONNECTION_TIMEOUT);
-                socket.setKeepAlive(true);
-                socket.setTcpNoDelay(true);
-                
-                // 创建输入输出流
-                reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
-                writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true);
-                
-                isConnected = true;
-                connectionState = ConnectionState.CONNECTED;
+                openSocket();
 
                 // 发送连接请求
-                sendConnectionRequest();
+                sendConnectionRequest(null);
 
                 // 启动消息监听
                 startMessageListener();
@@ -127,12 +169,43 @@ public class NetworkClient {
         });
     }
     
+    /**
+     * 建立Socket连接和输入输出流
+     */
+    private void openSocket() throws IOException {
+        // 创建socket连接
+        socket = new Socket();
+        socket.connect(new InetSocketAddress(serverHost, serverPort), CONNECTION_TIMEOUT);
+        socket.setKeepAlive(true);
+        socket.setTcpNoDelay(true);
+        
+        // 创建输入输出流
+        input = socket.getInputStream();
+        output = new BufferedOutputStream(socket.getOutputStream());
+        codec = new WireCodec();
+        
+        isConnected = true;
+        connectionState = ConnectionState.CONNECTED;
+    }
+    
     /**
      * 发送连接请求
+     *
+     * @param resumeToken 恢复会话时的令牌，新连接为null
      */
-    private void sendConnectionRequest() {
+    private void sendConnectionRequest(String resumeToken) {
         ConnectRequestMessage request = new ConnectRequestMessage(
-            generateClientId(), playerName, CLIENT_VERSION);
+            resumeToken != null ? playerId : generateClientId(), playerName, CLIENT_VERSION);
+        if (resumeToken != null) {
+            request.setSessionToken(resumeToken);
+            request.setLastReceivedSeq(receivedSeq);
+        }
+        // 请求使用二进制协议，服务器确认前仍然发送JSON
+        WireCodec.WireFormat preferred = WireCodec.WireFormat.parse(
+            ConfigurationManager.getInstance().getConfiguration("network.wire_format"));
+        if (preferred == WireCodec.WireFormat.BINARY) {
+            request.setWireFormat(preferred.getWireName());
+        }
         sendMessage(request);
     }
     
@@ -140,49 +213,116 @@ public class NetworkClient {
      * 生成客户端ID
      */
     private String generateClientId() {
-        return "client_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        // 服务器以客户端ID作为玩家ID，同一进程内并发连接时用序号避免重复
+        return "client_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000) + "_" + CLIENT_SEQUENCE.incrementAndGet();
     }
     
     /**
      * 启动消息监听线程
      */
     private void startMessageListener() {
+        Socket listening = socket;
         messageListenerTask = executorService.submit(() -> {
+            String lostReason = "服务器关闭了连接";
             try {
-                String line;
-                while (isConnected && (line = reader.readLine()) != null) {
-                    if (!line.trim().isEmpty()) {
-                        processMessage(line);
-                    }
+                InputStream in = input;
+                WireCodec wire = codec;
+                ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+                int read;
+                while (isConnected && (read = in.read(buffer.array(), buffer.position(), buffer.remaining())) != -1) {
+                    buffer.position(buffer.position() + read);
+                    buffer.flip();
+                    wire.decode(buffer, this::processMessage, this::onMalformedMessage);
+                    buffer.compact();
+                    buffer = WireCodec.growIfFull(buffer);
                 }
             } catch (IOException e) {
-                if (isConnected) {
-                    String reason = "消息监听中断: " + e.getMessage();
-                    System.err.println("⚠️ " + reason);
-                    notifyDisconnected(reason);
-                }
-            } finally {
-                cleanup();
+                lostReason = "消息监听中断: " + e.getMessage();
+            }
+            // 主动断开时连接已经清理，这里只处理意外断线
+            if (isConnected && socket == listening) {
+                System.err.println("⚠️ " + lostReason);
+                onConnectionLost(lostReason);
             }
         });
     }
     
+    /**
+     * 连接意外中断：持有会话令牌时在限定时间内重连并恢复会话，
+     * 服务器只补发断线期间漏掉的消息，房间和对局都不用重新加入；否则按断开处理
+     */
+    private void onConnectionLost(String reason) {
+        String token = sessionToken;
+        long timeout = ConfigurationManager.getInstance().getIntConfiguration("network.resume.timeout_ms", 20000);
+        if (token == null || playerId == null || timeout <= 0) {
+            notifyDisconnected(reason);
+            cleanup();
+            return;
+        }
+        if (resumeDeadline == 0) {
+            // 第一次重连立即进行，之后（包括连上又立刻断开的情况）逐次加倍等待
+            resumeDeadline = System.currentTimeMillis() + timeout;
+            resumeBackoffMillis = 0;
+            System.out.println("🔄 连接中断，尝试恢复会话...");
+        }
+        isConnected = false;
+        connectionState = ConnectionState.CONNECTING;
+        closeSocket();
+        
+        while (connectionState == ConnectionState.CONNECTING && System.currentTimeMillis() < resumeDeadline) {
+            try {
+                Thread.sleep(resumeBackoffMillis);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            resumeBackoffMillis = Math.max(200, Math.min(resumeBackoffMillis * 2, 2000));
+            try {
+                openSocket();
+                sendConnectionRequest(token);
+                startMessageListener();
+                return;
+            } catch (IOException e) {
+                closeSocket();
+                connectionState = ConnectionState.CONNECTING;
+            }
+        }
+        if (connectionState == ConnectionState.CONNECTING) {
+            resumeDeadline = 0;
+            notifyDisconnected(reason);
+            cleanup();
+        }
+    }
+    
     /**
      * 处理接收到的消息
      */
-    private void processMessage(String jsonMessage) {
-        try {
-            NetworkMessage message = NetworkMessage.fromJson(jsonMessage);
-            RateLimitedLogger.log("recv-" + message.getType(), "📨 收到消息: " + message.getType());
-            
-            SwingUtilities.invokeLater(() -> {
-                handleMessage(message);
-            });
-            
-        } catch (Exception e) {
-            System.err.println("❌ 消息解析失败: " + e.getMessage());
-            System.err.println("原始消息: " + jsonMessage);
+    private void processMessage(NetworkMessage message) {
+        RateLimitedLogger.log("recv-" + message.getType(), "📨 收到消息: " + message.getType());
+        
+        if (message instanceof ConnectResponseMessage) {
+            // 在读线程上立即切换格式，保证之后发出的消息都使用协商结果
+            ConnectResponseMessage response = (ConnectResponseMessage) message;
+            WireCodec.WireFormat format = WireCodec.WireFormat.parse(response.getWireFormat());
+            synchronized (this) {
+                codec.setOutboundFormat(format);
+            }
+            receivedSeq = response.getResumeSeq();
+        } else if (ClientSession.isSequenced(message)) {
+            receivedSeq++;
         }
+        
+        callbackExecutor.execute(() -> {
+            handleMessage(message);
+        });
+    }
+    
+    /**
+     * 处理无法解析的消息
+     */
+    private void onMalformedMessage(String rawMessage, RuntimeException e) {
+        System.err.println("❌ 消息解析失败: " + e.getMessage());
+        System.err.println("原始消息: " + rawMessage);
     }
     
     /**
@@ -203,6 +343,9 @@ public class NetworkClient {
                 case ROOM_LIST_RESPONSE:
                     handleRoomListResponse((RoomListResponseMessage) message);
                     break;
+                case ROOM_UPDATE:
+                    handleRoomUpdate((RoomUpdateMessage) message);
+                    break;
                 case GAME_START:
                     handleGameStart((GameStartMessage) message);
                     break;
@@ -227,6 +370,9 @@ public class NetworkClient {
                 case HEARTBEAT:
                     // 心跳响应，无需特殊处理
                     break;
+                case REDIRECT:
+                    handleRedirect((RedirectMessage) message);
+                    break;
                 default:
                     if (eventListener != null) {
                         eventListener.onMessageReceived(message);
@@ -243,10 +389,32 @@ public class NetworkClient {
      * 处理连接响应
      */
     private void handleConnectResponse(ConnectResponseMessage response) {
+        boolean resuming = resumeDeadline != 0;
+        resumeDeadline = 0;
+        if (resuming) {
+            if (response.isSuccess() && response.isResumed()) {
+                System.out.println("✅ 会话已恢复" + (response.isReplayComplete() ? "" : "，等待服务器推送完整局面"));
+            } else {
+                System.err.println("❌ 会话已失效，无法恢复");
+                sessionToken = null;
+                disconnect();
+            }
+            return;
+        }
         if (response.isSuccess()) {
             this.playerId = response.getPlayerId();
+            this.sessionToken = response.getSessionToken();
+            NetworkMessage redirected = redirectedRequest;
+            if (redirected != null) {
+                // 重定向后的新连接：界面已经处于连接状态，直接重发房间请求
+                redirectedRequest = null;
+                redirected.setSenderId(playerId);
+                lastRoomRequest = redirected;
+                sendMessage(redirected);
+                return;
+            }
             if (eventListener != null) {
-                SwingUtilities.invokeLater(() -> eventListener.onConnected());
+                callbackExecutor.execute(() -> eventListener.onConnected());
             }
         } else {
             String error = "连接认证失败: " + response.getErrorMessage();
@@ -256,6 +424,51 @@ public class NetworkClient {
         }
     }
     
+    /**
+     * 路由器把房间请求重定向到分片：离开路由器，连接分片后重新发送请求
+     */
+    private void handleRedirect(RedirectMessage redirect) {
+        NetworkMessage request = lastRoomRequest;
+        lastRoomRequest = null;
+        if (request == null) {
+            return;
+        }
+        if (request instanceof CreateRoomRequestMessage) {
+            ((CreateRoomRequestMessage) request).setRoomId(redirect.getRoomId());
+        }
+        System.out.println("🧭 转到游戏服务器 " + redirect.getShardId()
+                + " (" + redirect.getHost() + ":" + redirect.getPort() + ")");
+        executorService.submit(() -> switchServer(redirect.getHost(), redirect.getPort(), request));
+    }
+    
+    /**
+     * 主动断开当前服务器（对方不保留会话），连接新的服务器，握手成功后发送request
+     */
+    private void switchServer(String host, int port, NetworkMessage request) {
+        if (isConnected && playerId != null) {
+            sendMessage(new DisconnectMessage(playerId, "redirect"));
+        }
+        isConnected = false;
+        closeSocket();
+        serverHost = host;
+        serverPort = port;
+        sessionToken = null;
+        receivedSeq = 0;
+        redirectedRequest = request;
+        try {
+            openSocket();
+            sendConnectionRequest(null);
+            startMessageListener();
+        } catch (IOException e) {
+            redirectedRequest = null;
+            String error = "连接游戏服务器失败: " + e.getMessage();
+            System.err.println("❌ " + error);
+            notifyError(error);
+            notifyDisconnected(error);
+            cleanup();
+        }
+    }
+    
     /**
      * 处理创建房间响应
      */
@@ -293,9 +506,40 @@ public class NetworkClient {
      * 处理房间列表响应
      */
     private void handleRoomListResponse(RoomListResponseMessage response) {
-        RateLimitedLogger.log("room-list-response", "📋 收到房间列表，共 " + response.getRooms().size() + " 个房间");
+        List<RoomInfo> rooms = response.getRooms() != null ? response.getRooms() : new ArrayList<>();
+        RateLimitedLogger.log("room-list-response", "📋 收到房间列表，共 " + rooms.size() + " 个房间");
+        if (response.isSubscribed()) {
+            subscribedRooms.clear();
+            for (RoomInfo room : rooms) {
+                subscribedRooms.put(room.getRoomId(), room);
+            }
+        }
+        if (eventListener != null) {
+            eventListener.onRoomListReceived(rooms);
+        }
+    }
+    
+    /**
+     * 处理房间列表增量：合并到订阅的完整列表后通知监听器
+     */
+    private void handleRoomUpdate(RoomUpdateMessage update) {
+        if (!roomListSubscribed) {
+            return;
+        }
+        if (update.getRemoved() != null) {
+            for (String roomId : update.getRemoved()) {
+                subscribedRooms.remove(roomId);
+            }
+        }
+        for (List<RoomInfo> rooms : Arrays.asList(update.getAdded(), update.getChanged())) {
+            if (rooms != null) {
+                for (RoomInfo room : rooms) {
+                    subscribedRooms.put(room.getRoomId(), room);
+                }
+            }
+        }
         if (eventListener != null) {
-            eventListener.onRoomListReceived(response.getRooms());
+            eventListener.onRoomListReceived(new ArrayList<>(subscribedRooms.values()));
         }
     }
     
@@ -303,6 +547,7 @@ public class NetworkClient {
      * 处理游戏开始消息
      */
     private void handleGameStart(GameStartMessage message) {
+        lastKnownPly = 0;
         
         if (eventListener != null) {
             eventListener.onGameStarted(message.getRedPlayer(), 
@@ -317,6 +562,9 @@ public class NetworkClient {
      * 处理移动消息
      */
     private void handleMove(MoveMessage message) {
+        if (message.getPly() > 0) {
+            lastKnownPly = message.getPly();
+        }
         if (eventListener != null) {
             eventListener.onMoveReceived(message.getFromRow(), message.getFromCol(),
                                        message.getToRow(), message.getToCol());
@@ -362,13 +610,18 @@ public class NetworkClient {
         
         if (response.isSuccess()) {
             // 同步成功，更新本地游戏状态
+            boolean hadState = lastKnownPly >= 0;
             
-            // 触发游戏开始事件（如果游戏已开始）
-            if (response.isGameStarted() && eventListener != null) {
+            // 触发游戏开始事件（如果错过了游戏开始）；已在对局中时不再触发，避免界面重置棋盘
+            if (response.isGameStarted() && !hadState && eventListener != null) {
                 eventListener.onGameStarted(response.getRedPlayer(), 
                                           response.getBlackPlayer(), 
                                           response.getYourColor());
             }
+            if (response.isGameStarted()) {
+                applyResync(response, hadState);
+                lastKnownPly = response.getPly();
+            }
             
             // 如果游戏结束，触发游戏结束事件
             if (response.isGameOver() && eventListener != null) {
@@ -385,6 +638,38 @@ public class NetworkClient {
         }
     }
     
+    /**
+     * 把同步响应中的局面差量交给界面：在已有局面上只差几步时逐步回放，否则从快照算出当前局面整体覆盖
+     */
+    private void applyResync(GameStateSyncResponseMessage response, boolean hadState) {
+        int[] moves = response.getMoves();
+        if (eventListener == null || moves == null) {
+            return;
+        }
+        if (response.getBaseFen() == null && hadState) {
+            for (int move : moves) {
+                int from = XiangqiPosition.moveFrom(move);
+                int to = XiangqiPosition.moveTo(move);
+                eventListener.onMoveReceived(from / XiangqiPosition.COLS, from % XiangqiPosition.COLS,
+                                             to / XiangqiPosition.COLS, to % XiangqiPosition.COLS);
+            }
+            return;
+        }
+        if (!hadState && response.getPly() == 0) {
+            return; // 刚开局，onGameStarted 已经是开局局面
+        }
+        try {
+            XiangqiPosition position = XiangqiPosition.fromFen(
+                    response.getBaseFen() != null ? response.getBaseFen() : XiangqiPosition.INITIAL_FEN);
+            for (int move : moves) {
+                position.makeMove(XiangqiPosition.moveFrom(move), XiangqiPosition.moveTo(move));
+            }
+            eventListener.onBoardResync(position.toFen(), response.getPly());
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ 同步局面无效: " + e.getMessage());
+        }
+    }
+    
     /**
      * 处理错误消息
      */
@@ -398,11 +683,20 @@ public class NetworkClient {
      * 启动心跳
      */
     private void startHeartbeat() {
-        heartbeatScheduler.scheduleAtFixedRate(() -> {
-            if (isConnected && playerId != null) {
-                sendHeartbeat();
+        stopHeartbeat();
+        heartbeatTask = HEARTBEAT_TIMER.scheduleAtFixedRate(() -> {
+            if (isConnected && playerId != null && !executorService.isShutdown()) {
+                executorService.execute(this::sendHeartbeat);
             }
-        }, HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+        }, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private void stopHeartbeat() {
+        ScheduledFuture<?> task = heartbeatTask;
+        if (task != null) {
+            task.cancel(false);
+            heartbeatTask = null;
+        }
     }
     
     /**
@@ -410,6 +704,7 @@ public class NetworkClient {
      */
     private void sendHeartbeat() {
         HeartbeatMessage heartbeat = new HeartbeatMessage(playerId);
+        heartbeat.setAckSeq(receivedSeq);
         sendMessage(heartbeat);
     }
     
@@ -417,15 +712,15 @@ public class NetworkClient {
      * 发送消息
      */
     private synchronized void sendMessage(NetworkMessage message) {
-        if (!isConnected || writer == null) {
+        if (!isConnected || output == null) {
             System.err.println("❌ 无法发送消息: 未连接到服务器");
             return;
         }
         
         try {
-            String json = message.toJson();
-            writer.println(json);
-            writer.flush();
+            ByteBuffer frame = codec.encode(message);
+            output.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+            output.flush();
             RateLimitedLogger.log("send-" + message.getType(), "📤 发送消息: " + message.getType());
         } catch (Exception e) {
             System.err.println("❌ 发送消息失败: " + e.getMessage());
@@ -450,6 +745,24 @@ public class NetworkClient {
 
         CreateRoomRequestMessage request = new CreateRoomRequestMessage(
             playerId, roomName, password, 2, gameType);
+        lastRoomRequest = request;
+        sendMessage(request);
+    }
+
+    /**
+     * 创建由服务器AI担任对手的房间，创建后立即开局，本方执红
+     * @param aiEngine 服务器AI引擎：ENHANCED 或 PIKAFISH
+     * @param difficulty AI难度 1-10
+     */
+    public void createAIRoom(String roomName, String aiEngine, int difficulty) {
+        if (!isConnected || playerId == null) {
+            notifyError("未连接到服务器");
+            return;
+        }
+
+        CreateRoomRequestMessage request = new CreateRoomRequestMessage(
+            playerId, roomName, "", 2, "chinese-chess", aiEngine, difficulty);
+        lastRoomRequest = request;
         sendMessage(request);
     }
     
@@ -464,6 +777,7 @@ public class NetworkClient {
         
         JoinRoomRequestMessage request = new JoinRoomRequestMessage(
             playerId, roomId, password);
+        lastRoomRequest = request;
         sendMessage(request);
     }
     
@@ -493,6 +807,26 @@ public class NetworkClient {
         requestRoomList(null);
     }
 
+    /**
+     * 订阅房间列表：服务器先返回完整列表，之后只推送房间的新增、变化和删除，
+     * 客户端不需要再定时轮询。每次收到都以合并后的完整列表回调 onRoomListReceived。
+     */
+    public void subscribeRoomList(String gameType) {
+        if (!isConnected || playerId == null) {
+            notifyError("未连接到服务器");
+            return;
+        }
+
+        RoomListRequestMessage request = new RoomListRequestMessage(playerId, gameType);
+        request.setSubscribe(true);
+        roomListSubscribed = true;
+        sendMessage(request);
+    }
+
+    public boolean isRoomListSubscribed() {
+        return roomListSubscribed;
+    }
+
     /**
      * Leave room and swallow exceptions.
      */
@@ -507,6 +841,13 @@ public class NetworkClient {
         return connectionState;
     }
     
+    /**
+     * 本局已确认的手数，填入同步请求；尚未开局时为 {@link GameStateSyncRequestMessage#NO_PLY}
+     */
+    public int getLastKnownPly() {
+        return lastKnownPly;
+    }
+    
     /**
      * 发送移动
      */
@@ -517,6 +858,9 @@ public class NetworkClient {
         }
         
         MoveMessage move = new MoveMessage(playerId, fromRow, fromCol, toRow, toCol);
+        if (lastKnownPly >= 0) {
+            lastKnownPly++; // 服务器拒绝时会推送当前局面校正
+        }
         sendMessage(move);
     }
     
@@ -573,9 +917,7 @@ public class NetworkClient {
             }
         }
         
-        if (heartbeatScheduler != null && !heartbeatScheduler.isShutdown()) {
-            heartbeatScheduler.shutdown();
-        }
+        stopHeartbeat();
     }
     
     /**
@@ -608,26 +950,38 @@ public class NetworkClient {
     private void cleanup() {
         isConnected = false;
         connectionState = ConnectionState.DISCONNECTED;
+        roomListSubscribed = false;
+        stopHeartbeat();
         
         // 取消消息监听任务
         if (messageListenerTask != null && !messageListenerTask.isDone()) {
             messageListenerTask.cancel(true);
         }
         
-        // 关闭网络连接
+        closeSocket();
+        
+        playerId = null;
+        sessionToken = null;
+        resumeDeadline = 0;
+    }
+    
+    /**
+     * 关闭网络连接
+     */
+    private void closeSocket() {
         try {
-            if (writer != null) {
-                writer.close();
-                writer = null;
+            if (output != null) {
+                output.close();
+                output = null;
             }
         } catch (Exception e) {
             // 忽略关闭异常
         }
         
         try {
-            if (reader != null) {
-                reader.close();
-                reader = null;
+            if (input != null) {
+                input.close();
+                input = null;
             }
         } catch (Exception e) {
             // 忽略关闭异常
@@ -636,13 +990,11 @@ public class NetworkClient {
         try {
             if (socket != null && !socket.isClosed()) {
                 socket.close();
-                socket = null;
             }
         } catch (Exception e) {
             // 忽略关闭异常
         }
-        
-        playerId = null;
+        socket = null;
     }
     
     /**
@@ -650,7 +1002,7 @@ public class NetworkClient {
      */
     private void notifyConnectionError(String error) {
         connectionState = ConnectionState.DISCONNECTED;
-        SwingUtilities.invokeLater(() -> {
+        callbackExecutor.execute(() -> {
             if (eventListener != null) {
                 eventListener.onConnectionError(error);
             }
@@ -662,7 +1014,7 @@ public class NetworkClient {
      */
     private void notifyDisconnected(String reason) {
         connectionState = ConnectionState.DISCONNECTED;
-        SwingUtilities.invokeLater(() -> {
+        callbackExecutor.execute(() -> {
             if (eventListener != null) {
                 eventListener.onDisconnected(reason);
             }
@@ -673,7 +1025,7 @@ public class NetworkClient {
      * 通知错误
      */
     private void notifyError(String error) {
-        SwingUtilities.invokeLater(() -> {
+        callbackExecutor.execute(() -> {
             if (eventListener != null) {
                 eventListener.onError(error);
             }
@@ -4,7 +4,9 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -44,7 +46,11 @@ public abstract class NetworkMessage {
         // 其他
         HEARTBEAT,              // 心跳
         ERROR,                  // 错误消息
-        CHAT                    // 聊天消息
+        CHAT,                   // 聊天消息
+
+        // 追加在末尾，二进制协议按序号编码类型
+        ROOM_UPDATE,            // 房间列表增量推送
+        REDIRECT                // 分片部署：转到负责该房间的服务器
     }
     
     // 消息基本属性
@@ -52,6 +58,8 @@ public abstract class NetworkMessage {
     private String messageId;
     private String timestamp;
     private String senderId;
+    // 创建时间，消息ID和时间戳字符串只在需要时（JSON序列化或读取）才生成
+    private transient long createdAtMillis;
     
     /**
      * 默认构造函数（用于序列化）
@@ -66,15 +74,34 @@ public abstract class NetworkMessage {
     public NetworkMessage(MessageType type, String senderId) {
         this.type = type;
         this.senderId = senderId;
-        this.messageId = generateMessageId();
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        this.createdAtMillis = System.currentTimeMillis();
     }
     
     /**
      * 生成唯一消息ID
      */
     private String generateMessageId() {
-        return "msg_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        return "msg_" + createdAtMillis() + "_" + (int)(Math.random() * 1000);
+    }
+    
+    private long createdAtMillis() {
+        if (createdAtMillis == 0) {
+            createdAtMillis = System.currentTimeMillis();
+        }
+        return createdAtMillis;
+    }
+    
+    /**
+     * 补齐消息ID和时间戳（二进制协议不传输这两个字段）
+     */
+    private void ensureHeader() {
+        if (messageId == null) {
+            messageId = generateMessageId();
+        }
+        if (timestamp == null) {
+            timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis()), ZoneId.systemDefault())
+                    .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
     }
     
     // Getters and Setters
@@ -87,6 +114,7 @@ public abstract class NetworkMessage {
     }
     
     public String getMessageId() {
+        ensureHeader();
         return messageId;
     }
     
@@ -95,6 +123,7 @@ public abstract class NetworkMessage {
     }
     
     public String getTimestamp() {
+        ensureHeader();
         return timestamp;
     }
     
@@ -114,6 +143,7 @@ public abstract class NetworkMessage {
      * 将消息序列化为JSON字符串
      */
     public String toJson() {
+        ensureHeader();
         return gson.toJson(this);
     }
     
@@ -126,45 +156,50 @@ public abstract class NetworkMessage {
             String typeStr = jsonObject.get("type").getAsString();
             MessageType type = MessageType.valueOf(typeStr);
             
+            // 直接从已解析的JSON树构造具体消息，避免同一条消息解析两遍
             switch (type) {
                 case CONNECT_REQUEST:
-                    return gson.fromJson(json, ConnectRequestMessage.class);
+                    return gson.fromJson(jsonObject, ConnectRequestMessage.class);
                 case CONNECT_RESPONSE:
-                    return gson.fromJson(json, ConnectResponseMessage.class);
+                    return gson.fromJson(jsonObject, ConnectResponseMessage.class);
                 case DISCONNECT:
-                    return gson.fromJson(json, DisconnectMessage.class);
+                    return gson.fromJson(jsonObject, DisconnectMessage.class);
                 case CREATE_ROOM_REQUEST:
-                    return gson.fromJson(json, CreateRoomRequestMessage.class);
+                    return gson.fromJson(jsonObject, CreateRoomRequestMessage.class);
                 case CREATE_ROOM_RESPONSE:
-                    return gson.fromJson(json, CreateRoomResponseMessage.class);
+                    return gson.fromJson(jsonObject, CreateRoomResponseMessage.class);
                 case JOIN_ROOM_REQUEST:
-                    return gson.fromJson(json, JoinRoomRequestMessage.class);
+                    return gson.fromJson(jsonObject, JoinRoomRequestMessage.class);
                 case JOIN_ROOM_RESPONSE:
-                    return gson.fromJson(json, JoinRoomResponseMessage.class);
+                    return gson.fromJson(jsonObject, JoinRoomResponseMessage.class);
                 case LEAVE_ROOM:
-                    return gson.fromJson(json, LeaveRoomMessage.class);
+                    return gson.fromJson(jsonObject, LeaveRoomMessage.class);
                 case ROOM_LIST_REQUEST:
-                    return gson.fromJson(json, RoomListRequestMessage.class);
+                    return gson.fromJson(jsonObject, RoomListRequestMessage.class);
                 case ROOM_LIST_RESPONSE:
-                    return gson.fromJson(json, RoomListResponseMessage.class);
+                    return gson.fromJson(jsonObject, RoomListResponseMessage.class);
                 case GAME_START:
-                    return gson.fromJson(json, GameStartMessage.class);
+                    return gson.fromJson(jsonObject, GameStartMessage.class);
                 case GAME_END:
-                    return gson.fromJson(json, GameEndMessage.class);
+                    return gson.fromJson(jsonObject, GameEndMessage.class);
                 case MOVE:
-                    return gson.fromJson(json, MoveMessage.class);
+                    return gson.fromJson(jsonObject, MoveMessage.class);
                 case GAME_STATE_UPDATE:
-                    return gson.fromJson(json, GameStateUpdateMessage.class);
+                    return gson.fromJson(jsonObject, GameStateUpdateMessage.class);
                 case GAME_STATE_SYNC_REQUEST:
-                    return gson.fromJson(json, GameStateSyncRequestMessage.class);
+                    return gson.fromJson(jsonObject, GameStateSyncRequestMessage.class);
                 case GAME_STATE_SYNC_RESPONSE:
-                    return gson.fromJson(json, GameStateSyncResponseMessage.class);
+                    return gson.fromJson(jsonObject, GameStateSyncResponseMessage.class);
                 case HEARTBEAT:
-                    return gson.fromJson(json, HeartbeatMessage.class);
+                    return gson.fromJson(jsonObject, HeartbeatMessage.class);
                 case ERROR:
-                    return gson.fromJson(json, ErrorMessage.class);
+                    return gson.fromJson(jsonObject, ErrorMessage.class);
                 case CHAT:
-                    return gson.fromJson(json, ChatMessage.class);
+                    return gson.fromJson(jsonObject, ChatMessage.class);
+                case ROOM_UPDATE:
+                    return gson.fromJson(jsonObject, RoomUpdateMessage.class);
+                case REDIRECT:
+                    return gson.fromJson(jsonObject, RedirectMessage.class);
                 default:
                     throw new IllegalArgumentException("Unknown message type: " + type);
             }
@@ -176,6 +211,6 @@ public abstract class NetworkMessage {
     @Override
     public String toString() {
         return String.format("%s[type=%s, id=%s, sender=%s, time=%s]", 
-                getClass().getSimpleName(), type, messageId, senderId, timestamp);
+                getClass().getSimpleName(), type, getMessageId(), senderId, getTimestamp());
     }
 }
@@ -0,0 +1,377 @@
+package com.example.chinesechess.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于Selector的非阻塞传输层
+ * <p>
+ * 一个接收线程负责accept，少量I/O线程各自持有一个Selector，连接按轮转分配给I/O线程。
+ * 每个连接有独立的读缓冲区和写队列：读到的字节按 {@link WireCodec} 解码后交给
+ * {@link ClientHandler} 处理；发送只把编码好的帧放入有界的 {@link OutboundQueue}，由所属I/O线程批量写出。
+ * 连接数不再受线程数限制，空闲连接不占用线程。
+ */
+public class NioServerTransport {
+
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+    private static final int MAX_GATHER_BUFFERS = 64;
+
+    private final ChessGameServer server;
+    private final ServerSocketChannel serverChannel;
+    private final Selector acceptSelector;
+    private final IoLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private volatile boolean running = false;
+
+    public NioServerTransport(ChessGameServer server, int port, int ioThreads) throws IOException {
+        this.server = server;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.acceptSelector = Selector.open();
+        this.serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        this.loops = new IoLoop[Math.max(1, ioThreads)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new IoLoop("NIO-IO-" + (i + 1));
+        }
+    }
+
+    /**
+     * 启动I/O线程并在当前线程上运行接收循环，直到 {@link #shutdown()}
+     */
+    public void run() {
+        running = true;
+        for (IoLoop loop : loops) {
+            loop.thread.start();
+        }
+        System.out.println("⚡ NIO传输已启动，I/O线程: " + loops.length);
+
+        while (running) {
+            try {
+                acceptSelector.select();
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("⚠️ 接受客户端连接失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            server.getMetrics().recordConnectionAccepted();
+            IoLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+            loop.register(channel);
+        }
+    }
+
+    /**
+     * 停止接收并关闭所有连接
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            acceptSelector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+        for (IoLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    public int getIoThreadCount() {
+        return loops.length;
+    }
+
+    // ==================== I/O线程 ====================
+
+    /**
+     * 单个I/O线程：持有一个Selector，处理分配给它的所有连接的读写
+     */
+    private final class IoLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER_BUFFERS];
+        private volatile boolean loopRunning = true;
+
+        IoLoop(String name) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        void register(SocketChannel channel) {
+            execute(() -> {
+                try {
+                    NioConnection connection = new NioConnection(channel, this);
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                    connection.handler = new ClientHandler(server, connection);
+                    connectionCount.incrementAndGet();
+                    System.out.println("🔗 新客户端连接: " + connection.getRemoteAddress());
+                } catch (IOException e) {
+                    System.err.println("⚠️ 注册客户端连接失败: " + e.getMessage());
+                    closeQuietly(channel);
+                }
+            });
+        }
+
+        /**
+         * 在本I/O线程上执行任务
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        boolean inLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        @Override
+        public void run() {
+            while (loopRunning) {
+                try {
+                    selector.select();
+                    runTasks();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        NioConnection connection = (NioConnection) key.attachment();
+                        if (!key.isValid()) {
+                            connection.closeNow();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.onWritable();
+                        }
+                    }
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException e) {
+                    System.err.println("⚠️ NIO事件循环异常: " + e.getMessage());
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("❌ NIO任务执行失败: " + e.getMessage());
+                }
+            }
+        }
+
+        void shutdown() {
+            execute(() -> {
+                for (SelectionKey key : selector.keys()) {
+                    ((NioConnection) key.attachment()).closeNow();
+                }
+                loopRunning = false;
+            });
+            try {
+                thread.join(2000);
+                selector.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // 忽略关闭异常
+            }
+        }
+    }
+
+    // ==================== 单个连接 ====================
+
+    /**
+     * 单个非阻塞连接，除send/close外的方法都只在所属I/O线程上调用
+     */
+    private final class NioConnection implements ClientTransport {
+        private final SocketChannel channel;
+        private final IoLoop loop;
+        private final String remoteAddress;
+        private final WireCodec codec = server.createWireCodec();
+        private final OutboundQueue outbound = server.createOutboundQueue();
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        private SelectionKey key;
+        private ClientHandler handler;
+
+        NioConnection(SocketChannel channel, IoLoop loop) {
+            this.channel = channel;
+            this.loop = loop;
+            String address;
+            try {
+                address = String.valueOf(channel.getRemoteAddress());
+            } catch (IOException e) {
+                address = "unknown";
+            }
+            this.remoteAddress = address;
+        }
+
+        @Override
+        public void send(NetworkMessage message) {
+            if (closed.get()) {
+                return;
+            }
+            switch (outbound.offer(message, codec::encode)) {
+                case SCHEDULE_WRITER:
+                    if (loop.inLoop()) {
+                        enableWrite();
+                    } else {
+                        loop.execute(this::enableWrite);
+                    }
+                    break;
+                case OVERFLOW:
+                    System.err.println("⚠️ 客户端发送队列溢出，断开连接: " + remoteAddress);
+                    close();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return outbound.getDepth();
+        }
+
+        @Override
+        public void setWireFormat(WireCodec.WireFormat format) {
+            codec.setOutboundFormat(format);
+        }
+
+        private void enableWrite() {
+            if (key != null && key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        void onReadable() {
+            int read;
+            try {
+                read = channel.read(readBuffer);
+            } catch (IOException e) {
+                closeNow();
+                return;
+            }
+            if (read < 0) {
+                closeNow();
+                return;
+            }
+            readBuffer.flip();
+            try {
+                codec.decode(readBuffer, handler::onMessageReceived, handler::onMalformedMessage);
+            } catch (FrameCodec.FrameTooLargeException e) {
+                System.err.println("❌ 客户端消息过大，断开连接: " + remoteAddress + " - " + e.getMessage());
+                closeNow();
+                return;
+            }
+            readBuffer.compact();
+            readBuffer = WireCodec.growIfFull(readBuffer);
+        }
+
+        void onWritable() {
+            try {
+                while (true) {
+                    int count = outbound.peekBatch(loop.gather);
+                    if (count == 0) {
+                        if (outbound.finishIfEmpty()) {
+                            // 之后入队的消息会重新注册OP_WRITE
+                            key.interestOps(SelectionKey.OP_READ);
+                            return;
+                        }
+                        continue;
+                    }
+                    channel.write(loop.gather, 0, count);
+                    boolean batchWritten = !loop.gather[count - 1].hasRemaining();
+                    Arrays.fill(loop.gather, 0, count, null);
+                    outbound.removeWritten();
+                    if (!batchWritten) {
+                        // 内核缓冲区满，保留OP_WRITE等下次可写
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                closeNow();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed.get()) {
+                loop.execute(this::closeNow);
+            }
+        }
+
+        void closeNow() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (key != null) {
+                key.cancel();
+            }
+            closeQuietly(channel);
+            outbound.close();
+            connectionCount.decrementAndGet();
+            if (handler != null) {
+                handler.onTransportClosed();
+            }
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return remoteAddress;
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+    }
+}
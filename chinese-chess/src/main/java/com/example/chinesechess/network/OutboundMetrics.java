@@ -0,0 +1,69 @@
+package com.example.chinesechess.network;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务器发送队列统计
+ * 汇总所有客户端的入队、丢弃、溢出断开和批量写出情况。
+ */
+public class OutboundMetrics {
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflowDisconnects = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedMessages = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    void recordEnqueued(int depth) {
+        enqueued.incrementAndGet();
+        if (depth > maxDepth.get()) {
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    void recordOverflow() {
+        overflowDisconnects.incrementAndGet();
+    }
+
+    void recordFlush(int messages) {
+        flushes.incrementAndGet();
+        flushedMessages.addAndGet(messages);
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getOverflowDisconnects() {
+        return overflowDisconnects.get();
+    }
+
+    /** 所有客户端出现过的最大排队消息数 */
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    /** 平均每次写出的消息数 */
+    public double getAverageBatchSize() {
+        long count = flushes.get();
+        return count == 0 ? 0 : (double) flushedMessages.get() / count;
+    }
+
+    /**
+     * 生成统计报告
+     */
+    public String getReport() {
+        return String.format("📤 发送队列统计: 入队 %d 条，丢弃 %d 条，溢出断开 %d 次，最大队列深度 %d，平均每批写出 %.1f 条",
+                getEnqueued(), getDropped(), getOverflowDisconnects(), getMaxDepth(), getAverageBatchSize());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.chinesechess.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.function.Function;
+
+/**
+ * 单个客户端的有界发送队列
+ * <p>
+ * 业务线程只负责编码入队，由写出任务（阻塞模式的写线程或NIO的I/O线程）批量写出，
+ * 慢客户端不会阻塞转发走法的线程。队列超出消息数或字节数上限时按溢出策略处理：
+ * <ul>
+ *   <li>{@link OverflowPolicy#DROP}：丢弃可丢弃的消息（心跳、房间列表、聊天），必达消息溢出时断开连接</li>
+ *   <li>{@link OverflowPolicy#DISCONNECT}：任何溢出都断开连接</li>
+ * </ul>
+ * 溢出判断在编码之前进行，被丢弃的消息不会更新二进制协议的驻留表。
+ */
+public class OutboundQueue {
+
+    /**
+     * 溢出策略
+     */
+    public enum OverflowPolicy {
+        DROP,
+        DISCONNECT;
+
+        /**
+         * 解析配置值，无法识别时返回DROP
+         */
+        public static OverflowPolicy parse(String value) {
+            return "disconnect".equalsIgnoreCase(value == null ? null : value.trim()) ? DISCONNECT : DROP;
+        }
+    }
+
+    /**
+     * 入队结果
+     */
+    public enum OfferResult {
+        /** 已入队，写出任务正在运行 */
+        QUEUED,
+        /** 已入队，调用方需要启动写出任务 */
+        SCHEDULE_WRITER,
+        /** 队列已满，消息被丢弃 */
+        DROPPED,
+        /** 队列溢出，调用方需要断开连接 */
+        OVERFLOW
+    }
+
+    private final int maxMessages;
+    private final int maxBytes;
+    private final OverflowPolicy policy;
+    private final OutboundMetrics metrics;
+
+    // 以下状态由this锁保护
+    private final ArrayDeque<ByteBuffer> frames = new ArrayDeque<>();
+    private int queuedBytes;
+    private int highWater;
+    private long dropped;
+    private boolean writerActive;
+    private boolean closed;
+
+    public OutboundQueue(int maxMessages, int maxBytes, OverflowPolicy policy, OutboundMetrics metrics) {
+        this.maxMessages = Math.max(1, maxMessages);
+        this.maxBytes = Math.max(1024, maxBytes);
+        this.policy = policy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 编码并入队一条消息。编码在队列锁内进行，保证编码顺序与写出顺序一致。
+     */
+    public synchronized OfferResult offer(NetworkMessage message, Function<NetworkMessage, ByteBuffer> encoder) {
+        if (closed) {
+            return OfferResult.DROPPED;
+        }
+        if (frames.size() >= maxMessages || queuedBytes >= maxBytes) {
+            if (policy == OverflowPolicy.DROP && isDroppable(message)) {
+                dropped++;
+                metrics.recordDropped();
+                return OfferResult.DROPPED;
+            }
+            close();
+            metrics.recordOverflow();
+            return OfferResult.OVERFLOW;
+        }
+        ByteBuffer frame = encoder.apply(message);
+        frames.add(frame);
+        queuedBytes += frame.remaining();
+        highWater = Math.max(highWater, frames.size());
+        metrics.recordEnqueued(frames.size());
+        if (!writerActive) {
+            writerActive = true;
+            return OfferResult.SCHEDULE_WRITER;
+        }
+        return OfferResult.QUEUED;
+    }
+
+    /**
+     * 取出队首的一批帧（不移除），用于一次批量写出
+     *
+     * @return 放入dst的帧数
+     */
+    public synchronized int peekBatch(ByteBuffer[] dst) {
+        int count = 0;
+        for (ByteBuffer frame : frames) {
+            if (count == dst.length) {
+                break;
+            }
+            dst[count++] = frame;
+        }
+        return count;
+    }
+
+    /**
+     * 移除已经完整写出的帧
+     *
+     * @return 移除的帧数
+     */
+    public synchronized int removeWritten() {
+        int removed = 0;
+        while (!frames.isEmpty() && !frames.peek().hasRemaining()) {
+            queuedBytes -= frames.poll().limit();
+            removed++;
+        }
+        if (removed > 0) {
+            metrics.recordFlush(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * 队列为空时结束写出任务；返回false表示还有数据，写出任务应继续
+     */
+    public synchronized boolean finishIfEmpty() {
+        if (frames.isEmpty()) {
+            writerActive = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 关闭队列，丢弃未写出的数据，之后的消息直接丢弃
+     */
+    public synchronized void close() {
+        closed = true;
+        frames.clear();
+        queuedBytes = 0;
+    }
+
+    /**
+     * 可丢弃的消息：丢失后客户端可以通过后续消息或重新请求恢复。
+     * 订阅的房间列表是之后增量的基准，和增量本身一样不可丢弃。
+     */
+    static boolean isDroppable(NetworkMessage message) {
+        switch (message.getType()) {
+            case HEARTBEAT:
+            case CHAT:
+                return true;
+            case ROOM_LIST_RESPONSE:
+                return !((RoomListResponseMessage) message).isSubscribed();
+            default:
+                return false;
+        }
+    }
+
+    /** 当前排队的消息数 */
+    public synchronized int getDepth() {
+        return frames.size();
+    }
+
+    /** 当前排队的字节数 */
+    public synchronized int getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /** 连接建立以来的最大排队消息数 */
+    public synchronized int getHighWater() {
+        return highWater;
+    }
+
+    /** 因队列满丢弃的消息数 */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}
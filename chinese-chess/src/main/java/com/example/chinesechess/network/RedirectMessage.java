@@ -0,0 +1,35 @@
+package com.example.chinesechess.network;
+
+/**
+ * 重定向消息
+ * <p>
+ * 分片部署时由路由器回复客户端的创建/加入房间请求：房间由另一台分片服务器负责，
+ * 客户端应连接到给定的地址，并在那里重新发送原来的请求（创建房间时带上路由器分配的房间ID）。
+ */
+public class RedirectMessage extends NetworkMessage {
+    private String shardId;
+    private String host;
+    private int port;
+    private String roomId;
+
+    public RedirectMessage(String senderId, String shardId, String host, int port, String roomId) {
+        super(MessageType.REDIRECT, senderId);
+        this.shardId = shardId;
+        this.host = host;
+        this.port = port;
+        this.roomId = roomId;
+    }
+
+    // Getters and Setters
+    public String getShardId() { return shardId; }
+    public void setShardId(String shardId) { this.shardId = shardId; }
+
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+
+    public int getPort() { return port; }
+    public void setPort(int port) { this.port = port; }
+
+    public String getRoomId() { return roomId; }
+    public void setRoomId(String roomId) { this.roomId = roomId; }
+}
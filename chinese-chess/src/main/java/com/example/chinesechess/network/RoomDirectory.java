@@ -0,0 +1,305 @@
+package com.example.chinesechess.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 房间目录
+ * <p>
+ * 房间创建、人数或状态变化时由服务器调用 {@link #upsert}/{@link #remove} 更新索引，
+ * 查询不再遍历所有房间临时构造 {@link RoomInfo}：
+ * <ul>
+ *   <li>按 (游戏类型, 状态) 建索引，类型或状态为空表示不限，每个索引按创建顺序排列，支持分页</li>
+ *   <li>订阅的客户端先收到一次完整列表，之后只收到房间新增、变化、删除的增量；
+ *       同一房间在一个推送周期内的多次变化合并为一条，周期内新建又删除的房间不推送</li>
+ * </ul>
+ * 大厅流量因此只随房间变化增长，而不是随客户端数 × 房间数增长。
+ */
+public class RoomDirectory {
+
+    /** 索引键中表示“不限”的占位 */
+    private static final String ANY = "*";
+
+    private enum ChangeKind { ADDED, CHANGED, REMOVED }
+
+    private static final class Entry {
+        final long seq;
+        RoomInfo info;
+
+        Entry(long seq, RoomInfo info) {
+            this.seq = seq;
+            this.info = info;
+        }
+    }
+
+    private static final class Change {
+        ChangeKind kind;
+        RoomInfo info;
+
+        Change(ChangeKind kind, RoomInfo info) {
+            this.kind = kind;
+            this.info = info;
+        }
+    }
+
+    // 以下状态由this锁保护
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, TreeMap<Long, RoomInfo>> indexes = new HashMap<>();
+    private final Map<String, Change> pending = new LinkedHashMap<>();
+    // 订阅者ID -> 订阅的游戏类型（ANY表示全部）
+    private final Map<String, String> subscribers = new HashMap<>();
+    private long nextSeq;
+
+    // 推送在this锁之外进行（发送失败可能回调到 remove/unsubscribe），
+    // 由该锁保证同一订阅者收到的快照和增量按顺序排队
+    private final Object flushLock = new Object();
+    private final BiConsumer<String, RoomUpdateMessage> publisher;
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param publisher 推送增量：参数为订阅者ID和消息
+     * @param intervalMillis 合并推送的周期
+     */
+    public RoomDirectory(BiConsumer<String, RoomUpdateMessage> publisher, long intervalMillis) {
+        this.publisher = publisher;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Room-Directory");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(50, intervalMillis);
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== 更新 ====================
+
+    /**
+     * 新增或更新房间信息
+     */
+    public synchronized void upsert(RoomInfo info) {
+        Entry entry = entries.get(info.getRoomId());
+        if (entry == null) {
+            entry = new Entry(nextSeq++, info);
+            entries.put(info.getRoomId(), entry);
+            index(entry, true);
+            recordChange(info.getRoomId(), ChangeKind.ADDED, info);
+            return;
+        }
+        index(entry, false);
+        entry.info = info;
+        index(entry, true);
+        recordChange(info.getRoomId(), ChangeKind.CHANGED, info);
+    }
+
+    /**
+     * 删除房间
+     */
+    public synchronized void remove(String roomId) {
+        Entry entry = entries.remove(roomId);
+        if (entry != null) {
+            index(entry, false);
+            recordChange(roomId, ChangeKind.REMOVED, entry.info);
+        }
+    }
+
+    private void index(Entry entry, boolean add) {
+        String type = normalize(entry.info.getGameType());
+        String state = normalize(entry.info.getGameStatus());
+        for (String key : new String[]{key(ANY, ANY), key(type, ANY), key(ANY, state), key(type, state)}) {
+            if (add) {
+                indexes.computeIfAbsent(key, k -> new TreeMap<>()).put(entry.seq, entry.info);
+            } else {
+                TreeMap<Long, RoomInfo> index = indexes.get(key);
+                if (index != null) {
+                    index.remove(entry.seq);
+                    if (index.isEmpty()) {
+                        indexes.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private void recordChange(String roomId, ChangeKind kind, RoomInfo info) {
+        Change previous = pending.get(roomId);
+        if (previous == null) {
+            pending.put(roomId, new Change(kind, info));
+        } else if (previous.kind == ChangeKind.ADDED && kind == ChangeKind.REMOVED) {
+            pending.remove(roomId); // 订阅者从未见过这个房间
+        } else {
+            // 新增后的变化仍然算新增
+            previous.kind = previous.kind == ChangeKind.ADDED ? ChangeKind.ADDED : kind;
+            previous.info = info;
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 分页查询
+     *
+     * @param gameType 游戏类型，null或空表示全部
+     * @param state    房间状态，null或空表示全部
+     * @param offset   起始位置
+     * @param limit    最多返回的房间数，&lt;=0 表示不限
+     */
+    public synchronized Page query(String gameType, String state, int offset, int limit) {
+        TreeMap<Long, RoomInfo> index = indexes.get(key(normalize(gameType), normalize(state)));
+        if (index == null) {
+            return new Page(Collections.emptyList(), 0, 0);
+        }
+        int start = Math.max(0, offset);
+        int count = limit <= 0 ? index.size() : Math.min(limit, index.size());
+        List<RoomInfo> rooms = new ArrayList<>(Math.max(0, Math.min(count, index.size() - start)));
+        Iterator<RoomInfo> it = index.values().iterator();
+        for (int i = 0; i < start && it.hasNext(); i++) {
+            it.next();
+        }
+        while (it.hasNext() && rooms.size() < count) {
+            rooms.add(it.next());
+        }
+        return new Page(rooms, index.size(), start);
+    }
+
+    /**
+     * 各状态的房间数
+     */
+    public synchronized Map<String, Integer> countByState() {
+        Map<String, Integer> counts = new TreeMap<>();
+        String prefix = ANY + "|";
+        for (Map.Entry<String, TreeMap<Long, RoomInfo>> index : indexes.entrySet()) {
+            String key = index.getKey();
+            if (key.startsWith(prefix) && !key.equals(key(ANY, ANY))) {
+                counts.put(key.substring(prefix.length()), index.getValue().size());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 一页查询结果
+     */
+    public static final class Page {
+        private final List<RoomInfo> rooms;
+        private final int totalCount;
+        private final int offset;
+
+        Page(List<RoomInfo> rooms, int totalCount, int offset) {
+            this.rooms = rooms;
+            this.totalCount = totalCount;
+            this.offset = offset;
+        }
+
+        public List<RoomInfo> getRooms() { return rooms; }
+        public int getTotalCount() { return totalCount; }
+        public int getOffset() { return offset; }
+    }
+
+    // ==================== 订阅 ====================
+
+    /**
+     * 订阅房间变化。先推送尚未发出的变化给已有订阅者，再把包含这些变化的完整列表交给
+     * snapshotSender 发送，之后的增量正好接在这份快照之后。
+     */
+    public void subscribe(String subscriberId, String gameType, Consumer<Page> snapshotSender) {
+        synchronized (flushLock) {
+            flush();
+            Page snapshot;
+            synchronized (this) {
+                subscribers.put(subscriberId, normalize(gameType));
+                snapshot = query(gameType, null, 0, 0);
+            }
+            snapshotSender.accept(snapshot);
+        }
+    }
+
+    public synchronized void unsubscribe(String subscriberId) {
+        subscribers.remove(subscriberId);
+    }
+
+    /**
+     * 订阅者订阅的游戏类型，未订阅时返回null，订阅全部类型时返回空串
+     */
+    public synchronized String getSubscription(String subscriberId) {
+        String gameType = subscribers.get(subscriberId);
+        return gameType == null ? null : ANY.equals(gameType) ? "" : gameType;
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 把本周期合并后的变化推送给订阅者，每种游戏类型只构造一次消息
+     */
+    void flush() {
+        synchronized (flushLock) {
+            List<Map.Entry<String, RoomUpdateMessage>> deliveries = new ArrayList<>();
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                Map<String, RoomUpdateMessage> byType = new HashMap<>();
+                for (Map.Entry<String, String> subscriber : subscribers.entrySet()) {
+                    RoomUpdateMessage update = byType.computeIfAbsent(subscriber.getValue(), this::buildUpdate);
+                    if (!update.isEmpty()) {
+                        deliveries.add(Map.entry(subscriber.getKey(), update));
+                    }
+                }
+                pending.clear();
+            }
+            for (Map.Entry<String, RoomUpdateMessage> delivery : deliveries) {
+                try {
+                    publisher.accept(delivery.getKey(), delivery.getValue());
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ 推送房间变化失败 (" + delivery.getKey() + "): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private RoomUpdateMessage buildUpdate(String gameType) {
+        RoomUpdateMessage update = new RoomUpdateMessage("server", ANY.equals(gameType) ? null : gameType);
+        for (Map.Entry<String, Change> e : pending.entrySet()) {
+            Change change = e.getValue();
+            if (!ANY.equals(gameType) && !gameType.equals(normalize(change.info.getGameType()))) {
+                continue;
+            }
+            switch (change.kind) {
+                case ADDED:
+                    update.getAdded().add(change.info);
+                    break;
+                case CHANGED:
+                    update.getChanged().add(change.info);
+                    break;
+                default:
+                    update.getRemoved().add(e.getKey());
+                    break;
+            }
+        }
+        return update;
+    }
+
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? ANY : value;
+    }
+
+    private static String key(String gameType, String state) {
+        return gameType + "|" + state;
+    }
+}
@@ -0,0 +1,699 @@
+package com.example.chinesechess.network;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 房间预写日志
+ * <p>
+ * 房间的创建、入座、开局、走子、结束、离开和删除按发生顺序追加到日志文件，服务器重启后重放日志恢复房间和对局：
+ * <ul>
+ *   <li>追加只把事件放入无锁队列，不做I/O；调用方（消息处理线程，通常持有房间锁）只多一次对象分配</li>
+ *   <li>写线程每隔刷盘间隔取出队列中的全部事件，编码后一次写入并fsync（组提交），
+ *       崩溃时最多丢失最近一个间隔内的事件</li>
+ *   <li>写线程把写出的事件同时应用到自己的房间镜像上，累计一定条数后把镜像写成快照，
+ *       之后的事件写入新一代日志，旧日志和旧快照随即删除，日志文件不会无限增长</li>
+ * </ul>
+ * 文件：snapshot-N.bin 是第N代之前所有日志应用后的房间，journal-N.log 是第N代的日志。
+ * 日志记录为 [4字节内容长度][4字节CRC32][内容]；恢复时遇到不完整或校验失败的记录即停止读取该文件，
+ * 即崩溃时只写了一半的尾部。
+ */
+final class RoomJournal {
+
+    private static final byte ROOM_CREATED = 1;
+    private static final byte PLAYER_JOINED = 2;
+    private static final byte AI_SEATED = 3;
+    private static final byte GAME_STARTED = 4;
+    private static final byte MOVE = 5;
+    private static final byte GAME_FINISHED = 6;
+    private static final byte PLAYER_LEFT = 7;
+    private static final byte ROOM_REMOVED = 8;
+
+    private static final int SNAPSHOT_MAGIC = 0x434A524E; // "CJRN"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int RECORD_HEADER = 8;
+    private static final String[] NO_TEXT = new String[0];
+    private static final Pattern FILE_NAME = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+
+    /**
+     * 一条房间事件：按类型使用text中的字符串和a、b两个整数
+     */
+    private static final class Event {
+        final byte type;
+        final String roomId;
+        final String[] text;
+        final int a;
+        final int b;
+
+        Event(byte type, String roomId, String[] text, int a, int b) {
+            this.type = type;
+            this.roomId = roomId;
+            this.text = text;
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    /**
+     * 房间中的真人玩家；token为玩家的会话令牌，重启后凭它重连回房间
+     */
+    static final class Seat {
+        private final String playerId;
+        private final String playerName;
+        private final String token;
+
+        Seat(String playerId, String playerName, String token) {
+            this.playerId = playerId;
+            this.playerName = playerName;
+            this.token = token;
+        }
+
+        String getPlayerId() { return playerId; }
+        String getPlayerName() { return playerName; }
+        String getToken() { return token; }
+    }
+
+    /**
+     * 日志中记录的一个房间的状态
+     */
+    static final class RoomState {
+        private final String roomId;
+        private final String roomName;
+        private final String password;
+        private final String gameType;
+        private final String hostId;
+        private final String hostName;
+        private final List<Seat> seats = new ArrayList<>();
+        private String gameState = "WAITING";
+        private String redPlayer;
+        private String blackPlayer;
+        private String aiEngine;
+        private int aiDifficulty;
+        // 每步一个int：起点格子 << 8 | 终点格子
+        private int[] moves = new int[16];
+        private int moveCount;
+        private String winner;
+        private String endReason;
+
+        RoomState(String roomId, String roomName, String password, String gameType, String hostId, String hostName) {
+            this.roomId = roomId;
+            this.roomName = roomName;
+            this.password = password;
+            this.gameType = gameType;
+            this.hostId = hostId;
+            this.hostName = hostName;
+        }
+
+        String getRoomId() { return roomId; }
+        String getRoomName() { return roomName; }
+        String getPassword() { return password; }
+        String getGameType() { return gameType; }
+        String getHostId() { return hostId; }
+        String getHostName() { return hostName; }
+        List<Seat> getSeats() { return seats; }
+        String getGameState() { return gameState; }
+        String getRedPlayer() { return redPlayer; }
+        String getBlackPlayer() { return blackPlayer; }
+        String getAiEngine() { return aiEngine; }
+        int getAiDifficulty() { return aiDifficulty; }
+        int getMoveCount() { return moveCount; }
+        int getMoveFrom(int index) { return moves[index] >>> 8; }
+        int getMoveTo(int index) { return moves[index] & 0xFF; }
+        String getWinner() { return winner; }
+        String getEndReason() { return endReason; }
+
+        private void addMove(int from, int to) {
+            if (moveCount == moves.length) {
+                moves = Arrays.copyOf(moves, moveCount * 2);
+            }
+            moves[moveCount++] = from << 8 | to;
+        }
+
+        private Seat findSeat(String playerId) {
+            for (Seat seat : seats) {
+                if (seat.playerId.equals(playerId)) {
+                    return seat;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** 可直接访问内部数组的输出缓冲，用于回填记录头 */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void putInt(int position, int value) {
+            buf[position] = (byte) (value >>> 24);
+            buf[position + 1] = (byte) (value >>> 16);
+            buf[position + 2] = (byte) (value >>> 8);
+            buf[position + 3] = (byte) value;
+        }
+    }
+
+    private final Path dir;
+    private final long flushIntervalNanos;
+    private final int snapshotRecords;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    // 以下状态只由写线程访问（open期间由调用线程访问）
+    private final Map<String, RoomState> mirror = new HashMap<>();
+    private final Buffer batch = new Buffer(64 * 1024);
+    private final DataOutputStream batchOut = new DataOutputStream(batch);
+    private final CRC32 crc = new CRC32();
+    private FileChannel log;
+    private long generation;
+    private int recordsSinceSnapshot;
+
+    // 统计，写线程更新，其他线程只读
+    private volatile long records;
+    private volatile long bytes;
+    private volatile long flushes;
+    private volatile int maxBatch;
+    private volatile long totalFsyncNanos;
+    private volatile long maxFsyncNanos;
+    private volatile int snapshots;
+
+    RoomJournal(File dir, int flushIntervalMillis, int snapshotRecords) {
+        this.dir = dir.toPath();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.snapshotRecords = Math.max(1, snapshotRecords);
+    }
+
+    /**
+     * 读取最新的快照和之后的日志恢复房间，随后写出新一代快照作为压缩后的起点，开始接受追加
+     *
+     * @return 恢复出的房间
+     */
+    Collection<RoomState> open() throws IOException {
+        Files.createDirectories(dir);
+        TreeSet<Long> snapshotGenerations = new TreeSet<>();
+        TreeSet<Long> logGenerations = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    long gen = Long.parseLong(matcher.group(2));
+                    (matcher.group(1).equals("snapshot") ? snapshotGenerations : logGenerations).add(gen);
+                }
+            }
+        }
+
+        long base = 0;
+        for (Long gen : snapshotGenerations.descendingSet()) {
+            try {
+                readSnapshot(snapshotPath(gen));
+                base = gen;
+                break;
+            } catch (IOException e) {
+                mirror.clear();
+                System.err.println("⚠️ 快照损坏，尝试更早的快照: " + snapshotPath(gen) + " (" + e.getMessage() + ")");
+            }
+        }
+        int replayed = 0;
+        for (Long gen : logGenerations.tailSet(base)) {
+            replayed += replayLog(logPath(gen));
+        }
+
+        long last = Math.max(snapshotGenerations.isEmpty() ? 0 : snapshotGenerations.last(),
+                logGenerations.isEmpty() ? 0 : logGenerations.last());
+        generation = last + 1;
+        log = openLog(generation);
+        writeSnapshot(generation);
+        deleteBefore(generation);
+        if (!mirror.isEmpty() || replayed > 0) {
+            System.out.println("📒 房间日志恢复: " + mirror.size() + " 个房间（快照第" + base + "代，重放 " + replayed + " 条日志）");
+        }
+
+        List<RoomState> restored = new ArrayList<>(mirror.values());
+        accepting = true;
+        running = true;
+        writer = new Thread(this::writeLoop, "Room-Journal");
+        writer.setDaemon(true);
+        writer.start();
+        return restored;
+    }
+
+    /**
+     * 停止接受追加，写出并刷盘队列中剩余的事件
+     */
+    void close() {
+        accepting = false;
+        running = false;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== 追加（任意线程） ====================
+
+    void roomCreated(String roomId, String roomName, String password, String gameType,
+                     String hostId, String hostName, String hostToken) {
+        append(ROOM_CREATED, roomId, new String[] {roomName, password, gameType, hostId, hostName, hostToken}, 0, 0);
+    }
+
+    void playerJoined(String roomId, String playerId, String playerName, String token) {
+        append(PLAYER_JOINED, roomId, new String[] {playerId, playerName, token}, 0, 0);
+    }
+
+    void aiSeated(String roomId, String engine, int difficulty) {
+        append(AI_SEATED, roomId, new String[] {engine}, difficulty, 0);
+    }
+
+    void gameStarted(String roomId, String redPlayer, String blackPlayer) {
+        append(GAME_STARTED, roomId, new String[] {redPlayer, blackPlayer}, 0, 0);
+    }
+
+    /** 走子，from和to为格子编号 */
+    void moveMade(String roomId, int from, int to) {
+        append(MOVE, roomId, NO_TEXT, from, to);
+    }
+
+    void gameFinished(String roomId, String winner, String reason) {
+        append(GAME_FINISHED, roomId, new String[] {winner, reason}, 0, 0);
+    }
+
+    void playerLeft(String roomId, String playerId) {
+        append(PLAYER_LEFT, roomId, new String[] {playerId}, 0, 0);
+    }
+
+    void roomRemoved(String roomId) {
+        append(ROOM_REMOVED, roomId, NO_TEXT, 0, 0);
+    }
+
+    private void append(byte type, String roomId, String[] text, int a, int b) {
+        if (accepting) {
+            queue.offer(new Event(type, roomId, text, a, b));
+        }
+    }
+
+    // ==================== 写线程 ====================
+
+    private void writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            if (!flush()) {
+                return;
+            }
+        }
+        // 关闭前写出剩余事件
+        flush();
+        closeLog();
+    }
+
+    /**
+     * 组提交：取出队列中的全部事件，一次写入并fsync
+     *
+     * @return 是否可以继续写日志
+     */
+    private boolean flush() {
+        List<Event> events = new ArrayList<>();
+        batch.reset();
+        try {
+            Event event;
+            while ((event = queue.poll()) != null) {
+                int start = batch.size();
+                batchOut.writeLong(0); // 长度和CRC，写完内容后回填
+                writeEvent(batchOut, event);
+                int length = batch.size() - start - RECORD_HEADER;
+                crc.reset();
+                crc.update(batch.array(), start + RECORD_HEADER, length);
+                batch.putInt(start, length);
+                batch.putInt(start + 4, (int) crc.getValue());
+                events.add(event);
+            }
+            if (events.isEmpty()) {
+                return true;
+            }
+            ByteBuffer data = ByteBuffer.wrap(batch.array(), 0, batch.size());
+            while (data.hasRemaining()) {
+                log.write(data);
+            }
+            long fsyncStart = System.nanoTime();
+            log.force(false);
+            long fsyncNanos = System.nanoTime() - fsyncStart;
+
+            records += events.size();
+            bytes += batch.size();
+            flushes++;
+            totalFsyncNanos += fsyncNanos;
+            maxFsyncNanos = Math.max(maxFsyncNanos, fsyncNanos);
+            maxBatch = Math.max(maxBatch, events.size());
+            for (Event written : events) {
+                apply(mirror, written);
+            }
+            recordsSinceSnapshot += events.size();
+            if (recordsSinceSnapshot >= snapshotRecords) {
+                rollover();
+            }
+            return true;
+        } catch (IOException e) {
+            // 日志不可用时房间照常运行，只是不再能在重启后恢复
+            System.err.println("❌ 房间日志写入失败，停止记录: " + e.getMessage());
+            accepting = false;
+            running = false;
+            queue.clear();
+            closeLog();
+            return false;
+        }
+    }
+
+    /**
+     * 压缩：之后的事件写入新一代日志，再把镜像写成新一代快照，最后删除旧文件。
+     * 写快照途中崩溃时上一代快照和两代日志都还在，恢复结果相同。
+     */
+    private void rollover() throws IOException {
+        long next = generation + 1;
+        FileChannel previous = log;
+        log = openLog(next);
+        previous.close();
+        generation = next;
+        writeSnapshot(next);
+        deleteBefore(next);
+        recordsSinceSnapshot = 0;
+        snapshots++;
+    }
+
+    private void closeLog() {
+        try {
+            if (log != null && log.isOpen()) {
+                log.force(false);
+                log.close();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ 关闭房间日志失败: " + e.getMessage());
+        }
+    }
+
+    // ==================== 文件 ====================
+
+    private Path logPath(long gen) {
+        return dir.resolve("journal-" + gen + ".log");
+    }
+
+    private Path snapshotPath(long gen) {
+        return dir.resolve("snapshot-" + gen + ".bin");
+    }
+
+    private FileChannel openLog(long gen) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(gen),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory();
+        return channel;
+    }
+
+    /**
+     * 快照先写临时文件并fsync，再原子改名，读到的快照总是完整的
+     */
+    private void writeSnapshot(long gen) throws IOException {
+        Buffer data = new Buffer(4096);
+        DataOutputStream out = new DataOutputStream(data);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(mirror.size());
+        for (RoomState room : mirror.values()) {
+            writeRoom(out, room);
+        }
+        crc.reset();
+        crc.update(data.array(), 0, data.size());
+        out.writeInt((int) crc.getValue());
+
+        Path temp = dir.resolve("snapshot-" + gen + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data.array(), 0, data.size());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, snapshotPath(gen), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    private void readSnapshot(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < 16) {
+            throw new IOException("文件过短");
+        }
+        crc.reset();
+        crc.update(data, 0, data.length - 4);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        in.skipBytes(data.length - 4);
+        if (in.readInt() != (int) crc.getValue()) {
+            throw new IOException("校验失败");
+        }
+        in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("不支持的快照格式");
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            RoomState room = readRoom(in);
+            mirror.put(room.roomId, room);
+        }
+    }
+
+    /**
+     * 重放一个日志文件
+     *
+     * @return 重放的记录数
+     */
+    private int replayLog(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int position = 0;
+        int count = 0;
+        while (position + RECORD_HEADER <= data.length) {
+            int length = readInt(data, position);
+            int checksum = readInt(data, position + 4);
+            if (length <= 0 || length > data.length - position - RECORD_HEADER) {
+                break;
+            }
+            crc.reset();
+            crc.update(data, position + RECORD_HEADER, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply(mirror, readEvent(new DataInputStream(
+                    new ByteArrayInputStream(data, position + RECORD_HEADER, length))));
+            position += RECORD_HEADER + length;
+            count++;
+        }
+        if (position < data.length) {
+            System.err.println("⚠️ 日志尾部不完整，已忽略 " + (data.length - position) + " 字节: " + file.getFileName());
+        }
+        return count;
+    }
+
+    private void deleteBefore(long gen) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher matcher = FILE_NAME.matcher(name);
+                if ((matcher.matches() && Long.parseLong(matcher.group(2)) < gen) || name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /** 新建和改名的文件在目录项刷盘后才算持久；不支持的平台上忽略 */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 忽略
+        }
+    }
+
+    private static int readInt(byte[] data, int position) {
+        return (data[position] & 0xFF) << 24 | (data[position + 1] & 0xFF) << 16
+                | (data[position + 2] & 0xFF) << 8 | (data[position + 3] & 0xFF);
+    }
+
+    // ==================== 编解码 ====================
+
+    private static void writeEvent(DataOutputStream out, Event event) throws IOException {
+        out.writeByte(event.type);
+        writeString(out, event.roomId);
+        out.writeByte(event.text.length);
+        for (String value : event.text) {
+            writeString(out, value);
+        }
+        out.writeInt(event.a);
+        out.writeInt(event.b);
+    }
+
+    private static Event readEvent(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        String roomId = readString(in);
+        String[] text = new String[in.readUnsignedByte()];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = readString(in);
+        }
+        return new Event(type, roomId, text, in.readInt(), in.readInt());
+    }
+
+    private static void writeRoom(DataOutputStream out, RoomState room) throws IOException {
+        writeString(out, room.roomId);
+        writeString(out, room.roomName);
+        writeString(out, room.password);
+        writeString(out, room.gameType);
+        writeString(out, room.hostId);
+        writeString(out, room.hostName);
+        out.writeInt(room.seats.size());
+        for (Seat seat : room.seats) {
+            writeString(out, seat.playerId);
+            writeString(out, seat.playerName);
+            writeString(out, seat.token);
+        }
+        writeString(out, room.gameState);
+        writeString(out, room.redPlayer);
+        writeString(out, room.blackPlayer);
+        writeString(out, room.aiEngine);
+        out.writeInt(room.aiDifficulty);
+        out.writeInt(room.moveCount);
+        for (int i = 0; i < room.moveCount; i++) {
+            out.writeInt(room.moves[i]);
+        }
+        writeString(out, room.winner);
+        writeString(out, room.endReason);
+    }
+
+    private static RoomState readRoom(DataInputStream in) throws IOException {
+        RoomState room = new RoomState(readString(in), readString(in), readString(in), readString(in),
+                readString(in), readString(in));
+        int seats = in.readInt();
+        for (int i = 0; i < seats; i++) {
+            room.seats.add(new Seat(readString(in), readString(in), readString(in)));
+        }
+        room.gameState = readString(in);
+        room.redPlayer = readString(in);
+        room.blackPlayer = readString(in);
+        room.aiEngine = readString(in);
+        room.aiDifficulty = in.readInt();
+        int moves = in.readInt();
+        for (int i = 0; i < moves; i++) {
+            int move = in.readInt();
+            room.addMove(move >>> 8, move & 0xFF);
+        }
+        room.winner = readString(in);
+        room.endReason = readString(in);
+        return room;
+    }
+
+    /** 字符串为 [4字节UTF-8字节数][字节内容]，null 的长度为-1 */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    // ==================== 房间镜像 ====================
+
+    /**
+     * 把一条事件应用到房间状态上；恢复和写线程共用，保证快照与重放的结果一致
+     */
+    private static void apply(Map<String, RoomState> rooms, Event event) {
+        if (event.type == ROOM_CREATED) {
+            String[] t = event.text;
+            RoomState room = new RoomState(event.roomId, t[0], t[1], t[2], t[3], t[4]);
+            room.seats.add(new Seat(t[3], t[4], t[5]));
+            rooms.put(event.roomId, room);
+            return;
+        }
+        RoomState room = rooms.get(event.roomId);
+        if (room == null) {
+            return;
+        }
+        switch (event.type) {
+            case PLAYER_JOINED:
+                if (room.findSeat(event.text[0]) == null) {
+                    room.seats.add(new Seat(event.text[0], event.text[1], event.text[2]));
+                }
+                break;
+            case AI_SEATED:
+                room.aiEngine = event.text[0];
+                room.aiDifficulty = event.a;
+                break;
+            case GAME_STARTED:
+                room.redPlayer = event.text[0];
+                room.blackPlayer = event.text[1];
+                room.gameState = "PLAYING";
+                room.moveCount = 0;
+                room.winner = null;
+                room.endReason = null;
+                break;
+            case MOVE:
+                room.addMove(event.a, event.b);
+                break;
+            case GAME_FINISHED:
+                room.gameState = "FINISHED";
+                if (room.winner == null) {
+                    room.winner = event.text[0];
+                    room.endReason = event.text[1];
+                }
+                break;
+            case PLAYER_LEFT:
+                room.seats.remove(room.findSeat(event.text[0]));
+                break;
+            case ROOM_REMOVED:
+                rooms.remove(event.roomId);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    String getReport() {
+        long flushCount = flushes;
+        return String.format("📒 房间日志: 记录 %d 条 (%d KB)，组提交 %d 次，平均每次 %.1f 条、最多 %d 条，"
+                        + "fsync 平均 %.2fms 最大 %.2fms，快照 %d 次，待写 %d 条",
+                records, bytes / 1024, flushCount,
+                flushCount == 0 ? 0.0 : (double) records / flushCount, maxBatch,
+                flushCount == 0 ? 0.0 : totalFsyncNanos / 1e6 / flushCount, maxFsyncNanos / 1e6,
+                snapshots, queue.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.chinesechess.network;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 房间级延迟统计
+ * 按房间记录服务器AI每步的排队时间和计算时间，保留最近若干个样本用于计算P95。
+ */
+public class RoomLatencyMetrics {
+
+    private static final int SAMPLE_WINDOW = 128;
+
+    /**
+     * 单个房间的统计数据
+     */
+    public static class RoomStats {
+        private final long[] recent = new long[SAMPLE_WINDOW];
+        private int recentCount;
+        private int recentIndex;
+        private long count;
+        private long totalQueueMs;
+        private long totalComputeMs;
+        private long maxTotalMs;
+        private long lastTotalMs;
+
+        synchronized void record(long queueMs, long computeMs) {
+            long total = queueMs + computeMs;
+            count++;
+            totalQueueMs += queueMs;
+            totalComputeMs += computeMs;
+            maxTotalMs = Math.max(maxTotalMs, total);
+            lastTotalMs = total;
+            recent[recentIndex] = total;
+            recentIndex = (recentIndex + 1) % SAMPLE_WINDOW;
+            recentCount = Math.min(recentCount + 1, SAMPLE_WINDOW);
+        }
+
+        public synchronized long getCount() { return count; }
+        public synchronized long getMaxTotalMs() { return maxTotalMs; }
+        public synchronized long getLastTotalMs() { return lastTotalMs; }
+
+        public synchronized double getAverageQueueMs() {
+            return count == 0 ? 0 : (double) totalQueueMs / count;
+        }
+
+        public synchronized double getAverageComputeMs() {
+            return count == 0 ? 0 : (double) totalComputeMs / count;
+        }
+
+        /** 最近样本的P95总延迟 */
+        public synchronized long getP95TotalMs() {
+            if (recentCount == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(recent, recentCount);
+            Arrays.sort(sorted);
+            return sorted[Math.min(recentCount - 1, (int) Math.ceil(recentCount * 0.95) - 1)];
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("步数=%d, 平均排队=%.1fms, 平均计算=%.1fms, P95=%dms, 最大=%dms",
+                    count, getAverageQueueMs(), getAverageComputeMs(), getP95TotalMs(), maxTotalMs);
+        }
+    }
+
+    private final Map<String, RoomStats> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次AI走棋
+     */
+    public void record(String roomId, long queueMs, long computeMs) {
+        rooms.computeIfAbsent(roomId, id -> new RoomStats()).record(queueMs, computeMs);
+    }
+
+    public RoomStats getStats(String roomId) {
+        return rooms.get(roomId);
+    }
+
+    public void removeRoom(String roomId) {
+        rooms.remove(roomId);
+    }
+
+    /**
+     * 生成所有房间的统计报告
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("📊 服务器AI房间延迟统计:\n");
+        if (rooms.isEmpty()) {
+            report.append("   (暂无数据)\n");
+        }
+        new TreeMap<>(rooms).forEach((roomId, stats) ->
+                report.append("   ").append(roomId).append(": ").append(stats).append('\n'));
+        return report.toString();
+    }
+}
@@ -5,6 +5,10 @@ package com.example.chinesechess.network;
  */
 public class RoomListRequestMessage extends NetworkMessage {
     private String gameType;
+    private String state;       // 按房间状态过滤，为空表示全部
+    private int offset;
+    private int limit;          // 每页房间数，0表示不分页
+    private boolean subscribe;  // 订阅后服务器持续推送房间的增量变化
 
     public RoomListRequestMessage(String senderId, String gameType) {
         super(MessageType.ROOM_LIST_REQUEST, senderId);
@@ -13,4 +17,16 @@ public class RoomListRequestMessage extends NetworkMessage {
 
     public String getGameType() { return gameType; }
     public void setGameType(String gameType) { this.gameType = gameType; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public boolean isSubscribe() { return subscribe; }
+    public void setSubscribe(boolean subscribe) { this.subscribe = subscribe; }
 }
@@ -7,18 +7,30 @@ import java.util.List;
  */
 public class RoomListResponseMessage extends NetworkMessage {
     private List<RoomInfo> rooms;
+    private int totalCount;     // 满足过滤条件的房间总数
+    private int offset;
+    private boolean subscribed; // 为true时rooms是完整列表，之后的变化通过ROOM_UPDATE推送
     
     public RoomListResponseMessage(String senderId, List<RoomInfo> rooms) {
         super(MessageType.ROOM_LIST_RESPONSE, senderId);
         this.rooms = rooms;
+        this.totalCount = rooms == null ? 0 : rooms.size();
     }
     
     public RoomListResponseMessage(List<RoomInfo> rooms) {
-        super(MessageType.ROOM_LIST_RESPONSE, "server");
-        this.rooms = rooms;
+        this("server", rooms);
     }
     
     // Getters and Setters
     public List<RoomInfo> getRooms() { return rooms; }
     public void setRooms(List<RoomInfo> rooms) { this.rooms = rooms; }
+
+    public int getTotalCount() { return totalCount; }
+    public void setTotalCount(int totalCount) { this.totalCount = totalCount; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public boolean isSubscribed() { return subscribed; }
+    public void setSubscribed(boolean subscribed) { this.subscribed = subscribed; }
 }
@@ -0,0 +1,38 @@
+package com.example.chinesechess.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 房间列表增量消息
+ * <p>
+ * 推送给订阅了房间列表的客户端，包含一个推送周期内新增、变化和删除的房间。
+ */
+public class RoomUpdateMessage extends NetworkMessage {
+    private String gameType;
+    private List<RoomInfo> added = new ArrayList<>();
+    private List<RoomInfo> changed = new ArrayList<>();
+    private List<String> removed = new ArrayList<>();
+
+    public RoomUpdateMessage(String senderId, String gameType) {
+        super(MessageType.ROOM_UPDATE, senderId);
+        this.gameType = gameType;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    // Getters and Setters
+    public String getGameType() { return gameType; }
+    public void setGameType(String gameType) { this.gameType = gameType; }
+
+    public List<RoomInfo> getAdded() { return added; }
+    public void setAdded(List<RoomInfo> added) { this.added = added; }
+
+    public List<RoomInfo> getChanged() { return changed; }
+    public void setChanged(List<RoomInfo> changed) { this.changed = changed; }
+
+    public List<String> getRemoved() { return removed; }
+    public void setRemoved(List<String> removed) { this.removed = removed; }
+}
@@ -0,0 +1,181 @@
+package com.example.chinesechess.network;
+
+import com.example.chinesechess.ai.EnhancedChessAI;
+import com.example.chinesechess.ai.FenConverter;
+import com.example.chinesechess.ai.PikafishEngine;
+import com.example.chinesechess.ai.PikafishEnginePool;
+import com.example.chinesechess.core.Board;
+import com.example.chinesechess.core.Move;
+import com.example.chinesechess.core.Piece;
+import com.example.chinesechess.core.PieceColor;
+import com.example.chinesechess.core.Position;
+import com.example.common.utils.Logger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 服务器托管的AI座位
+ * 每个房间一个实例，由 {@link AIComputeScheduler} 在共享计算线程上调用。
+ * Pikafish引擎从共享引擎池借用，不可用时降级到本房间自己的增强AI。
+ */
+public class ServerAIPlayer {
+
+    private static final Logger.Category LOG = Logger.aiCategory("ServerAI");
+
+    /** 等待空闲Pikafish引擎的上限，等不到时本时间片改用增强AI */
+    private static final long ENGINE_WAIT_MS = 50;
+    /** Pikafish搜索之外留给走法转换和返回的时间 */
+    private static final long ENGINE_MARGIN_MS = 50;
+    /** 剩余时间少于该值时不再启动Pikafish搜索 */
+    private static final long MIN_ENGINE_SEARCH_MS = 100;
+
+    /** 服务器AI引擎类型 */
+    public enum Engine {
+        ENHANCED("增强AI"),
+        PIKAFISH("Pikafish");
+
+        private final String displayName;
+
+        Engine(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 解析客户端传来的引擎名称，无法识别时返回null
+         */
+        public static Engine parse(String name) {
+            if (name == null || name.trim().isEmpty()) {
+                return null;
+            }
+            for (Engine engine : values()) {
+                if (engine.name().equalsIgnoreCase(name.trim())) {
+                    return engine;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String playerId;
+    private final Engine engine;
+    private final PieceColor color;
+    private final int difficulty;
+    private final PikafishEnginePool enginePool;
+    private EnhancedChessAI enhancedAI; // 只在计算线程上访问
+
+    public ServerAIPlayer(String playerId, Engine engine, PieceColor color, int difficulty, PikafishEnginePool enginePool) {
+        this.playerId = playerId;
+        this.engine = engine;
+        this.color = color;
+        this.difficulty = Math.max(1, Math.min(10, difficulty));
+        this.enginePool = enginePool;
+    }
+
+    /**
+     * 计算一步走法，在调度器的计算线程上执行
+     *
+     * @param board 当前局面的副本，计算过程中可以随意修改
+     * @return 走法，无子可走时返回null
+     */
+    public Move computeMove(Board board, AIComputeScheduler.ComputeContext context) {
+        long deadline = System.currentTimeMillis() + context.getSliceMs();
+        Move move = null;
+        if (engine == Engine.PIKAFISH && enginePool != null) {
+            move = computeWithPikafish(board, context, deadline);
+        }
+        if (move == null && !context.getToken().isCancelled()) {
+            // 没借到引擎或引擎失败时，用时间片剩下的时间让增强AI搜索（时间片到期时令牌被取消）
+            move = computeWithEnhancedAI(board, context);
+        }
+        if (move == null) {
+            // 没有任何搜索结果时，退而求其次走第一步合法走法
+            move = firstLegalMove(board);
+        }
+        return move;
+    }
+
+    /**
+     * 借用Pikafish在时间片剩余时间内搜索；只短暂等待空闲引擎，时间片被取消时让引擎立即停止
+     */
+    private Move computeWithPikafish(Board board, AIComputeScheduler.ComputeContext context, long deadline) {
+        PikafishEngine pikafish = null;
+        AtomicBoolean searchActive = new AtomicBoolean(true);
+        try {
+            pikafish = enginePool.borrow(Math.min(ENGINE_WAIT_MS, context.getSliceMs() / 4));
+            long remaining = deadline - System.currentTimeMillis() - ENGINE_MARGIN_MS;
+            if (pikafish == null || remaining < MIN_ENGINE_SEARCH_MS || context.getToken().isCancelled()) {
+                return null;
+            }
+            // 引擎归还后可能被别的座位借走，只在本次搜索期间响应取消
+            PikafishEngine searching = pikafish;
+            context.getToken().onCancel(() -> {
+                if (searchActive.get()) {
+                    searching.stopSearch();
+                }
+            });
+            String fen = FenConverter.boardToFen(board, color);
+            String uci = pikafish.getBestMove(fen, (int) remaining);
+            Position[] positions = FenConverter.uciToMove(uci);
+            return positions != null ? new Move(positions[0], positions[1]) : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (RuntimeException e) {
+            LOG.warn("⚠️ 服务器Pikafish计算失败: {}", e.getMessage());
+            return null;
+        } finally {
+            searchActive.set(false);
+            enginePool.release(pikafish);
+        }
+    }
+
+    private Move computeWithEnhancedAI(Board board, AIComputeScheduler.ComputeContext context) {
+        if (enhancedAI == null) {
+            enhancedAI = new EnhancedChessAI(color, difficulty);
+            enhancedAI.setMultiPv(1); // 服务器座位不提供走法提示，只需要最佳走法
+        }
+        enhancedAI.setTranspositionTableLimit(context.getTtBudgetEntries());
+        return enhancedAI.getBestMove(board, context.getToken());
+    }
+
+    private Move firstLegalMove(Board board) {
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 9; col++) {
+                Piece piece = board.getPiece(row, col);
+                if (piece == null || piece.getColor() != color) {
+                    continue;
+                }
+                Position start = new Position(row, col);
+                for (int toRow = 0; toRow < 10; toRow++) {
+                    for (int toCol = 0; toCol < 9; toCol++) {
+                        Position end = new Position(toRow, toCol);
+                        if (piece.isValidMove(board, start, end) && board.isMoveSafe(start, end, color)) {
+                            return new Move(start, end);
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public String getDisplayName() {
+        return "🤖 " + engine.getDisplayName();
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public PieceColor getColor() {
+        return color;
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.chinesechess.network;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 服务器运行指标
+ * <p>
+ * 连接、消息（按类型）、字节数用 {@link LongAdder} 分段计数，收发热路径上只做一次无竞争的自增；
+ * 解码耗时和走子转发耗时记入 {@link LatencyHistogram}。在线人数、各状态房间数在读取时从服务器取得。
+ * 通过 {@link MetricsEndpoint} 以JMX和本地HTTP文本两种方式暴露。
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    private static final NetworkMessage.MessageType[] TYPES = NetworkMessage.MessageType.values();
+
+    private final LongAdder connectionsAccepted = new LongAdder();
+    private final LongAdder[] messagesIn = newAdders();
+    private final LongAdder[] messagesOut = newAdders();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder malformedMessages = new LongAdder();
+    private final LongAdder heartbeatsReceived = new LongAdder();
+    private final LongAdder heartbeatMisses = new LongAdder();
+    private final LongAdder idleTimeouts = new LongAdder();
+    private final LongAdder sessionsResumed = new LongAdder();
+    private final LongAdder sessionsResyncedInFull = new LongAdder();
+    private final LongAdder sessionsExpired = new LongAdder();
+    private final LongAdder messagesReplayed = new LongAdder();
+    // 解码耗时以纳秒记录
+    private final LatencyHistogram decodeNanos = new LatencyHistogram();
+    private final LatencyHistogram forwardMoveMicros = new LatencyHistogram();
+
+    private final IntSupplier activeClients;
+    private final Supplier<Map<String, Integer>> roomsByState;
+    private final OutboundMetrics outbound;
+
+    public ServerMetrics(IntSupplier activeClients, Supplier<Map<String, Integer>> roomsByState, OutboundMetrics outbound) {
+        this.activeClients = activeClients;
+        this.roomsByState = roomsByState;
+        this.outbound = outbound;
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[TYPES.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // ==================== 记录 ====================
+
+    void recordConnectionAccepted() {
+        connectionsAccepted.increment();
+    }
+
+    void recordInbound(NetworkMessage.MessageType type, int bytes, long decodeTimeNanos) {
+        messagesIn[type.ordinal()].increment();
+        bytesIn.add(bytes);
+        decodeNanos.record(decodeTimeNanos);
+    }
+
+    void recordMalformed(int bytes) {
+        malformedMessages.increment();
+        bytesIn.add(bytes);
+    }
+
+    void recordOutbound(NetworkMessage.MessageType type, int bytes) {
+        messagesOut[type.ordinal()].increment();
+        bytesOut.add(bytes);
+    }
+
+    void recordForwardMove(long startNanos) {
+        forwardMoveMicros.recordSince(startNanos);
+    }
+
+    void recordHeartbeat(int missed) {
+        heartbeatsReceived.increment();
+        if (missed > 0) {
+            heartbeatMisses.add(missed);
+        }
+    }
+
+    void recordIdleTimeouts(int count) {
+        idleTimeouts.add(count);
+    }
+
+    /**
+     * @param replayed 补发的消息数，-1表示缓冲不足改为推送完整状态
+     */
+    void recordSessionResumed(long replayed) {
+        sessionsResumed.increment();
+        if (replayed >= 0) {
+            messagesReplayed.add(replayed);
+        } else {
+            sessionsResyncedInFull.increment();
+        }
+    }
+
+    void recordSessionExpired() {
+        sessionsExpired.increment();
+    }
+
+    // ==================== 读取 ====================
+
+    @Override
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.sum();
+    }
+
+    @Override
+    public int getActiveClients() {
+        return activeClients.getAsInt();
+    }
+
+    @Override
+    public Map<String, Integer> getRoomsByState() {
+        return roomsByState.get();
+    }
+
+    @Override
+    public Map<String, Long> getMessagesIn() {
+        return toMap(messagesIn);
+    }
+
+    @Override
+    public Map<String, Long> getMessagesOut() {
+        return toMap(messagesOut);
+    }
+
+    private static Map<String, Long> toMap(LongAdder[] adders) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (int i = 0; i < adders.length; i++) {
+            long count = adders[i].sum();
+            if (count > 0) {
+                counts.put(TYPES[i].name(), count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getMalformedMessages() {
+        return malformedMessages.sum();
+    }
+
+    @Override
+    public long getDecodeP99Nanos() {
+        return decodeNanos.getPercentile(99);
+    }
+
+    @Override
+    public long getForwardMoveP50Micros() {
+        return forwardMoveMicros.getPercentile(50);
+    }
+
+    @Override
+    public long getForwardMoveP99Micros() {
+        return forwardMoveMicros.getPercentile(99);
+    }
+
+    @Override
+    public long getForwardMoveP999Micros() {
+        return forwardMoveMicros.getPercentile(99.9);
+    }
+
+    @Override
+    public long getHeartbeatsReceived() {
+        return heartbeatsReceived.sum();
+    }
+
+    @Override
+    public long getHeartbeatMisses() {
+        return heartbeatMisses.sum();
+    }
+
+    @Override
+    public long getIdleTimeouts() {
+        return idleTimeouts.sum();
+    }
+
+    @Override
+    public long getSessionsResumed() {
+        return sessionsResumed.sum();
+    }
+
+    @Override
+    public long getSessionsResyncedInFull() {
+        return sessionsResyncedInFull.sum();
+    }
+
+    @Override
+    public long getSessionsExpired() {
+        return sessionsExpired.sum();
+    }
+
+    @Override
+    public long getMessagesReplayed() {
+        return messagesReplayed.sum();
+    }
+
+    @Override
+    public long getOutboundDropped() {
+        return outbound.getDropped();
+    }
+
+    @Override
+    public long getOutboundOverflowDisconnects() {
+        return outbound.getOverflowDisconnects();
+    }
+
+    @Override
+    public void resetHistograms() {
+        decodeNanos.reset();
+        forwardMoveMicros.reset();
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder("📈 服务器指标\n");
+        report.append("   连接: 累计接入 ").append(getConnectionsAccepted())
+                .append("，当前在线 ").append(getActiveClients()).append('\n');
+        report.append("   房间: ").append(getRoomsByState()).append('\n');
+        report.append("   收到消息: ").append(getMessagesIn()).append('\n');
+        report.append("   发出消息: ").append(getMessagesOut()).append('\n');
+        report.append("   字节: 收 ").append(getBytesIn()).append("，发 ").append(getBytesOut())
+                .append("，格式错误消息 ").append(getMalformedMessages()).append('\n');
+        report.append(String.format("   解码耗时: p50=%dns, p99=%dns, 最大=%dns%n",
+                decodeNanos.getPercentile(50), decodeNanos.getPercentile(99), decodeNanos.getMax()));
+        report.append("   走子转发: ").append(forwardMoveMicros.summary()).append('\n');
+        report.append("   心跳: 收到 ").append(getHeartbeatsReceived()).append("，缺失 ").append(getHeartbeatMisses())
+                .append("，空闲超时断开 ").append(getIdleTimeouts()).append('\n');
+        report.append("   会话恢复: ").append(getSessionsResumed()).append(" 次（补发 ").append(getMessagesReplayed())
+                .append(" 条，完整重推 ").append(getSessionsResyncedInFull()).append(" 次），宽限期过期 ")
+                .append(getSessionsExpired()).append('\n');
+        report.append("   ").append(outbound.getReport());
+        return report.toString();
+    }
+
+    /**
+     * Prometheus文本格式
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        counter(out, "chess_connections_accepted_total", "Accepted connections", getConnectionsAccepted());
+        gauge(out, "chess_active_clients", "Registered clients", getActiveClients());
+        out.append("# HELP chess_rooms Rooms by state\n# TYPE chess_rooms gauge\n");
+        getRoomsByState().forEach((state, count) ->
+                out.append("chess_rooms{state=\"").append(state).append("\"} ").append(count).append('\n'));
+        perType(out, "chess_messages_in_total", "Messages received by type", messagesIn);
+        perType(out, "chess_messages_out_total", "Messages sent by type", messagesOut);
+        counter(out, "chess_bytes_in_total", "Payload bytes received", getBytesIn());
+        counter(out, "chess_bytes_out_total", "Frame bytes sent", getBytesOut());
+        counter(out, "chess_malformed_messages_total", "Frames that failed to decode", getMalformedMessages());
+        summary(out, "chess_decode_seconds", "Message decode time", decodeNanos, 1e-9);
+        summary(out, "chess_forward_move_seconds", "forwardMove latency", forwardMoveMicros, 1e-6);
+        counter(out, "chess_heartbeats_total", "Heartbeats received", getHeartbeatsReceived());
+        counter(out, "chess_heartbeat_misses_total", "Heartbeats missed by connected clients", getHeartbeatMisses());
+        counter(out, "chess_idle_timeouts_total", "Connections closed by the idle detector", getIdleTimeouts());
+        counter(out, "chess_sessions_resumed_total", "Sessions resumed after a reconnect", getSessionsResumed());
+        counter(out, "chess_sessions_resynced_total", "Resumed sessions that needed a full state push", getSessionsResyncedInFull());
+        counter(out, "chess_sessions_expired_total", "Detached sessions that expired before a reconnect", getSessionsExpired());
+        counter(out, "chess_messages_replayed_total", "Messages replayed to resumed sessions", getMessagesReplayed());
+        counter(out, "chess_outbound_dropped_total", "Droppable messages discarded on full queues", getOutboundDropped());
+        counter(out, "chess_outbound_overflow_disconnects_total", "Clients disconnected on queue overflow",
+                getOutboundOverflowDisconnects());
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" gauge\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void perType(StringBuilder out, String name, String help, LongAdder[] adders) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n");
+        for (int i = 0; i < adders.length; i++) {
+            long count = adders[i].sum();
+            if (count > 0) {
+                out.append(name).append("{type=\"").append(TYPES[i].name()).append("\"} ").append(count).append('\n');
+            }
+        }
+    }
+
+    private static void summary(StringBuilder out, String name, String help, LatencyHistogram histogram, double scale) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : new double[]{0.5, 0.99, 0.999}) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getPercentile(quantile * 100) * scale).append('\n');
+        }
+        out.append(name).append("_sum ").append(histogram.getMean() * histogram.getCount() * scale).append('\n')
+                .append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+}
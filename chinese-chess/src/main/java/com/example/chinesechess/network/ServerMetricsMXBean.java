@@ -0,0 +1,62 @@
+package com.example.chinesechess.network;
+
+import java.util.Map;
+
+/**
+ * 服务器运行指标的JMX视图，对象名为 {@code com.example.chinesechess:type=ChessGameServer,port=<端口>}
+ */
+public interface ServerMetricsMXBean {
+
+    long getConnectionsAccepted();
+
+    int getActiveClients();
+
+    /** 各状态的房间数 */
+    Map<String, Integer> getRoomsByState();
+
+    /** 按消息类型统计的收到消息数 */
+    Map<String, Long> getMessagesIn();
+
+    /** 按消息类型统计的发出消息数 */
+    Map<String, Long> getMessagesOut();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    long getMalformedMessages();
+
+    long getDecodeP99Nanos();
+
+    long getForwardMoveP50Micros();
+
+    long getForwardMoveP99Micros();
+
+    long getForwardMoveP999Micros();
+
+    long getHeartbeatsReceived();
+
+    long getHeartbeatMisses();
+
+    /** 因空闲超时被服务器断开的连接数 */
+    long getIdleTimeouts();
+
+    long getSessionsResumed();
+
+    /** 恢复时补发缓冲不够、改为推送完整状态的次数 */
+    long getSessionsResyncedInFull();
+
+    long getSessionsExpired();
+
+    long getMessagesReplayed();
+
+    long getOutboundDropped();
+
+    long getOutboundOverflowDisconnects();
+
+    /** 文本报告 */
+    String getReport();
+
+    /** 清零延迟直方图，计数器保持累计 */
+    void resetHistograms();
+}
@@ -0,0 +1,264 @@
+package com.example.chinesechess.network;
+
+import com.example.common.config.ConfigurationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分片路由器
+ * <p>
+ * 多进程部署时，每台分片服务器（{@link ChessGameServer#setShardId}）负责一部分房间，
+ * 路由器是客户端首先连接的大厅服务器：
+ * <ul>
+ *   <li>以客户端身份连接每个分片并订阅其房间列表，合并到大厅自己的 {@link RoomDirectory}，
+ *       房间列表的查询、分页和订阅推送都沿用单机的实现</li>
+ *   <li>创建房间时分配房间ID，按一致性哈希选出分片，回复 {@link RedirectMessage}</li>
+ *   <li>加入房间时按房间列表中记录的归属重定向；刚创建、还没出现在列表里的房间按哈希环定位</li>
+ * </ul>
+ * 分片断开后从哈希环上摘除，它的房间从大厅列表中移除，恢复连接后重新加入。
+ */
+public class ShardRouter {
+
+    /**
+     * 分片地址：id@host:port，省略id时以host:port作为id
+     */
+    public static final class ShardAddress {
+        private final String id;
+        private final String host;
+        private final int port;
+
+        public ShardAddress(String id, String host, int port) {
+            this.id = id;
+            this.host = host;
+            this.port = port;
+        }
+
+        public static ShardAddress parse(String spec) {
+            String value = spec.trim();
+            int at = value.indexOf('@');
+            String address = at >= 0 ? value.substring(at + 1) : value;
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("分片地址格式应为 id@host:port: " + spec);
+            }
+            String host = address.substring(0, colon);
+            int port = Integer.parseInt(address.substring(colon + 1));
+            return new ShardAddress(at >= 0 ? value.substring(0, at) : address, host, port);
+        }
+
+        /**
+         * 解析逗号分隔的分片列表
+         */
+        public static List<ShardAddress> parseList(String specs) {
+            List<ShardAddress> shards = new ArrayList<>();
+            if (specs != null) {
+                for (String spec : specs.split(",")) {
+                    if (!spec.trim().isEmpty()) {
+                        shards.add(parse(spec));
+                    }
+                }
+            }
+            return shards;
+        }
+
+        public String getId() { return id; }
+        public String getHost() { return host; }
+        public int getPort() { return port; }
+
+        @Override
+        public String toString() {
+            return id + "@" + host + ":" + port;
+        }
+    }
+
+    private final ChessGameServer lobby;
+    private final List<ShardLink> links = new ArrayList<>();
+    private final ConsistentHashRing<ShardLink> ring;
+    // 房间ID -> 当前列出该房间的分片
+    private final Map<String, ShardLink> roomOwners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconnectTimer;
+    private final long reconnectMillis;
+    private final String roomIdPrefix;
+    private final AtomicLong roomCounter = new AtomicLong();
+    private volatile boolean running = true;
+
+    ShardRouter(ChessGameServer lobby, List<ShardAddress> shards) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        this.lobby = lobby;
+        this.ring = new ConsistentHashRing<>(config.getIntConfiguration("cluster.virtual_nodes", 160));
+        this.reconnectMillis = Math.max(100, config.getIntConfiguration("cluster.reconnect_ms", 2000));
+        // 路由器重启后分配的ID不与仍在运行的旧房间重复
+        this.roomIdPrefix = "room_" + Long.toString(System.currentTimeMillis(), 36) + "_";
+        this.reconnectTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Shard-Router");
+            t.setDaemon(true);
+            return t;
+        });
+        for (ShardAddress shard : shards) {
+            links.add(new ShardLink(shard));
+        }
+    }
+
+    void start() {
+        for (ShardLink link : links) {
+            link.connect();
+        }
+        System.out.println("🧭 分片路由器启动，分片: " + links.size());
+    }
+
+    void shutdown() {
+        running = false;
+        reconnectTimer.shutdownNow();
+        for (ShardLink link : links) {
+            link.client.shutdown();
+        }
+    }
+
+    /**
+     * 为新房间分配ID和分片
+     *
+     * @return 重定向消息，没有可用分片时返回null
+     */
+    RedirectMessage assignRoom() {
+        String roomId = roomIdPrefix + roomCounter.incrementAndGet();
+        ShardLink owner = ring.locate(roomId);
+        return owner != null ? owner.redirect(roomId) : null;
+    }
+
+    /**
+     * 加入房间时定位房间所在的分片
+     *
+     * @return 重定向消息，房间所在分片不可用时返回null
+     */
+    RedirectMessage routeJoin(String roomId) {
+        if (roomId == null) {
+            return null;
+        }
+        ShardLink owner = roomOwners.get(roomId);
+        if (owner == null) {
+            owner = ring.locate(roomId);
+        }
+        return owner != null && owner.available ? owner.redirect(roomId) : null;
+    }
+
+    /**
+     * 在线的分片数
+     */
+    public int getAvailableShardCount() {
+        int count = 0;
+        for (ShardLink link : links) {
+            if (link.available) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 与一个分片的连接：订阅其房间列表并同步到大厅
+     */
+    private final class ShardLink implements NetworkClient.ClientEventListener {
+        final ShardAddress address;
+        final NetworkClient client = new NetworkClient();
+        volatile boolean available;
+        private volatile boolean outageReported;
+        // 该分片当前列出的房间，由this锁保护
+        private final Map<String, RoomInfo> listedRooms = new HashMap<>();
+
+        ShardLink(ShardAddress address) {
+            this.address = address;
+            client.setEventListener(this);
+            client.setCallbackExecutor(Runnable::run);
+        }
+
+        void connect() {
+            if (running) {
+                client.connect(address.getHost(), address.getPort(), "router");
+            }
+        }
+
+        RedirectMessage redirect(String roomId) {
+            return new RedirectMessage("server", address.getId(), address.getHost(), address.getPort(), roomId);
+        }
+
+        @Override
+        public void onConnected() {
+            client.subscribeRoomList(null);
+            available = true;
+            ring.add(address.getId(), this);
+            outageReported = false;
+            System.out.println("🧭 分片已连接: " + address);
+        }
+
+        /**
+         * 每次收到的都是合并后的完整列表；未变化的房间仍是同一个对象，只把变化转发给大厅目录
+         */
+        @Override
+        public synchronized void onRoomListReceived(List<RoomInfo> rooms) {
+            RoomDirectory directory = lobby.getRoomDirectory();
+            Map<String, RoomInfo> current = new HashMap<>();
+            for (RoomInfo room : rooms) {
+                current.put(room.getRoomId(), room);
+                if (listedRooms.get(room.getRoomId()) != room) {
+                    roomOwners.put(room.getRoomId(), this);
+                    directory.upsert(room);
+                }
+            }
+            for (String roomId : listedRooms.keySet()) {
+                if (!current.containsKey(roomId) && roomOwners.remove(roomId, this)) {
+                    directory.remove(roomId);
+                }
+            }
+            listedRooms.clear();
+            listedRooms.putAll(current);
+        }
+
+        @Override
+        public void onDisconnected(String reason) {
+            lost("⚠️ 分片断开: " + address + " (" + reason + ")");
+        }
+
+        @Override
+        public void onConnectionError(String error) {
+            lost("⚠️ 无法连接分片: " + address + " (" + error + ")");
+        }
+
+        private synchronized void lost(String log) {
+            boolean wasAvailable = available;
+            available = false;
+            ring.remove(address.getId());
+            RoomDirectory directory = lobby.getRoomDirectory();
+            for (String roomId : listedRooms.keySet()) {
+                if (roomOwners.remove(roomId, this)) {
+                    directory.remove(roomId);
+                }
+            }
+            listedRooms.clear();
+            // 同一次中断只记录一次，之后的重连失败不再刷屏
+            if (running && (wasAvailable || !outageReported)) {
+                outageReported = true;
+                System.err.println(log);
+            }
+            if (running) {
+                reconnectTimer.schedule(this::connect, reconnectMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override public void onMessageReceived(NetworkMessage message) { }
+        @Override public void onRoomCreated(String roomId) { }
+        @Override public void onRoomJoined(String roomId, String opponentName) { }
+        @Override public void onGameStarted(String redPlayer, String blackPlayer, String yourColor) { }
+        @Override public void onMoveReceived(int fromRow, int fromCol, int toRow, int toCol) { }
+        @Override public void onGameEnded(String winner, String reason) { }
+        @Override public void onGameStateUpdate(String gameState, String currentPlayer, boolean isGameOver, String winner) { }
+        @Override public void onError(String error) { }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.chinesechess.network;
+
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 单个连接的线路编解码：分帧 + 消息体格式
+ * <p>
+ * 入站数据逐帧自描述：帧首字节区分换行/长度前缀分帧，消息体首字节区分JSON/二进制，
+ * 所以协商前后的消息、以及调试用的JSON消息都能正确解析。
+ * 出站格式在连接握手时协商，默认JSON，双方都支持时切换为二进制。
+ */
+public class WireCodec {
+
+    /**
+     * 线路格式
+     */
+    public enum WireFormat {
+        JSON("json"),
+        BINARY("binary");
+
+        private final String wireName;
+
+        WireFormat(String wireName) {
+            this.wireName = wireName;
+        }
+
+        /** 握手消息中使用的名称 */
+        public String getWireName() {
+            return wireName;
+        }
+
+        /**
+         * 解析握手消息或配置中的格式名称，无法识别时返回JSON
+         */
+        public static WireFormat parse(String name) {
+            return BINARY.wireName.equalsIgnoreCase(name == null ? null : name.trim()) ? BINARY : JSON;
+        }
+    }
+
+    private final FrameCodec frames;
+    private final BinaryMessageCodec inbound = new BinaryMessageCodec();
+    private final BinaryMessageCodec outbound = new BinaryMessageCodec();
+    private volatile WireFormat outboundFormat = WireFormat.JSON;
+    // 服务器端连接统计收发的消息、字节和解码耗时，客户端为null
+    private ServerMetrics metrics;
+
+    public WireCodec() {
+        this(FrameCodec.DEFAULT_MAX_FRAME_BYTES);
+    }
+
+    public WireCodec(int maxFrameBytes) {
+        this.frames = new FrameCodec(maxFrameBytes);
+    }
+
+    /**
+     * 从读缓冲区中解出所有完整的消息，缓冲区约定同 {@link FrameCodec#decodeFrames}
+     *
+     * @param onMessage 解析成功的消息
+     * @param onMalformed 无法解析的帧（原始内容的可读形式和异常），不影响后续帧
+     */
+    public void decode(ByteBuffer buffer, Consumer<NetworkMessage> onMessage,
+                       BiConsumer<String, RuntimeException> onMalformed) throws FrameCodec.FrameTooLargeException {
+        frames.decodeFrames(buffer, payload -> {
+            NetworkMessage message;
+            boolean binary = BinaryMessageCodec.isBinaryPayload(payload);
+            int bytes = payload.remaining();
+            long start = metrics != null ? System.nanoTime() : 0;
+            try {
+                message = binary ? inbound.decode(payload) : NetworkMessage.fromJson(FrameCodec.decodeUtf8(payload));
+            } catch (RuntimeException e) {
+                if (metrics != null) {
+                    metrics.recordMalformed(bytes);
+                }
+                onMalformed.accept(binary ? "<binary " + bytes + " bytes>" : FrameCodec.decodeUtf8(payload), e);
+                return;
+            }
+            if (metrics != null) {
+                metrics.recordInbound(message.getType(), bytes, System.nanoTime() - start);
+            }
+            onMessage.accept(message);
+        });
+    }
+
+    /**
+     * 按当前出站格式编码一条消息。
+     * 二进制格式的驻留表依赖写出顺序，调用方需要在同一把锁内完成编码和入队/写出。
+     */
+    public synchronized ByteBuffer encode(NetworkMessage message) {
+        ByteBuffer frame;
+        if (outboundFormat == WireFormat.BINARY) {
+            frame = outbound.encodeFrame(message);
+        } else {
+            // JSON沿用对方使用的分帧方式，对方还没发过数据时用换行分帧
+            FrameCodec.Framing framing = frames.getFraming() == FrameCodec.Framing.LENGTH_PREFIXED
+                    ? FrameCodec.Framing.LENGTH_PREFIXED : FrameCodec.Framing.NEWLINE;
+            frame = framing.encode(message.toJson());
+        }
+        if (metrics != null) {
+            metrics.recordOutbound(message.getType(), frame.remaining());
+        }
+        return frame;
+    }
+    
+    /**
+     * 服务器端连接设置指标统计
+     */
+    void setMetrics(ServerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 切换出站格式，之后编码的消息生效
+     */
+    public synchronized void setOutboundFormat(WireFormat format) {
+        this.outboundFormat = format;
+    }
+
+    public WireFormat getOutboundFormat() {
+        return outboundFormat;
+    }
+
+    /**
+     * 读缓冲区被半帧占满时扩容，返回写模式的缓冲区（上限由分帧校验）
+     */
+    public static ByteBuffer growIfFull(ByteBuffer buffer) {
+        if (buffer.hasRemaining()) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
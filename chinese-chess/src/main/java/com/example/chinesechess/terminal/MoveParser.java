@@ -58,6 +58,24 @@ public class MoveParser {
         this.board = board;
     }
     
+    /**
+     * 获取棋子别名表（标准名 -> 别名集合），供记谱翻译器构建查找表
+     */
+    public static Map<String, Set<String>> getPieceAliases() {
+        Map<String, Set<String>> copy = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : PIECE_ALIASES.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+    
+    /**
+     * 获取动作词别名表（别名 -> 标准动作）
+     */
+    public static Map<String, String> getActionAliases() {
+        return Collections.unmodifiableMap(ACTION_MAP);
+    }
+    
     /**
      * 解析走法字符串
      */
@@ -1,27 +1,56 @@
 package com.example.chinesechess.ui;
 
+import com.example.common.ui.anim.AnimationClock;
 import com.example.common.utils.ExceptionHandler;
+import com.example.common.utils.LogRingBuffer;
 import com.example.chinesechess.config.ChineseChessConfig;
 
 import javax.swing.*;
 import javax.swing.text.*;
 import java.awt.*;
-import java.time.LocalTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * AI决策日志面板
  * 用于显示AI的思考过程和决策日志
+ * <p>
+ * 引擎每个深度、每条info都会产生日志。消息先写入无锁环形缓冲区，
+ * 再以固定频率在EDT上批量插入文档，日志量大小不再影响棋盘帧率。
  */
 public class AILogPanel extends JPanel {
     
     private JTextPane logArea;
-    private StyledDocument document;
-    private boolean enabled = false;
+    private BatchDocument document;
+    private volatile boolean enabled = false;
     private final AtomicInteger logCount = new AtomicInteger(0);
     private static final int MAX_LOG_ENTRIES = 1000; // 最大日志条目数
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final int RETAINED_LOG_ENTRIES = 500; // 超出上限后保留的条目数
+    private static final int FLUSH_INTERVAL_MS = 100; // 批量刷新间隔
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final Color THINKING_COLOR = new Color(0, 102, 204);
+    private static final Color DECISION_COLOR = new Color(0, 153, 0);
+    private static final Color ERROR_COLOR = new Color(204, 0, 0);
+    private static final Color SYSTEM_COLOR = new Color(102, 102, 102);
+
+    // 待刷新的日志，任意线程写入，EDT消费
+    private final LogRingBuffer<LogEntry> pendingLogs = new LogRingBuffer<>(2048);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    // 以下状态只在EDT上访问
+    private final ArrayDeque<Integer> entryLengths = new ArrayDeque<>(); // 每条日志在文档中占用的字符数
+    private final Map<Color, AttributeSet[]> styleCache = new HashMap<>();
+    private long cachedSecond = -1;
+    private String cachedTimestamp = "";
     
     public AILogPanel() {
         initializeUI();
@@ -33,12 +62,17 @@ public class AILogPanel extends JPanel {
         setPreferredSize(ChineseChessConfig.CONTROL_PANEL_SIZE);
         
         // 创建日志显示区域
-        logArea = new JTextPane();
+        document = new BatchDocument();
+        logArea = new JTextPane(document);
         logArea.setEditable(false);
+        // 插入时不移动光标，每批刷新后统一滚动到底部
+        ((DefaultCaret) logArea.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
         logArea.setFont(ChineseChessConfig.DEFAULT_FONT);
         logArea.setBackground(ChineseChessConfig.CHAT_BACKGROUND_COLOR);
         
-        document = logArea.getStyledDocument();
+        for (Color color : new Color[]{Color.GRAY, Color.RED, Color.BLACK, THINKING_COLOR, DECISION_COLOR, ERROR_COLOR, SYSTEM_COLOR}) {
+            stylesFor(color);
+        }
         
         // 添加滚动面板
         JScrollPane scrollPane = new JScrollPane(logArea);
@@ -71,52 +105,97 @@ public class AILogPanel extends JPanel {
     }
     
     /**
-     * 添加日志消息
+     * 添加日志消息，可在任意线程调用；消息会在下一次批量刷新时显示
      */
     public void addLogMessage(String title, String message, Color color) {
         if (!enabled && !title.equals("AI决策日志")) {
             return; // 如果未启用且不是初始消息，则不显示
         }
         
-        SwingUtilities.invokeLater(() -> {
-            try {
-                // 检查日志条目数量，防止内存溢出
-                if (logCount.get() >= MAX_LOG_ENTRIES) {
-                    clearOldLogs();
-                }
-                
-                // 创建样式
-                SimpleAttributeSet titleStyle = new SimpleAttributeSet();
-                StyleConstants.setForeground(titleStyle, color);
-                StyleConstants.setBold(titleStyle, true);
-                
-                SimpleAttributeSet messageStyle = new SimpleAttributeSet();
-                StyleConstants.setForeground(messageStyle, color);
-                
-                // 添加时间戳
-                String timestamp = LocalTime.now().format(TIME_FORMATTER);
-                
-                // 插入日志内容
-                if (document.getLength() > 0) {
-                    document.insertString(document.getLength(), "\n", messageStyle);
+        pendingLogs.offer(new LogEntry(System.currentTimeMillis(), title, message, color));
+        if (flushScheduled.compareAndSet(false, true)) {
+            AnimationClock.getInstance().schedule(FLUSH_INTERVAL_MS, this::flushPendingLogs);
+        }
+    }
+    
+    /**
+     * 将缓冲区中的日志一次性插入文档（EDT）
+     */
+    private void flushPendingLogs() {
+        // 先复位标记，刷新期间到达的新消息会安排下一次刷新
+        flushScheduled.set(false);
+        
+        List<LogEntry> batch = new ArrayList<>();
+        pendingLogs.drainTo(batch::add, Integer.MAX_VALUE);
+        if (batch.isEmpty()) {
+            return;
+        }
+        // 单批超过上限时，前面的条目插入后也会立刻被裁掉，直接跳过
+        if (batch.size() > MAX_LOG_ENTRIES) {
+            batch = batch.subList(batch.size() - RETAINED_LOG_ENTRIES, batch.size());
+        }
+        
+        try {
+            boolean first = document.getLength() == 0;
+            for (LogEntry entry : batch) {
+                AttributeSet[] styles = stylesFor(entry.color);
+                int length = 0;
+                if (!first) {
+                    length += document.appendLineFeed(styles[1]);
                 }
-                
-                document.insertString(document.getLength(), 
-                    "[" + timestamp + "] " + title + ": ", titleStyle);
-                document.insertString(document.getLength(), message, messageStyle);
-                
-                // 增加日志计数
-                logCount.incrementAndGet();
-                
-                // 自动滚动到底部
-                logArea.setCaretPosition(document.getLength());
-                
-            } catch (BadLocationException e) {
-                ExceptionHandler.handleException(e, "添加日志消息", false);
+                first = false;
+                length += document.appendText("[" + formatTimestamp(entry.timeMillis) + "] " + entry.title + ": ", styles[0]);
+                length += document.appendText(entry.message, styles[1]);
+                entryLengths.addLast(length);
+            }
+            document.flushBatch();
+            
+            // 检查日志条目数量，防止内存溢出
+            if (entryLengths.size() >= MAX_LOG_ENTRIES) {
+                clearOldLogs();
             }
+            logCount.set(entryLengths.size());
+            
+            // 自动滚动到底部
+            logArea.setCaretPosition(document.getLength());
+            
+        } catch (BadLocationException e) {
+            document.discardBatch();
+            ExceptionHandler.handleException(e, "添加日志消息", false);
+        }
+        
+        if (!pendingLogs.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            AnimationClock.getInstance().schedule(FLUSH_INTERVAL_MS, this::flushPendingLogs);
+        }
+    }
+    
+    /**
+     * 获取颜色对应的标题/正文样式，首次使用后缓存
+     */
+    private AttributeSet[] stylesFor(Color color) {
+        return styleCache.computeIfAbsent(color, c -> {
+            SimpleAttributeSet titleStyle = new SimpleAttributeSet();
+            StyleConstants.setForeground(titleStyle, c);
+            StyleConstants.setBold(titleStyle, true);
+            
+            SimpleAttributeSet messageStyle = new SimpleAttributeSet();
+            StyleConstants.setForeground(messageStyle, c);
+            return new AttributeSet[]{titleStyle.copyAttributes(), messageStyle.copyAttributes()};
         });
     }
     
+    /**
+     * 格式化时间戳，同一秒内复用结果
+     */
+    private String formatTimestamp(long timeMillis) {
+        long second = timeMillis / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = TIME_FORMATTER.format(Instant.ofEpochMilli(timeMillis));
+        }
+        return cachedTimestamp;
+    }
+    
     /**
      * 智能添加AI决策日志（自动识别红方/黑方并使用对应颜色）
      */
@@ -137,7 +216,7 @@ public class AILogPanel extends JPanel {
             textColor = Color.BLACK; // 黑方用黑色
         } else {
             title = "AI决策";
-            textColor = new Color(0, 153, 0); // 其他信息用绿色
+            textColor = DECISION_COLOR; // 其他信息用绿色
         }
         
         addLogMessage(title, message, textColor);
@@ -161,35 +240,27 @@ public class AILogPanel extends JPanel {
      * 添加一般信息（绿色）
      */
     public void addGeneralInfo(String message) {
-        addLogMessage("系统信息", message, new Color(0, 153, 0));
+        addLogMessage("系统信息", message, DECISION_COLOR);
     }
     
     /**
-     * 清理旧日志条目
+     * 清理旧日志条目：一次性删除最旧的一段，保留最新500条及其样式
      */
-    private void clearOldLogs() {
-        try {
-            // 保留最后500条日志
-            String text = document.getText(0, document.getLength());
-            String[] lines = text.split("\n");
-            
-            if (lines.length > 500) {
-                document.remove(0, document.getLength());
-                
-                // 重新插入最后500条日志
-                for (int i = lines.length - 500; i < lines.length; i++) {
-                    if (i > lines.length - 500) {
-                        document.insertString(document.getLength(), "\n", null);
-                    }
-                    document.insertString(document.getLength(), lines[i], null);
-                }
-                
-                logCount.set(500);
-                ExceptionHandler.logInfo("清理了旧日志条目，保留最新500条", "日志面板");
-            }
-        } catch (BadLocationException e) {
-            ExceptionHandler.handleException(e, "清理旧日志", false);
+    private void clearOldLogs() throws BadLocationException {
+        int removeCount = entryLengths.size() - RETAINED_LOG_ENTRIES;
+        if (removeCount <= 0) {
+            return;
         }
+        int removeLength = 0;
+        for (int i = 0; i < removeCount; i++) {
+            removeLength += entryLengths.pollFirst();
+        }
+        // 连同新首条日志前面的换行一起删除
+        int firstLength = entryLengths.pollFirst();
+        entryLengths.addFirst(firstLength - 1);
+        document.remove(0, removeLength + 1);
+        
+        ExceptionHandler.logInfo("清理了旧日志条目，保留最新" + RETAINED_LOG_ENTRIES + "条", "日志面板");
     }
     
     /**
@@ -221,28 +292,28 @@ public class AILogPanel extends JPanel {
      * 添加AI思考日志
      */
     public void addAIThinking(String thinking) {
-        addLogMessage("AI思考", thinking, new Color(0, 102, 204));
+        addLogMessage("AI思考", thinking, THINKING_COLOR);
     }
     
     /**
      * 添加AI决策日志
      */
     public void addAIDecision(String decision) {
-        addLogMessage("AI决策", decision, new Color(0, 153, 0));
+        addLogMessage("AI决策", decision, DECISION_COLOR);
     }
     
     /**
      * 添加错误日志
      */
     public void addError(String error) {
-        addLogMessage("错误", error, new Color(204, 0, 0));
+        addLogMessage("错误", error, ERROR_COLOR);
     }
     
     /**
      * 添加系统日志
      */
     public void addSystemLog(String log) {
-        addLogMessage("系统", log, new Color(102, 102, 102));
+        addLogMessage("系统", log, SYSTEM_COLOR);
     }
     
     /**
@@ -251,7 +322,10 @@ public class AILogPanel extends JPanel {
     public void clearLog() {
         SwingUtilities.invokeLater(() -> {
             try {
+                // 清空前尚未刷新的日志一并丢弃
+                pendingLogs.clear();
                 document.remove(0, document.getLength());
+                entryLengths.clear();
                 logCount.set(0);
                 if (enabled) {
                     addLogMessage("系统", "日志已清空", Color.GRAY);
@@ -309,4 +383,72 @@ public class AILogPanel extends JPanel {
     public boolean isLogEnabled() {
         return enabled;
     }
-}
\ No newline at end of file
+
+    /**
+     * 待显示的日志条目
+     */
+    private static class LogEntry {
+        final long timeMillis;
+        final String title;
+        final String message;
+        final Color color;
+        
+        LogEntry(long timeMillis, String title, String message, Color color) {
+            this.timeMillis = timeMillis;
+            this.title = title;
+            this.message = message != null ? message : "";
+            this.color = color != null ? color : Color.BLACK;
+        }
+    }
+    
+    /**
+     * 支持批量追加的文档：一批日志只获取一次写锁、只触发一次文档事件
+     */
+    private static class BatchDocument extends DefaultStyledDocument {
+        private static final char[] LINE_FEED = {'\n'};
+        private final List<ElementSpec> batch = new ArrayList<>();
+        
+        /** 追加文本，文本中的换行会拆成段落，返回追加的字符数 */
+        int appendText(String text, AttributeSet style) {
+            int start = 0;
+            int newline;
+            while ((newline = text.indexOf('\n', start)) >= 0) {
+                appendContent(text, start, newline, style);
+                appendLineFeed(style);
+                start = newline + 1;
+            }
+            appendContent(text, start, text.length(), style);
+            return text.length();
+        }
+        
+        /** 追加换行并开启新段落，返回追加的字符数 */
+        int appendLineFeed(AttributeSet style) {
+            batch.add(new ElementSpec(style, ElementSpec.ContentType, LINE_FEED, 0, 1));
+            AttributeSet paragraphStyle = getParagraphElement(0).getAttributes();
+            batch.add(new ElementSpec(null, ElementSpec.EndTagType));
+            batch.add(new ElementSpec(paragraphStyle, ElementSpec.StartTagType));
+            return 1;
+        }
+        
+        private void appendContent(String text, int from, int to, AttributeSet style) {
+            if (to > from) {
+                char[] chars = text.substring(from, to).toCharArray();
+                batch.add(new ElementSpec(style, ElementSpec.ContentType, chars, 0, chars.length));
+            }
+        }
+        
+        /** 将累积的内容一次性插入文档末尾 */
+        void flushBatch() throws BadLocationException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            ElementSpec[] specs = batch.toArray(new ElementSpec[0]);
+            batch.clear();
+            insert(getLength(), specs);
+        }
+        
+        void discardBatch() {
+            batch.clear();
+        }
+    }
+}
@@ -11,10 +11,13 @@ import com.example.chinesechess.ai.EnhancedChessAI;
 import com.example.chinesechess.ai.DeepSeekPikafishAI;
 import com.example.chinesechess.ai.FairyStockfishAI;
 import com.example.chinesechess.ai.PikafishAI;
+import com.example.chinesechess.ai.ChineseNotationTranslator;
+import com.example.chinesechess.ai.FenConverter;
 import com.example.chinesechess.core.Move;
 import com.example.common.utils.ExceptionHandler;
 import com.example.common.utils.PerformanceMonitor;
 import com.example.common.utils.ResourceManager;
+import com.example.common.utils.StartupOrchestrator;
 import com.example.common.config.GameConfig;
 import com.example.chinesechess.config.ChineseChessConfig;
 import com.example.chinesechess.ui.render.PieceRenderer;
@@ -36,8 +39,9 @@ import java.util.List;
 import java.util.function.Consumer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import javax.swing.Timer;
 import audio.SoundManager;
 import static audio.SoundManager.Event.*;
 import static audio.SoundManager.SoundProfile.*;
@@ -45,6 +49,8 @@ import com.example.chinesechess.network.NetworkClient;
 import com.example.chinesechess.network.*;
 import com.example.chinesechess.network.NetworkMessage.MessageType;
 import com.example.chinesechess.network.GameStateSyncRequestMessage;
+import com.example.common.ui.anim.AnimationClock;
+import com.example.common.ui.anim.Easing;
 import com.example.common.ui.overlay.OverlayLayer;
 
 public class BoardPanel extends JPanel {
@@ -57,6 +63,15 @@ public class BoardPanel extends JPanel {
     private double viewOffsetY = 0.0;
     private AffineTransform viewTx = new AffineTransform();
     
+    // 静态棋盘背景图层：按设备像素尺寸渲染一次，尺寸或缩放变化时重建
+    private BufferedImage backgroundLayer;
+    private String backgroundLayerKey;
+    private float lastPieceScale;
+    // 本次绘制的脏区域（逻辑坐标），用于跳过区域外的棋子和标记
+    private Rectangle paintClip;
+    // 格子重绘余量：覆盖选中光晕（1.2格的脉动圆）和棋子阴影
+    private static final int CELL_REPAINT_HALF = CELL_SIZE * 4 / 5;
+    
     // 游戏状态
     private Piece selectedPiece = null;
     private int selectedRow = -1;
@@ -84,6 +99,14 @@ public class BoardPanel extends JPanel {
     private ChessAI ai;
     private LLMChessAI llmChessAI;
     private EnhancedChessAI enhancedAI;
+    private EnhancedChessAI localHintAI; // 未启用内置AI对弈时用于走法提示
+    // 内置引擎提示在同一个后台线程上排队计算，避免连续点击时创建大量线程
+    private static final int LOCAL_HINT_COUNT = 3;
+    private static final ExecutorService LOCAL_HINT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "LocalHint");
+        t.setDaemon(true);
+        return t;
+    });
     private HybridChessAI hybridAI;
     private DeepSeekPikafishAI deepSeekPikafishAI;
     private FairyStockfishAI fairyStockfishAI;
@@ -109,6 +132,7 @@ public class BoardPanel extends JPanel {
     
     // 棋盘翻转状态
     private boolean isBoardFlipped = false;
+    private boolean firstFrameReported = false; // 首帧是否已上报给启动时间线
     
     // 移动轨迹标记
     private Position lastMoveStart = null;
@@ -118,7 +142,7 @@ public class BoardPanel extends JPanel {
     private Position aiSuggestionStart = null; // AI建议的起始位置
     private Position aiSuggestionEnd = null;   // AI建议的目标位置
     private boolean showAISuggestion = false;  // 是否显示AI建议
-    private Timer aiSuggestionTimer = null;    // AI建议标记自动清除定时器
+    private AnimationClock.Handle aiSuggestionTimer = null;    // AI建议标记自动清除定时器
     
     // 残局功能相关
     private boolean isEndgameMode = false;
@@ -142,7 +166,7 @@ public class BoardPanel extends JPanel {
     private JPanel errorInfoPanel;
     private JTextArea errorTextArea;
     private JScrollPane errorScrollPane;
-    private Timer errorClearTimer;
+    private AnimationClock.Handle errorClearTimer;
 
     // AI Move Analysis Panel
     private JTextArea moveAnalysisTextArea;
@@ -162,7 +186,7 @@ public class BoardPanel extends JPanel {
     private NetworkClient.ClientEventListener networkEventListener;
     
     // GameStart消息检测和恢复相关字段
-    private Timer gameStartDetectionTimer;
+    private AnimationClock.Handle gameStartDetectionTimer;
     private boolean gameStartReceived = false;
     private long roomJoinTimestamp = 0;
     private static final int GAMESTART_DETECTION_DELAY_MS = 5000; // 5秒后检测
@@ -265,6 +289,7 @@ public class BoardPanel extends JPanel {
 
         PieceColor aiColor = (humanColor == PieceColor.RED) ? PieceColor.BLACK : PieceColor.RED;
         this.enhancedAI = new EnhancedChessAI(aiColor, difficulty);
+        this.enhancedAI.setPrefetchReplyHints(true); // 玩家请求提示时直接使用AI走棋后的预分析
         this.isAIEnabled = true;
 
         // 如果当前轮到AI，立即开始AI回合
@@ -547,6 +572,11 @@ public class BoardPanel extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        if (!firstFrameReported) {
+            // 首帧绘制完成、EDT空出来之后棋盘即可交互
+            firstFrameReported = true;
+            SwingUtilities.invokeLater(StartupOrchestrator.getInstance()::onFirstInteractiveFrame);
+        }
         Graphics2D g2d = (Graphics2D) g;
         AffineTransform old = g2d.getTransform();
 
@@ -565,9 +595,11 @@ public class BoardPanel extends JPanel {
         viewTx.translate(viewOffsetX, viewOffsetY);
         viewTx.scale(viewScale, viewScale);
         overlayLayer.setViewTransform(viewTx);
+        drawBackgroundLayer(g2d);
+        prewarmPieceSprites((float) (viewScale * old.getScaleX()));
         g2d.transform(viewTx);
+        paintClip = g2d.getClipBounds();
 
-        drawBoard(g2d);
         drawValidMoves(g2d);
         drawPieces(g2d);
         drawCurrentAnimation(g2d);
@@ -579,6 +611,99 @@ public class BoardPanel extends JPanel {
     
 
     
+    /**
+     * 绘制缓存的棋盘背景图层
+     * 背景（木纹、棋盘线、九宫、楚河汉界、坐标）与对局状态无关，按设备像素渲染到兼容图像后
+     * 每帧只做一次无缩放的贴图；面板尺寸、视图缩放或屏幕DPI变化时重建
+     */
+    private void drawBackgroundLayer(Graphics2D g2d) {
+        AffineTransform deviceTx = g2d.getTransform();
+        double deviceScaleX = deviceTx.getScaleX();
+        double deviceScaleY = deviceTx.getScaleY();
+        int width = (int) Math.ceil(getWidth() * deviceScaleX);
+        int height = (int) Math.ceil(getHeight() * deviceScaleY);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        
+        String key = getWidth() + "x" + getHeight() + "@" + viewScale + "/" + deviceScaleX + "," + deviceScaleY;
+        BufferedImage layer = backgroundLayer;
+        if (layer == null || !key.equals(backgroundLayerKey)) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            layer = gc != null
+                    ? gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D layerGraphics = layer.createGraphics();
+            layerGraphics.scale(deviceScaleX, deviceScaleY);
+            layerGraphics.transform(viewTx);
+            drawBoard(layerGraphics);
+            layerGraphics.dispose();
+            backgroundLayer = layer;
+            backgroundLayerKey = key;
+        }
+        
+        // 以设备像素对齐的平移贴图，避免插值
+        g2d.setTransform(AffineTransform.getTranslateInstance(
+                Math.round(deviceTx.getTranslateX()), Math.round(deviceTx.getTranslateY())));
+        g2d.drawImage(layer, 0, 0, null);
+        g2d.setTransform(deviceTx);
+    }
+    
+    /**
+     * 棋盘缩放或屏幕DPI变化时，在后台预渲染新尺寸的整套棋子，完成后整体重绘
+     */
+    private void prewarmPieceSprites(float pieceScale) {
+        if (pieceScale == lastPieceScale) {
+            return;
+        }
+        lastPieceScale = pieceScale;
+        PieceRenderer.prewarm((int) (CELL_SIZE * 0.9), pieceScale, this::repaint);
+    }
+    
+    /**
+     * 格子（显示坐标中心点）是否与本次重绘区域相交
+     */
+    private boolean isCellInPaintClip(int centerX, int centerY) {
+        return paintClip == null || paintClip.intersects(
+                centerX - CELL_REPAINT_HALF, centerY - CELL_REPAINT_HALF,
+                CELL_REPAINT_HALF * 2, CELL_REPAINT_HALF * 2);
+    }
+    
+    /**
+     * 只重绘指定棋盘格（逻辑行列）周围的区域
+     */
+    private void repaintCell(int row, int col) {
+        if (row < 0 || col < 0) {
+            return;
+        }
+        int centerX = MARGIN + getDisplayCol(col) * CELL_SIZE;
+        int centerY = MARGIN + getDisplayRow(row) * CELL_SIZE;
+        repaintScaled(centerX - CELL_REPAINT_HALF, centerY - CELL_REPAINT_HALF,
+                CELL_REPAINT_HALF * 2, CELL_REPAINT_HALF * 2);
+    }
+    
+    /**
+     * 重绘当前选中棋子和合法走位提示所在的格子
+     */
+    private void repaintSelectionArea() {
+        repaintCell(selectedRow, selectedCol);
+        for (Position pos : validMoves) {
+            repaintCell(pos.getX(), pos.getY());
+        }
+    }
+    
+    /**
+     * 选中棋子：只重绘旧选择和新选择涉及的格子
+     */
+    private void selectPiece(Piece piece, int row, int col) {
+        repaintSelectionArea();
+        selectedPiece = piece;
+        selectedRow = row;
+        selectedCol = col;
+        calculateValidMoves();
+        repaintSelectionArea();
+    }
+    
     private void handleMouseClick(int mouseX, int mouseY) {
         // 添加详细的点击调试信息
         
@@ -641,11 +766,7 @@ public class BoardPanel extends JPanel {
         if (selectedPiece == null) {
             // 没有选中棋子，尝试选择棋子
             if (clickedPiece != null && clickedPiece.getColor() == currentPlayer) {
-                selectedPiece = clickedPiece;
-                selectedRow = row;
-                selectedCol = col;
-                calculateValidMoves();
-                repaint();
+                selectPiece(clickedPiece, row, col);
             } else {
                 if (clickedPiece == null) {
                 } else {
@@ -658,11 +779,7 @@ public class BoardPanel extends JPanel {
                 clearSelection();
             } else if (clickedPiece != null && clickedPiece.getColor() == currentPlayer) {
                 // 点击同色棋子，重新选择
-                selectedPiece = clickedPiece;
-                selectedRow = row;
-                selectedCol = col;
-                calculateValidMoves();
-                repaint();
+                selectPiece(clickedPiece, row, col);
             } else {
                  // 尝试移动棋子
                  Position start = new Position(selectedRow, selectedCol);
@@ -778,9 +895,7 @@ public class BoardPanel extends JPanel {
                                  if (isAIvsAIMode) {
                                      // AI vs AI模式下，延迟执行下一步AI移动
                                      SwingUtilities.invokeLater(() -> {
-                                         Timer timer = new Timer(1000, e -> performAIvsAIMove());
-                                         timer.setRepeats(false);
-                                         timer.start();
+                                         AnimationClock.getInstance().schedule(1000, this::performAIvsAIMove);
                                      });
                                  } else if (isAITurn()) {
                                      SwingUtilities.invokeLater(this::performAIMove);
@@ -798,11 +913,11 @@ public class BoardPanel extends JPanel {
     }
     
     private void clearSelection() {
+        repaintSelectionArea();
         selectedPiece = null;
         selectedRow = -1;
         selectedCol = -1;
         validMoves.clear();
-        repaint();
     }
     
     private boolean checkMoveSafety(Position start, Position end, PieceColor color) {
@@ -846,6 +961,9 @@ public class BoardPanel extends JPanel {
             
             int centerX = MARGIN + displayCol * CELL_SIZE;
             int centerY = MARGIN + displayRow * CELL_SIZE;
+            if (!isCellInPaintClip(centerX, centerY)) {
+                continue;
+            }
             
             // 绘制3D合法移动提示
             draw3DValidMoveIndicator(g2d, centerX, centerY);
@@ -1542,9 +1660,12 @@ public class BoardPanel extends JPanel {
                         // 该棋子由动画绘制，跳过
                         continue;
                     }
-                    // 使用显示坐标绘制棋子
+                    // 使用显示坐标绘制棋子，跳过脏区域外的格子
                     int displayRow = getDisplayRow(i);
                     int displayCol = getDisplayCol(j);
+                    if (!isCellInPaintClip(MARGIN + displayCol * CELL_SIZE, MARGIN + displayRow * CELL_SIZE)) {
+                        continue;
+                    }
                     drawPiece(g, piece, displayRow, displayCol, i, j);
                     
                     piecesDrawn++;
@@ -1785,24 +1906,23 @@ public class BoardPanel extends JPanel {
      * @param autoHideDelayMs 自动隐藏延迟时间（毫秒），0表示不自动隐藏
      */
     public void setAISuggestion(Position startPos, Position endPos, int autoHideDelayMs) {
+        repaintAISuggestionArea();
         this.aiSuggestionStart = startPos;
         this.aiSuggestionEnd = endPos;
         this.showAISuggestion = true;
         
         // 停止之前的定时器
-        if (aiSuggestionTimer != null && aiSuggestionTimer.isRunning()) {
-            aiSuggestionTimer.stop();
+        if (aiSuggestionTimer != null) {
+            aiSuggestionTimer.cancel();
         }
         
         // 如果设置了自动隐藏延迟，启动定时器
         if (autoHideDelayMs > 0) {
-            aiSuggestionTimer = new Timer(autoHideDelayMs, e -> clearAISuggestion());
-            aiSuggestionTimer.setRepeats(false);
-            aiSuggestionTimer.start();
+            aiSuggestionTimer = AnimationClock.getInstance().schedule(autoHideDelayMs, this::clearAISuggestion);
         }
         
-        // 立即重绘棋盘以显示标记
-        repaint();
+        // 只重绘标记和箭头覆盖的区域
+        repaintAISuggestionArea();
         
         // 添加日志
         String startNotation = convertPositionToNotation(startPos);
@@ -1824,22 +1944,39 @@ public class BoardPanel extends JPanel {
      */
     public void clearAISuggestion() {
         // 停止自动隐藏定时器
-        if (aiSuggestionTimer != null && aiSuggestionTimer.isRunning()) {
-            aiSuggestionTimer.stop();
+        if (aiSuggestionTimer != null) {
+            aiSuggestionTimer.cancel();
         }
         
         boolean wasShowing = showAISuggestion;
+        if (wasShowing) {
+            repaintAISuggestionArea();
+        }
         this.aiSuggestionStart = null;
         this.aiSuggestionEnd = null;
         this.showAISuggestion = false;
         
-        // 如果之前在显示建议，则重绘棋盘
+        // 如果之前在显示建议，则记录日志
         if (wasShowing) {
-            repaint();
             addAILog("suggestion", "清除AI推荐走法标记");
         }
     }
     
+    /**
+     * 重绘AI建议起点、终点及连接箭头所在的矩形区域
+     */
+    private void repaintAISuggestionArea() {
+        if (aiSuggestionStart == null || aiSuggestionEnd == null) {
+            return;
+        }
+        int x1 = MARGIN + getDisplayCol(aiSuggestionStart.getY()) * CELL_SIZE;
+        int y1 = MARGIN + getDisplayRow(aiSuggestionStart.getX()) * CELL_SIZE;
+        int x2 = MARGIN + getDisplayCol(aiSuggestionEnd.getY()) * CELL_SIZE;
+        int y2 = MARGIN + getDisplayRow(aiSuggestionEnd.getX()) * CELL_SIZE;
+        repaintScaled(Math.min(x1, x2) - CELL_REPAINT_HALF, Math.min(y1, y2) - CELL_REPAINT_HALF,
+                Math.abs(x1 - x2) + CELL_REPAINT_HALF * 2, Math.abs(y1 - y2) + CELL_REPAINT_HALF * 2);
+    }
+    
     /**
      * 检查当前是否在显示AI建议
      */
@@ -1847,6 +1984,74 @@ public class BoardPanel extends JPanel {
         return showAISuggestion;
     }
     
+    /**
+     * 使用内置引擎获取当前走棋方的前K个候选走法（Pikafish不可用时的提示来源）
+     * 内置AI刚搜索过当前局面时直接复用其结果，否则浅层搜索并复用置换表
+     * 需在事件分发线程上调用，搜索作用于当前局面的副本
+     * 
+     * @param count 候选走法数量
+     * @return 候选走法结果，无合法走法时返回null
+     */
+    public EnhancedChessAI.MultiPVResult getLocalHints(int count) {
+        return computeLocalHints(board.clone(), currentPlayer, count);
+    }
+    
+    private EnhancedChessAI.MultiPVResult computeLocalHints(Board snapshot, PieceColor side, int count) {
+        EnhancedChessAI engine = enhancedAI;
+        if (engine == null) {
+            synchronized (this) {
+                if (localHintAI == null) {
+                    localHintAI = new EnhancedChessAI(PieceColor.RED, 2);
+                }
+                engine = localHintAI;
+            }
+        }
+        return engine.getHints(snapshot, side, count);
+    }
+    
+    /**
+     * 在后台计算内置引擎提示，标记最佳走法并在AI日志中列出候选走法和主要变例
+     */
+    public void showLocalHints(int count) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> showLocalHints(count));
+            return;
+        }
+        // 在事件分发线程上取局面快照，后台线程只读快照
+        PieceColor side = currentPlayer;
+        Board snapshot = board.clone();
+        String fen = FenConverter.boardToFen(snapshot, side);
+        LOCAL_HINT_EXECUTOR.execute(() -> {
+            EnhancedChessAI.MultiPVResult result = computeLocalHints(snapshot, side, count);
+            SwingUtilities.invokeLater(() -> {
+                if (side != currentPlayer || !fen.equals(FenConverter.boardToFen(board, currentPlayer))) {
+                    return; // 计算期间局面已变化
+                }
+                if (result == null || result.getBestMove() == null) {
+                    addAILog("suggestion", "内置引擎：当前局面没有可行走法");
+                    return;
+                }
+                Move best = result.getBestMove();
+                setAISuggestion(best.getStart(), best.getEnd());
+                
+                List<EnhancedChessAI.CandidateMove> candidates = result.getCandidates();
+                for (int i = 0; i < candidates.size(); i++) {
+                    EnhancedChessAI.CandidateMove candidate = candidates.get(i);
+                    List<String> uciLine = new ArrayList<>();
+                    for (Move move : candidate.getPrincipalVariation()) {
+                        uciLine.add(FenConverter.moveToUci(move.getStart(), move.getEnd()));
+                    }
+                    List<String> line = ChineseNotationTranslator.translateLine(uciLine, snapshot);
+                    addAILog("suggestion", String.format("内置引擎候选%d: %s (评分: %d, 变例: %s)",
+                            i + 1, line.isEmpty() ? convertPositionToNotation(candidate.getMove().getEnd()) : line.get(0),
+                            candidate.getScore(), String.join(" ", line)));
+                }
+                addAILog("suggestion", String.format("内置引擎提示完成 (深度 %d, 用时 %dms)",
+                        result.getDepth(), result.getElapsedMillis()));
+            });
+        });
+    }
+    
     /**
      * 将Position转换为棋谱记号
      */
@@ -1924,7 +2129,7 @@ public class BoardPanel extends JPanel {
         }, ResourceManager.getExecutorService());
         
         // 设置超时处理
-        Timer timeoutTimer = new Timer(ChineseChessConfig.AI_CALCULATION_TIMEOUT_SECONDS * 1000, e -> {
+        AnimationClock.Handle timeoutTimer = AnimationClock.getInstance().schedule(ChineseChessConfig.AI_CALCULATION_TIMEOUT_SECONDS * 1000, () -> {
             if (isAIThinking) {
                 isAIThinking = false;
                 aiMoveTask.cancel(true); // 取消任务
@@ -1933,13 +2138,11 @@ public class BoardPanel extends JPanel {
                 });
             }
         });
-        timeoutTimer.setRepeats(false);
-        timeoutTimer.start();
         
         // 处理AI计算结果
         aiMoveTask.whenComplete((aiMove, throwable) -> {
             SwingUtilities.invokeLater(() -> {
-                timeoutTimer.stop(); // 停止超时计时器
+                timeoutTimer.cancel(); // 停止超时计时器
                 isAIThinking = false;
                 
                 if (throwable != null) {
@@ -1968,11 +2171,9 @@ public class BoardPanel extends JPanel {
         if (retryCount < MAX_AI_RETRY_COUNT) {
             // 静默重试，不向用户显示超时信息
             
-            Timer retryTimer = new Timer(RETRY_DELAY_MS, e -> {
+            AnimationClock.getInstance().schedule(RETRY_DELAY_MS, () -> {
                 performAIMoveWithRetry(retryCount + 1);
             });
-            retryTimer.setRepeats(false);
-            retryTimer.start();
         } else {
             // 重试次数用完，静默使用兜底方案
             handleAIFallback();
@@ -2291,11 +2492,9 @@ public class BoardPanel extends JPanel {
          
          if (retryCount < MAX_AI_RETRY_COUNT) {
              // 静默重试
-             Timer retryTimer = new Timer(RETRY_DELAY_MS, e -> {
+             AnimationClock.getInstance().schedule(RETRY_DELAY_MS, () -> {
                  performAIMoveWithRetry(retryCount + 1);
              });
-             retryTimer.setRepeats(false);
-             retryTimer.start();
          } else {
              // 重试次数用完，静默记录错误并使用兜底方案
              
@@ -2318,11 +2517,9 @@ public class BoardPanel extends JPanel {
     private void handleNoValidMove(int retryCount) {
         if (retryCount < MAX_AI_RETRY_COUNT) {
             // 静默重试
-            Timer retryTimer = new Timer(RETRY_DELAY_MS, e -> {
+            AnimationClock.getInstance().schedule(RETRY_DELAY_MS, () -> {
                 performAIMoveWithRetry(retryCount + 1);
             });
-            retryTimer.setRepeats(false);
-            retryTimer.start();
         } else {
             ExceptionHandler.logWarning("AI无法移动，检查游戏结束条件", "游戏逻辑");
             handleAINoValidMoveGameEnd();
@@ -2491,9 +2688,10 @@ public class BoardPanel extends JPanel {
 
         PieceRenderer.PieceType type = mapPieceType(piece);
         PieceRenderer.Side side = piece.getColor() == PieceColor.RED ? PieceRenderer.Side.RED : PieceRenderer.Side.BLACK;
-        BufferedImage img = PieceRenderer.render(type, side, diameter, 1f);
-
-        g2d.drawImage(img, centerX - diameter / 2, centerY - diameter / 2, null);
+        // 精灵按设备像素渲染，再按逻辑直径绘制，HiDPI和缩放下保持清晰
+        BufferedImage img = PieceRenderer.render(type, side, diameter, (float) g2d.getTransform().getScaleX());
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(img, centerX - diameter / 2, centerY - diameter / 2, diameter, diameter, null);
     }
 
     private PieceRenderer.PieceType mapPieceType(Piece piece) {
@@ -2519,7 +2717,7 @@ public class BoardPanel extends JPanel {
         showVictoryAnimation(message);
         
         // 延迟显示对话框，让用户欣赏动画
-        Timer dialogTimer = new Timer(3000, e -> {
+        AnimationClock.getInstance().schedule(3000, () -> {
             int option = JOptionPane.showOptionDialog(
                 this,
                 message + "\n是否重新开始游戏？",
@@ -2539,8 +2737,6 @@ public class BoardPanel extends JPanel {
                 System.exit(0);
             }
         });
-        dialogTimer.setRepeats(false);
-        dialogTimer.start();
     }
     
     /**
@@ -2585,15 +2781,13 @@ public class BoardPanel extends JPanel {
             animation.startVictoryAnimation(message, winnerColor);
             
             // 5秒后自动关闭动画
-            Timer closeTimer = new Timer(5000, e -> {
+            AnimationClock.getInstance().schedule(5000, () -> {
                 animation.stopAnimation();
                 if (glassPane instanceof JComponent) {
                     ((JComponent) glassPane).remove(animation);
                     glassPane.setVisible(false);
                 }
             });
-            closeTimer.setRepeats(false);
-            closeTimer.start();
         }
     }
     
@@ -2984,9 +3178,7 @@ public class BoardPanel extends JPanel {
         // 如果游戏未结束，继续下一步AI走棋
         if (gameState == GameState.PLAYING && isAIvsAIMode) {
             // 延迟一秒后执行下一步，让用户能看清楚
-            Timer timer = new Timer(1000, e -> performAIvsAIMove());
-            timer.setRepeats(false);
-            timer.start();
+            AnimationClock.getInstance().schedule(1000, this::performAIvsAIMove);
         }
     }
     
@@ -3127,7 +3319,7 @@ public class BoardPanel extends JPanel {
                 
                 // 放置棋子
                 board.setPiece(currentEndgameRow, currentEndgameCol, piece);
-                repaint();
+                repaintCell(currentEndgameRow, currentEndgameCol);
             }
         }
         pieceSelectionMenu.setVisible(false);
@@ -3159,7 +3351,7 @@ public class BoardPanel extends JPanel {
         if (currentPiece != null) {
             // 如果位置有棋子，移除它
             board.removePiece(row, col);
-            repaint();
+            repaintCell(row, col);
         } else {
             // 如果位置没有棋子，显示棋子选择菜单
             currentEndgameRow = row;
@@ -3242,7 +3434,7 @@ public class BoardPanel extends JPanel {
                 Piece piece = createPieceFromSelection(selectedPiece);
                 if (piece != null) {
                     board.setPiece(row, col, piece);
-                    repaint();
+                    repaintCell(row, col);
                 }
             }
         }
@@ -3541,19 +3733,13 @@ public class BoardPanel extends JPanel {
      * 请求Pikafish评估当前棋局
      */
     private void requestPikafishEvaluation() {
-        if (chatPanel != null) {
-            try {
-                // 使用反射调用ChatPanel的私有方法requestPikafishEvaluation
-                java.lang.reflect.Method method = ChatPanel.class.getDeclaredMethod("requestPikafishEvaluation");
-                method.setAccessible(true);
-                method.invoke(chatPanel);
-            } catch (Exception e) {
-                ExceptionHandler.logError("调用Pikafish评估失败: " + e.getMessage(), "BoardPanel");
-                if (chatPanel != null) {
-                    chatPanel.addChatMessage("❌ Pikafish评估调用失败，请手动点击评估按钮。");
-                }
-            }
+        if (chatPanel == null) {
+            // 没有聊天面板可以展示Pikafish评估时，直接给出内置引擎提示
+            showLocalHints(LOCAL_HINT_COUNT);
+            return;
         }
+        // Pikafish评估失败或不可用时，ChatPanel会回退到 showLocalHints
+        chatPanel.requestPikafishEvaluation();
     }
     
     /**
@@ -3585,10 +3771,6 @@ public class BoardPanel extends JPanel {
         errorScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         
         errorInfoPanel.add(errorScrollPane, BorderLayout.CENTER);
-        
-        // 创建清除定时器
-        errorClearTimer = new Timer(5000, e -> hideErrorInfo()); // 5秒后自动隐藏
-        errorClearTimer.setRepeats(false);
     }
     
     /**
@@ -3599,12 +3781,11 @@ public class BoardPanel extends JPanel {
             errorTextArea.setText(message);
             errorInfoPanel.setVisible(true);
             
-            // 重启定时器
-            if (errorClearTimer.isRunning()) {
-                errorClearTimer.restart();
-            } else {
-                errorClearTimer.start();
+            // 重启定时器，5秒后自动隐藏
+            if (errorClearTimer != null) {
+                errorClearTimer.cancel();
             }
+            errorClearTimer = AnimationClock.getInstance().schedule(5000, this::hideErrorInfo);
             
             // 通知父容器重新布局
             Container parent = getParent();
@@ -4042,7 +4223,7 @@ public class BoardPanel extends JPanel {
         try {
             // 如果已有 DeepSeekPikafish AI，使用它
             if (deepSeekPikafishAI != null) {
-                Move bestMove = deepSeekPikafishAI.getBestMove(board);
+                Move bestMove = deepSeekPikafishAI.isPikafishAvailable() ? deepSeekPikafishAI.getBestMove(board) : null;
                 if (bestMove != null) {
                     return formatMoveForDisplay(bestMove);
                 }
@@ -4052,7 +4233,7 @@ public class BoardPanel extends JPanel {
                 if (aiLogPanel != null) {
                     tempAI.setAILogPanel(aiLogPanel);
                 }
-                Move bestMove = tempAI.getBestMove(board);
+                Move bestMove = tempAI.isPikafishAvailable() ? tempAI.getBestMove(board) : null;
                 tempAI.shutdown(); // 清理临时实例
                 if (bestMove != null) {
                     return formatMoveForDisplay(bestMove);
@@ -4061,8 +4242,11 @@ public class BoardPanel extends JPanel {
         } catch (Exception e) {
             System.err.println("Pikafish 分析出错: " + e.getMessage());
             e.printStackTrace();
+            showLocalHints(LOCAL_HINT_COUNT);
             throw new RuntimeException("Pikafish 分析失败", e);
         }
+        // Pikafish不可用或没有给出走法时，改用内置引擎的多主变提示
+        showLocalHints(LOCAL_HINT_COUNT);
         return null;
     }
     
@@ -4430,6 +4614,11 @@ public class BoardPanel extends JPanel {
                     });
                 }
                 
+                @Override
+                public void onBoardResync(String fen, int ply) {
+                    SwingUtilities.invokeLater(() -> applyServerPosition(fen, ply));
+                }
+                
                 @Override
                 public void onGameEnded(String winner, String reason) {
                     SwingUtilities.invokeLater(() -> {
@@ -4776,11 +4965,7 @@ public class BoardPanel extends JPanel {
         if (selectedPiece == null) {
             // 没有选中棋子，尝试选择棋子
             if (clickedPiece != null && clickedPiece.getColor() == currentPlayer) {
-                selectedPiece = clickedPiece;
-                selectedRow = row;
-                selectedCol = col;
-                calculateValidMoves();
-                repaint();
+                selectPiece(clickedPiece, row, col);
             }
         } else {
             // 已经选中棋子，尝试移动
@@ -4789,11 +4974,7 @@ public class BoardPanel extends JPanel {
                 clearSelection();
             } else if (clickedPiece != null && clickedPiece.getColor() == currentPlayer) {
                 // 点击同色棋子，重新选择
-                selectedPiece = clickedPiece;
-                selectedRow = row;
-                selectedCol = col;
-                calculateValidMoves();
-                repaint();
+                selectPiece(clickedPiece, row, col);
             } else {
                 // 尝试移动棋子
                 Position start = new Position(selectedRow, selectedCol);
@@ -4867,9 +5048,7 @@ public class BoardPanel extends JPanel {
                                 if (isAIvsAIMode) {
                                     // AI vs AI模式下，延迟执行下一步AI移动
                                     SwingUtilities.invokeLater(() -> {
-                                        Timer timer = new Timer(1000, e -> performAIvsAIMove());
-                                        timer.setRepeats(false);
-                                        timer.start();
+                                        AnimationClock.getInstance().schedule(1000, this::performAIvsAIMove);
                                     });
                                 } else if (isAITurn()) {
                                     SwingUtilities.invokeLater(this::performAIMove);
@@ -5192,6 +5371,11 @@ public class BoardPanel extends JPanel {
                     });
                 }
                 
+                @Override
+                public void onBoardResync(String fen, int ply) {
+                    SwingUtilities.invokeLater(() -> applyServerPosition(fen, ply));
+                }
+                
                 @Override
                 public void onGameEnded(String winner, String reason) {
                     SwingUtilities.invokeLater(() -> {
@@ -5225,6 +5409,37 @@ public class BoardPanel extends JPanel {
             };
         }
     
+    /**
+     * 用服务器的权威局面覆盖本地棋盘（走法被服务器拒绝或落后太多、无法逐步回放时）
+     * @param fen 服务器局面，标准坐标
+     * @param ply 该局面的手数
+     */
+    private void applyServerPosition(String fen, int ply) {
+        XiangqiPosition position;
+        try {
+            position = XiangqiPosition.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            addAILog("network", "❌ 服务器局面无效: " + e.getMessage());
+            return;
+        }
+        Board serverBoard = position.toBoard();
+        // 黑方翻转棋盘时本地逻辑坐标与标准坐标相反，与 executeOpponentMove 的转换一致
+        boolean flipped = "BLACK".equals(localPlayerColor) && isBoardFlipped;
+        saveBoardState();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 9; col++) {
+                board.setPiece(row, col, flipped ? serverBoard.getPiece(9 - row, 8 - col) : serverBoard.getPiece(row, col));
+            }
+        }
+        currentPlayer = position.getSideToMove();
+        waitingForOpponentMove = localPlayerColor != null && !localPlayerColor.equals(currentPlayer.name());
+        lastMoveStart = null;
+        lastMoveEnd = null;
+        addAILog("network", "已按服务器局面同步棋盘（第" + ply + "手）");
+        updateStatus();
+        repaint();
+    }
+    
     /**
      * 设置本地玩家颜色
      * @param color 本地玩家颜色 ("RED" 或 "BLACK")
@@ -5294,6 +5509,7 @@ public class BoardPanel extends JPanel {
                 currentRoomId, 
                 "boardpanel_missed_gamestart_auto_recovery"
             );
+            syncRequest.setLastKnownPly(networkClient.getLastKnownPly());
             
             // 验证消息序列化
             try {
@@ -5308,7 +5524,7 @@ public class BoardPanel extends JPanel {
                 addAILog("network", "✅ 已发送游戏状态同步请求到服务器");
                 
                 // 设置合理的超时时间和fallback机制
-                Timer fallbackTimer = new Timer(10000, e -> { // 10秒超时
+                AnimationClock.getInstance().schedule(10000, () -> { // 10秒超时
                     if (localPlayerColor == null && isNetworkMode) {
                         addAILog("network", "游戏状态同步超时，将依赖对手移动进行颜色推断");
                         
@@ -5326,8 +5542,6 @@ public class BoardPanel extends JPanel {
                         addAILog("network", "💡 提示：当对手移动棋子时，系统将自动推断您的颜色并恢复游戏");
                     }
                 });
-                fallbackTimer.setRepeats(false);
-                fallbackTimer.start();
                 
             } catch (Exception serializeEx) {
                 System.err.println("❌ 消息序列化失败: " + serializeEx.getMessage());
@@ -5443,7 +5657,7 @@ public class BoardPanel extends JPanel {
         gameStartReceived = false;
         addAILog("network", "启动GameStart消息检测定时器，将在" + (GAMESTART_DETECTION_DELAY_MS / 1000) + "秒后检测");
         
-        gameStartDetectionTimer = new Timer(GAMESTART_DETECTION_DELAY_MS, e -> {
+        gameStartDetectionTimer = AnimationClock.getInstance().schedule(GAMESTART_DETECTION_DELAY_MS, () -> {
             // 检查是否收到了GameStart消息
             if (!gameStartReceived && isNetworkMode) {
                 addAILog("network", "未在预期时间内收到GameStart消息，启动恢复机制");
@@ -5452,17 +5666,14 @@ public class BoardPanel extends JPanel {
                 addAILog("network", "GameStart消息检测正常");
             }
         });
-        
-        gameStartDetectionTimer.setRepeats(false);
-        gameStartDetectionTimer.start();
     }
     
     /**
      * 停止GameStart消息检测定时器
      */
     private void stopGameStartDetectionTimer() {
-        if (gameStartDetectionTimer != null && gameStartDetectionTimer.isRunning()) {
-            gameStartDetectionTimer.stop();
+        if (gameStartDetectionTimer != null && gameStartDetectionTimer.isActive()) {
+            gameStartDetectionTimer.cancel();
             addAILog("network", "停止GameStart检测定时器");
         }
         gameStartDetectionTimer = null;
@@ -5480,7 +5691,7 @@ public class BoardPanel extends JPanel {
             requestGameStateSynchronization();
             
             // 设置超时机制，如果服务器同步失败，提供用户友好的提示
-            Timer fallbackTimer = new Timer(8000, e -> { // 8秒后的兜底提示
+            AnimationClock.getInstance().schedule(8000, () -> { // 8秒后的兜底提示
                 if (localPlayerColor == null && isNetworkMode) {
                     addAILog("network", "正在等待游戏开始或对手移动...");
                     
@@ -5492,8 +5703,6 @@ public class BoardPanel extends JPanel {
                     showErrorInfo(guidanceMsg);
                 }
             });
-            fallbackTimer.setRepeats(false);
-            fallbackTimer.start();
             
         } catch (Exception e) {
             System.err.println("❌ 处理错过GameStart消息时出错: " + e.getMessage());
@@ -5603,6 +5812,9 @@ public class BoardPanel extends JPanel {
         int endCol = getDisplayCol(end.getY());
         int centerX = MARGIN + endCol * CELL_SIZE;
         int centerY = MARGIN + endRow * CELL_SIZE;
+        if (dropAnimation != null) {
+            dropAnimation.cancel();
+        }
         dropAnimation = new PieceDropAnimation(piece, centerX, centerY, (int) (400 * viewScale));
         dropAnimation.start();
     }
@@ -5622,6 +5834,10 @@ public class BoardPanel extends JPanel {
         if (captured != null && overlayLayer != null) {
             overlayLayer.showBanner("吃", OverlayLayer.Style.ALERT_BRUSH, 1200);
         }
+        if (currentAnimation != null) {
+            // 上一步动画未结束时直接取消，避免其完成回调清掉新动画
+            currentAnimation.cancel();
+        }
         currentAnimation = new PieceAnimation(piece, startX, startY, endX, endY, end.getX(), end.getY(), captured, capX, capY);
         currentAnimation.start();
     }
@@ -5635,22 +5851,19 @@ public class BoardPanel extends JPanel {
         int size = (int)(CELL_SIZE * 0.9 * scale);
         PieceRenderer.PieceType type = mapPieceType(piece);
         PieceRenderer.Side side = piece.getColor() == PieceColor.RED ? PieceRenderer.Side.RED : PieceRenderer.Side.BLACK;
-        BufferedImage img = PieceRenderer.render(type, side, size, 1f);
-        g2d.drawImage(img, centerX - size / 2, centerY - size / 2, null);
+        BufferedImage img = PieceRenderer.render(type, side, size, (float) g2d.getTransform().getScaleX());
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(img, centerX - size / 2, centerY - size / 2, size, size, null);
         g2d.setComposite(old);
     }
 
-    private double easeOutCubic(double t) {
-        t -= 1.0;
-        return t * t * t + 1.0;
-    }
-
     /** 棋子飞入动画类 */
     private class PieceDropAnimation {
         private final Piece piece;
         private final int centerX, centerY;
         private final int duration;
         private float progress;
+        private AnimationClock.Handle handle;
 
         PieceDropAnimation(Piece piece, int centerX, int centerY, int duration) {
             this.piece = piece;
@@ -5660,26 +5873,21 @@ public class BoardPanel extends JPanel {
         }
 
         void start() {
-            long startTime = System.currentTimeMillis();
-            new Thread(() -> {
-                while (true) {
-                    long elapsed = System.currentTimeMillis() - startTime;
-                    progress = Math.min(1f, elapsed / (float) duration);
-                    int size = (int) (CELL_SIZE * 1.4); // repaint region
-                    SwingUtilities.invokeLater(() -> repaintScaled(centerX - size / 2, centerY - size / 2, size, size));
-                    if (progress >= 1f) {
-                        SwingUtilities.invokeLater(this::finish);
-                        break;
-                    }
-                    try {
-                        Thread.sleep((long) (12 * viewScale));
-                    } catch (InterruptedException ignored) {}
-                }
-            }).start();
+            int size = (int) (CELL_SIZE * 1.4); // repaint region
+            handle = AnimationClock.getInstance().animate(duration, Easing.EASE_OUT_CUBIC, t -> {
+                progress = t;
+                repaintScaled(centerX - size / 2, centerY - size / 2, size, size);
+            }, this::finish);
+        }
+
+        void cancel() {
+            if (handle != null) {
+                handle.cancel();
+            }
         }
 
         void draw(Graphics2D g2d) {
-            float eased = (float) easeOutCubic(progress);
+            float eased = progress;
             float sizeFactor = 1f + (1f - eased) * 0.5f; // 从 1.5 缩小至 1.0
             drawPieceAt(g2d, piece, centerX, centerY, sizeFactor, 1f);
         }
@@ -5702,6 +5910,7 @@ public class BoardPanel extends JPanel {
         int capturedX, capturedY;
         float capturedAlpha = 1f;
         double scale = 1.0;
+        AnimationClock.Handle handle;
 
         PieceAnimation(Piece piece, int startX, int startY, int endX, int endY, int endRow, int endCol, Piece capturedPiece, int capX, int capY) {
             this.piece = piece;
@@ -5729,63 +5938,40 @@ public class BoardPanel extends JPanel {
 
         private void startFade() {
             int fadeDuration = (int) (120 * viewScale);
-            new Thread(() -> {
-                while (capturedAlpha > 0f) {
-                    capturedAlpha -= 40f / fadeDuration;
-                    int size = CELL_SIZE;
-                    SwingUtilities.invokeLater(() -> repaintScaled(capturedX - size / 2, capturedY - size / 2, size, size));
-                    try {
-                        Thread.sleep((long) (40 * viewScale));
-                    } catch (InterruptedException ignored) {}
-                }
-                capturedAlpha = 0f;
-                startMove();
-            }).start();
+            int size = CELL_SIZE;
+            handle = AnimationClock.getInstance().animate(fadeDuration, Easing.LINEAR, t -> {
+                capturedAlpha = 1f - t;
+                repaintScaled(capturedX - size / 2, capturedY - size / 2, size, size);
+            }, this::startMove);
         }
 
         private void startMove() {
             int duration = (int) (Math.min(240, Math.max(160, ChineseChessConfig.MOVE_ANIMATION_DURATION)) * viewScale);
-            long startTime = System.currentTimeMillis();
             int minX = Math.min(startX, endX) - CELL_SIZE;
             int minY = Math.min(startY, endY) - CELL_SIZE;
             int width = Math.abs(startX - endX) + CELL_SIZE * 2;
             int height = Math.abs(startY - endY) + CELL_SIZE * 2;
-            new Thread(() -> {
-                while (true) {
-                    long elapsed = System.currentTimeMillis() - startTime;
-                    moveProgress = Math.min(1.0, elapsed / (double) duration);
-                    SwingUtilities.invokeLater(() -> repaintScaled(minX, minY, width, height));
-                    if (moveProgress >= 1.0) {
-                        startBounce();
-                        break;
-                    }
-                    try {
-                        Thread.sleep((long) (12 * viewScale));
-                    } catch (InterruptedException ignored) {}
-                }
-            }).start();
+            handle = AnimationClock.getInstance().animate(duration, Easing.LINEAR, t -> {
+                moveProgress = t;
+                repaintScaled(minX, minY, width, height);
+            }, this::startBounce);
         }
 
         private void startBounce() {
             impactAnimator.blastAt(endRow, endCol, 2.5, 4 * viewScale, (int) (160 * viewScale));
             SoundManager.play(WOOD, capturedPiece != null ? PIECE_CAPTURE : PIECE_DROP);
-            long startTime = System.currentTimeMillis();
-            new Thread(() -> {
-                while (true) {
-                    long elapsed = System.currentTimeMillis() - startTime;
-                    bounceProgress = Math.min(1.0, elapsed / (60.0 * viewScale));
-                    scale = 1.06 - 0.06 * easeOutCubic(bounceProgress);
-                    int size = CELL_SIZE * 2;
-                    SwingUtilities.invokeLater(() -> repaintScaled(endX - CELL_SIZE, endY - CELL_SIZE, size, size));
-                    if (bounceProgress >= 1.0) {
-                        finish();
-                        break;
-                    }
-                    try {
-                        Thread.sleep((long) (12 * viewScale));
-                    } catch (InterruptedException ignored) {}
-                }
-            }).start();
+            int size = CELL_SIZE * 2;
+            handle = AnimationClock.getInstance().animate((int) (60 * viewScale), Easing.EASE_OUT_CUBIC, t -> {
+                bounceProgress = t;
+                scale = 1.06 - 0.06 * t;
+                repaintScaled(endX - CELL_SIZE, endY - CELL_SIZE, size, size);
+            }, this::finish);
+        }
+
+        void cancel() {
+            if (handle != null) {
+                handle.cancel();
+            }
         }
 
         private void finish() {
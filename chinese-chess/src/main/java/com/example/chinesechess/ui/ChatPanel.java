@@ -1,5 +1,7 @@
 package com.example.chinesechess.ui;
 
+import com.example.chinesechess.ai.FenConverter;
+import com.example.chinesechess.ai.LLMResponseCache;
 import com.example.chinesechess.core.Board;
 import com.example.chinesechess.core.GameState;
 import com.example.chinesechess.core.Piece;
@@ -26,6 +28,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class ChatPanel extends JPanel {
     
+    private static final String DEEP_ANALYSIS_MODEL = "deepseek-r1:7b"; // 深度分析使用的模型
+    
     private JTextArea chatArea;
     private JTextField inputField;
     private JButton sendButton;
@@ -333,6 +337,12 @@ public class ChatPanel extends JPanel {
                 return getDeepMoveAnalysis(userMessage);
             }
             
+            // 相同局面的相同问题直接使用缓存
+            String cached = lookupCachedAnalysis(LLMResponseCache.TEMPLATE_CHAT_ANALYSIS, userMessage);
+            if (cached != null) {
+                return cached;
+            }
+            
             // 获取当前棋盘状态
             String boardState = getBoardStateDescription();
             
@@ -340,7 +350,7 @@ public class ChatPanel extends JPanel {
             String prompt = buildDeepAnalysisPrompt(userMessage, boardState);
             
             // 调用DeepSeek模型进行深度分析
-            return callDeepSeekForAnalysis(prompt);
+            return callDeepSeekForAnalysis(prompt, LLMResponseCache.TEMPLATE_CHAT_ANALYSIS, userMessage);
             
         } catch (Exception e) {
             System.err.println("AI回复生成失败: " + e.getMessage());
@@ -357,17 +367,26 @@ public class ChatPanel extends JPanel {
         }
         
         try {
+            // 命中缓存时无需再启动Pikafish分析
+            String cached = lookupCachedAnalysis(LLMResponseCache.TEMPLATE_CHAT_MOVE_ANALYSIS, userMessage);
+            if (cached != null) {
+                return formatDeepMoveAnalysis(cached);
+            }
+            
+            // 与分析缓存的键使用同一个走棋方
+            PieceColor sideToMove = getSideToMove();
+            
             // 创建DeepSeekPikafishAI实例进行深度分析
             com.example.chinesechess.ai.DeepSeekPikafishAI analyzer = new com.example.chinesechess.ai.DeepSeekPikafishAI(
-                com.example.chinesechess.core.PieceColor.RED, // 默认颜色
+                sideToMove,
                 8, // 高难度分析
-                "deepseek-r1:7b" // 使用DeepSeek模型
+                DEEP_ANALYSIS_MODEL // 使用DeepSeek模型
             );
             
             // 获取Pikafish引擎分析
             String pikafishAnalysis = analyzer.evaluateGameAndGiveAdvice(
                 (com.example.chinesechess.core.Board) board, 
-                com.example.chinesechess.core.PieceColor.RED
+                sideToMove
             );
             
             // 获取当前棋盘状态
@@ -391,13 +410,12 @@ public class ChatPanel extends JPanel {
             );
             
             // 调用DeepSeek模型
-            String deepAnalysis = callDeepSeekForAnalysis(prompt);
+            String deepAnalysis = callDeepSeekForAnalysis(prompt, LLMResponseCache.TEMPLATE_CHAT_MOVE_ANALYSIS, userMessage);
             
             // 清理资源
             analyzer.shutdown();
             
-            return "🤖 **AI象棋大师深度分析**\n\n" + deepAnalysis + 
-                   "\n\n💡 **提示**：以上分析结合了Pikafish引擎的精确计算和AI的战略思维，为您提供最专业的走法建议。";
+            return formatDeepMoveAnalysis(deepAnalysis);
             
         } catch (Exception e) {
             System.err.println("深度走法分析失败: " + e.getMessage());
@@ -405,6 +423,45 @@ public class ChatPanel extends JPanel {
         }
     }
     
+    /**
+     * 包装深度走法分析的展示格式
+     */
+    private String formatDeepMoveAnalysis(String deepAnalysis) {
+        return "🤖 **AI象棋大师深度分析**\n\n" + deepAnalysis + 
+               "\n\n💡 **提示**：以上分析结合了Pikafish引擎的精确计算和AI的战略思维，为您提供最专业的走法建议。";
+    }
+    
+    /**
+     * 获取当前局面的FEN，用作分析缓存的键
+     */
+    private String getCurrentFen() {
+        if (board instanceof com.example.chinesechess.core.Board) {
+            return FenConverter.boardToFen((com.example.chinesechess.core.Board) board, getSideToMove());
+        }
+        return null;
+    }
+    
+    /**
+     * 当前走棋方，取自棋盘面板；未关联棋盘面板时按红方处理
+     */
+    private PieceColor getSideToMove() {
+        if (boardPanel instanceof BoardPanel) {
+            return ((BoardPanel) boardPanel).getCurrentPlayer();
+        }
+        return PieceColor.RED;
+    }
+    
+    /**
+     * 查询分析缓存
+     */
+    private String lookupCachedAnalysis(String templateId, String userMessage) {
+        String fen = getCurrentFen();
+        if (fen == null) {
+            return null;
+        }
+        return LLMResponseCache.getInstance().get(DEEP_ANALYSIS_MODEL, templateId, fen, userMessage);
+    }
+    
     /**
      * 构建深度分析提示词
      */
@@ -428,13 +485,13 @@ public class ChatPanel extends JPanel {
     /**
      * 调用DeepSeek模型进行分析
      */
-    private String callDeepSeekForAnalysis(String prompt) {
+    private String callDeepSeekForAnalysis(String prompt, String templateId, String userMessage) {
         try {
             // 创建临时的DeepSeekPikafishAI实例来调用DeepSeek模型
             com.example.chinesechess.ai.DeepSeekPikafishAI tempAI = new com.example.chinesechess.ai.DeepSeekPikafishAI(
                 com.example.chinesechess.core.PieceColor.RED,
                 5, // 中等难度即可
-                "deepseek-r1:7b"
+                DEEP_ANALYSIS_MODEL
             );
             
             // 使用AI的内部方法调用DeepSeek（需要添加公共方法）
@@ -444,6 +501,10 @@ public class ChatPanel extends JPanel {
             tempAI.shutdown();
             
             if (response != null && !response.trim().isEmpty()) {
+                String fen = getCurrentFen();
+                if (fen != null) {
+                    LLMResponseCache.getInstance().put(DEEP_ANALYSIS_MODEL, templateId, fen, userMessage, response);
+                }
                 return response;
             } else {
                 return getFallbackResponse(prompt);
@@ -784,7 +845,7 @@ public class ChatPanel extends JPanel {
     /**
      * 请求Pikafish评估
      */
-    private void requestPikafishEvaluation() {
+    void requestPikafishEvaluation() {
         if (!isEnabled || board == null) {
             appendErrorMessage("🐟 Pikafish评估：请先启用AI对弈功能并开始游戏。");
             return;
@@ -828,11 +889,24 @@ public class ChatPanel extends JPanel {
                     
                     // 创建DeepSeekPikafishAI实例，使用用户选择的难度
                     com.example.chinesechess.ai.DeepSeekPikafishAI analyzer = new com.example.chinesechess.ai.DeepSeekPikafishAI(
-                        com.example.chinesechess.core.PieceColor.RED, // 默认颜色
+                        getSideToMove(),
                         selectedDifficulty, // 用户选择的难度
                         "deepseek-r1:7b" // 默认模型
                     );
                     
+                    // Pikafish不可用时不再等待大模型分析，直接改用内置引擎的多主变提示
+                    if (!analyzer.isPikafishAvailable()) {
+                        analyzer.shutdown();
+                        SwingUtilities.invokeLater(() -> {
+                            removeThinkingMessage();
+                            appendErrorMessage("🐟 Pikafish引擎当前不可用。");
+                            showLocalHintFallback();
+                            setInputEnabled(true);
+                            inputField.requestFocus();
+                        });
+                        return;
+                    }
+                    
                     // 如果有神经网络文件，设置到Pikafish引擎
                     if (neuralNetworkPath != null && !neuralNetworkPath.isEmpty()) {
                         try {
@@ -853,8 +927,7 @@ public class ChatPanel extends JPanel {
                     }
                     
                     // 获取当前玩家颜色，如果无法确定则使用红方
-                    com.example.chinesechess.core.PieceColor currentPlayer = com.example.chinesechess.core.PieceColor.RED;
-                    // 注意：Board类没有getCurrentPlayer方法，这里使用默认的红方颜色
+                    com.example.chinesechess.core.PieceColor currentPlayer = getSideToMove();
                     
                     // 使用新的详细评估方法
                     com.example.chinesechess.ai.DeepSeekPikafishAI.EvaluationResult result = 
@@ -889,6 +962,7 @@ public class ChatPanel extends JPanel {
                             System.out.println("Pikafish评估完成，推荐走法数量: " + result.getRecommendedMoves().size());
                         } else {
                             appendErrorMessage("🐟 Pikafish引擎：抱歉，无法获取有效的评估结果。请确保引擎正常运行。");
+                            showLocalHintFallback();
                         }
                         
                         setInputEnabled(true);
@@ -973,6 +1047,18 @@ public class ChatPanel extends JPanel {
         
         appendErrorMessage(errorMessage);
         System.err.println("Pikafish评估错误: " + throwable.getMessage());
+        showLocalHintFallback();
+    }
+    
+    /**
+     * Pikafish不可用时改用内置引擎的多主变搜索给出走法提示
+     */
+    private void showLocalHintFallback() {
+        if (!(boardPanel instanceof BoardPanel)) {
+            return; // 当前棋盘不支持内置引擎提示
+        }
+        ((BoardPanel) boardPanel).showLocalHints(3);
+        appendAIMessage("🧠 已改用内置引擎计算候选走法，最佳走法已在棋盘上标记，候选走法和变例见AI日志。");
     }
     
     /**
@@ -23,9 +23,12 @@ import java.awt.event.KeyEvent;
 import com.example.common.ui.BoardWithFloatButton;
 import com.example.common.ui.BoardWithFloatButton.Position;
 import com.example.common.ui.FullscreenToggler;
+import java.util.Arrays;
 import java.util.List;
 
 import com.example.common.utils.ExceptionHandler;
+import com.example.common.utils.StartupOrchestrator;
+import com.example.common.utils.StartupTimeline;
 
 /**
  * 中国象棋游戏主界面
@@ -119,14 +122,25 @@ public class GameFrame extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
 
+        StartupTimeline timeline = StartupTimeline.getInstance();
+        StartupTimeline.Phase buildPhase = timeline.begin("主界面构建");
+
+        // 模型列表探测需要启动外部进程，放到后台与界面构建并行，界面先用缓存/默认列表
+        StartupOrchestrator.getInstance()
+                .supplyAsync("Ollama模型探测", OllamaModelManager::getAvailableModels)
+                .thenAccept(models -> SwingUtilities.invokeLater(() -> refreshModelOptions(models)));
+
         // 创建棋盘
+        StartupTimeline.Phase boardPhase = timeline.begin("棋盘面板");
         Board board = new Board();
         boardPanel = new BoardPanel(board);
         boardPanel.setBorder(BorderFactory.createEmptyBorder(6,6,50,6));
         Dimension boardSize = new Dimension(800, 800);
         boardPanel.setPreferredSize(boardSize);
+        boardPhase.end();
         
         // 创建聊天面板
+        StartupTimeline.Phase sidePhase = timeline.begin("聊天/日志面板");
         chatPanel = new ChatPanel();
         chatPanel.setBoard(board);
         
@@ -159,6 +173,7 @@ public class GameFrame extends JFrame {
         rightPanel.setPreferredSize(new Dimension(FIXED_AI_WIDTH, boardSize.height));
         rightPanel.setMinimumSize(new Dimension(FIXED_AI_WIDTH, boardSize.height));
         rightPanel.setMaximumSize(new Dimension(FIXED_AI_WIDTH, Integer.MAX_VALUE));
+        sidePhase.end();
 
         boardContainer = new BoardWithFloatButton(boardPanel, Position.BOTTOM_RIGHT);
 
@@ -215,6 +230,26 @@ public class GameFrame extends JFrame {
         initializeDefaultAI();
         pack();
         setLocationRelativeTo(null);
+        buildPhase.end();
+    }
+    
+    /**
+     * 后台探测到真实模型列表后刷新各个模型下拉框，保留用户当前的选择
+     */
+    private void refreshModelOptions(List<String> models) {
+        if (models == null || models.isEmpty()) {
+            return;
+        }
+        for (JComboBox<String> comboBox : Arrays.asList(modelComboBox, redAIModelComboBox, blackAIModelComboBox)) {
+            if (comboBox == null) {
+                continue;
+            }
+            Object selected = comboBox.getSelectedItem();
+            comboBox.setModel(new DefaultComboBoxModel<>(models.toArray(new String[0])));
+            if (selected != null && models.contains(selected)) {
+                comboBox.setSelectedItem(selected);
+            }
+        }
     }
     
     /**
@@ -329,8 +364,8 @@ public class GameFrame extends JFrame {
         
         // 模型选择
         leftPanel.add(new JLabel("模型:"));
-        // 动态获取ollama模型列表
-        List<String> availableModels = OllamaModelManager.getAvailableModels();
+        // 先使用缓存的模型列表，真实列表由后台探测完成后刷新
+        List<String> availableModels = OllamaModelManager.getCachedModels();
         modelComboBox = new JComboBox<>(availableModels.toArray(new String[0]));
         modelComboBox.setSelectedIndex(0); // 默认选择第一个模型
         modelComboBox.setPreferredSize(new Dimension(150, 25));
@@ -537,7 +572,7 @@ public class GameFrame extends JFrame {
         aiVsAiConfigPanel.add(redAIDifficultyComboBox);
         
         aiVsAiConfigPanel.add(new JLabel("模型:"));
-        List<String> availableModels = OllamaModelManager.getAvailableModels();
+        List<String> availableModels = OllamaModelManager.getCachedModels();
         redAIModelComboBox = new JComboBox<>(availableModels.toArray(new String[0]));
         redAIModelComboBox.setSelectedIndex(0); // 默认第一个模型
         redAIModelComboBox.setPreferredSize(new Dimension(120, 25));
@@ -1732,7 +1767,7 @@ public class GameFrame extends JFrame {
                     if (bestMove != null && !bestMove.isEmpty()) {
                         return "🐟 Pikafish 推荐走法: " + bestMove;
                     } else {
-                        return "🐟 Pikafish 未能找到推荐走法";
+                        return "🐟 Pikafish 未能找到推荐走法，已改用内置引擎提示（候选走法见AI日志）";
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -1,10 +1,10 @@
 package com.example.chinesechess.ui;
 
-import javax.swing.Timer;
 import java.util.Random;
 import java.awt.Rectangle;
 import java.util.function.Consumer;
 import com.example.chinesechess.config.ChineseChessConfig;
+import com.example.common.ui.anim.AnimationClock;
 
 /**
  * 负责在落子冲击时让周围棋子产生抖动效果。
@@ -12,7 +12,7 @@ import com.example.chinesechess.config.ChineseChessConfig;
 public class ImpactAnimator {
     private final double[][] offsetX = new double[10][9];
     private final double[][] offsetY = new double[10][9];
-    private Timer timer;
+    private AnimationClock.Handle shake;
     private final Random random = new Random();
     private final Consumer<Rectangle> repaintCallback;
     private Rectangle repaintArea;
@@ -53,24 +53,23 @@ public class ImpactAnimator {
         int w = (maxCol - minCol + 1) * cell + (int) maxShakePx * 2 + 4;
         int h = (maxRow - minRow + 1) * cell + (int) maxShakePx * 2 + 4;
         repaintArea = new Rectangle(x, y, w, h);
-        if (timer != null) {
-            timer.stop();
+        if (shake != null) {
+            shake.cancel();
         }
-        final int steps = Math.max(1, durationMs / 16);
-        final int[] counter = {steps};
-        timer = new Timer(16, e -> {
+        final long[] remaining = {Math.max(AnimationClock.FRAME_MS, durationMs)};
+        shake = AnimationClock.getInstance().addFrameCallback((now, delta) -> {
+            // 按实际帧间隔衰减，掉帧时衰减速度保持一致
+            double decay = Math.pow(0.8, delta / (double) AnimationClock.FRAME_MS);
             for (int r = 0; r < 10; r++) {
                 for (int c = 0; c < 9; c++) {
-                    offsetX[r][c] *= 0.8;
-                    offsetY[r][c] *= 0.8;
+                    offsetX[r][c] *= decay;
+                    offsetY[r][c] *= decay;
                 }
             }
             repaintCallback.accept(repaintArea);
-            if (--counter[0] <= 0) {
-                timer.stop();
-            }
+            remaining[0] -= delta;
+            return remaining[0] > 0;
         });
-        timer.start();
     }
 
     public int getOffsetX(int row, int col) {
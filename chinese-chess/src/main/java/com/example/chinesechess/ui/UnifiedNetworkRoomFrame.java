@@ -446,6 +446,7 @@ public class UnifiedNetworkRoomFrame extends JFrame implements NetworkClient.Cli
             try {
                 GameStateSyncRequestMessage syncReq = new GameStateSyncRequestMessage(
                     networkClient.getPlayerId(), roomId, "listener_ready");
+                syncReq.setLastKnownPly(networkClient.getLastKnownPly());
                 networkClient.sendNetworkMessage(syncReq);
                 System.out.println("🔄 已发送状态同步请求: room=" + roomId);
             } catch (Exception ex) {
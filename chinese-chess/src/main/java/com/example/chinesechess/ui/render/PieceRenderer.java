@@ -24,10 +24,18 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 中国象棋棋子渲染器（木质立体风格）
@@ -35,6 +43,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * - 尺寸从直径 d 推导，高 DPI 友好
  * - 可选木纹贴图；无贴图时程序化木纹回退
  * - 渲染结果带缓存；异常返回占位图，不抛错
+ * - 精灵按设备像素直径分桶：当前棋盘尺寸的整套棋子在后台并行预渲染后整体替换，
+ *   其余尺寸（动画缩放等）进入有界LRU缓存
  */
 public final class PieceRenderer {
 
@@ -54,8 +64,29 @@ public final class PieceRenderer {
     // 可选：木纹贴图（若存在优先使用）
     private static Image WOOD_TEX;
 
-    // 结果缓存：type|side|diameter|uiScale|hasTexture
-    private static final Map<String, BufferedImage> CACHE = new ConcurrentHashMap<>();
+    // ===== 精灵图集 =====
+    private static final int DIAMETER_BUCKET = 4;     // 设备像素直径分桶粒度
+    private static final int MAX_LRU_SPRITES = 128;   // 非当前尺寸精灵的缓存上限
+
+    // 当前棋盘尺寸的整套棋子，预渲染完成后整体替换
+    private static final AtomicReference<Atlas> ATLAS = new AtomicReference<>(Atlas.EMPTY);
+
+    // 其他尺寸的精灵（访问顺序LRU）
+    private static final Map<SpriteKey, BufferedImage> LRU = new LinkedHashMap<SpriteKey, BufferedImage>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SpriteKey, BufferedImage> eldest) {
+            return size() > MAX_LRU_SPRITES;
+        }
+    };
+
+    // 预渲染：新请求使旧请求作废
+    private static final AtomicLong PREWARM_GENERATION = new AtomicLong();
+    private static volatile SpriteKey pendingPrewarm;
+    private static final ExecutorService PREWARM_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PieceSpritePrewarm");
+        t.setDaemon(true);
+        return t;
+    });
 
     static {
         // 尝试从资源加载木纹贴图（可选）
@@ -68,21 +99,185 @@ public final class PieceRenderer {
     private PieceRenderer() {}
 
     /** 外部可注入自定义木纹贴图（可选）。 */
-    public static void setWoodTexture(Image img) { WOOD_TEX = img; CACHE.clear(); }
+    public static void setWoodTexture(Image img) {
+        WOOD_TEX = img;
+        PREWARM_GENERATION.incrementAndGet();
+        pendingPrewarm = null;
+        ATLAS.set(Atlas.EMPTY);
+        synchronized (LRU) {
+            LRU.clear();
+        }
+    }
 
-    /** 渲染一枚棋子（带缓存）。 */
+    /**
+     * 渲染一枚棋子（带缓存）。
+     * 返回的精灵边长为 diameterPx * uiScale 四舍五入到分桶后的设备像素，
+     * 调用方应按逻辑直径 diameterPx 缩放绘制（drawImage 指定宽高）。
+     * 当前尺寸正在后台预渲染时，先返回上一套图集中的同种棋子，避免在EDT上卡顿。
+     */
     public static BufferedImage render(PieceType type, Side side, int diameterPx, float uiScale) {
-        String key = type + "|" + side + "|" + diameterPx + "|" + uiScale + "|" + (WOOD_TEX != null);
-        return CACHE.computeIfAbsent(key, k -> {
-            try {
-                return drawOne(type, side, diameterPx, uiScale);
-            } catch (Throwable t) {
-                System.err.println("[PieceRenderer] render failed: " + t);
-                return placeholder(type, side, diameterPx);
+        SpriteKey key = SpriteKey.of(type, side, diameterPx, uiScale, WOOD_TEX != null);
+        Atlas atlas = ATLAS.get();
+        BufferedImage img = atlas.sprites.get(key);
+        if (img != null) {
+            return img;
+        }
+        synchronized (LRU) {
+            img = LRU.get(key);
+        }
+        if (img != null) {
+            return img;
+        }
+
+        SpriteKey pending = pendingPrewarm;
+        if (pending != null && pending.sameSize(key)) {
+            BufferedImage stale = atlas.find(type, side);
+            if (stale != null) {
+                return stale;
+            }
+        }
+
+        img = drawSafely(key);
+        synchronized (LRU) {
+            LRU.put(key, img);
+        }
+        return img;
+    }
+
+    /**
+     * 在后台并行预渲染指定尺寸的整套棋子，完成后整体替换当前图集并回调（回调在后台线程执行）。
+     * 同一尺寸已就绪或正在渲染时直接返回；新的请求会使尚未完成的旧请求作废。
+     */
+    public static void prewarm(int diameterPx, float uiScale, Runnable onReady) {
+        SpriteKey probe = SpriteKey.of(PieceType.CHE, Side.RED, diameterPx, uiScale, WOOD_TEX != null);
+        if (ATLAS.get().covers(probe)) {
+            return;
+        }
+        SpriteKey pending = pendingPrewarm;
+        if (pending != null && pending.sameSize(probe)) {
+            return;
+        }
+
+        long generation = PREWARM_GENERATION.incrementAndGet();
+        pendingPrewarm = probe;
+        PREWARM_EXECUTOR.execute(() -> {
+            if (generation != PREWARM_GENERATION.get()) {
+                return;
+            }
+            List<SpriteKey> keys = new ArrayList<>();
+            for (PieceType type : PieceType.values()) {
+                for (Side side : sidesOf(type)) {
+                    keys.add(probe.withPiece(type, side));
+                }
+            }
+            Map<SpriteKey, BufferedImage> sprites = new ConcurrentHashMap<>();
+            keys.parallelStream().forEach(k -> {
+                if (generation == PREWARM_GENERATION.get()) {
+                    sprites.put(k, drawSafely(k));
+                }
+            });
+            if (generation != PREWARM_GENERATION.get()) {
+                return;
+            }
+            ATLAS.set(new Atlas(probe, sprites));
+            pendingPrewarm = null;
+            if (onReady != null) {
+                onReady.run();
             }
         });
     }
 
+    private static Side[] sidesOf(PieceType type) {
+        switch (type) {
+            case SHUAI:
+            case BING:
+                return new Side[]{Side.RED};
+            case JIANG:
+            case ZU:
+                return new Side[]{Side.BLACK};
+            default:
+                return Side.values();
+        }
+    }
+
+    private static BufferedImage drawSafely(SpriteKey key) {
+        try {
+            return drawOne(key.type, key.side, key.pixelDiameter, key.uiScale());
+        } catch (Throwable t) {
+            System.err.println("[PieceRenderer] render failed: " + t);
+            return placeholder(key.type, key.side, key.pixelDiameter);
+        }
+    }
+
+    /** 精灵键：棋子种类、阵营、设备像素直径分桶、界面缩放、是否有木纹贴图 */
+    private static final class SpriteKey {
+        final PieceType type;
+        final Side side;
+        final int pixelDiameter;
+        final int scaleKey; // uiScale * 100
+        final boolean textured;
+
+        private SpriteKey(PieceType type, Side side, int pixelDiameter, int scaleKey, boolean textured) {
+            this.type = type;
+            this.side = side;
+            this.pixelDiameter = pixelDiameter;
+            this.scaleKey = scaleKey;
+            this.textured = textured;
+        }
+
+        static SpriteKey of(PieceType type, Side side, int diameterPx, float uiScale, boolean textured) {
+            int px = Math.max(8, Math.round(diameterPx * uiScale));
+            int bucket = (px + DIAMETER_BUCKET / 2) / DIAMETER_BUCKET * DIAMETER_BUCKET;
+            return new SpriteKey(type, side, bucket, Math.round(uiScale * 100), textured);
+        }
+
+        SpriteKey withPiece(PieceType type, Side side) {
+            return new SpriteKey(type, side, pixelDiameter, scaleKey, textured);
+        }
+
+        float uiScale() {
+            return scaleKey / 100f;
+        }
+
+        boolean sameSize(SpriteKey other) {
+            return pixelDiameter == other.pixelDiameter && scaleKey == other.scaleKey && textured == other.textured;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SpriteKey)) return false;
+            SpriteKey k = (SpriteKey) o;
+            return type == k.type && side == k.side && sameSize(k);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, side, pixelDiameter, scaleKey, textured);
+        }
+    }
+
+    /** 一套同尺寸棋子精灵（不可变，整体替换） */
+    private static final class Atlas {
+        static final Atlas EMPTY = new Atlas(null, Collections.emptyMap());
+
+        final SpriteKey size;
+        final Map<SpriteKey, BufferedImage> sprites;
+
+        Atlas(SpriteKey size, Map<SpriteKey, BufferedImage> sprites) {
+            this.size = size;
+            this.sprites = sprites;
+        }
+
+        boolean covers(SpriteKey key) {
+            return size != null && size.sameSize(key);
+        }
+
+        BufferedImage find(PieceType type, Side side) {
+            return size == null ? null : sprites.get(size.withPiece(type, side));
+        }
+    }
+
     // ====== 核心渲染 ======
     static BufferedImage drawOne(PieceType type, Side side, int d, float uiScale) {
         int margin = Math.max(2, Math.round(d * 0.04f));
@@ -117,8 +312,9 @@ public final class PieceRenderer {
     // ====== 各绘制步骤 ======
 
     private static void paintDropShadow(Graphics2D g, int cx, int cy, int rOuter, int d) {
-        int shadowOffsetX = 5;
-        int shadowOffsetY = 5;
+        // 偏移随直径缩放：1倍界面下棋子直径54px时为5px
+        int shadowOffsetX = Math.max(1, Math.round(d * 5f / 54f));
+        int shadowOffsetY = shadowOffsetX;
         g.setColor(new Color(169, 169, 169, 100));
         g.fillOval(cx - rOuter + shadowOffsetX, cy - rOuter + shadowOffsetY, rOuter * 2, rOuter * 2);
     }
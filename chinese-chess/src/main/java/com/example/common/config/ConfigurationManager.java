@@ -48,6 +48,14 @@ public class ConfigurationManager {
         DEFAULT_CONFIGS.put("performance.thread_pool_size", "4");
         DEFAULT_CONFIGS.put("performance.cache_size", "1000");
         
+        // 大模型回复缓存配置
+        DEFAULT_CONFIGS.put("ai.llm_cache.enabled", "true");
+        DEFAULT_CONFIGS.put("ai.llm_cache.memory_entries", "256");
+        DEFAULT_CONFIGS.put("ai.llm_cache.ttl_hours", "168");
+        
+        // 记谱翻译配置（Python脚本仅作备用）
+        DEFAULT_CONFIGS.put("ai.semantic_translator.python_fallback", "false");
+        
         // AI 思考配置
         DEFAULT_CONFIGS.put("ai.think_time_ms", "3000");
         
@@ -56,6 +64,63 @@ public class ConfigurationManager {
         DEFAULT_CONFIGS.put("ai.pikafish.depth", "15");
         DEFAULT_CONFIGS.put("ai.pikafish.timeout", "30000");
         
+        // 服务器托管AI配置
+        DEFAULT_CONFIGS.put("server.ai.threads", "2");
+        DEFAULT_CONFIGS.put("server.ai.slice_ms", "2000");
+        DEFAULT_CONFIGS.put("server.ai.tt_budget_entries", "2000000");
+        DEFAULT_CONFIGS.put("server.ai.pikafish.pool_size", "2");
+        DEFAULT_CONFIGS.put("server.ai.pikafish.hash_mb", "256");
+        
+        // 服务器传输配置（blocking 或 nio）
+        DEFAULT_CONFIGS.put("server.transport", "blocking");
+        DEFAULT_CONFIGS.put("server.nio.io_threads", "2");
+        DEFAULT_CONFIGS.put("server.blocking.max_clients", "100");
+        DEFAULT_CONFIGS.put("server.binary_protocol", "true");
+        
+        // 服务器发送队列（每个客户端）：超出上限时 drop 丢弃心跳/房间列表/聊天，必达消息溢出断开；disconnect 直接断开
+        DEFAULT_CONFIGS.put("server.outbound.max_messages", "512");
+        DEFAULT_CONFIGS.put("server.outbound.max_bytes", "1048576");
+        DEFAULT_CONFIGS.put("server.outbound.overflow_policy", "drop");
+        
+        // 对局同步：服务器每隔多少手生成一次局面快照，客户端落后更多时从快照恢复
+        DEFAULT_CONFIGS.put("server.sync.snapshot_interval", "20");
+        
+        // 房间列表：分页查询每页上限，订阅客户端的房间增量按该周期合并推送
+        DEFAULT_CONFIGS.put("server.rooms.max_page_size", "200");
+        DEFAULT_CONFIGS.put("server.rooms.update_interval_ms", "500");
+        
+        // 服务器指标：JMX注册，本地HTTP接口端口（只监听127.0.0.1，0为关闭），客户端心跳间隔用于统计缺失心跳
+        DEFAULT_CONFIGS.put("server.metrics.jmx", "true");
+        DEFAULT_CONFIGS.put("server.metrics.http_port", "0");
+        DEFAULT_CONFIGS.put("server.heartbeat.interval_ms", "30000");
+        
+        // 空闲连接检测：时间轮刻度和槽数，按连接类型（握手前/大厅/对局中）的空闲超时，0为不检测
+        DEFAULT_CONFIGS.put("server.idle.tick_ms", "1000");
+        DEFAULT_CONFIGS.put("server.idle.wheel_slots", "512");
+        DEFAULT_CONFIGS.put("server.idle.handshake_timeout_ms", "15000");
+        DEFAULT_CONFIGS.put("server.idle.lobby_timeout_ms", "120000");
+        DEFAULT_CONFIGS.put("server.idle.game_timeout_ms", "90000");
+        
+        // 会话恢复：断线后保留会话的宽限期（0为不保留），每个会话补发缓冲的消息数；客户端断线后尝试恢复的时长
+        DEFAULT_CONFIGS.put("server.session.grace_ms", "30000");
+        DEFAULT_CONFIGS.put("server.session.replay_buffer", "256");
+        DEFAULT_CONFIGS.put("network.resume.timeout_ms", "20000");
+        
+        // 房间日志：dir 非空时把房间和对局事件写入预写日志，重启后恢复房间；
+        // 每隔 fsync_interval_ms 批量刷盘一次，累计 snapshot_records 条日志后写快照并删除旧日志
+        DEFAULT_CONFIGS.put("server.journal.dir", "");
+        DEFAULT_CONFIGS.put("server.journal.fsync_interval_ms", "20");
+        DEFAULT_CONFIGS.put("server.journal.snapshot_records", "20000");
+        
+        // 分片部署：shard_id 为本服务器的分片ID；shards 非空时本服务器作为路由器（id@host:port，逗号分隔）
+        DEFAULT_CONFIGS.put("cluster.shard_id", "");
+        DEFAULT_CONFIGS.put("cluster.shards", "");
+        DEFAULT_CONFIGS.put("cluster.virtual_nodes", "160");
+        DEFAULT_CONFIGS.put("cluster.reconnect_ms", "2000");
+        
+        // 客户端线路格式（binary 握手协商，服务器不支持时自动回退为 json）
+        DEFAULT_CONFIGS.put("network.wire_format", "binary");
+        
         // HTTP 配置
         DEFAULT_CONFIGS.put("http.timeout", "30000");
         DEFAULT_CONFIGS.put("http.max_connections", "100");
@@ -148,6 +213,17 @@ public class ConfigurationManager {
         return configurations.getOrDefault(key, defaultValue);
     }
 
+    /**
+     * 获取字符串配置值，带默认值
+     * 与game-common中ConfigurationManager的同名方法签名一致，共享的Logger等工具类通过它读取配置
+     * @param key 配置键
+     * @param defaultValue 默认值
+     * @return 配置值或默认值
+     */
+    public String getString(String key, String defaultValue) {
+        return getConfiguration(key, defaultValue);
+    }
+
     /**
      * 获取整数配置值
      * @param key 配置键
@@ -22,8 +22,8 @@ public class OllamaModelManager {
         "codeqwen:7b"
     );
     
-    // 缓存的模型列表
-    private static List<String> cachedModels = null;
+    // 缓存的模型列表（可能由启动线程写入、EDT读取）
+    private static volatile List<String> cachedModels = null;
     
     /**
      * 获取可用的模型列表
@@ -47,6 +47,16 @@ public class OllamaModelManager {
         return new ArrayList<>(models);
     }
     
+    /**
+     * 获取已缓存的模型列表，尚未探测过时返回默认列表，不会阻塞调用线程。
+     * 适合在界面构建时使用，真实列表由后台调用 {@link #getAvailableModels()} 探测
+     * @return 模型名称列表
+     */
+    public static List<String> getCachedModels() {
+        List<String> models = cachedModels;
+        return new ArrayList<>(models != null ? models : DEFAULT_MODELS);
+    }
+    
     /**
      * 尝试从Ollama API获取模型列表
      * 这里是一个简化实现，实际应该调用Ollama API
@@ -0,0 +1,44 @@
+package com.example.chinesechess.ai;
+
+import com.example.chinesechess.core.Board;
+import com.example.chinesechess.core.PieceColor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试中文记谱与UCI互译
+ */
+public class ChineseNotationTranslatorTest {
+    @Test
+    public void testOpeningMovesTranslateBothWays() {
+        Board board = new Board();
+        assertEquals("h2e2", ChineseNotationTranslator.toUci("炮二平五", board, PieceColor.RED));
+        assertEquals("h0g2", ChineseNotationTranslator.toUci("马二进三", board, PieceColor.RED));
+        assertEquals("炮二平五", ChineseNotationTranslator.toChinese("h2e2", board));
+        assertEquals("马二进三", ChineseNotationTranslator.toChinese("h0g2", board));
+    }
+
+    @Test
+    public void testActionAliasesFromMoveParser() {
+        Board board = new Board();
+        assertEquals("h2e2", ChineseNotationTranslator.toUci("炮二平移五", board, PieceColor.RED));
+        assertEquals("h0g2", ChineseNotationTranslator.toUci("马二前进三", board, PieceColor.RED));
+    }
+
+    @Test
+    public void testParseRejectsMalformedNotation() {
+        assertNotNull(ChineseNotationTranslator.parse("红马二进三"));
+        assertNull(ChineseNotationTranslator.parse("马二跳三"));
+        assertNull(ChineseNotationTranslator.parse(""));
+    }
+
+    @Test
+    public void testTranslateLineAlternatesSides() {
+        List<String> line = ChineseNotationTranslator.translateLine("h2e2 h9g7 h0g2", new Board());
+        assertEquals(Arrays.asList("炮二平五", "马8进7", "马二进三"), line);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.chinesechess.ai;
+
+import com.example.chinesechess.core.Board;
+import com.example.chinesechess.core.Move;
+import com.example.chinesechess.core.PieceColor;
+import com.example.chinesechess.core.Position;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试AI走棋后对手局面的提示直接来自预分析
+ */
+public class EnhancedChessAIHintsTest {
+
+    @Test
+    public void testHintsForReplyPositionComeFromPrefetch() {
+        EnhancedChessAI ai = new EnhancedChessAI(PieceColor.BLACK, 1);
+        ai.setPrefetchReplyHints(true);
+        Board board = new Board();
+        board.movePiece(new Position(7, 7), new Position(7, 4));
+
+        Move move = ai.getBestMove(board);
+        assertNotNull(move);
+        board.movePiece(move.getStart(), move.getEnd());
+
+        EnhancedChessAI.MultiPVResult first = ai.getHints(board, PieceColor.RED, 3);
+        assertNotNull(first);
+        assertEquals(3, first.getCandidates().size());
+        assertSame(first, ai.getHints(board, PieceColor.RED, 3));
+        assertFalse(first.getCandidates().get(0).getPrincipalVariation().isEmpty());
+    }
+}
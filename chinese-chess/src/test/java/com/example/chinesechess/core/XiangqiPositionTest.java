@@ -0,0 +1,91 @@
+package com.example.chinesechess.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试紧凑局面的走法校验、将军检测和FEN转换
+ */
+public class XiangqiPositionTest {
+
+    private static int sq(int row, int col) {
+        return row * XiangqiPosition.COLS + col;
+    }
+
+    @Test
+    public void testOpeningMovesAndTurnOrder() {
+        XiangqiPosition position = XiangqiPosition.initial();
+        assertTrue(position.isLegalMove(sq(7, 7), sq(7, 4)));   // 炮二平五
+        assertTrue(position.isLegalMove(sq(9, 7), sq(7, 6)));   // 马二进三
+        assertFalse(position.isLegalMove(sq(9, 1), sq(7, 1)));  // 马不能直走
+        assertTrue(position.isLegalMove(sq(7, 1), sq(0, 1)));   // 炮隔一子打马
+        assertFalse(position.isLegalMove(sq(7, 1), sq(2, 1)));  // 炮不能直接吃子
+        assertFalse(position.isLegalMove(sq(2, 1), sq(2, 4)));  // 不能走对方的棋
+
+        int[] moves = new int[XiangqiPosition.MAX_MOVES];
+        assertEquals(44, position.generateLegalMoves(moves));
+        for (int i = 0; i < 44; i++) {
+            assertTrue(position.isLegalMove(XiangqiPosition.moveFrom(moves[i]), XiangqiPosition.moveTo(moves[i])));
+        }
+
+        position.makeMove(sq(7, 7), sq(7, 4));
+        assertEquals(PieceColor.BLACK, position.getSideToMove());
+        assertTrue(position.isLegalMove(sq(2, 7), sq(2, 4)));
+        assertEquals(GameState.PLAYING, position.getGameState());
+    }
+
+    @Test
+    public void testFlyingGeneralAndPinnedPieces() {
+        // 红帅与黑将同列，中间只有一个红车：车不能离开这一列
+        XiangqiPosition position = XiangqiPosition.fromFen("4k4/9/9/9/9/9/9/9/4R4/4K4 w - - 0 1");
+        assertFalse(position.isLegalMove(sq(8, 4), sq(8, 0)));
+        assertTrue(position.isLegalMove(sq(8, 4), sq(3, 4)));
+        // 帅不能走到与将照面的空列上
+        XiangqiPosition facing = XiangqiPosition.fromFen("3k5/9/9/9/9/9/9/9/9/4K4 w - - 0 1");
+        assertFalse(facing.isLegalMove(sq(9, 4), sq(9, 3)));
+        assertTrue(facing.isLegalMove(sq(9, 4), sq(8, 4)));
+    }
+
+    @Test
+    public void testCheckmateAndStalemate() {
+        // 双车错杀：黑将被车将死
+        XiangqiPosition mate = XiangqiPosition.fromFen("3k5/R8/1R7/9/9/9/9/9/9/4K4 w - - 0 1");
+        mate.makeMove(sq(2, 1), sq(0, 1));
+        assertTrue(mate.isInCheck(PieceColor.BLACK));
+        assertEquals(GameState.RED_WINS, mate.getGameState());
+
+        // 马腿被塞住时不能将军
+        assertTrue(XiangqiPosition.fromFen("4k4/9/3N5/9/9/9/9/9/9/3K5 b - - 0 1").isInCheck(PieceColor.BLACK));
+        assertFalse(XiangqiPosition.fromFen("4k4/3p5/3N5/9/9/9/9/9/9/3K5 b - - 0 1").isInCheck(PieceColor.BLACK));
+
+        // 黑将无子可走但未被将军：按困毙判和
+        XiangqiPosition stalemate = XiangqiPosition.fromFen("3k5/R8/9/9/9/4R4/9/9/9/5K3 b - - 0 1");
+        assertFalse(stalemate.isInCheck(PieceColor.BLACK));
+        assertEquals(GameState.DRAW, stalemate.getGameState());
+        assertEquals(0, stalemate.generateLegalMoves(new int[XiangqiPosition.MAX_MOVES]));
+    }
+
+    @Test
+    public void testFenAndBoardRoundTrip() {
+        XiangqiPosition position = XiangqiPosition.initial();
+        position.makeMove(sq(7, 7), sq(7, 4));
+        position.makeMove(sq(0, 7), sq(2, 6));
+        String fen = position.toFen();
+        XiangqiPosition parsed = XiangqiPosition.fromFen(fen);
+        assertEquals(fen, parsed.toFen());
+        assertEquals(position.getHash(), parsed.getHash());
+        assertEquals(fen, XiangqiPosition.fromBoard(position.toBoard(), PieceColor.RED).toFen());
+
+        int captured = position.makeMove(sq(7, 4), sq(3, 4));
+        assertEquals(XiangqiPosition.PAWN | XiangqiPosition.BLACK_FLAG, captured);
+        position.unmakeMove(sq(7, 4), sq(3, 4), captured);
+        assertEquals(fen, position.toFen());
+        assertEquals(parsed.getHash(), position.getHash());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedFenIsRejected() {
+        XiangqiPosition.fromFen("rnbakabnr/9/1c5c1 w");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试二进制协议的编解码、字符串驻留和JSON回退
+ */
+public class BinaryMessageCodecTest {
+
+    @Test
+    public void testMoveRoundTripUsesTwoByteSquares() {
+        BinaryMessageCodec encoder = new BinaryMessageCodec();
+        BinaryMessageCodec decoder = new BinaryMessageCodec();
+
+        MoveMessage move = new MoveMessage("player_1", 7, 7, 7, 4, "炮二平五");
+        MoveMessage decoded = (MoveMessage) decoder.decode(payload(encoder.encodeFrame(move)));
+        assertEquals("player_1", decoded.getSenderId());
+        assertEquals(7, decoded.getFromRow());
+        assertEquals(7, decoded.getFromCol());
+        assertEquals(7, decoded.getToRow());
+        assertEquals(4, decoded.getToCol());
+        assertEquals("炮二平五", decoded.getMoveNotation());
+
+        // 发送者已驻留：类型1字节 + 发送者编号1字节 + 两个格子 + 空记谱1字节 + 手数1字节
+        MoveMessage relayed = new MoveMessage("player_1", 2, 7, 2, 4);
+        relayed.setPly(2);
+        ByteBuffer second = encoder.encodeFrame(relayed);
+        assertEquals(6, second.remaining() - 4);
+        MoveMessage decodedSecond = (MoveMessage) decoder.decode(payload(second));
+        assertEquals(2, decodedSecond.getFromRow());
+        assertEquals(2, decodedSecond.getPly());
+        assertEquals(encoder.getEncodeTableSize(), decoder.getDecodeTableSize());
+    }
+
+    @Test
+    public void testRoomListAndSyncResponseRoundTrip() {
+        BinaryMessageCodec encoder = new BinaryMessageCodec();
+        BinaryMessageCodec decoder = new BinaryMessageCodec();
+
+        RoomListResponseMessage list = new RoomListResponseMessage(Arrays.asList(
+                new RoomInfo("room_1001", "新手房", "张三", 1, 2, false, "waiting", "chinese-chess"),
+                new RoomInfo("room_1002", "高手房", "李四", 2, 2, true, "playing", "chinese-chess")));
+        RoomListResponseMessage decodedList = (RoomListResponseMessage) decoder.decode(payload(encoder.encodeFrame(list)));
+        assertEquals(2, decodedList.getRooms().size());
+        assertEquals("高手房", decodedList.getRooms().get(1).getRoomName());
+        assertTrue(decodedList.getRooms().get(1).isHasPassword());
+        assertEquals(2, decodedList.getRooms().get(1).getCurrentPlayers());
+
+        RoomUpdateMessage update = new RoomUpdateMessage("server", "chinese-chess");
+        update.getChanged().add(new RoomInfo("room_1001", "新手房", "张三", 2, 2, false, "playing", "chinese-chess"));
+        update.getRemoved().add("room_1002");
+        RoomUpdateMessage decodedUpdate = (RoomUpdateMessage) decoder.decode(payload(encoder.encodeFrame(update)));
+        assertTrue(decodedUpdate.getAdded().isEmpty());
+        assertEquals("playing", decodedUpdate.getChanged().get(0).getGameStatus());
+        assertEquals(Arrays.asList("room_1002"), decodedUpdate.getRemoved());
+
+        GameStateSyncResponseMessage sync = new GameStateSyncResponseMessage("server", "room_1001", "张三", "李四",
+                "RED", "BLACK", "playing", true, false, null);
+        GameStateSyncResponseMessage decodedSync = (GameStateSyncResponseMessage) decoder.decode(payload(encoder.encodeFrame(sync)));
+        assertEquals(NetworkMessage.MessageType.GAME_STATE_SYNC_RESPONSE, decodedSync.getType());
+        assertEquals("room_1001", decodedSync.getRoomId());
+        assertEquals("BLACK", decodedSync.getCurrentPlayer());
+        assertTrue(decodedSync.isGameStarted());
+        assertNull(decodedSync.getWinner());
+        assertNull(decodedSync.getMoves());
+    }
+
+    @Test
+    public void testSyncDeltaRoundTrip() {
+        BinaryMessageCodec encoder = new BinaryMessageCodec();
+        BinaryMessageCodec decoder = new BinaryMessageCodec();
+
+        GameStateSyncRequestMessage request = new GameStateSyncRequestMessage("player_1", "room_1001", "reconnect");
+        request.setLastKnownPly(40);
+        assertEquals(40, ((GameStateSyncRequestMessage) decoder.decode(payload(encoder.encodeFrame(request)))).getLastKnownPly());
+
+        GameStateSyncResponseMessage sync = new GameStateSyncResponseMessage("server", "room_1001", "张三", "李四",
+                "RED", "RED", "PLAYING", true, false, null);
+        sync.setPly(42);
+        sync.setFromPly(40);
+        sync.setMoves(new int[]{(70 << 8) | 67, (19 << 8) | 22});
+        GameStateSyncResponseMessage decoded = (GameStateSyncResponseMessage) decoder.decode(payload(encoder.encodeFrame(sync)));
+        assertEquals(42, decoded.getPly());
+        assertEquals(40, decoded.getFromPly());
+        assertNull(decoded.getBaseFen());
+        assertArrayEquals(sync.getMoves(), decoded.getMoves());
+    }
+
+    @Test
+    public void testOffBoardMoveFallsBackToJson() {
+        BinaryMessageCodec encoder = new BinaryMessageCodec();
+        ByteBuffer body = payload(encoder.encodeFrame(new MoveMessage("player_1", 12, 0, 5, 0)));
+        assertFalse(BinaryMessageCodec.isBinaryPayload(body));
+        MoveMessage decoded = (MoveMessage) NetworkMessage.fromJson(FrameCodec.decodeUtf8(body));
+        assertEquals(12, decoded.getFromRow());
+    }
+
+    @Test
+    public void testRedirectAndAssignedRoomIdRoundTrip() {
+        BinaryMessageCodec encoder = new BinaryMessageCodec();
+        BinaryMessageCodec decoder = new BinaryMessageCodec();
+
+        RedirectMessage redirect = (RedirectMessage) decoder.decode(payload(encoder.encodeFrame(
+                new RedirectMessage("server", "s1", "10.0.0.2", 8081, "room_abc_7"))));
+        assertEquals("s1", redirect.getShardId());
+        assertEquals("10.0.0.2", redirect.getHost());
+        assertEquals(8081, redirect.getPort());
+        assertEquals("room_abc_7", redirect.getRoomId());
+
+        CreateRoomRequestMessage create = new CreateRoomRequestMessage("player_1", "房间", null, 2, "chinese-chess");
+        create.setRoomId("room_abc_7");
+        CreateRoomRequestMessage decoded = (CreateRoomRequestMessage) decoder.decode(payload(encoder.encodeFrame(create)));
+        assertEquals("房间", decoded.getRoomName());
+        assertEquals("room_abc_7", decoded.getRoomId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownInternedReferenceIsRejected() {
+        BinaryMessageCodec encoder = new BinaryMessageCodec();
+        encoder.encodeFrame(new HeartbeatMessage("player_1"));
+        // 新的解码器没有见过第一条消息登记的字符串
+        new BinaryMessageCodec().decode(payload(encoder.encodeFrame(new HeartbeatMessage("player_1"))));
+    }
+
+    private static ByteBuffer payload(ByteBuffer frame) {
+        ByteBuffer body = frame.duplicate();
+        body.position(body.position() + 4);
+        return body.slice();
+    }
+}
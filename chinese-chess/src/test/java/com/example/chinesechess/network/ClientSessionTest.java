@@ -0,0 +1,103 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试会话的消息编号、补发和接管
+ */
+public class ClientSessionTest {
+
+    private static final class RecordingTransport implements ClientTransport {
+        final List<NetworkMessage> sent = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void send(NetworkMessage message) {
+            sent.add(message);
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return 0;
+        }
+
+        @Override
+        public void setWireFormat(WireCodec.WireFormat format) {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "test";
+        }
+    }
+
+    private final ClientHandler first = new ClientHandler((Socket) null, null);
+    private final ClientHandler second = new ClientHandler((Socket) null, null);
+
+    @Test
+    public void testReplaysOnlyMissedSequencedMessages() {
+        RecordingTransport original = new RecordingTransport();
+        ClientSession session = new ClientSession("t", "p", 8, first, original);
+        session.send(new MoveMessage("p", 7, 7, 7, 4));   // 1
+        session.send(new HeartbeatMessage("server"));      // 不编号
+        session.send(new MoveMessage("p", 9, 7, 7, 6));   // 2
+        assertEquals(3, original.sent.size());
+        assertEquals(ClientSession.Release.DETACHED, session.release(first, true));
+
+        session.send(new MoveMessage("p", 7, 1, 7, 4));   // 3，断线期间只进缓冲
+        assertEquals(3, original.sent.size());
+
+        RecordingTransport resumed = new RecordingTransport();
+        long[] handshake = new long[2];
+        assertSame(first, session.attach(second, resumed, 1, (complete, resumeSeq) -> {
+            handshake[0] = complete ? 1 : 0;
+            handshake[1] = resumeSeq;
+        }));
+        assertEquals(1, handshake[0]);
+        assertEquals(1, handshake[1]);
+        assertEquals(2, resumed.sent.size());
+        assertEquals(7, ((MoveMessage) resumed.sent.get(1)).getFromRow());
+
+        // 旧连接的清理不影响已经接管的会话
+        assertEquals(ClientSession.Release.TAKEN_OVER, session.release(first, false));
+        session.send(new MoveMessage("p", 0, 0, 1, 0));
+        assertEquals(3, resumed.sent.size());
+    }
+
+    @Test
+    public void testGapAndAcknowledgement() {
+        ClientSession session = new ClientSession("t", "p", 2, first, new RecordingTransport());
+        for (int i = 0; i < 4; i++) {
+            session.send(new MoveMessage("p", 7, i, 6, i));
+        }
+        assertEquals(2, session.getBufferedCount());
+        session.acknowledge(3);
+        assertEquals(1, session.getBufferedCount());
+
+        // 客户端只收到了第1条，第2条已经不在缓冲中：不补发，从当前序号继续
+        RecordingTransport resumed = new RecordingTransport();
+        boolean[] complete = new boolean[1];
+        long[] seq = new long[1];
+        session.attach(second, resumed, 1, (c, s) -> {
+            complete[0] = c;
+            seq[0] = s;
+        });
+        assertFalse(complete[0]);
+        assertEquals(4, seq[0]);
+        assertTrue(resumed.sent.isEmpty());
+
+        assertEquals(ClientSession.Release.ENDED, session.release(second, false));
+        assertNull(session.attach(first, new RecordingTransport(), 4, (c, s) -> fail()));
+    }
+}
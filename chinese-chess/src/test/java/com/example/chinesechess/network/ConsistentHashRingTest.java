@@ -0,0 +1,72 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试一致性哈希环的分布均匀性和增删节点时的迁移范围
+ */
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    public void testKeysSpreadEvenlyAcrossNodes() {
+        ConsistentHashRing<String> ring = ringOf(4);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.locate("room_" + i), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // 160个虚拟节点时每个节点应在平均值的±25%以内
+            assertTrue("分布不均: " + counts, Math.abs(count - KEYS / 4) < KEYS / 16);
+        }
+    }
+
+    @Test
+    public void testAddingNodeOnlyMovesKeysToIt() {
+        ConsistentHashRing<String> ring = ringOf(4);
+        String[] before = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            before[i] = ring.locate("room_" + i);
+        }
+        ring.add("s4", "s4");
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = ring.locate("room_" + i);
+            if (!owner.equals(before[i])) {
+                assertEquals("s4", owner);
+                moved++;
+            }
+        }
+        // 期望约1/5的键迁移到新节点
+        assertTrue("迁移数量异常: " + moved, moved > KEYS / 8 && moved < KEYS / 3);
+
+        ring.remove("s4");
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(before[i], ring.locate("room_" + i));
+        }
+    }
+
+    @Test
+    public void testEmptyRingLocatesNothing() {
+        ConsistentHashRing<String> ring = ringOf(1);
+        assertEquals("s0", ring.locate("room_1"));
+        ring.remove("s0");
+        assertTrue(ring.isEmpty());
+        assertNull(ring.locate("room_1"));
+    }
+
+    private static ConsistentHashRing<String> ringOf(int nodes) {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(160);
+        for (int i = 0; i < nodes; i++) {
+            ring.add("s" + i, "s" + i);
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试消息分帧的识别、拆包与粘包
+ */
+public class FrameCodecTest {
+
+    @Test
+    public void testNewlineFramesAcrossReads() throws Exception {
+        FrameCodec codec = new FrameCodec();
+        List<String> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        feed(codec, buffer, "{\"a\":1}\r\n{\"b\"", frames);
+        assertEquals(FrameCodec.Framing.NEWLINE, codec.getFraming());
+        assertEquals(Arrays.asList("{\"a\":1}"), frames);
+
+        feed(codec, buffer, ":2}\n\n{\"c\":3}\n", frames);
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}", "{\"c\":3}"), frames);
+    }
+
+    @Test
+    public void testLengthPrefixedFramesAcrossReads() throws Exception {
+        FrameCodec codec = new FrameCodec();
+        List<String> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        ByteBuffer first = FrameCodec.Framing.LENGTH_PREFIXED.encode("象棋");
+        ByteBuffer second = FrameCodec.Framing.LENGTH_PREFIXED.encode("{}");
+
+        ByteBuffer all = ByteBuffer.allocate(first.remaining() + second.remaining());
+        all.put(first).put(second).flip();
+        byte[] bytes = new byte[all.remaining()];
+        all.get(bytes);
+
+        feed(codec, buffer, Arrays.copyOfRange(bytes, 0, 5), frames);
+        assertEquals(FrameCodec.Framing.LENGTH_PREFIXED, codec.getFraming());
+        assertTrue(frames.isEmpty());
+
+        feed(codec, buffer, Arrays.copyOfRange(bytes, 5, bytes.length), frames);
+        assertEquals(Arrays.asList("象棋", "{}"), frames);
+    }
+
+    @Test(expected = FrameCodec.FrameTooLargeException.class)
+    public void testOversizedLineIsRejected() throws Exception {
+        FrameCodec codec = new FrameCodec(8);
+        feed(codec, ByteBuffer.allocate(64), "{\"too\":\"long\"", new ArrayList<>());
+    }
+
+    private static void feed(FrameCodec codec, ByteBuffer buffer, String text, List<String> frames) throws Exception {
+        feed(codec, buffer, text.getBytes(StandardCharsets.UTF_8), frames);
+    }
+
+    private static void feed(FrameCodec codec, ByteBuffer buffer, byte[] bytes, List<String> frames) throws Exception {
+        buffer.put(bytes);
+        buffer.flip();
+        codec.decode(buffer, frames::add);
+        buffer.compact();
+    }
+}
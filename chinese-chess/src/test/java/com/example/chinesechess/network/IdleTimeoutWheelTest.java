@@ -0,0 +1,61 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试空闲检测时间轮的到期、续期、跨圈和调整超时
+ */
+public class IdleTimeoutWheelTest {
+
+    private long nowMillis;
+    private final List<String> expired = new ArrayList<>();
+    // 100ms一个刻度，8个槽，一圈800ms
+    private final IdleTimeoutWheel<String> wheel = new IdleTimeoutWheel<>(100, 8, expired::addAll,
+            () -> TimeUnit.MILLISECONDS.toNanos(nowMillis));
+
+    private List<String> advanceTo(long millis) {
+        nowMillis = millis;
+        expired.clear();
+        wheel.advance();
+        Collections.sort(expired);
+        return new ArrayList<>(expired);
+    }
+
+    @Test
+    public void testExpiryTouchAndLongTimeouts() {
+        wheel.register("a", 300);
+        IdleTimeoutWheel.Handle<String> b = wheel.register("b", 300);
+        wheel.register("c", 2000);
+        wheel.register("d", 300).cancel();
+        wheel.register("never", 0);
+
+        assertEquals(Collections.emptyList(), advanceTo(200));
+        b.touch();
+        assertEquals(Arrays.asList("a"), advanceTo(300));
+        assertEquals(Collections.emptyList(), advanceTo(400));
+        assertEquals(Arrays.asList("b"), advanceTo(500));
+        // 超过一圈的超时不会提前到期
+        assertEquals(Collections.emptyList(), advanceTo(1900));
+        assertEquals(Arrays.asList("c"), advanceTo(2000));
+        assertEquals(Collections.emptyList(), advanceTo(10_000));
+    }
+
+    @Test
+    public void testShorterTimeoutIsRescheduled() {
+        IdleTimeoutWheel.Handle<String> lobby = wheel.register("lobby", 5000);
+        assertEquals(Collections.emptyList(), advanceTo(100));
+        lobby.setTimeout(200);
+        assertEquals(Collections.emptyList(), advanceTo(200));
+        assertEquals(Arrays.asList("lobby"), advanceTo(300));
+        // 到期后不再重复回调
+        assertEquals(Collections.emptyList(), advanceTo(6000));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试延迟直方图的分桶和百分位数精度
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundsAreContiguous() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1000, 123_456, 1L << 39}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= value);
+            assertTrue(value < LatencyHistogram.lowerBound(bucket + 1));
+        }
+        assertEquals(LatencyHistogram.bucketOf(1L << 40), LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 10L);   // 10us ~ 100ms均匀分布
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000, histogram.getPercentile(50), 50_000 * 0.04);
+        assertEquals(99_000, histogram.getPercentile(99), 99_000 * 0.04);
+        assertEquals(99_900, histogram.getPercentile(99.9), 99_900 * 0.04);
+        assertEquals(50_005, histogram.getMean(), 0.001);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.chinesechess.network;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试发送队列的写出调度和溢出策略
+ */
+public class OutboundQueueTest {
+
+    private static ByteBuffer encode(NetworkMessage message) {
+        return FrameCodec.Framing.NEWLINE.encode(message.toJson());
+    }
+
+    @Test
+    public void testOnlyFirstOfferSchedulesWriter() {
+        OutboundQueue queue = new OutboundQueue(8, 1 << 20, OutboundQueue.OverflowPolicy.DROP, new OutboundMetrics());
+        assertEquals(OutboundQueue.OfferResult.SCHEDULE_WRITER, queue.offer(new MoveMessage("p", 7, 7, 7, 4), OutboundQueueTest::encode));
+        assertEquals(OutboundQueue.OfferResult.QUEUED, queue.offer(new MoveMessage("p", 2, 7, 2, 4), OutboundQueueTest::encode));
+
+        ByteBuffer[] batch = new ByteBuffer[4];
+        assertEquals(2, queue.peekBatch(batch));
+        for (int i = 0; i < 2; i++) {
+            batch[i].position(batch[i].limit());
+        }
+        assertEquals(2, queue.removeWritten());
+        assertTrue(queue.finishIfEmpty());
+        assertEquals(OutboundQueue.OfferResult.SCHEDULE_WRITER, queue.offer(new HeartbeatMessage("p"), OutboundQueueTest::encode));
+    }
+
+    @Test
+    public void testDropPolicyDiscardsDroppableAndDisconnectsOnMoves() {
+        OutboundMetrics metrics = new OutboundMetrics();
+        OutboundQueue queue = new OutboundQueue(2, 1 << 20, OutboundQueue.OverflowPolicy.DROP, metrics);
+        queue.offer(new MoveMessage("p", 7, 7, 7, 4), OutboundQueueTest::encode);
+        queue.offer(new MoveMessage("p", 2, 7, 2, 4), OutboundQueueTest::encode);
+
+        assertEquals(OutboundQueue.OfferResult.DROPPED, queue.offer(new HeartbeatMessage("p"), OutboundQueueTest::encode));
+        assertEquals(2, queue.getDepth());
+        assertEquals(1, metrics.getDropped());
+
+        assertEquals(OutboundQueue.OfferResult.OVERFLOW, queue.offer(new MoveMessage("p", 9, 1, 7, 2), OutboundQueueTest::encode));
+        assertEquals(0, queue.getDepth());
+        assertEquals(1, metrics.getOverflowDisconnects());
+    }
+
+    @Test
+    public void testDisconnectPolicyNeverDrops() {
+        OutboundQueue queue = new OutboundQueue(1, 1 << 20, OutboundQueue.OverflowPolicy.DISCONNECT, new OutboundMetrics());
+        queue.offer(new MoveMessage("p", 7, 7, 7, 4), OutboundQueueTest::encode);
+        assertEquals(OutboundQueue.OfferResult.OVERFLOW, queue.offer(new HeartbeatMessage("p"), OutboundQueueTest::encode));
+    }
+}
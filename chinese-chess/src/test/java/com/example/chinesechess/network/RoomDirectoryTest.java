@@ -0,0 +1,87 @@
+package com.example.chinesechess.network;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试房间目录的分页查询和订阅增量合并
+ */
+public class RoomDirectoryTest {
+
+    private final List<String> recipients = new ArrayList<>();
+    private final List<RoomUpdateMessage> updates = new ArrayList<>();
+    // 推送周期足够长，由测试手动flush
+    private final RoomDirectory directory = new RoomDirectory((id, update) -> {
+        recipients.add(id);
+        updates.add(update);
+    }, 60_000);
+
+    @After
+    public void tearDown() {
+        directory.shutdown();
+    }
+
+    private static RoomInfo room(String id, String type, String state, int players) {
+        return new RoomInfo(id, id, "host", players, 2, false, state, type);
+    }
+
+    @Test
+    public void testQueryByTypeAndStateWithPaging() {
+        for (int i = 0; i < 5; i++) {
+            directory.upsert(room("c" + i, "chinese-chess", "WAITING", 1));
+        }
+        directory.upsert(room("g0", "go-game", "WAITING", 1));
+        directory.upsert(room("c1", "chinese-chess", "PLAYING", 2));
+
+        RoomDirectory.Page page = directory.query("chinese-chess", "WAITING", 1, 2);
+        assertEquals(4, page.getTotalCount());
+        assertEquals(2, page.getRooms().size());
+        assertEquals("c2", page.getRooms().get(0).getRoomId());
+        assertEquals("c3", page.getRooms().get(1).getRoomId());
+
+        assertEquals(6, directory.query(null, null, 0, 0).getTotalCount());
+        assertEquals(1, directory.query(null, "PLAYING", 0, 0).getTotalCount());
+        assertTrue(directory.query("chinese-chess", "WAITING", 10, 2).getRooms().isEmpty());
+
+        directory.remove("c1");
+        assertEquals(0, directory.query(null, "PLAYING", 0, 0).getTotalCount());
+        assertEquals(5, directory.query(null, null, 0, 0).getTotalCount());
+    }
+
+    @Test
+    public void testSubscriberReceivesCoalescedChanges() {
+        directory.upsert(room("r1", "chinese-chess", "WAITING", 1));
+        List<RoomDirectory.Page> snapshots = new ArrayList<>();
+        directory.subscribe("p1", "chinese-chess", snapshots::add);
+        assertEquals(1, snapshots.get(0).getRooms().size());
+        assertTrue(updates.isEmpty());
+
+        directory.upsert(room("r1", "chinese-chess", "WAITING", 2));
+        directory.upsert(room("r1", "chinese-chess", "PLAYING", 2));   // 同一周期内合并为一次变化
+        directory.upsert(room("r2", "chinese-chess", "WAITING", 1));
+        directory.upsert(room("r2", "chinese-chess", "WAITING", 2));   // 新增后的变化仍是新增
+        directory.upsert(room("r3", "chinese-chess", "WAITING", 1));
+        directory.remove("r3");                                          // 新增又删除，不推送
+        directory.upsert(room("g1", "go-game", "WAITING", 1));          // 未订阅的游戏类型
+        directory.flush();
+
+        assertEquals(1, updates.size());
+        RoomUpdateMessage update = updates.get(0);
+        assertEquals("p1", recipients.get(0));
+        assertEquals(1, update.getChanged().size());
+        assertEquals("PLAYING", update.getChanged().get(0).getGameStatus());
+        assertEquals(1, update.getAdded().size());
+        assertEquals(2, update.getAdded().get(0).getCurrentPlayers());
+        assertTrue(update.getRemoved().isEmpty());
+
+        directory.remove("r1");
+        directory.unsubscribe("p1");
+        directory.flush();
+        assertEquals(1, updates.size());
+    }
+}
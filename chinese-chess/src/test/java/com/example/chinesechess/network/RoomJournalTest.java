@@ -0,0 +1,108 @@
+package com.example.chinesechess.network;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试房间日志的重放、残缺尾部和快照压缩
+ */
+public class RoomJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoomsSurviveReopen() throws IOException {
+        File dir = folder.newFolder();
+        RoomJournal journal = new RoomJournal(dir, 5, 1000);
+        assertTrue(journal.open().isEmpty());
+        journal.roomCreated("room_1000", "测试房间", "", "chinese-chess", "p1", "红方玩家", "token1");
+        journal.playerJoined("room_1000", "p2", "黑方玩家", "token2");
+        journal.gameStarted("room_1000", "p1", "p2");
+        journal.moveMade("room_1000", 64, 67);
+        journal.moveMade("room_1000", 19, 22);
+        journal.roomCreated("room_1001", "空房间", "", "chinese-chess", "p3", "路人", null);
+        journal.playerLeft("room_1001", "p3");
+        journal.roomRemoved("room_1001");
+        journal.close();
+
+        RoomJournal reopened = new RoomJournal(dir, 5, 1000);
+        Collection<RoomJournal.RoomState> rooms = reopened.open();
+        reopened.close();
+        assertEquals(1, rooms.size());
+        RoomJournal.RoomState room = rooms.iterator().next();
+        assertEquals("room_1000", room.getRoomId());
+        assertEquals("测试房间", room.getRoomName());
+        assertEquals("PLAYING", room.getGameState());
+        assertEquals("p1", room.getRedPlayer());
+        assertEquals(2, room.getSeats().size());
+        assertEquals("token2", room.getSeats().get(1).getToken());
+        assertEquals(2, room.getMoveCount());
+        assertEquals(19, room.getMoveFrom(1));
+        assertEquals(22, room.getMoveTo(1));
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws IOException {
+        File dir = folder.newFolder();
+        RoomJournal journal = new RoomJournal(dir, 5, 1000);
+        journal.open();
+        journal.roomCreated("room_1000", "房间", "", "chinese-chess", "p1", "玩家", "token1");
+        journal.gameStarted("room_1000", "p1", "p2");
+        journal.moveMade("room_1000", 64, 67);
+        journal.close();
+
+        // 模拟崩溃时只写出了一半的记录
+        try (FileOutputStream out = new FileOutputStream(files(dir, ".log").get(0), true)) {
+            out.write(new byte[] {0, 0, 0, 40, 1, 2, 3});
+        }
+        RoomJournal reopened = new RoomJournal(dir, 5, 1000);
+        Collection<RoomJournal.RoomState> rooms = reopened.open();
+        reopened.close();
+        assertEquals(1, rooms.size());
+        assertEquals(1, rooms.iterator().next().getMoveCount());
+    }
+
+    @Test
+    public void testSnapshotCompactsOldFiles() throws IOException {
+        File dir = folder.newFolder();
+        RoomJournal journal = new RoomJournal(dir, 5, 10);
+        journal.open();
+        journal.roomCreated("room_1000", "房间", "", "chinese-chess", "p1", "玩家", "token1");
+        journal.gameStarted("room_1000", "p1", "p2");
+        for (int i = 0; i < 40; i++) {
+            journal.moveMade("room_1000", i, i + 1);
+        }
+        journal.close();
+
+        // 只剩最新一代的快照和日志
+        assertEquals(1, files(dir, ".bin").size());
+        assertEquals(1, files(dir, ".log").size());
+        RoomJournal reopened = new RoomJournal(dir, 5, 10);
+        Collection<RoomJournal.RoomState> rooms = reopened.open();
+        reopened.close();
+        assertEquals(40, rooms.iterator().next().getMoveCount());
+    }
+
+    private static List<File> files(File dir, String suffix) {
+        List<File> matched = new ArrayList<>();
+        for (File file : dir.listFiles()) {
+            if (file.getName().endsWith(suffix)) {
+                matched.add(file);
+            }
+        }
+        matched.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return matched;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.common.ui.anim;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * 全局共享的动画时钟。
+ * <p>
+ * 所有动画和延时任务都挂在同一个Swing Timer上，在EDT上按帧统一推进：
+ * 有动画时按 {@link #FRAME_MS} 节拍唤醒；只有延时任务时直接睡到最近的到期时间；
+ * 没有任何任务时完全停止，不再产生EDT唤醒。
+ * <p>
+ * 所有回调都在EDT上执行，注册方法可以在任意线程调用。
+ */
+public final class AnimationClock {
+
+    /** 帧间隔（约60FPS） */
+    public static final int FRAME_MS = 16;
+
+    private static final AnimationClock INSTANCE = new AnimationClock();
+
+    /**
+     * 每帧回调。
+     */
+    @FunctionalInterface
+    public interface FrameCallback {
+        /**
+         * @param frameTimeMs 本帧时间戳（单调时钟，毫秒）
+         * @param deltaMs 距上一帧的毫秒数
+         * @return 返回false表示动画结束，从时钟上移除
+         */
+        boolean onFrame(long frameTimeMs, long deltaMs);
+    }
+
+    /**
+     * 已注册任务的句柄，可用于取消。
+     */
+    public static final class Handle {
+        private volatile boolean cancelled;
+        private volatile boolean finished;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /** 任务尚未完成且未被取消 */
+        public boolean isActive() {
+            return !cancelled && !finished;
+        }
+    }
+
+    private static final class FrameTask {
+        final FrameCallback callback;
+        final Handle handle;
+
+        FrameTask(FrameCallback callback, Handle handle) {
+            this.callback = callback;
+            this.handle = handle;
+        }
+    }
+
+    private static final class DelayedTask implements Comparable<DelayedTask> {
+        final long dueAt;
+        final long seq;
+        final Runnable action;
+        final Handle handle;
+
+        DelayedTask(long dueAt, long seq, Runnable action, Handle handle) {
+            this.dueAt = dueAt;
+            this.seq = seq;
+            this.action = action;
+            this.handle = handle;
+        }
+
+        @Override
+        public int compareTo(DelayedTask o) {
+            int c = Long.compare(dueAt, o.dueAt);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    // 以下状态只在EDT上访问
+    private final List<FrameTask> frameTasks = new ArrayList<>();
+    private final PriorityQueue<DelayedTask> delayedTasks = new PriorityQueue<>();
+    private final Timer timer;
+    private long lastFrameMs;
+    private long nextWakeAt = Long.MAX_VALUE;
+    private long sequence;
+    private long frameCount;
+
+    private AnimationClock() {
+        timer = new Timer(FRAME_MS, e -> tick());
+        timer.setRepeats(false);
+        timer.setCoalesce(true);
+    }
+
+    public static AnimationClock getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册每帧回调，直到回调返回false或被取消。
+     */
+    public Handle addFrameCallback(FrameCallback callback) {
+        Handle handle = new Handle();
+        runOnEdt(() -> {
+            frameTasks.add(new FrameTask(callback, handle));
+            wakeAt(now() + FRAME_MS);
+        });
+        return handle;
+    }
+
+    /**
+     * 启动一个定长动画。
+     *
+     * @param durationMs 时长（毫秒）
+     * @param easing 缓动函数，null表示匀速
+     * @param updater 每帧接收缓动后的进度，最后一帧保证为1
+     * @param onComplete 正常结束后调用，被取消时不调用
+     */
+    public Handle animate(int durationMs, Easing easing, Consumer<Float> updater, Runnable onComplete) {
+        Easing curve = easing != null ? easing : Easing.LINEAR;
+        long start = now();
+        return addFrameCallback((frameTime, delta) -> {
+            float t = durationMs <= 0 ? 1f : Math.min(1f, (frameTime - start) / (float) durationMs);
+            if (updater != null) {
+                updater.accept(t >= 1f ? 1f : curve.apply(t));
+            }
+            if (t >= 1f) {
+                if (onComplete != null) {
+                    onComplete.run();
+                }
+                return false;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * 在指定延迟后于EDT上执行一次任务，替代一次性的Swing Timer。
+     */
+    public Handle schedule(int delayMs, Runnable action) {
+        Handle handle = new Handle();
+        long dueAt = now() + Math.max(0, delayMs);
+        runOnEdt(() -> {
+            delayedTasks.add(new DelayedTask(dueAt, sequence++, action, handle));
+            wakeAt(dueAt);
+        });
+        return handle;
+    }
+
+    /** 当前活跃的帧动画数量 */
+    public int getActiveAnimationCount() {
+        return frameTasks.size();
+    }
+
+    /** 等待中的延时任务数量 */
+    public int getPendingTaskCount() {
+        return delayedTasks.size();
+    }
+
+    /** 时钟启动以来推进的总帧数 */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /** 时钟是否处于完全休眠状态 */
+    public boolean isSleeping() {
+        return !timer.isRunning();
+    }
+
+    private void tick() {
+        long now = now();
+        long delta = lastFrameMs == 0 ? FRAME_MS : now - lastFrameMs;
+        nextWakeAt = Long.MAX_VALUE;
+
+        List<DelayedTask> due = new ArrayList<>();
+        while (!delayedTasks.isEmpty() && delayedTasks.peek().dueAt <= now) {
+            DelayedTask task = delayedTasks.poll();
+            if (!task.handle.cancelled) {
+                task.handle.finished = true;
+                due.add(task);
+            }
+        }
+
+        if (!frameTasks.isEmpty()) {
+            frameCount++;
+            lastFrameMs = now;
+            // 回调中可能注册新的动画，先取快照再推进
+            List<FrameTask> snapshot = new ArrayList<>(frameTasks);
+            for (FrameTask task : snapshot) {
+                boolean keep = false;
+                if (!task.handle.cancelled) {
+                    try {
+                        keep = task.callback.onFrame(now, delta);
+                    } catch (RuntimeException ex) {
+                        System.err.println("❌ 动画回调异常: " + ex.getMessage());
+                    }
+                }
+                if (!keep) {
+                    task.handle.finished = true;
+                    frameTasks.remove(task);
+                }
+            }
+        }
+
+        reschedule(now);
+
+        // 延时任务最后执行：任务里弹出模态对话框时，时钟已经重新排程，其他动画不会被卡住
+        for (DelayedTask task : due) {
+            try {
+                task.action.run();
+            } catch (RuntimeException ex) {
+                System.err.println("❌ 延时任务执行异常: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void reschedule(long now) {
+        while (!delayedTasks.isEmpty() && delayedTasks.peek().handle.cancelled) {
+            delayedTasks.poll();
+        }
+        if (!frameTasks.isEmpty()) {
+            wakeAt(now + FRAME_MS);
+        } else {
+            lastFrameMs = 0;
+            if (!delayedTasks.isEmpty()) {
+                wakeAt(delayedTasks.peek().dueAt);
+            } else {
+                timer.stop();
+                nextWakeAt = Long.MAX_VALUE;
+            }
+        }
+    }
+
+    /** 仅当目标时间早于已安排的唤醒时间时才重设定时器，避免频繁注册推迟下一帧 */
+    private void wakeAt(long target) {
+        if (timer.isRunning() && target >= nextWakeAt) {
+            return;
+        }
+        nextWakeAt = target;
+        timer.setInitialDelay((int) Math.max(0, target - now()));
+        timer.restart();
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000L;
+    }
+
+    private static void runOnEdt(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            r.run();
+        } else {
+            SwingUtilities.invokeLater(r);
+        }
+    }
+}
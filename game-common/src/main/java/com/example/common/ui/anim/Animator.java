@@ -1,42 +1,43 @@
 package com.example.common.ui.anim;
 
-import javax.swing.Timer;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.function.Consumer;
 
 /**
- * 简单的基于Timer的60FPS动画器，提供t∈[0,1]的插值回调。
+ * 简单的60FPS动画器，提供t∈[0,1]的插值回调。
+ * 由共享的 {@link AnimationClock} 驱动，不再为每个动画单独创建Timer。
  */
 public class Animator {
-    private final Timer timer;
-    private final long start;
     private final int duration;
+    private final Easing easing;
+    private final Consumer<Float> updater;
+    private final Runnable onComplete;
+    private AnimationClock.Handle handle;
 
     public Animator(int durationMs, Consumer<Float> updater, Runnable onComplete) {
+        this(durationMs, Easing.LINEAR, updater, onComplete);
+    }
+
+    public Animator(int durationMs, Easing easing, Consumer<Float> updater, Runnable onComplete) {
         this.duration = durationMs;
-        this.start = System.currentTimeMillis();
-        int delay = 1000 / 60;
-        this.timer = new Timer(delay, null);
-        this.timer.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                float t = (System.currentTimeMillis() - start) / (float) duration;
-                if (t >= 1f) {
-                    t = 1f;
-                }
-                updater.accept(t);
-                if (t >= 1f) {
-                    timer.stop();
-                    if (onComplete != null) {
-                        onComplete.run();
-                    }
-                }
-            }
-        });
+        this.easing = easing;
+        this.updater = updater;
+        this.onComplete = onComplete;
     }
 
     public void start() {
-        timer.start();
+        stop();
+        handle = AnimationClock.getInstance().animate(duration, easing, updater, onComplete);
+    }
+
+    /** 停止动画，不触发完成回调 */
+    public void stop() {
+        if (handle != null) {
+            handle.cancel();
+            handle = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return handle != null && handle.isActive();
     }
 }
@@ -0,0 +1,21 @@
+package com.example.common.ui.anim;
+
+/**
+ * 缓动函数，将线性进度t∈[0,1]映射为动画进度。
+ */
+@FunctionalInterface
+public interface Easing {
+    float apply(float t);
+
+    /** 匀速 */
+    Easing LINEAR = t -> t;
+
+    /** 先快后慢，适合落子、飞入 */
+    Easing EASE_OUT_CUBIC = t -> {
+        float u = t - 1f;
+        return u * u * u + 1f;
+    };
+
+    /** 两端慢中间快，适合横幅淡入淡出 */
+    Easing EASE_IN_OUT_QUAD = t -> t < 0.5f ? 2f * t * t : 1f - (-2f * t + 2f) * (-2f * t + 2f) / 2f;
+}
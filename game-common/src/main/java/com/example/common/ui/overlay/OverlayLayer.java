@@ -1,5 +1,8 @@
 package com.example.common.ui.overlay;
 
+import com.example.common.ui.anim.AnimationClock;
+import com.example.common.ui.anim.Easing;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
@@ -18,11 +21,11 @@ public class OverlayLayer extends JComponent {
     private String bannerText;
     private Style bannerStyle;
     private float bannerAlpha;
-    private Timer bannerTimer;
+    private AnimationClock.Handle bannerAnim;
 
     private final List<Particle> particles = new ArrayList<>();
     private final List<Ring> rings = new ArrayList<>();
-    private Timer particleTimer;
+    private AnimationClock.Handle particleAnim;
     private final Random random = new Random();
     private AffineTransform viewTx = new AffineTransform();
 
@@ -30,41 +33,31 @@ public class OverlayLayer extends JComponent {
     public void showBanner(String text, Style style, int durationMs) {
         this.bannerText = text;
         this.bannerStyle = style;
-        long start = System.currentTimeMillis();
-        long fade = (style == Style.ALERT_BRUSH) ? 200 : 400;
-        long end = start + durationMs;
-        if (bannerTimer != null) {
-            bannerTimer.stop();
+        float fade = Math.min((style == Style.ALERT_BRUSH) ? 200f : 400f, durationMs / 2f);
+        if (bannerAnim != null) {
+            bannerAnim.cancel();
         }
-        bannerTimer = new Timer(16, e -> {
-            long now = System.currentTimeMillis();
-            long elapsed = now - start;
+        bannerAnim = AnimationClock.getInstance().animate(durationMs, Easing.LINEAR, t -> {
+            float elapsed = t * durationMs;
             if (elapsed < fade) {
-                bannerAlpha = elapsed / (float) fade;
-            } else if (now > end - fade) {
-                bannerAlpha = Math.max(0f, (end - now) / (float) fade);
+                bannerAlpha = elapsed / fade;
+            } else if (elapsed > durationMs - fade) {
+                bannerAlpha = Math.max(0f, (durationMs - elapsed) / fade);
             } else {
                 bannerAlpha = 1f;
             }
-            if (now >= end) {
-                bannerTimer.stop();
-            }
             repaint();
-        });
-        bannerTimer.start();
+        }, null);
     }
 
     /** 播放简单烟花粒子效果 */
     public void playFireworks(int durationMs) {
-        long start = System.currentTimeMillis();
-        if (particleTimer != null) {
-            particleTimer.stop();
+        long start = System.nanoTime() / 1_000_000L;
+        if (particleAnim != null) {
+            particleAnim.cancel();
         }
-        particleTimer = new Timer(16, e -> {
-            long now = System.currentTimeMillis();
-            if (now - start > durationMs) {
-                particleTimer.stop();
-            }
+        particleAnim = AnimationClock.getInstance().addFrameCallback((now, delta) -> {
+            boolean spawning = now - start <= durationMs;
             // 更新粒子
             Iterator<Particle> it = particles.iterator();
             while (it.hasNext()) {
@@ -77,7 +70,7 @@ public class OverlayLayer extends JComponent {
                 }
             }
             // 生成新粒子
-            for (int i = 0; i < 3; i++) {
+            for (int i = 0; spawning && i < 3; i++) {
                 Particle p = new Particle();
                 p.x = random.nextInt(Math.max(1, getWidth()));
                 p.y = random.nextInt(Math.max(1, getHeight() / 2));
@@ -90,30 +83,27 @@ public class OverlayLayer extends JComponent {
                 particles.add(p);
             }
             repaint();
+            // 停止生成后继续推进，直到剩余粒子全部消失
+            return spawning || !particles.isEmpty();
         });
-        particleTimer.start();
     }
 
     /** 播放冲击波环效果 */
     public void playImpactRing(int x, int y) {
         rings.add(new Ring(x, y));
-        if (impactTimer == null) {
-            impactTimer = new Timer(16, e -> {
+        if (impactAnim == null || !impactAnim.isActive()) {
+            impactAnim = AnimationClock.getInstance().addFrameCallback((now, delta) -> {
                 Iterator<Ring> it = rings.iterator();
                 while (it.hasNext()) {
                     Ring r = it.next();
-                    r.age += 16;
+                    r.age += (int) delta;
                     if (r.age > 200) {
                         it.remove();
                     }
                 }
-                if (rings.isEmpty()) {
-                    impactTimer.stop();
-                    impactTimer = null;
-                }
                 repaint();
+                return !rings.isEmpty();
             });
-            impactTimer.start();
         }
     }
 
@@ -195,7 +185,7 @@ public class OverlayLayer extends JComponent {
         Ring(int x, int y) { this.x = x; this.y = y; }
     }
 
-    private Timer impactTimer;
+    private AnimationClock.Handle impactAnim;
 
     public void setViewScale(double viewScale) {
         this.viewTx = AffineTransform.getScaleInstance(viewScale, viewScale);
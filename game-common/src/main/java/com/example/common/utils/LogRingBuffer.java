@@ -0,0 +1,105 @@
+package com.example.common.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 无锁的多生产者/单消费者环形缓冲区，用于日志等高频消息的暂存。
+ * <p>
+ * 生产者通过原子自增领取序号后直接写槽位，从不阻塞；缓冲区满时覆盖最旧的条目，
+ * 被覆盖的条目计入 {@link #getDroppedCount()}。消费端只能由单个线程调用
+ * {@link #drainTo(Consumer, int)}。
+ */
+public final class LogRingBuffer<T> {
+
+    private static final class Slot<T> {
+        final long seq;
+        final T value;
+
+        Slot(long seq, T value) {
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long tail;
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public LogRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * 写入一条消息，任意线程可调用，永不阻塞。
+     */
+    public void offer(T value) {
+        long seq = head.getAndIncrement();
+        slots.set((int) (seq & mask), new Slot<>(seq, value));
+    }
+
+    /**
+     * 按写入顺序取出最多 max 条消息，只能由单个消费线程调用。
+     *
+     * @return 实际取出的条数
+     */
+    public int drainTo(Consumer<? super T> sink, int max) {
+        long h = head.get();
+        long t = tail;
+        if (h - t > capacity) {
+            // 生产者已经绕过一整圈，最旧的部分不可能再读到
+            dropped.addAndGet(h - capacity - t);
+            t = h - capacity;
+        }
+        int drained = 0;
+        while (t < h && drained < max) {
+            Slot<T> slot = slots.get((int) (t & mask));
+            if (slot == null || slot.seq < t) {
+                // 序号已被领取但尚未写入，留给下次消费
+                break;
+            }
+            if (slot.seq > t) {
+                dropped.incrementAndGet();
+            } else {
+                sink.accept(slot.value);
+                drained++;
+            }
+            t++;
+        }
+        tail = t;
+        return drained;
+    }
+
+    /** 丢弃所有未消费的消息，只能由消费线程调用 */
+    public void clear() {
+        drainTo(v -> { }, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return head.get() <= tail;
+    }
+
+    /** 尚未消费的消息数（近似值） */
+    public int size() {
+        return (int) Math.min(capacity, Math.max(0, head.get() - tail));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** 因缓冲区满被覆盖丢弃的累计条数 */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -2,63 +2,466 @@ package com.example.common.utils;
 
 import com.example.common.config.ConfigurationManager;
 
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * 简化的日志工具类
  * 提供统一的日志输出控制，减少控制台噪音
+ * <p>
+ * 日志为异步输出：调用线程只做级别判断并把消息交给无锁环形缓冲区，
+ * 格式化和写stdout/stderr都在后台写线程中完成。级别关闭时调用开销只有一次volatile读取。
+ * 搜索、引擎等热路径请使用 {@link #category(String)} 获取分类日志，并用 {@code {}} 占位符传参，
+ * 避免在关闭日志时仍然拼接字符串。参数在后台线程格式化，请传入不可变的值。
  */
 public class Logger {
-    private static final ConfigurationManager config = ConfigurationManager.getInstance();
-    
+
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int IDLE_SPINS = 64;
+
+    private static final LogRingBuffer<Record> BUFFER = new LogRingBuffer<>(BUFFER_CAPACITY);
+    private static final Map<String, Category> CATEGORIES = new ConcurrentHashMap<>();
+    private static final Category ROOT = new Category("", Gate.NONE);
+    private static final Category AI = new Category("AI", Gate.AI);
+    private static final Category ENGINE = new Category("ENGINE", Gate.ENGINE);
+
+    // 配置在启动时读取一次，热路径上只读取这些volatile字段
+    private static volatile int threshold;
+    private static volatile boolean debugEnabled;
+    private static volatile boolean aiEnabled;
+    private static volatile boolean engineEnabled;
+    private static volatile boolean async;
+
+    private static volatile Thread writer;
+    private static volatile boolean writerParked;
+    private static long reportedDropped;
+
+    static {
+        refreshConfig();
+    }
+
+    /** 分类日志的额外开关 */
+    private enum Gate { NONE, AI, ENGINE }
+
     public static void info(String message) {
-        if (config.getBoolean("logging.enabled", true) && 
-            isLevelEnabled("INFO")) {
-            System.out.println("[INFO] " + message);
-        }
+        ROOT.info(message);
     }
-    
+
     public static void error(String message) {
-        if (config.getBoolean("logging.enabled", true) && 
-            isLevelEnabled("ERROR")) {
-            System.err.println("[ERROR] " + message);
-        }
+        ROOT.error(message);
     }
-    
+
     public static void debug(String message) {
-        if (config.getBoolean("debug.enabled", false) && 
-            isLevelEnabled("DEBUG")) {
-            System.out.println("[DEBUG] " + message);
-        }
+        ROOT.debug(message);
     }
-    
+
     public static void warn(String message) {
-        if (config.getBoolean("logging.enabled", true) && 
-            isLevelEnabled("WARN")) {
-            System.out.println("[WARN] " + message);
-        }
+        ROOT.warn(message);
     }
-    
-    private static boolean isLevelEnabled(String level) {
-        String configLevel = config.getString("logging.level", "INFO");
-        switch (configLevel.toUpperCase()) {
-            case "DEBUG": return true;
-            case "INFO": return !"DEBUG".equals(level);
-            case "WARN": return "WARN".equals(level) || "ERROR".equals(level);
-            case "ERROR": return "ERROR".equals(level);
-            default: return true;
-        }
+
+    public static void info(String pattern, Object arg) {
+        ROOT.info(pattern, arg);
     }
-    
+
+    public static void info(String pattern, Object arg1, Object arg2) {
+        ROOT.info(pattern, arg1, arg2);
+    }
+
+    public static void debug(String pattern, Object arg) {
+        ROOT.debug(pattern, arg);
+    }
+
+    public static void debug(String pattern, Object arg1, Object arg2) {
+        ROOT.debug(pattern, arg1, arg2);
+    }
+
+    public static void warn(String pattern, Object arg) {
+        ROOT.warn(pattern, arg);
+    }
+
+    public static void error(String pattern, Object arg) {
+        ROOT.error(pattern, arg);
+    }
+
     // AI相关日志，可以独立控制
     public static void aiDebug(String message) {
-        if (config.getBoolean("ai.logging.enabled", false)) {
-            System.out.println("[AI] " + message);
-        }
+        AI.debug(message);
     }
-    
+
     // 引擎输出日志，可以独立控制
     public static void engineDebug(String message) {
-        if (config.getBoolean("log.engine.output", false)) {
-            System.out.println("[ENGINE] " + message);
+        ENGINE.debug(message);
+    }
+
+    /**
+     * 获取普通分类日志，同名分类共享同一实例
+     */
+    public static Category category(String name) {
+        return CATEGORIES.computeIfAbsent(name, n -> new Category(n, Gate.NONE));
+    }
+
+    /**
+     * 获取AI分类日志，DEBUG级别与aiDebug一样由 ai.logging.enabled 控制
+     */
+    public static Category aiCategory(String name) {
+        return CATEGORIES.computeIfAbsent("AI/" + name, n -> new Category(name, Gate.AI));
+    }
+
+    /**
+     * 获取引擎分类日志，DEBUG级别与engineDebug一样由 log.engine.output 控制
+     */
+    public static Category engineCategory(String name) {
+        return CATEGORIES.computeIfAbsent("ENGINE/" + name, n -> new Category(name, Gate.ENGINE));
+    }
+
+    public static boolean isEnabled(Level level) {
+        if (level == Level.DEBUG) {
+            return debugEnabled;
+        }
+        return level.ordinal() >= threshold;
+    }
+
+    public static boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+
+    /**
+     * 重新读取日志配置
+     */
+    public static void refreshConfig() {
+        boolean enabled = Boolean.parseBoolean(setting("logging.enabled", "true"));
+        Level level;
+        try {
+            level = Level.valueOf(setting("logging.level", "INFO").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            level = Level.DEBUG;
+        }
+        threshold = enabled ? level.ordinal() : Level.OFF.ordinal();
+        debugEnabled = level == Level.DEBUG && Boolean.parseBoolean(setting("debug.enabled", "false"));
+        aiEnabled = Boolean.parseBoolean(setting("ai.logging.enabled", "false"));
+        engineEnabled = Boolean.parseBoolean(setting("log.engine.output", "false"));
+        async = Boolean.parseBoolean(setting("logging.async", "true"));
+    }
+
+    /**
+     * 在测试或运行时直接调整日志级别
+     */
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+        debugEnabled = level == Level.DEBUG;
+    }
+
+    /**
+     * 单独开关AI/引擎分类的DEBUG输出
+     */
+    public static void setAiDebugEnabled(boolean ai, boolean engine) {
+        aiEnabled = ai;
+        engineEnabled = engine;
+    }
+
+    /**
+     * 阻塞等待缓冲区中的日志写出，最多等待指定毫秒数
+     */
+    public static void flush(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Thread w = writer;
+        while (w != null && !BUFFER.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.unpark(w);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /** 因缓冲区溢出而丢弃的日志条数 */
+    public static long getDroppedCount() {
+        return BUFFER.getDroppedCount();
+    }
+
+    /**
+     * 读取配置：系统属性优先，其次是ConfigurationManager
+     */
+    private static String setting(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value != null) {
+            return value;
+        }
+        return ConfigurationManager.getInstance().getString(key, defaultValue);
+    }
+
+    /**
+     * 分类日志。可设置采样上限，超出上限的消息在级别判断后直接丢弃，
+     * 并在下一条输出时附带被省略的条数，类似RateLimitedLogger但不依赖固定间隔。
+     */
+    public static final class Category {
+        private final String name;
+        private final Gate gate;
+        private volatile int maxPerSecond;
+        private volatile long windowStart;
+        private final AtomicInteger windowCount = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Category(String name, Gate gate) {
+            this.name = name;
+            this.gate = gate;
+        }
+
+        /**
+         * 设置每秒最多输出的条数，0表示不限制
+         */
+        public Category sampled(int maxPerSecond) {
+            this.maxPerSecond = Math.max(0, maxPerSecond);
+            return this;
+        }
+
+        public boolean isDebugEnabled() {
+            switch (gate) {
+                case AI: return aiEnabled;
+                case ENGINE: return engineEnabled;
+                default: return debugEnabled;
+            }
+        }
+
+        public boolean isInfoEnabled() {
+            return Level.INFO.ordinal() >= threshold;
+        }
+
+        public boolean isEnabled(Level level) {
+            return level == Level.DEBUG ? isDebugEnabled() : level.ordinal() >= threshold;
+        }
+
+        public void debug(String message) {
+            if (isDebugEnabled()) log(Level.DEBUG, message, null, null);
+        }
+
+        public void debug(String pattern, Object arg) {
+            if (isDebugEnabled()) log(Level.DEBUG, pattern, new Object[]{arg}, null);
+        }
+
+        public void debug(String pattern, Object arg1, Object arg2) {
+            if (isDebugEnabled()) log(Level.DEBUG, pattern, new Object[]{arg1, arg2}, null);
+        }
+
+        public void debug(String pattern, Object arg1, Object arg2, Object arg3) {
+            if (isDebugEnabled()) log(Level.DEBUG, pattern, new Object[]{arg1, arg2, arg3}, null);
+        }
+
+        public void debug(String pattern, Object... args) {
+            if (isDebugEnabled()) log(Level.DEBUG, pattern, args, null);
+        }
+
+        public void info(String message) {
+            if (isInfoEnabled()) log(Level.INFO, message, null, null);
+        }
+
+        public void info(String pattern, Object arg) {
+            if (isInfoEnabled()) log(Level.INFO, pattern, new Object[]{arg}, null);
+        }
+
+        public void info(String pattern, Object arg1, Object arg2) {
+            if (isInfoEnabled()) log(Level.INFO, pattern, new Object[]{arg1, arg2}, null);
+        }
+
+        public void info(String pattern, Object arg1, Object arg2, Object arg3) {
+            if (isInfoEnabled()) log(Level.INFO, pattern, new Object[]{arg1, arg2, arg3}, null);
+        }
+
+        public void info(String pattern, Object... args) {
+            if (isInfoEnabled()) log(Level.INFO, pattern, args, null);
+        }
+
+        public void warn(String message) {
+            if (isEnabled(Level.WARN)) log(Level.WARN, message, null, null);
+        }
+
+        public void warn(String pattern, Object arg) {
+            if (isEnabled(Level.WARN)) log(Level.WARN, pattern, new Object[]{arg}, null);
+        }
+
+        public void warn(String pattern, Object... args) {
+            if (isEnabled(Level.WARN)) log(Level.WARN, pattern, args, null);
+        }
+
+        public void error(String message) {
+            if (isEnabled(Level.ERROR)) log(Level.ERROR, message, null, null);
+        }
+
+        public void error(String pattern, Object arg) {
+            if (isEnabled(Level.ERROR)) log(Level.ERROR, pattern, new Object[]{arg}, null);
+        }
+
+        public void error(String message, Throwable error) {
+            if (isEnabled(Level.ERROR)) log(Level.ERROR, message, null, error);
+        }
+
+        public void error(String pattern, Object... args) {
+            if (isEnabled(Level.ERROR)) log(Level.ERROR, pattern, args, null);
+        }
+
+        private void log(Level level, String pattern, Object[] args, Throwable error) {
+            long skipped = 0;
+            if (maxPerSecond > 0 && level != Level.ERROR) {
+                long now = System.nanoTime();
+                if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                    windowStart = now;
+                    windowCount.set(0);
+                }
+                if (windowCount.incrementAndGet() > maxPerSecond) {
+                    suppressed.incrementAndGet();
+                    return;
+                }
+                skipped = suppressed.getAndSet(0);
+            }
+            Record record = new Record(level, name, pattern, args, error, skipped);
+            if (!async) {
+                write(record);
+                return;
+            }
+            BUFFER.offer(record);
+            Thread w = writer;
+            if (w == null) {
+                startWriter();
+            } else if (writerParked) {
+                LockSupport.unpark(w);
+            }
+        }
+    }
+
+    /** 待写出的日志记录，格式化推迟到写线程 */
+    private static final class Record {
+        final Level level;
+        final String category;
+        final String pattern;
+        final Object[] args;
+        final Throwable error;
+        final long skipped;
+
+        Record(Level level, String category, String pattern, Object[] args, Throwable error, long skipped) {
+            this.level = level;
+            this.category = category;
+            this.pattern = pattern;
+            this.args = args;
+            this.error = error;
+            this.skipped = skipped;
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        Thread t = new Thread(Logger::writerLoop, "AsyncLogger");
+        t.setDaemon(true);
+        writer = t;
+        t.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(500), "AsyncLogger-Flush"));
+    }
+
+    private static void writerLoop() {
+        List<Record> batch = new ArrayList<>();
+        int idleSpins = 0;
+        while (true) {
+            BUFFER.drainTo(batch::add, 2048);
+            if (batch.isEmpty()) {
+                // 先短暂让出CPU，连续空闲后才真正挂起，避免日志密集时生产者频繁unpark
+                if (++idleSpins < IDLE_SPINS) {
+                    Thread.yield();
+                    continue;
+                }
+                writerParked = true;
+                if (BUFFER.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+                idleSpins = 0;
+                continue;
+            }
+            idleSpins = 0;
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /** 一批日志合并成一次写入，stdout/stderr各只加锁一次 */
+    private static void writeBatch(List<Record> batch) {
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+        for (Record record : batch) {
+            StringBuilder target = record.level == Level.ERROR ? err : out;
+            format(record, target);
+            target.append(System.lineSeparator());
+        }
+        long dropped = BUFFER.getDroppedCount();
+        if (dropped > reportedDropped) {
+            out.append("[WARN] 日志缓冲区溢出，已丢弃 ").append(dropped - reportedDropped).append(" 条")
+               .append(System.lineSeparator());
+            reportedDropped = dropped;
+        }
+        if (out.length() > 0) {
+            System.out.print(out);
+            System.out.flush();
+        }
+        if (err.length() > 0) {
+            System.err.print(err);
+            System.err.flush();
+        }
+    }
+
+    private static void write(Record record) {
+        StringBuilder sb = new StringBuilder();
+        format(record, sb);
+        PrintStream stream = record.level == Level.ERROR ? System.err : System.out;
+        stream.println(sb);
+    }
+
+    private static void format(Record record, StringBuilder sb) {
+        sb.append('[').append(record.level).append(']');
+        if (!record.category.isEmpty()) {
+            sb.append('[').append(record.category).append(']');
+        }
+        sb.append(' ');
+        formatPattern(record.pattern, record.args, sb);
+        if (record.skipped > 0) {
+            sb.append(" (此前省略 ").append(record.skipped).append(" 条)");
+        }
+        if (record.error != null) {
+            sb.append(" - ").append(record.error);
+            for (StackTraceElement element : record.error.getStackTrace()) {
+                sb.append(System.lineSeparator()).append("\tat ").append(element);
+            }
+        }
+    }
+
+    /**
+     * 用参数依次替换 {} 占位符，多余的参数追加在末尾
+     */
+    static void formatPattern(String pattern, Object[] args, StringBuilder sb) {
+        if (pattern == null) {
+            sb.append("null");
+            return;
+        }
+        if (args == null || args.length == 0) {
+            sb.append(pattern);
+            return;
+        }
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = pattern.indexOf("{}", start)) >= 0) {
+            sb.append(pattern, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        sb.append(pattern, start, pattern.length());
+        while (argIndex < args.length) {
+            sb.append(' ').append(args[argIndex++]);
         }
     }
 }
@@ -23,6 +23,9 @@ public class OllamaModelManager {
     // 命令执行超时时间（秒）
     private static final int COMMAND_TIMEOUT_SECONDS = 10;
     
+    // 最近一次成功探测到的模型列表
+    private static volatile List<String> lastKnownModels = null;
+    
     /**
      * 获取可用的ollama模型列表
      * @return 模型名称列表
@@ -72,6 +75,7 @@ public class OllamaModelManager {
             if (exitCode == 0 && !allModels.isEmpty()) {
                 // 过滤和排序模型，优先选择对话生成模型
                 List<String> sortedModels = sortModelsByPriority(allModels);
+                lastKnownModels = sortedModels;
                 ExceptionHandler.logInfo("成功获取到 " + allModels.size() + " 个ollama模型", "模型管理器");
                 ExceptionHandler.logInfo("优先排序后的模型列表: " + sortedModels, "模型管理器");
                 return sortedModels;
@@ -92,6 +96,16 @@ public class OllamaModelManager {
         }
     }
     
+    /**
+     * 获取最近一次探测到的模型列表，尚未探测成功时返回默认列表，不会启动ollama进程。
+     * 适合在界面构建时使用，真实列表由后台调用 {@link #getAvailableModels()} 探测
+     * @return 模型名称列表
+     */
+    public static List<String> getCachedModels() {
+        List<String> models = lastKnownModels;
+        return new ArrayList<>(models != null ? models : DEFAULT_MODELS);
+    }
+    
     /**
      * 按优先级排序模型，对话生成模型优先
      * @param models 原始模型列表
@@ -0,0 +1,208 @@
+package com.example.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 启动编排器
+ * <p>
+ * 负责把互不依赖的初始化工作放到后台线程并行执行，让主界面先显示出来：
+ * <ul>
+ *   <li>{@link #runAsync}/{@link #supplyAsync}：立即在后台执行的启动阶段</li>
+ *   <li>{@link #defer}：引擎、大模型等重量级预热，首次使用时同步完成，
+ *       或者在首帧可交互之后空闲一段时间再自动开始</li>
+ * </ul>
+ * 所有阶段都会记录到 {@link StartupTimeline}。
+ */
+public final class StartupOrchestrator {
+
+    private static final Logger.Category LOG = Logger.category("Startup");
+
+    /** 首帧可交互后等待多久开始空闲预热（毫秒），可通过系统属性覆盖 */
+    private static final long IDLE_WARMUP_DELAY_MS = Long.getLong("startup.idle.warmup.delay.ms", 1500L);
+
+    private static final StartupOrchestrator INSTANCE = new StartupOrchestrator();
+
+    /**
+     * 延迟预热任务：首次调用 {@link #get()} 或空闲时刻到来时才真正执行，且只执行一次
+     */
+    public static final class Deferred<T> {
+        private final String name;
+        private final Callable<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        Deferred(String name, Callable<T> task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        /**
+         * 在后台开始执行，已经开始过则什么都不做
+         */
+        public CompletableFuture<T> start() {
+            if (started.compareAndSet(false, true)) {
+                INSTANCE.executor.execute(() -> run("空闲预热"));
+            }
+            return future;
+        }
+
+        /**
+         * 获取结果。尚未开始时直接在调用线程执行，避免首次使用时再排队等待后台线程
+         */
+        public T get() {
+            if (started.compareAndSet(false, true)) {
+                run("首次使用");
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(name + " 初始化失败", cause);
+            }
+        }
+
+        /**
+         * 尚未开始时取消，已经开始的任务不受影响
+         *
+         * @return 是否成功取消
+         */
+        public boolean cancel() {
+            if (started.compareAndSet(false, true)) {
+                future.cancel(false);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isStarted() {
+            return started.get();
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private void run(String trigger) {
+            StartupTimeline.Phase phase = StartupTimeline.getInstance().begin(name + "（" + trigger + "）");
+            try {
+                future.complete(task.call());
+                phase.end();
+            } catch (Throwable t) {
+                phase.fail();
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private final ExecutorService executor;
+    private final List<Deferred<?>> idleQueue = new ArrayList<>();
+    private volatile boolean interactive = false;
+
+    private StartupOrchestrator() {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "Startup-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        };
+        executor = Executors.newFixedThreadPool(threads, factory);
+        ResourceManager.getInstance().registerExecutorService(executor);
+    }
+
+    public static StartupOrchestrator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 在后台执行一个启动阶段
+     */
+    public CompletableFuture<Void> runAsync(String name, Runnable task) {
+        return supplyAsync(name, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 在后台执行一个有结果的启动阶段，异常会记录在时间线上并传递给返回的Future
+     */
+    public <T> CompletableFuture<T> supplyAsync(String name, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            StartupTimeline.Phase phase = StartupTimeline.getInstance().begin(name);
+            try {
+                T result = task.get();
+                phase.end();
+                return result;
+            } catch (RuntimeException | Error e) {
+                phase.fail();
+                ExceptionHandler.logWarning("启动阶段失败: " + name + " - " + e.getMessage(), "启动编排");
+                throw e;
+            }
+        }, executor);
+    }
+
+    /**
+     * 注册一个延迟预热任务，首帧可交互之后空闲时自动开始；在此之前首次使用则立即执行
+     */
+    public <T> Deferred<T> defer(String name, Callable<T> task) {
+        Deferred<T> deferred = new Deferred<>(name, task);
+        synchronized (idleQueue) {
+            if (!interactive) {
+                idleQueue.add(deferred);
+                return deferred;
+            }
+        }
+        scheduleIdle(deferred);
+        return deferred;
+    }
+
+    /**
+     * 首个可交互帧已经绘制：记录时间线并开始排程空闲预热。可以重复调用，只有第一次生效
+     */
+    public void onFirstInteractiveFrame() {
+        StartupTimeline timeline = StartupTimeline.getInstance();
+        if (!timeline.markFirstInteractiveFrame()) {
+            return;
+        }
+        List<Deferred<?>> pending;
+        synchronized (idleQueue) {
+            interactive = true;
+            pending = new ArrayList<>(idleQueue);
+            idleQueue.clear();
+        }
+        pending.forEach(this::scheduleIdle);
+        // 时间线报告只在调试日志中输出，需要时也可以直接调用 StartupTimeline.getReport()
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(timeline.getReport());
+        }
+    }
+
+    public boolean isInteractive() {
+        return interactive;
+    }
+
+    private void scheduleIdle(Deferred<?> deferred) {
+        CompletableFuture.delayedExecutor(IDLE_WARMUP_DELAY_MS, TimeUnit.MILLISECONDS, executor)
+                .execute(deferred::start);
+    }
+}
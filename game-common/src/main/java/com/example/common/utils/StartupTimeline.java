@@ -0,0 +1,204 @@
+package com.example.common.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 启动时间线
+ * <p>
+ * 记录启动过程中每个阶段的起止时间和执行线程，时间统一以JVM启动时刻为零点，
+ * 这样类加载、外观初始化等阶段也能体现在时间线上。
+ * 首个可交互帧绘制完成时调用 {@link #markFirstInteractiveFrame()}，
+ * 得到的"首帧可交互时间"是衡量启动速度的主要指标。
+ */
+public final class StartupTimeline {
+
+    private static final StartupTimeline INSTANCE = new StartupTimeline();
+
+    /** 最多记录的阶段数；窗口重建、后台预热等在启动后仍会产生阶段，超出后不再记录 */
+    private static final int MAX_PHASES = 256;
+
+    /**
+     * 单个启动阶段
+     */
+    public static final class Phase {
+        private final String name;
+        private final String threadName;
+        private final long startMs;
+        private volatile long endMs = -1;
+        private volatile boolean failed;
+
+        Phase(String name, String threadName, long startMs) {
+            this.name = name;
+            this.threadName = threadName;
+            this.startMs = startMs;
+        }
+
+        /** 结束该阶段 */
+        public void end() {
+            if (endMs < 0) {
+                endMs = INSTANCE.now();
+            }
+        }
+
+        /** 以失败状态结束该阶段 */
+        public void fail() {
+            failed = true;
+            end();
+        }
+
+        public String getName() { return name; }
+        public String getThreadName() { return threadName; }
+        public long getStartMs() { return startMs; }
+        public long getEndMs() { return endMs; }
+        public boolean isFinished() { return endMs >= 0; }
+        public boolean isFailed() { return failed; }
+
+        /** 阶段耗时，尚未结束时返回-1 */
+        public long getDurationMs() {
+            return endMs < 0 ? -1 : endMs - startMs;
+        }
+    }
+
+    private final long originMs;
+    private final List<Phase> phases = new ArrayList<>();
+    private int droppedPhases;
+    private volatile long firstInteractiveMs = -1;
+
+    private StartupTimeline() {
+        long origin;
+        try {
+            origin = ManagementFactory.getRuntimeMXBean().getStartTime();
+        } catch (Throwable t) {
+            origin = System.currentTimeMillis();
+        }
+        originMs = origin;
+    }
+
+    public static StartupTimeline getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始一个阶段，调用方负责在结束时调用 {@link Phase#end()}
+     * 已达记录上限时返回的阶段照常可用，但不会出现在时间线中
+     */
+    public Phase begin(String name) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(), now());
+        synchronized (phases) {
+            if (phases.size() < MAX_PHASES) {
+                phases.add(phase);
+            } else {
+                droppedPhases++;
+            }
+        }
+        return phase;
+    }
+
+    /**
+     * 记录一个瞬时里程碑
+     */
+    public void mark(String name) {
+        begin(name).end();
+    }
+
+    /**
+     * 在当前线程执行任务并记录为一个阶段
+     */
+    public void measure(String name, Runnable task) {
+        Phase phase = begin(name);
+        try {
+            task.run();
+            phase.end();
+        } catch (RuntimeException | Error e) {
+            phase.fail();
+            throw e;
+        }
+    }
+
+    /**
+     * 在当前线程执行有返回值的任务并记录为一个阶段
+     */
+    public <T> T measure(String name, Callable<T> task) throws Exception {
+        Phase phase = begin(name);
+        try {
+            T result = task.call();
+            phase.end();
+            return result;
+        } catch (Exception | Error e) {
+            phase.fail();
+            throw e;
+        }
+    }
+
+    /**
+     * 标记首个可交互帧已经绘制，只有第一次调用生效
+     *
+     * @return 本次调用是否为第一次标记
+     */
+    public boolean markFirstInteractiveFrame() {
+        synchronized (phases) {
+            if (firstInteractiveMs >= 0) {
+                return false;
+            }
+            firstInteractiveMs = now();
+        }
+        mark("首帧可交互");
+        return true;
+    }
+
+    /** JVM启动到首个可交互帧的毫秒数，尚未绘制时返回-1 */
+    public long getTimeToFirstInteractiveMs() {
+        return firstInteractiveMs;
+    }
+
+    /** 按开始时间排序的阶段快照 */
+    public List<Phase> getPhases() {
+        List<Phase> snapshot;
+        synchronized (phases) {
+            snapshot = new ArrayList<>(phases);
+        }
+        snapshot.sort(Comparator.comparingLong(Phase::getStartMs));
+        return snapshot;
+    }
+
+    /**
+     * 生成时间线报告
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("⏱️ 启动时间线（以JVM启动为零点）:\n");
+        for (Phase phase : getPhases()) {
+            String state;
+            if (!phase.isFinished()) {
+                state = "进行中";
+            } else if (phase.isFailed()) {
+                state = "❌ " + phase.getDurationMs() + "ms";
+            } else {
+                state = phase.getDurationMs() + "ms";
+            }
+            report.append(String.format("   %6dms  %-20s %-10s [%s]%n",
+                    phase.getStartMs(), phase.getName(), state, phase.getThreadName()));
+        }
+        int dropped;
+        synchronized (phases) {
+            dropped = droppedPhases;
+        }
+        if (dropped > 0) {
+            report.append("   ... 超出记录上限，另有 ").append(dropped).append(" 个阶段未记录\n");
+        }
+        if (firstInteractiveMs >= 0) {
+            report.append("   🚀 首帧可交互时间: ").append(firstInteractiveMs).append("ms");
+        } else {
+            report.append("   ⏳ 尚未绘制首个可交互帧");
+        }
+        return report.toString();
+    }
+
+    private long now() {
+        return System.currentTimeMillis() - originMs;
+    }
+}
@@ -52,7 +52,6 @@ public class GameCenterFrame extends JFrame implements NetworkClient.ClientEvent
     private Thread serverThread;
     private String selectedGameType;
     private Map<String, Icon> gameIcons = new HashMap<>();
-    private Timer roomRefreshTimer;
 
     public GameCenterFrame() {
         setTitle("游戏中心");
@@ -68,7 +67,6 @@ public class GameCenterFrame extends JFrame implements NetworkClient.ClientEvent
         initUI();
         setupEventHandlers();
         autoStartServerWithDetection();
-        startRoomRefreshTimer();
         SwingUtilities.invokeLater(this::connectToServer);
     }
 
@@ -131,15 +129,6 @@ public class GameCenterFrame extends JFrame implements NetworkClient.ClientEvent
         add(splitPane);
     }
 
-    private void startRoomRefreshTimer() {
-        roomRefreshTimer = new Timer(2000, e -> {
-            if (networkClient.isConnected()) {
-                refreshRoomList();
-            }
-        });
-        roomRefreshTimer.start();
-    }
-
     private JPanel createConnectionPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         panel.setBorder(BorderFactory.createTitledBorder("服务器连接"));
@@ -247,7 +236,8 @@ public class GameCenterFrame extends JFrame implements NetworkClient.ClientEvent
             return;
         }
         connectionStatusLabel.setText("刷新房间列表...");
-        networkClient.requestRoomList();
+        // 订阅后服务器主动推送房间变化，不再定时轮询；重新订阅会重新下发完整列表
+        networkClient.subscribeRoomList(null);
     }
 
     private void showCreateRoomDialog() {
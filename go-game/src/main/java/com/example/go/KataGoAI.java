@@ -2,6 +2,7 @@ package com.example.go;
 
 import com.example.common.config.ConfigurationManager;
 import com.example.common.utils.ExceptionHandler;
+import com.example.common.utils.Logger;
 import com.example.common.utils.ResourceManager;
 import com.example.common.utils.KataGoInstaller;
 
@@ -19,6 +20,7 @@ import java.util.regex.Pattern;
  */
 public class KataGoAI {
     private static final String LOG_TAG = "KataGo AI";
+    private static final Logger.Category ENGINE_LOG = Logger.engineCategory("KataGo");
     
     private Process katagoProcess;
     private BufferedReader katagoReader;
@@ -294,7 +296,7 @@ public class KataGoAI {
         boolean foundResponse = false;
         
         while ((line = katagoReader.readLine()) != null) {
-            ExceptionHandler.logDebug(LOG_TAG, "读取行: '" + line + "'");
+            ENGINE_LOG.debug("读取行: '{}'", line);
             
             // 跳过空行
             if (line.trim().isEmpty()) {
@@ -311,7 +313,7 @@ public class KataGoAI {
         }
         
         String result = response.toString().trim();
-        ExceptionHandler.logDebug(LOG_TAG, "引擎响应: '" + result + "' (找到响应: " + foundResponse + ")");
+        ENGINE_LOG.debug("引擎响应: '{}' (找到响应: {})", result, foundResponse);
         
         if (result.startsWith("?")) {
             throw new RuntimeException("KataGo命令执行失败: " + result);
@@ -451,11 +453,11 @@ public class KataGoAI {
         }
         
         // 记录原始响应，用于调试
-        ExceptionHandler.logInfo(LOG_TAG, "原始GTP响应: '" + response + "'");
+        ENGINE_LOG.debug("原始GTP响应: '{}'", response);
         
         // 移除=号和空格
         String move = response.replaceFirst("^=\\s*", "").trim();
-        ExceptionHandler.logInfo(LOG_TAG, "解析后的走法: '" + move + "'");
+        ENGINE_LOG.debug("解析后的走法: '{}'", move);
         
         // 检查是否弃权
         if ("pass".equalsIgnoreCase(move) || "PASS".equalsIgnoreCase(move)) {
@@ -469,7 +471,7 @@ public class KataGoAI {
                 char col = move.charAt(0);
                 int row = Integer.parseInt(move.substring(1));
                 GoPosition pos = convertFromGTPPosition(col, row);
-                ExceptionHandler.logInfo(LOG_TAG, "成功解析走法: " + move + " -> (" + pos.row + ", " + pos.col + ")");
+                ENGINE_LOG.debug("成功解析走法: {} -> ({}, {})", move, pos.row, pos.col);
                 return pos;
             } catch (Exception e) {
                 ExceptionHandler.logError(LOG_TAG, "解析移动坐标失败: " + move + " - 错误: " + e.getMessage());
@@ -1,6 +1,7 @@
 package com.example.gomoku.ai;
 
 import com.example.common.utils.ExceptionHandler;
+import com.example.common.utils.Logger;
 import com.example.gomoku.core.GomokuBoard;
 import com.example.gomoku.core.GameState;
 
@@ -15,6 +16,7 @@ import java.util.concurrent.*;
 public class GomokuZeroAI {
     
     private static final String LOG_TAG = "GomokuZero";
+    private static final Logger.Category LOG = Logger.aiCategory("GomokuZero");
     
     // MCTS参数
     private static final int SIMULATIONS = 1600; // 默认模拟次数
@@ -60,20 +62,20 @@ public class GomokuZeroAI {
      */
     public int[] getBestMove(GomokuBoard board) {
         if (board == null || board.getGameState() != GameState.PLAYING) {
-            System.out.println("🚫 GomokuZeroAI.getBestMove() 退出: 棋盘状态无效");
+            LOG.info("🚫 GomokuZeroAI.getBestMove() 退出: 棋盘状态无效");
             return null;
         }
         
-        System.out.println("🧠🧠🧠 ===========================================\n" + 
-                         "🧠🧠🧠 GomokuZero AI 开始分析 (难度级别: " + difficulty + ")\n" +
-                         "🧠🧠🧠 ===========================================");
+        LOG.info("🧠🧠🧠 ===========================================\n" +
+                 "🧠🧠🧠 GomokuZero AI 开始分析 (难度级别: {})\n" +
+                 "🧠🧠🧠 ===========================================", difficulty);
         
         long startTime = System.currentTimeMillis();
         thinkingProcess = "🧠 GomokuZero AI 开始思考...\n";
         
         // 获取当前玩家
         boolean isBlackTurn = board.isBlackTurn();
-        System.out.println("🧠 当前玩家: " + (isBlackTurn ? "黑棋 (●)" : "白棋 (○)"));
+        LOG.info("🧠 当前玩家: {}", (isBlackTurn ? "黑棋 (●)" : "白棋 (○)"));
         thinkingProcess += "当前玩家: " + (isBlackTurn ? "黑棋" : "白棋") + "\n";
         
         try {
@@ -39,6 +39,23 @@ public class StockfishAI {
      * 根据难度级别初始化Stockfish引擎
      */
     private void initializeEngine() {
+        int[] settings = resolveSettings(difficulty);
+        int skillLevel = settings[0];
+        int thinkingTime = settings[1];
+        
+        if (logPanel != null) {
+            engine = new StockfishEngine(skillLevel, thinkingTime, logPanel);
+        } else {
+            engine = new StockfishEngine(skillLevel, thinkingTime);
+        }
+        System.out.println("🤖 Stockfish AI初始化完成 - 难度: " + difficulty + 
+                          " (技能等级: " + skillLevel + "/20)");
+    }
+    
+    /**
+     * 难度对应的引擎参数：{技能等级, 思考时间毫秒}
+     */
+    private static int[] resolveSettings(String difficulty) {
         int skillLevel;
         int thinkingTime;
         
@@ -62,14 +79,7 @@ public class StockfishAI {
                 skillLevel = 12;  // 默认中等
                 thinkingTime = 1500;
         }
-        
-        if (logPanel != null) {
-            engine = new StockfishEngine(skillLevel, thinkingTime, logPanel);
-        } else {
-            engine = new StockfishEngine(skillLevel, thinkingTime);
-        }
-        System.out.println("🤖 Stockfish AI初始化完成 - 难度: " + difficulty + 
-                          " (技能等级: " + skillLevel + "/20)");
+        return new int[] {skillLevel, thinkingTime};
     }
     
     /**
@@ -141,9 +151,17 @@ public class StockfishAI {
      */
     public void setDifficulty(String newDifficulty) {
         if (!newDifficulty.equals(this.difficulty)) {
-            shutdown();
             this.difficulty = newDifficulty;
-            initializeEngine();
+            if (engine != null && engine.isReady()) {
+                // 复用常驻引擎进程，只调整参数，保留置换表
+                int[] settings = resolveSettings(newDifficulty);
+                engine.setSkillLevel(settings[0]);
+                engine.setThinkingTime(settings[1]);
+                System.out.println("🤖 Stockfish AI难度已调整为: " + newDifficulty);
+            } else {
+                shutdown();
+                initializeEngine();
+            }
         }
     }
     
@@ -164,6 +182,13 @@ public class StockfishAI {
         return "Stockfish AI - " + difficulty + " (引擎未初始化)";
     }
     
+    /**
+     * 获取到达深度耗时统计（增量同步与FEN同步对比）
+     */
+    public String getTimeToDepthReport() {
+        return engine != null ? engine.getTimeToDepthReport() : "引擎未初始化";
+    }
+    
     /**
      * 分析当前棋局并提供具体建议
      */
@@ -8,13 +8,21 @@ import com.example.internationalchess.ui.StockfishLogPanel;
 import com.example.common.config.GameConfig;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Stockfish UCI引擎接口
+ * 使用一个常驻进程，按对局走法记录以 position startpos moves 增量同步局面，
+ * 只在对局编号或起始局面变化时发送 ucinewgame，使引擎能跨回合复用置换表并获得重复局面历史
  */
 public class StockfishEngine {
     
+    // 统计到达深度所需时间的最大深度
+    private static final int MAX_TRACKED_DEPTH = 64;
+    
     private Process stockfishProcess;
     private BufferedReader reader;
     private PrintWriter writer;
@@ -23,6 +31,19 @@ public class StockfishEngine {
     private int thinkingTime;
     private StockfishLogPanel logPanel;
     
+    // 上一次发送给引擎的走法记录（startpos之后）
+    private final List<String> syncedMoves = new ArrayList<>();
+    private boolean gameStarted = false;
+    // 上一次同步的对局编号，以及是否从初始局面增量同步
+    private long syncedGameId;
+    private boolean syncedIncremental;
+    
+    // 到达各深度的耗时统计：[0]增量同步，[1]FEN同步
+    private final long[][] depthTimeSums = new long[2][MAX_TRACKED_DEPTH + 1];
+    private final int[][] depthCounts = new int[2][MAX_TRACKED_DEPTH + 1];
+    private final int[] searchCounts = new int[2];
+    private SearchMetrics lastSearchMetrics;
+    
     public StockfishEngine() {
         this(GameConfig.getInstance().getDefaultSkillLevel(), GameConfig.getInstance().getDefaultThinkingTime(), null);
     }
@@ -75,6 +96,8 @@ public class StockfishEngine {
             sendCommand("isready");
             waitForResponse("readyok");
             
+            syncedMoves.clear();
+            gameStarted = false;
             isInitialized = true;
             System.out.println("🚀 Stockfish引擎已启动 (技能等级: " + skillLevel + "/20)");
             
@@ -87,8 +110,8 @@ public class StockfishEngine {
     /**
      * 获取Stockfish的最佳移动
      */
-    public Move getBestMove(InternationalChessBoard board, PieceColor currentPlayer) {
-        if (!isInitialized) {
+    public synchronized Move getBestMove(InternationalChessBoard board, PieceColor currentPlayer) {
+        if (!ensureProcess()) {
             System.err.println("Stockfish引擎未初始化");
             return null;
         }
@@ -96,10 +119,9 @@ public class StockfishEngine {
         try {
             GameConfig config = GameConfig.getInstance();
             
-            // 设置棋盘位置并计算
-            String fen = boardToFEN(board, currentPlayer);
-            sendCommand("position fen " + fen);
-            sendCommand("go movetime " + thinkingTime);
+            // 同步棋盘位置并计算
+            boolean incremental = syncPosition(board, currentPlayer);
+            SearchMetrics metrics = startSearch("go movetime " + thinkingTime, incremental);
             
             // 查找最佳移动
             String line;
@@ -112,7 +134,9 @@ public class StockfishEngine {
                     logPanel.addEngineOutput(line);
                 }
                 
+                metrics.onEngineLine(line);
                 if (line.startsWith("bestmove")) {
+                    finishSearch(metrics);
                     String[] parts = line.split(" ");
                     if (parts.length >= 2) {
                         String bestMoveUci = parts[1];
@@ -139,6 +163,121 @@ public class StockfishEngine {
         writer.flush();
     }
     
+    /**
+     * 确保引擎进程存活，进程意外退出时重新启动
+     */
+    private boolean ensureProcess() {
+        if (isInitialized && stockfishProcess != null && stockfishProcess.isAlive()) {
+            return true;
+        }
+        if (stockfishProcess == null) {
+            return false;
+        }
+        System.out.println("⚠️ Stockfish进程已退出，正在重新启动...");
+        log("⚠️ Stockfish进程已退出，正在重新启动");
+        try {
+            initialize();
+            return true;
+        } catch (RuntimeException e) {
+            logError("Stockfish重新启动失败: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 向引擎同步当前局面
+     * 棋盘能由初始局面加走法记录描述时发送 position startpos moves，否则退回 position fen
+     * 
+     * @return 是否使用了增量同步
+     */
+    private boolean syncPosition(InternationalChessBoard board, PieceColor currentPlayer) throws IOException {
+        List<String> history = board.getUciMoveHistory();
+        boolean whiteToMove = history.size() % 2 == 0;
+        boolean incremental = board.isFromStartPosition()
+                && whiteToMove == (currentPlayer == PieceColor.WHITE);
+        
+        if (incremental) {
+            if (!isSameGame(board, history)) {
+                startNewGame(board.getGameId());
+            }
+            StringBuilder command = new StringBuilder("position startpos");
+            if (!history.isEmpty()) {
+                command.append(" moves");
+                for (String move : history) {
+                    command.append(' ').append(move);
+                }
+            }
+            sendCommand(command.toString());
+            syncedMoves.clear();
+            syncedMoves.addAll(history);
+        } else {
+            // 换了对局，或棋盘被直接摆子而不再从初始局面出发时，起始局面已变，需要重置
+            if (!gameStarted || board.getGameId() != syncedGameId || syncedIncremental) {
+                startNewGame(board.getGameId());
+            }
+            sendCommand("position fen " + boardToFEN(board, currentPlayer));
+            syncedMoves.clear();
+        }
+        syncedIncremental = incremental;
+        
+        // 等待引擎处理完命令再开始计时
+        sendCommand("isready");
+        waitForResponse("readyok");
+        return incremental;
+    }
+    
+    /**
+     * 是否仍是上一次从初始局面同步的同一盘对局，且走法记录是上次同步的延续（含悔棋回退）
+     */
+    private boolean isSameGame(InternationalChessBoard board, List<String> history) {
+        if (!gameStarted || !syncedIncremental || board.getGameId() != syncedGameId) {
+            return false;
+        }
+        int common = Math.min(history.size(), syncedMoves.size());
+        return history.subList(0, common).equals(syncedMoves.subList(0, common));
+    }
+    
+    /**
+     * 通知引擎开始新对局，清空置换表
+     */
+    private void startNewGame(long gameId) throws IOException {
+        sendCommand("ucinewgame");
+        sendCommand("isready");
+        waitForResponse("readyok");
+        syncedMoves.clear();
+        syncedGameId = gameId;
+        gameStarted = true;
+        log("🆕 新对局，已重置引擎状态");
+    }
+    
+    /**
+     * 发送搜索命令并开始记录到达深度的耗时
+     */
+    private SearchMetrics startSearch(String goCommand, boolean incremental) {
+        SearchMetrics metrics = new SearchMetrics(incremental);
+        sendCommand(goCommand);
+        return metrics;
+    }
+    
+    /**
+     * 搜索结束，累计本次到达各深度的耗时
+     */
+    private void finishSearch(SearchMetrics metrics) {
+        int mode = metrics.incremental ? 0 : 1;
+        searchCounts[mode]++;
+        for (int depth = 1; depth <= metrics.maxDepth; depth++) {
+            long time = metrics.depthTimes[depth];
+            if (time >= 0) {
+                depthTimeSums[mode][depth] += time;
+                depthCounts[mode][depth]++;
+            }
+        }
+        lastSearchMetrics = metrics;
+        if (GameConfig.getInstance().isLogEngineOutput()) {
+            System.out.println("⏱️ " + metrics);
+        }
+    }
+    
     /**
      * 等待特定响应
      */
@@ -284,7 +423,7 @@ public class StockfishEngine {
     /**
      * 设置技能等级 (0-20)
      */
-    public void setSkillLevel(int level) {
+    public synchronized void setSkillLevel(int level) {
         this.skillLevel = Math.max(0, Math.min(20, level));
         if (isInitialized) {
             sendCommand("setoption name Skill Level value " + skillLevel);
@@ -302,13 +441,13 @@ public class StockfishEngine {
      * 获取引擎状态
      */
     public boolean isReady() {
-        return isInitialized && stockfishProcess.isAlive();
+        return isInitialized && stockfishProcess != null && stockfishProcess.isAlive();
     }
     
     /**
      * 关闭引擎
      */
-    public void shutdown() {
+    public synchronized void shutdown() {
         if (stockfishProcess != null) {
             try {
                 sendCommand("quit");
@@ -320,7 +459,11 @@ public class StockfishEngine {
                     stockfishProcess.destroyForcibly();
                 }
                 isInitialized = false;
+                stockfishProcess = null;
                 System.out.println("🔌 Stockfish引擎已关闭");
+                if (searchCounts[0] + searchCounts[1] > 0) {
+                    System.out.println("📊 " + getTimeToDepthReport());
+                }
             }
         }
     }
@@ -368,19 +511,18 @@ public class StockfishEngine {
     /**
      * 分析当前局面并返回具体建议
      */
-    public void analyzePosition(InternationalChessBoard board, PieceColor currentPlayer) {
-        if (!isInitialized) {
+    public synchronized void analyzePosition(InternationalChessBoard board, PieceColor currentPlayer) {
+        if (!ensureProcess()) {
             log("❌ Stockfish引擎未初始化");
             return;
         }
         
         try {
             // 设置棋盘位置
-            String fen = boardToFEN(board, currentPlayer);
-            sendCommand("position fen " + fen);
+            boolean incremental = syncPosition(board, currentPlayer);
             
             // 分析一定时间（用于获取多个候选移动）
-            sendCommand("go depth 15");
+            SearchMetrics metrics = startSearch("go depth 15", incremental);
             
             log("📈 Stockfish正在分析棋局...");
             
@@ -393,6 +535,7 @@ public class StockfishEngine {
                 if (logPanel != null) {
                     logPanel.addEngineOutput(line);
                 }
+                metrics.onEngineLine(line);
                 
                 // 解析info信息
                 if (line.startsWith("info")) {
@@ -431,6 +574,7 @@ public class StockfishEngine {
                 }
                 
                 if (line.startsWith("bestmove")) {
+                    finishSearch(metrics);
                     String[] parts = line.split(" ");
                     if (parts.length >= 2) {
                         bestMove = parts[1];
@@ -504,19 +648,18 @@ public class StockfishEngine {
     /**
      * 获取分析用的最佳移动（返回UCI格式字符串）
      */
-    public String getBestMoveForAnalysis(InternationalChessBoard board, PieceColor currentPlayer) {
-        if (!isInitialized) {
+    public synchronized String getBestMoveForAnalysis(InternationalChessBoard board, PieceColor currentPlayer) {
+        if (!ensureProcess()) {
             log("❌ Stockfish引擎未初始化");
             return null;
         }
         
         try {
             // 设置棋盘位置
-            String fen = boardToFEN(board, currentPlayer);
-            sendCommand("position fen " + fen);
+            boolean incremental = syncPosition(board, currentPlayer);
             
             // 快速分析获取最佳移动
-            sendCommand("go depth 12");
+            SearchMetrics metrics = startSearch("go depth 12", incremental);
             
             String line;
             while ((line = reader.readLine()) != null) {
@@ -524,7 +667,9 @@ public class StockfishEngine {
                     logPanel.addEngineOutput(line);
                 }
                 
+                metrics.onEngineLine(line);
                 if (line.startsWith("bestmove")) {
+                    finishSearch(metrics);
                     String[] parts = line.split(" ");
                     if (parts.length >= 2) {
                         String bestMove = parts[1];
@@ -542,4 +687,114 @@ public class StockfishEngine {
         
         return null;
     }
+    
+    /**
+     * 获取最近一次搜索的到达深度耗时
+     */
+    public synchronized SearchMetrics getLastSearchMetrics() {
+        return lastSearchMetrics;
+    }
+    
+    /**
+     * 获取指定深度的平均到达耗时（毫秒），没有样本时返回-1
+     * 
+     * @param incremental true为增量同步的搜索，false为FEN同步的搜索
+     */
+    public synchronized double getAverageTimeToDepth(int depth, boolean incremental) {
+        if (depth < 1 || depth > MAX_TRACKED_DEPTH) {
+            return -1;
+        }
+        int mode = incremental ? 0 : 1;
+        int count = depthCounts[mode][depth];
+        return count == 0 ? -1 : (double) depthTimeSums[mode][depth] / count;
+    }
+    
+    /**
+     * 生成到达深度耗时的对比报告（增量同步 vs FEN同步）
+     */
+    public synchronized String getTimeToDepthReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("到达深度耗时 (增量同步 %d 次, FEN同步 %d 次)",
+                searchCounts[0], searchCounts[1]));
+        for (int depth = 4; depth <= MAX_TRACKED_DEPTH; depth += 2) {
+            double incremental = getAverageTimeToDepth(depth, true);
+            double fen = getAverageTimeToDepth(depth, false);
+            if (incremental < 0 && fen < 0) {
+                continue;
+            }
+            report.append(String.format("%n  深度%2d: 增量 %s, FEN %s", depth,
+                    incremental < 0 ? "-" : String.format("%.0fms", incremental),
+                    fen < 0 ? "-" : String.format("%.0fms", fen)));
+        }
+        return report.toString();
+    }
+    
+    /**
+     * 单次搜索的到达深度耗时记录
+     */
+    public static class SearchMetrics {
+        private final boolean incremental;
+        private final long startTime = System.currentTimeMillis();
+        private final long[] depthTimes = new long[MAX_TRACKED_DEPTH + 1];
+        private int maxDepth;
+        
+        SearchMetrics(boolean incremental) {
+            this.incremental = incremental;
+            Arrays.fill(depthTimes, -1);
+        }
+        
+        /**
+         * 解析 info depth N ... time T 行，记录首次到达该深度的时间
+         */
+        void onEngineLine(String line) {
+            if (!line.startsWith("info ") || line.contains(" currmove ")) {
+                return;
+            }
+            String[] parts = line.split(" ");
+            int depth = -1;
+            long time = -1;
+            for (int i = 1; i < parts.length - 1; i++) {
+                if ("depth".equals(parts[i])) {
+                    depth = parseIntOrDefault(parts[i + 1]);
+                } else if ("time".equals(parts[i])) {
+                    time = parseIntOrDefault(parts[i + 1]);
+                }
+            }
+            if (depth < 1 || depth > MAX_TRACKED_DEPTH || depthTimes[depth] >= 0) {
+                return;
+            }
+            depthTimes[depth] = time >= 0 ? time : System.currentTimeMillis() - startTime;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        
+        private static int parseIntOrDefault(String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        
+        public boolean isIncremental() {
+            return incremental;
+        }
+        
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+        
+        /**
+         * 到达指定深度的耗时（毫秒），未到达时返回-1
+         */
+        public long getTimeToDepth(int depth) {
+            return depth < 1 || depth > MAX_TRACKED_DEPTH ? -1 : depthTimes[depth];
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("搜索[%s] 最大深度 %d, 用时 %dms",
+                    incremental ? "增量" : "FEN", maxDepth,
+                    maxDepth > 0 ? depthTimes[maxDepth] : 0);
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package com.example.internationalchess.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 国际象棋棋盘类
@@ -33,6 +35,16 @@ public class InternationalChessBoard {
     // 游戏状态
     private GameState gameState;
     
+    // 从初始局面开始的UCI走法记录（供引擎增量同步局面）
+    private final List<String> uciMoveHistory = new ArrayList<>();
+    
+    // 棋盘是否由初始局面经movePiece走到当前局面（外部直接摆子后为false）
+    private boolean fromStartPosition = true;
+    
+    // 对局编号：每次重新初始化棋盘都会换一个新编号，引擎据此判断是否需要重置
+    private static final AtomicLong GAME_IDS = new AtomicLong();
+    private long gameId;
+    
     /**
      * 构造函数
      */
@@ -47,6 +59,10 @@ public class InternationalChessBoard {
      * 初始化棋盘
      */
     public void initializeBoard() {
+        uciMoveHistory.clear();
+        fromStartPosition = true;
+        gameId = GAME_IDS.incrementAndGet();
+        
         // 初始化空棋盘
         for (int row = 0; row < BOARD_SIZE; row++) {
             for (int col = 0; col < BOARD_SIZE; col++) {
@@ -99,9 +115,39 @@ public class InternationalChessBoard {
     public void setPiece(int row, int col, String piece) {
         if (isValidPosition(row, col)) {
             board[row][col] = piece;
+            // 直接摆子后走法记录不再能还原当前局面
+            fromStartPosition = false;
         }
     }
     
+    /**
+     * 走子过程中移动棋子，不影响走法记录
+     */
+    private void placePiece(int row, int col, String piece) {
+        board[row][col] = piece;
+    }
+    
+    /**
+     * 获取从初始局面开始的UCI走法记录
+     */
+    public List<String> getUciMoveHistory() {
+        return Collections.unmodifiableList(uciMoveHistory);
+    }
+    
+    /**
+     * 当前对局的编号，棋盘重新初始化后改变
+     */
+    public long getGameId() {
+        return gameId;
+    }
+    
+    /**
+     * 当前局面是否可以用 startpos + 走法记录 完整描述
+     */
+    public boolean isFromStartPosition() {
+        return fromStartPosition;
+    }
+    
     /**
      * 移动棋子
      * @return 移动是否成功
@@ -150,7 +196,7 @@ public class InternationalChessBoard {
                     toCol == enPassantCol && fromRow == enPassantRow) {
                 // 移除被吃的过路兵
                 int capturedPawnRow = (pieceColor == WHITE) ? toRow + 1 : toRow - 1;
-                setPiece(capturedPawnRow, toCol, null);
+                placePiece(capturedPawnRow, toCol, null);
             }
         }
         
@@ -163,8 +209,8 @@ public class InternationalChessBoard {
             
             // 移动车
             String rookPiece = getPiece(fromRow, rookFromCol);
-            setPiece(fromRow, rookToCol, rookPiece);
-            setPiece(fromRow, rookFromCol, null);
+            placePiece(fromRow, rookToCol, rookPiece);
+            placePiece(fromRow, rookFromCol, null);
         }
         
         // 更新王和车的移动状态
@@ -186,8 +232,8 @@ public class InternationalChessBoard {
         
         // 执行移动
         String capturedPiece = getPiece(toRow, toCol);
-        setPiece(toRow, toCol, piece);
-        setPiece(fromRow, fromCol, null);
+        placePiece(toRow, toCol, piece);
+        placePiece(fromRow, fromCol, null);
         
         // 处理兵的升变
         if (piece.charAt(1) == PAWN) {
@@ -196,11 +242,18 @@ public class InternationalChessBoard {
                 // 升变为指定的棋子（不能升变为王）
                 if (promotionPiece != KING) {
                     String promotedPiece = "" + pieceColor + promotionPiece;
-                    setPiece(toRow, toCol, promotedPiece);
+                    placePiece(toRow, toCol, promotedPiece);
                 }
             }
         }
         
+        // 记录UCI走法（升变时附加目标棋子）
+        String uciMove = toUciSquare(fromRow, fromCol) + toUciSquare(toRow, toCol);
+        if (piece.charAt(1) == PAWN && toRow == ((pieceColor == WHITE) ? 0 : 7) && promotionPiece != KING) {
+            uciMove += Character.toLowerCase(promotionPiece);
+        }
+        uciMoveHistory.add(uciMove);
+        
         // 检查是否将军或将杀
         updateGameState();
         
@@ -210,6 +263,13 @@ public class InternationalChessBoard {
         return true;
     }
     
+    /**
+     * 将数组坐标转换为UCI格子名称，如 [6][4] -> e2
+     */
+    private static String toUciSquare(int row, int col) {
+        return "" + (char) ('a' + col) + (char) ('1' + (7 - row));
+    }
+    
     /**
      * 检查移动是否合法
      */
@@ -7,6 +7,8 @@ import com.example.internationalchess.ai.InternationalChessAI;
 import com.example.internationalchess.ai.StockfishAIAdapter;
 import com.example.internationalchess.ui.StockfishLogPanel;
 import audio.SoundManager;
+import com.example.common.ui.anim.AnimationClock;
+import com.example.common.ui.anim.Easing;
 import static audio.SoundManager.Event.*;
 import static audio.SoundManager.SoundProfile.*;
 
@@ -15,8 +17,6 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 /**
@@ -59,11 +59,6 @@ public class InternationalBoardPanel extends JPanel {
 
     // 棋子移动动画
     private PieceMoveAnimation moveAnimation;
-    private final ExecutorService animationExecutor = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "MoveAnimator");
-        t.setDaemon(true);
-        return t;
-    });
     
     // 缩放及偏移，用于自适应全屏
     private double scale = 1.0;
@@ -1374,13 +1369,18 @@ public class InternationalBoardPanel extends JPanel {
     }
 
     private void startMoveAnimation(String piece, int fromRow, int fromCol, int toRow, int toCol) {
+        if (moveAnimation != null) {
+            moveAnimation.cancel();
+        }
         moveAnimation = new PieceMoveAnimation(piece, fromRow, fromCol, toRow, toCol);
         moveAnimation.start();
     }
 
-    /** 清理资源，停止动画线程 */
+    /** 清理资源，停止动画 */
     public void dispose() {
-        animationExecutor.shutdownNow();
+        if (moveAnimation != null) {
+            moveAnimation.cancel();
+        }
     }
 
     /** 棋子移动动画实现 */
@@ -1389,9 +1389,9 @@ public class InternationalBoardPanel extends JPanel {
         final int fromRow, fromCol, toRow, toCol;
         final int startX, startY, endX, endY;
         final Rectangle dirtyRect;
-        long startTime;
         final int duration = 300; // 动画时长(ms)
         volatile double progress;
+        AnimationClock.Handle handle;
 
         PieceMoveAnimation(String piece, int fromRow, int fromCol, int toRow, int toCol) {
             this.piece = piece;
@@ -1412,26 +1412,21 @@ public class InternationalBoardPanel extends JPanel {
         }
 
         void start() {
-            startTime = System.currentTimeMillis();
-            animationExecutor.execute(() -> {
-                while (progress < 1.0) {
-                    long elapsed = System.currentTimeMillis() - startTime;
-                    progress = Math.min(1.0, elapsed / (double) duration);
-                    SwingUtilities.invokeLater(() -> repaint(dirtyRect));
-                    try {
-                        Thread.sleep(16);
-                    } catch (InterruptedException ignored) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-                SwingUtilities.invokeLater(() -> {
-                    moveAnimation = null;
-                    repaint(dirtyRect);
-                });
+            handle = AnimationClock.getInstance().animate(duration, Easing.LINEAR, t -> {
+                progress = t;
+                repaint(dirtyRect);
+            }, () -> {
+                moveAnimation = null;
+                repaint(dirtyRect);
             });
         }
 
+        void cancel() {
+            if (handle != null) {
+                handle.cancel();
+            }
+        }
+
         boolean isActive() {
             return progress < 1.0;
         }
@@ -7,20 +7,28 @@ import java.io.*;
 import java.net.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.SwingUtilities;
 
 /**
  * 游戏服务器类
  * 处理客户端连接、房间管理和消息转发
+ * <p>
+ * 每个连接由一个线程阻塞读取消息；房间内的事件不在读取线程上处理，
+ * 而是投递给房间的 {@link RoomActor}，由固定大小的房间线程池按房间顺序执行，
+ * 不同房间之间没有共享锁。
  */
 public class GameServer {
+    /** 房间线程数，与CPU核数相同 */
+    private static final int ROOM_THREADS = Runtime.getRuntime().availableProcessors();
+    
     private final int port;
     private ServerSocket serverSocket;
-    private final Map<String, Room> rooms;
+    private final Map<String, RoomActor> rooms;
     private final Map<String, ClientHandler> clients;
     private final ExecutorService threadPool;
-    private boolean isRunning;
-    private final Object lock = new Object();
+    private final ExecutorService roomExecutor;
+    private volatile boolean isRunning;
     
     // 服务器事件监听器接口
     public interface ServerEventListener {
@@ -41,6 +49,16 @@ public class GameServer {
         this.rooms = new ConcurrentHashMap<>();
         this.clients = new ConcurrentHashMap<>();
         this.threadPool = Executors.newCachedThreadPool();
+        this.roomExecutor = Executors.newFixedThreadPool(ROOM_THREADS, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Room-Worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
         this.isRunning = false;
     }
     
@@ -90,14 +108,12 @@ public class GameServer {
         isRunning = false;
         
         // 通知所有客户端服务器关闭
-        synchronized (lock) {
-            for (ClientHandler client : clients.values()) {
-                client.sendMessage(new Disconnect("服务器关闭"));
-                client.close();
-            }
-            clients.clear();
-            rooms.clear();
+        for (ClientHandler client : clients.values()) {
+            client.sendMessage(new Disconnect("服务器关闭"));
+            client.close();
         }
+        clients.clear();
+        rooms.clear();
         
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
@@ -110,12 +126,17 @@ public class GameServer {
         }
         
         threadPool.shutdown();
+        roomExecutor.shutdown();
         try {
             if (!threadPool.awaitTermination(5, TimeUnit.SECONDS)) {
                 threadPool.shutdownNow();
             }
+            if (!roomExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                roomExecutor.shutdownNow();
+            }
         } catch (InterruptedException e) {
             threadPool.shutdownNow();
+            roomExecutor.shutdownNow();
         }
         
         if (eventListener != null) {
@@ -150,22 +171,20 @@ public class GameServer {
             try {
                 Thread.sleep(30000); // 30秒检测一次
                 
-                synchronized (lock) {
-                    long currentTime = System.currentTimeMillis();
-                    Iterator<ClientHandler> iterator = clients.values().iterator();
-                    
-                    while (iterator.hasNext()) {
-                        ClientHandler client = iterator.next();
-                        if (currentTime - client.getLastHeartbeat() > 60000) { // 60秒超时
-                            if (eventListener != null) {
-                                eventListener.onMessage("客户端 " + client.getPlayerId() + " 心跳超时，断开连接");
-                            }
-                            client.close();
-                            iterator.remove();
-                        } else {
-                            // 发送心跳包
-                            client.sendMessage(new Heartbeat());
+                long currentTime = System.currentTimeMillis();
+                Iterator<ClientHandler> iterator = clients.values().iterator();
+                
+                while (iterator.hasNext()) {
+                    ClientHandler client = iterator.next();
+                    if (currentTime - client.getLastHeartbeat() > 60000) { // 60秒超时
+                        if (eventListener != null) {
+                            eventListener.onMessage("客户端 " + client.getPlayerId() + " 心跳超时，断开连接");
                         }
+                        client.close();
+                        iterator.remove();
+                    } else {
+                        // 发送心跳包
+                        client.sendMessage(new Heartbeat());
                     }
                 }
             } catch (InterruptedException e) {
@@ -180,17 +199,18 @@ public class GameServer {
      */
     private class ClientHandler implements Runnable {
         private final Socket socket;
-        private final ObjectInputStream input;
-        private final ObjectOutputStream output;
+        private final MessageCodec codec;
         private String playerId;
         private String playerName;
-        private String currentRoomId;
-        private long lastHeartbeat;
+        // 读取线程和房间线程都会访问
+        private volatile String currentRoomId;
+        private volatile long lastHeartbeat;
         
         public ClientHandler(Socket socket) throws IOException {
             this.socket = socket;
-            this.output = new ObjectOutputStream(socket.getOutputStream());
-            this.input = new ObjectInputStream(socket.getInputStream());
+            // 走子后紧接着发送状态同步，关闭Nagle避免第二帧等待对端的延迟确认
+            socket.setTcpNoDelay(true);
+            this.codec = new MessageCodec(socket.getInputStream(), socket.getOutputStream());
             this.lastHeartbeat = System.currentTimeMillis();
         }
         
@@ -198,10 +218,10 @@ public class GameServer {
         public void run() {
             try {
                 while (isRunning && !Thread.currentThread().isInterrupted()) {
-                    NetworkMessage message = (NetworkMessage) input.readObject();
+                    NetworkMessage message = codec.read();
                     handleMessage(message);
                 }
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 if (isRunning) {
                     if (eventListener != null) {
                         eventListener.onMessage("客户端连接异常: " + e.getMessage());
@@ -260,9 +280,7 @@ public class GameServer {
             this.playerName = request.getPlayerName();
             this.playerId = UUID.randomUUID().toString();
             
-            synchronized (lock) {
-                clients.put(playerId, this);
-            }
+            clients.put(playerId, this);
             
             sendMessage(new ConnectResponse(true, "连接成功", playerId));
             
@@ -285,9 +303,7 @@ public class GameServer {
             Player host = new Player(playerId, playerName);
             Room room = new Room(roomId, request.getRoomName(), request.getPassword(), host);
             
-            synchronized (lock) {
-                rooms.put(roomId, room);
-            }
+            rooms.put(roomId, new RoomActor(room, roomExecutor, GameServer.this::onRoomError));
             
             this.currentRoomId = roomId;
             sendMessage(new CreateRoomResponse(true, "房间创建成功", roomId));
@@ -307,60 +323,72 @@ public class GameServer {
                 return;
             }
             
-            synchronized (lock) {
-                Room room = rooms.get(request.getRoomId());
-                if (room == null) {
-                    sendMessage(new JoinRoomResponse(false, "房间不存在", null, null));
-                    return;
-                }
-                
-                if (!room.validatePassword(request.getPassword())) {
-                    sendMessage(new JoinRoomResponse(false, "房间密码错误", null, null));
-                    return;
-                }
+            RoomActor actor = rooms.get(request.getRoomId());
+            if (actor == null) {
+                sendMessage(new JoinRoomResponse(false, "房间不存在", null, null));
+                return;
+            }
+            actor.tell(() -> joinRoom(actor, request));
+        }
+        
+        /**
+         * 在房间线程中加入房间
+         */
+        private void joinRoom(RoomActor actor, JoinRoomRequest request) {
+            Room room = actor.getRoom();
+            if (actor.isClosed()) {
+                sendMessage(new JoinRoomResponse(false, "房间不存在", null, null));
+                return;
+            }
+            
+            if (!room.validatePassword(request.getPassword())) {
+                sendMessage(new JoinRoomResponse(false, "房间密码错误", null, null));
+                return;
+            }
+            
+            if (room.getStatus() != Room.RoomStatus.WAITING) {
+                sendMessage(new JoinRoomResponse(false, "房间已满或游戏已开始", null, null));
+                return;
+            }
+            
+            Player player = new Player(playerId, playerName);
+            if (room.addPlayer(player)) {
+                this.currentRoomId = request.getRoomId();
+                String hostName = room.getHost().getPlayerName();
+                sendMessage(new JoinRoomResponse(true, "加入房间成功", request.getRoomId(), hostName));
                 
-                if (room.getStatus() != Room.RoomStatus.WAITING) {
-                    sendMessage(new JoinRoomResponse(false, "房间已满或游戏已开始", null, null));
-                    return;
+                // 通知房主有新玩家加入
+                ClientHandler hostClient = clients.get(room.getHost().getPlayerId());
+                if (hostClient != null) {
+                    hostClient.sendMessage(new JoinRoomResponse(true, playerName + " 加入了房间", request.getRoomId(), playerName));
                 }
                 
-                Player player = new Player(playerId, playerName);
-                if (room.addPlayer(player)) {
-                    this.currentRoomId = request.getRoomId();
-                    String hostName = room.getHost().getPlayerName();
-                    sendMessage(new JoinRoomResponse(true, "加入房间成功", request.getRoomId(), hostName));
-                    
-                    // 通知房主有新玩家加入
-                    ClientHandler hostClient = clients.get(room.getHost().getPlayerId());
-                    if (hostClient != null) {
-                        hostClient.sendMessage(new JoinRoomResponse(true, playerName + " 加入了房间", request.getRoomId(), playerName));
-                    }
+                // 两个玩家都在房间时，可以开始游戏
+                if (room.getPlayers().size() == 2) {
+                    // 自动设置玩家为准备状态
+                    room.getHost().setReady(true);
+                    room.getGuest().setReady(true);
                     
-                    // 两个玩家都在房间时，可以开始游戏
-                    if (room.getPlayers().size() == 2) {
-                        // 自动设置玩家为准备状态
-                        room.getHost().setReady(true);
-                        room.getGuest().setReady(true);
-                        
-                        if (room.startGame()) {
-                            // 通知双方游戏开始
-                            GameStart gameStartHost = new GameStart(room.getHost().getPlayerName(), 
-                                room.getGuest().getPlayerName(), "RED");
-                            GameStart gameStartGuest = new GameStart(room.getHost().getPlayerName(), 
-                                room.getGuest().getPlayerName(), "BLACK");
-                                
-                            hostClient.sendMessage(gameStartHost);
-                            sendMessage(gameStartGuest);
+                    if (room.startGame()) {
+                        // 通知双方游戏开始
+                        GameStart gameStartHost = new GameStart(room.getHost().getPlayerName(), 
+                            room.getGuest().getPlayerName(), "RED");
+                        GameStart gameStartGuest = new GameStart(room.getHost().getPlayerName(), 
+                            room.getGuest().getPlayerName(), "BLACK");
                             
-                            if (eventListener != null) {
-                                SwingUtilities.invokeLater(() -> 
-                                    eventListener.onMessage("房间 " + request.getRoomId() + " 游戏开始"));
-                            }
+                        if (hostClient != null) {
+                            hostClient.sendMessage(gameStartHost);
+                        }
+                        sendMessage(gameStartGuest);
+                        
+                        if (eventListener != null) {
+                            SwingUtilities.invokeLater(() -> 
+                                eventListener.onMessage("房间 " + request.getRoomId() + " 游戏开始"));
                         }
                     }
-                } else {
-                    sendMessage(new JoinRoomResponse(false, "加入房间失败", null, null));
                 }
+            } else {
+                sendMessage(new JoinRoomResponse(false, "加入房间失败", null, null));
             }
         }
         
@@ -368,83 +396,103 @@ public class GameServer {
          * 处理离开房间
          */
         private void handleLeaveRoom(LeaveRoom message) {
-            if (currentRoomId == null) {
+            String roomId = currentRoomId;
+            if (roomId == null) {
                 return;
             }
+            this.currentRoomId = null;
             
-            synchronized (lock) {
-                Room room = rooms.get(currentRoomId);
-                if (room != null) {
-                    boolean shouldCloseRoom = room.removePlayer(playerId);
-                    if (shouldCloseRoom) {
-                        rooms.remove(currentRoomId);
-                        if (eventListener != null) {
-                            SwingUtilities.invokeLater(() -> 
-                                eventListener.onRoomClosed(currentRoomId));
-                        }
-                    } else {
-                        // 通知对手玩家离开
-                        Player opponent = room.getOpponent(playerId);
-                        if (opponent != null) {
-                            ClientHandler opponentClient = clients.get(opponent.getPlayerId());
-                            if (opponentClient != null) {
-                                opponentClient.sendMessage(new GameEnd(opponent.getPlayerName(), "对手离开游戏"));
-                            }
-                        }
-                    }
+            RoomActor actor = rooms.get(roomId);
+            if (actor != null) {
+                String leavingPlayerId = playerId;
+                actor.tell(() -> leaveRoom(actor, roomId, leavingPlayerId));
+            }
+        }
+        
+        /**
+         * 在房间线程中离开房间
+         */
+        private void leaveRoom(RoomActor actor, String roomId, String leavingPlayerId) {
+            if (actor.isClosed()) {
+                return;
+            }
+            Room room = actor.getRoom();
+            // 对手信息要在移除玩家之前取得
+            Player opponent = room.getOpponent(leavingPlayerId);
+            boolean shouldCloseRoom = room.removePlayer(leavingPlayerId);
+            if (shouldCloseRoom) {
+                actor.close();
+                rooms.remove(roomId, actor);
+                if (eventListener != null) {
+                    SwingUtilities.invokeLater(() -> 
+                        eventListener.onRoomClosed(roomId));
+                }
+            } else if (opponent != null) {
+                // 通知对手玩家离开
+                ClientHandler opponentClient = clients.get(opponent.getPlayerId());
+                if (opponentClient != null) {
+                    opponentClient.sendMessage(new GameEnd(opponent.getPlayerName(), "对手离开游戏"));
                 }
             }
-            
-            this.currentRoomId = null;
         }
         
         /**
          * 处理玩家移动
          */
         private void handleMove(MoveMessage message) {
-            if (currentRoomId == null) {
+            String roomId = currentRoomId;
+            if (roomId == null) {
                 sendMessage(new ErrorMessage("NO_ROOM", "不在任何房间中"));
                 return;
             }
             
-            synchronized (lock) {
-                Room room = rooms.get(currentRoomId);
-                if (room == null) {
-                    sendMessage(new ErrorMessage("ROOM_NOT_FOUND", "房间不存在"));
-                    return;
-                }
+            RoomActor actor = rooms.get(roomId);
+            if (actor == null) {
+                sendMessage(new ErrorMessage("ROOM_NOT_FOUND", "房间不存在"));
+                return;
+            }
+            actor.tell(() -> processMove(actor, message));
+        }
+        
+        /**
+         * 在房间线程中处理走子，并把结果发给房间内的玩家
+         */
+        private void processMove(RoomActor actor, MoveMessage message) {
+            if (actor.isClosed()) {
+                sendMessage(new ErrorMessage("ROOM_NOT_FOUND", "房间不存在"));
+                return;
+            }
+            Room room = actor.getRoom();
+            if (room.processMove(playerId, message.getFromRow(), message.getFromCol(), 
+                              message.getToRow(), message.getToCol())) {
                 
-                if (room.processMove(playerId, message.getFromRow(), message.getFromCol(), 
-                                  message.getToRow(), message.getToCol())) {
-                    
-                    // 转发移动消息给对手
-                    Player opponent = room.getOpponent(playerId);
-                    if (opponent != null) {
-                        ClientHandler opponentClient = clients.get(opponent.getPlayerId());
-                        if (opponentClient != null) {
-                            opponentClient.sendMessage(message);
-                        }
+                // 转发移动消息给对手
+                Player opponent = room.getOpponent(playerId);
+                if (opponent != null) {
+                    ClientHandler opponentClient = clients.get(opponent.getPlayerId());
+                    if (opponentClient != null) {
+                        opponentClient.sendMessage(message);
                     }
-                    
-                    // 发送游戏状态同步
-                    Room.GameState gameState = room.getGameState();
-                    GameStateSync stateSync = new GameStateSync(
-                        gameState.getGameBoard(),
-                        gameState.getCurrentPlayer(),
-                        gameState.isGameOver(),
-                        gameState.getWinner()
-                    );
-                    
-                    // 发送给房间内的所有玩家
-                    for (Player player : room.getPlayers().values()) {
-                        ClientHandler client = clients.get(player.getPlayerId());
-                        if (client != null) {
-                            client.sendMessage(stateSync);
-                        }
+                }
+                
+                // 发送游戏状态同步
+                Room.GameState gameState = room.getGameState();
+                GameStateSync stateSync = new GameStateSync(
+                    gameState.getGameBoard(),
+                    gameState.getCurrentPlayer(),
+                    gameState.isGameOver(),
+                    gameState.getWinner()
+                );
+                
+                // 发送给房间内的所有玩家
+                for (Player player : room.getPlayers().values()) {
+                    ClientHandler client = clients.get(player.getPlayerId());
+                    if (client != null) {
+                        client.sendMessage(stateSync);
                     }
-                } else {
-                    sendMessage(new ErrorMessage("INVALID_MOVE", "无效的移动"));
                 }
+            } else {
+                sendMessage(new ErrorMessage("INVALID_MOVE", "无效的移动"));
             }
         }
         
@@ -469,8 +517,7 @@ public class GameServer {
          */
         public synchronized void sendMessage(NetworkMessage message) {
             try {
-                output.writeObject(message);
-                output.flush();
+                codec.write(message);
             } catch (IOException e) {
                 if (eventListener != null) {
                     eventListener.onError("发送消息失败: " + e.getMessage());
@@ -488,8 +535,8 @@ public class GameServer {
             }
             
             // 从客户端列表中移除
-            synchronized (lock) {
-                clients.remove(playerId);
+            if (playerId != null) {
+                clients.remove(playerId, this);
             }
             
             close();
@@ -505,8 +552,6 @@ public class GameServer {
          */
         public void close() {
             try {
-                if (input != null) input.close();
-                if (output != null) output.close();
                 if (socket != null && !socket.isClosed()) socket.close();
             } catch (IOException e) {
                 // 忽略关闭异常
@@ -519,6 +564,26 @@ public class GameServer {
         public long getLastHeartbeat() { return lastHeartbeat; }
     }
     
+    /**
+     * 房间事件抛出的异常不影响房间继续处理后续事件
+     */
+    private void onRoomError(Throwable e) {
+        if (eventListener != null) {
+            eventListener.onError("处理房间事件失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取各房间邮箱的排队时间统计
+     */
+    public List<RoomActor.QueueStats> getRoomQueueStats() {
+        List<RoomActor.QueueStats> stats = new ArrayList<>();
+        for (RoomActor actor : rooms.values()) {
+            stats.add(actor.getQueueStats());
+        }
+        return stats;
+    }
+    
     // Getters
     public boolean isRunning() { return isRunning; }
     public int getPort() { return port; }
@@ -0,0 +1,335 @@
+package network;
+
+import network.Messages.*;
+import network.NetworkMessage.MessageType;
+
+import java.io.*;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 网络消息的流式编解码器
+ * <p>
+ * 取代 ObjectOutputStream/ObjectInputStream。每条消息编码为一帧：
+ * <pre>
+ *   [4字节帧长][1字节协议版本][1字节消息类型序号][消息体]
+ * </pre>
+ * 消息体按各消息类固定的字段顺序写出，不带类描述和字段名：
+ * 整数用zigzag varint，布尔值一个字节，字符串为 varint(UTF-8字节数+1) 加字节内容，0 表示 null。
+ * <p>
+ * 每个连接一个实例，编码和解码各用一块可复用的缓冲区。与对象流不同，编解码器不保留写过的对象，
+ * 长时间的会话内存不会随消息数增长。{@link #write} 可由多个线程调用，{@link #read} 只能由接收线程调用。
+ * <p>
+ * 版本规则：消息类型只能在枚举末尾追加；新版本只在消息体末尾追加字段，
+ * 解码时按帧头的版本号决定是否读取这些字段，所以旧版本的帧照常解码，高于本端版本的帧被拒绝。
+ */
+public class MessageCodec {
+
+    /** 当前协议版本 */
+    public static final int VERSION = 1;
+    /** 单帧最大字节数，防止错误的帧长导致分配过大的缓冲区 */
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    private static final int HEADER_SIZE = 4;
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private final DataInputStream input;
+    private final OutputStream output;
+
+    // 编码方向，由this锁保护
+    private byte[] out = new byte[256];
+    private int size;
+
+    // 解码方向，仅接收线程使用
+    private byte[] in = new byte[256];
+    private int pos;
+    private int limit;
+
+    public MessageCodec(InputStream input, OutputStream output) {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        this.output = output;
+    }
+
+    /**
+     * 编码并写出一条消息
+     */
+    public synchronized void write(NetworkMessage message) throws IOException {
+        size = HEADER_SIZE;
+        putByte(VERSION);
+        putByte(message.getType().ordinal());
+        writeBody(message);
+
+        int length = size - HEADER_SIZE;
+        out[0] = (byte) (length >>> 24);
+        out[1] = (byte) (length >>> 16);
+        out[2] = (byte) (length >>> 8);
+        out[3] = (byte) length;
+        output.write(out, 0, size);
+        output.flush();
+    }
+
+    /**
+     * 阻塞读取下一条消息
+     *
+     * @throws EOFException      对端关闭连接
+     * @throws ProtocolException 帧长、版本或消息体不合法
+     */
+    public NetworkMessage read() throws IOException {
+        int length = input.readInt();
+        if (length < 2 || length > MAX_FRAME_SIZE) {
+            throw new ProtocolException("非法的帧长度: " + length);
+        }
+        if (in.length < length) {
+            in = new byte[Math.max(length, in.length * 2)];
+        }
+        input.readFully(in, 0, length);
+        pos = 0;
+        limit = length;
+
+        int version = in[pos++] & 0xFF;
+        if (version < 1 || version > VERSION) {
+            throw new ProtocolException("不支持的协议版本: " + version + "（本端版本 " + VERSION + "）");
+        }
+        int type = in[pos++] & 0xFF;
+        if (type >= TYPES.length) {
+            throw new ProtocolException("未知消息类型: " + type);
+        }
+        return readBody(TYPES[type]);
+    }
+
+    private void writeBody(NetworkMessage message) {
+        switch (message.getType()) {
+            case CONNECT_REQUEST: {
+                ConnectRequest m = (ConnectRequest) message;
+                putString(m.getPlayerName());
+                break;
+            }
+            case CONNECT_RESPONSE: {
+                ConnectResponse m = (ConnectResponse) message;
+                putBoolean(m.isSuccess());
+                putString(m.getMessage());
+                putString(m.getPlayerId());
+                break;
+            }
+            case DISCONNECT:
+                putString(((Disconnect) message).getReason());
+                break;
+            case CREATE_ROOM_REQUEST: {
+                CreateRoomRequest m = (CreateRoomRequest) message;
+                putString(m.getRoomName());
+                putString(m.getPassword());
+                break;
+            }
+            case CREATE_ROOM_RESPONSE: {
+                CreateRoomResponse m = (CreateRoomResponse) message;
+                putBoolean(m.isSuccess());
+                putString(m.getMessage());
+                putString(m.getRoomId());
+                break;
+            }
+            case JOIN_ROOM_REQUEST: {
+                JoinRoomRequest m = (JoinRoomRequest) message;
+                putString(m.getRoomId());
+                putString(m.getPassword());
+                break;
+            }
+            case JOIN_ROOM_RESPONSE: {
+                JoinRoomResponse m = (JoinRoomResponse) message;
+                putBoolean(m.isSuccess());
+                putString(m.getMessage());
+                putString(m.getRoomId());
+                putString(m.getOpponentName());
+                break;
+            }
+            case LEAVE_ROOM:
+                putString(((LeaveRoom) message).getPlayerId());
+                break;
+            case GAME_START: {
+                GameStart m = (GameStart) message;
+                putString(m.getRedPlayerName());
+                putString(m.getBlackPlayerName());
+                putString(m.getYourColor());
+                break;
+            }
+            case GAME_END: {
+                GameEnd m = (GameEnd) message;
+                putString(m.getWinner());
+                putString(m.getReason());
+                break;
+            }
+            case MOVE: {
+                MoveMessage m = (MoveMessage) message;
+                putInt(m.getFromRow());
+                putInt(m.getFromCol());
+                putInt(m.getToRow());
+                putInt(m.getToCol());
+                putLong(m.getTimestamp());
+                break;
+            }
+            case GAME_STATE_SYNC: {
+                GameStateSync m = (GameStateSync) message;
+                putString(m.getGameState());
+                putString(m.getCurrentPlayer());
+                putBoolean(m.isGameOver());
+                putString(m.getWinner());
+                break;
+            }
+            case HEARTBEAT:
+                putLong(((Heartbeat) message).getTimestamp());
+                break;
+            case ERROR: {
+                ErrorMessage m = (ErrorMessage) message;
+                putString(m.getErrorCode());
+                putString(m.getErrorMessage());
+                break;
+            }
+            case TEXT_MESSAGE: {
+                TextMessage m = (TextMessage) message;
+                putString(m.getSender());
+                putString(m.getContent());
+                putLong(m.getTimestamp());
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("没有定义编码格式的消息类型: " + message.getType());
+        }
+    }
+
+    private NetworkMessage readBody(MessageType type) throws ProtocolException {
+        switch (type) {
+            case CONNECT_REQUEST:
+                return new ConnectRequest(getString());
+            case CONNECT_RESPONSE:
+                return new ConnectResponse(getBoolean(), getString(), getString());
+            case DISCONNECT:
+                return new Disconnect(getString());
+            case CREATE_ROOM_REQUEST:
+                return new CreateRoomRequest(getString(), getString());
+            case CREATE_ROOM_RESPONSE:
+                return new CreateRoomResponse(getBoolean(), getString(), getString());
+            case JOIN_ROOM_REQUEST:
+                return new JoinRoomRequest(getString(), getString());
+            case JOIN_ROOM_RESPONSE:
+                return new JoinRoomResponse(getBoolean(), getString(), getString(), getString());
+            case LEAVE_ROOM:
+                return new LeaveRoom(getString());
+            case GAME_START:
+                return new GameStart(getString(), getString(), getString());
+            case GAME_END:
+                return new GameEnd(getString(), getString());
+            case MOVE:
+                return new MoveMessage(getInt(), getInt(), getInt(), getInt(), getLong());
+            case GAME_STATE_SYNC:
+                return new GameStateSync(getString(), getString(), getBoolean(), getString());
+            case HEARTBEAT:
+                return new Heartbeat(getLong());
+            case ERROR:
+                return new ErrorMessage(getString(), getString());
+            case TEXT_MESSAGE:
+                return new TextMessage(getString(), getString(), getLong());
+            default:
+                throw new ProtocolException("没有定义解码格式的消息类型: " + type);
+        }
+    }
+
+    // ==================== 编码 ====================
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > out.length) {
+            byte[] grown = new byte[Math.max(size + extra, out.length * 2)];
+            System.arraycopy(out, 0, grown, 0, size);
+            out = grown;
+        }
+    }
+
+    private void putByte(int value) {
+        ensureCapacity(1);
+        out[size++] = (byte) value;
+    }
+
+    private void putBoolean(boolean value) {
+        putByte(value ? 1 : 0);
+    }
+
+    private void putUnsigned(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            out[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[size++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        putUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    private void putInt(int value) {
+        putLong(value);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putUnsigned(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putUnsigned(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, out, size, bytes.length);
+        size += bytes.length;
+    }
+
+    // ==================== 解码 ====================
+
+    private void require(int count) throws ProtocolException {
+        if (count < 0 || limit - pos < count) {
+            throw new ProtocolException("消息体不完整");
+        }
+    }
+
+    private boolean getBoolean() throws ProtocolException {
+        require(1);
+        return in[pos++] != 0;
+    }
+
+    private long getUnsigned() throws ProtocolException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = in[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("varint过长");
+    }
+
+    private long getLong() throws ProtocolException {
+        long raw = getUnsigned();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private int getInt() throws ProtocolException {
+        long value = getLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ProtocolException("整数越界: " + value);
+        }
+        return (int) value;
+    }
+
+    private String getString() throws ProtocolException {
+        long marker = getUnsigned();
+        if (marker == 0) {
+            return null;
+        }
+        if (marker - 1 > limit - pos) {
+            throw new ProtocolException("消息体不完整");
+        }
+        int length = (int) (marker - 1);
+        String value = new String(in, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+}
@@ -0,0 +1,219 @@
+package network;
+
+import network.Messages.*;
+
+import java.io.*;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对比 {@link MessageCodec} 与 Java 对象序列化的基准测试
+ * <p>
+ * 模拟一局10,000条消息的会话（走子、状态同步、心跳和聊天交替），分别统计：
+ * 编码吞吐、解码吞吐、每条消息的字节数，以及会话结束时写出流仍然占用的堆内存。
+ * 对象流分为从不reset（与原先的GameServer相同）和每条消息后reset两种情况。
+ * <p>
+ * 运行：java network.MessageCodecBenchmark [消息数]
+ */
+public class MessageCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 5;
+
+    /** 被测的一种序列化方式 */
+    private interface Format {
+        String name();
+
+        /** 为一个连接创建写出端，返回值必须在会话期间保持可达 */
+        MessageSink open(OutputStream out) throws IOException;
+
+        List<NetworkMessage> decode(byte[] data, int count) throws IOException;
+    }
+
+    private interface MessageSink {
+        void write(NetworkMessage message) throws IOException;
+    }
+
+    private static final class Result {
+        long encodeNanos = Long.MAX_VALUE;
+        long decodeNanos = Long.MAX_VALUE;
+        long bytes;
+        long retainedBytes;
+    }
+
+    /** 只计数的输出流，避免测到内存拷贝 */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int messageCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        Format[] formats = {
+            new Format() {
+                public String name() { return "ObjectOutputStream（不reset）"; }
+
+                public MessageSink open(OutputStream out) throws IOException {
+                    ObjectOutputStream stream = new ObjectOutputStream(out);
+                    return message -> {
+                        stream.writeObject(message);
+                        stream.flush();
+                    };
+                }
+
+                public List<NetworkMessage> decode(byte[] data, int count) throws IOException {
+                    return readObjects(data, count);
+                }
+            },
+            new Format() {
+                public String name() { return "ObjectOutputStream（每条reset）"; }
+
+                public MessageSink open(OutputStream out) throws IOException {
+                    ObjectOutputStream stream = new ObjectOutputStream(out);
+                    return message -> {
+                        stream.writeObject(message);
+                        stream.reset();
+                        stream.flush();
+                    };
+                }
+
+                public List<NetworkMessage> decode(byte[] data, int count) throws IOException {
+                    return readObjects(data, count);
+                }
+            },
+            new Format() {
+                public String name() { return "MessageCodec"; }
+
+                public MessageSink open(OutputStream out) {
+                    MessageCodec codec = new MessageCodec(new ByteArrayInputStream(new byte[0]), out);
+                    return codec::write;
+                }
+
+                public List<NetworkMessage> decode(byte[] data, int count) throws IOException {
+                    MessageCodec codec = new MessageCodec(new ByteArrayInputStream(data), new CountingOutputStream());
+                    List<NetworkMessage> messages = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        messages.add(codec.read());
+                    }
+                    return messages;
+                }
+            }
+        };
+
+        System.out.println("📊 网络消息编解码基准测试：每局 " + messageCount + " 条消息，取 "
+                + MEASURE_ROUNDS + " 轮中的最好成绩");
+        for (Format format : formats) {
+            Result result = run(format, messageCount);
+            System.out.printf("  %-30s 编码 %,10.0f 条/秒  解码 %,10.0f 条/秒  %6.1f 字节/条  会话结束时写出流占用堆 %,8d KB%n",
+                    format.name(),
+                    messageCount * 1e9 / result.encodeNanos,
+                    messageCount * 1e9 / result.decodeNanos,
+                    (double) result.bytes / messageCount,
+                    result.retainedBytes / 1024);
+        }
+    }
+
+    private static Result run(Format format, int messageCount) throws IOException {
+        Result result = new Result();
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+            boolean measure = round >= WARMUP_ROUNDS;
+
+            // 编码吞吐
+            CountingOutputStream counter = new CountingOutputStream();
+            MessageSink sink = format.open(counter);
+            long start = System.nanoTime();
+            writeSession(sink, messageCount);
+            long elapsed = System.nanoTime() - start;
+            if (measure) {
+                result.encodeNanos = Math.min(result.encodeNanos, elapsed);
+                result.bytes = counter.count;
+            }
+
+            // 解码吞吐
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeSession(format.open(buffer), messageCount);
+            byte[] data = buffer.toByteArray();
+            start = System.nanoTime();
+            List<NetworkMessage> decoded = format.decode(data, messageCount);
+            elapsed = System.nanoTime() - start;
+            if (decoded.size() != messageCount) {
+                throw new IllegalStateException("解码数量不一致: " + decoded.size());
+            }
+            if (measure) {
+                result.decodeNanos = Math.min(result.decodeNanos, elapsed);
+            }
+        }
+
+        // 堆增长：写完整局后写出流仍然可达，这时多占用的堆就是它保留下来的内存
+        long before = usedHeapAfterGc();
+        MessageSink sink = format.open(new CountingOutputStream());
+        writeSession(sink, messageCount);
+        long after = usedHeapAfterGc();
+        result.retainedBytes = Math.max(0, after - before);
+        Reference.reachabilityFence(sink);
+        return result;
+    }
+
+    /**
+     * 写出一局会话的消息；每条都是新对象，与服务器逐步生成消息的方式一致
+     */
+    private static void writeSession(MessageSink sink, int messageCount) throws IOException {
+        StringBuilder board = new StringBuilder(90);
+        for (int i = 0; i < messageCount; i++) {
+            switch (i % 4) {
+                case 0:
+                    sink.write(new MoveMessage(i % 10, i % 9, (i + 1) % 10, (i + 3) % 9));
+                    break;
+                case 1:
+                    board.setLength(0);
+                    for (int cell = 0; cell < 90; cell++) {
+                        board.append((char) ('a' + (cell + i) % 26));
+                    }
+                    sink.write(new GameStateSync(board.toString(), i % 8 == 1 ? "RED" : "BLACK", false, null));
+                    break;
+                case 2:
+                    sink.write(new Heartbeat());
+                    break;
+                default:
+                    sink.write(new TextMessage("玩家" + (i % 2), "第" + i + "手"));
+                    break;
+            }
+        }
+    }
+
+    private static List<NetworkMessage> readObjects(byte[] data, int count) throws IOException {
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            List<NetworkMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                messages.add((NetworkMessage) stream.readObject());
+            }
+            return messages;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
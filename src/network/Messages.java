@@ -190,11 +190,15 @@ public class Messages {
         private final long timestamp;
         
         public MoveMessage(int fromRow, int fromCol, int toRow, int toCol) {
+            this(fromRow, fromCol, toRow, toCol, System.currentTimeMillis());
+        }
+        
+        MoveMessage(int fromRow, int fromCol, int toRow, int toCol, long timestamp) {
             this.fromRow = fromRow;
             this.fromCol = fromCol;
             this.toRow = toRow;
             this.toCol = toCol;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
         }
         
         public int getFromRow() {
@@ -326,7 +330,11 @@ public class Messages {
         private final long timestamp;
         
         public Heartbeat() {
-            this.timestamp = System.currentTimeMillis();
+            this(System.currentTimeMillis());
+        }
+        
+        Heartbeat(long timestamp) {
+            this.timestamp = timestamp;
         }
         
         public long getTimestamp() {
@@ -374,9 +382,13 @@ public class Messages {
         private final long timestamp;
         
         public TextMessage(String sender, String content) {
+            this(sender, content, System.currentTimeMillis());
+        }
+        
+        TextMessage(String sender, String content, long timestamp) {
             this.sender = sender;
             this.content = content;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
         }
         
         public String getSender() {
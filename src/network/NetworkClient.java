@@ -14,8 +14,7 @@ public class NetworkClient {
     private String serverHost;
     private int serverPort;
     private Socket socket;
-    private ObjectInputStream input;
-    private ObjectOutputStream output;
+    private MessageCodec codec;
     private boolean isConnected;
     private boolean shouldReconnect;
     private ExecutorService executor;
@@ -75,8 +74,7 @@ public class NetworkClient {
     private void connectInternal() {
         try {
             socket = new Socket(serverHost, serverPort);
-            output = new ObjectOutputStream(socket.getOutputStream());
-            input = new ObjectInputStream(socket.getInputStream());
+            codec = new MessageCodec(socket.getInputStream(), socket.getOutputStream());
             
             synchronized (lock) {
                 isConnected = true;
@@ -119,10 +117,10 @@ public class NetworkClient {
         executor.submit(() -> {
             try {
                 while (isConnected && !Thread.currentThread().isInterrupted()) {
-                    NetworkMessage message = (NetworkMessage) input.readObject();
+                    NetworkMessage message = codec.read();
                     handleMessage(message);
                 }
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 if (isConnected) {
                     handleDisconnection("接收消息异常: " + e.getMessage());
                 }
@@ -335,7 +333,7 @@ public class NetworkClient {
      * 发送消息
      */
     public synchronized void sendMessage(NetworkMessage message) {
-        if (!isConnected || output == null) {
+        if (!isConnected || codec == null) {
             if (eventListener != null) {
                 SwingUtilities.invokeLater(() -> 
                     eventListener.onError("未连接到服务器"));
@@ -344,8 +342,7 @@ public class NetworkClient {
         }
         
         try {
-            output.writeObject(message);
-            output.flush();
+            codec.write(message);
         } catch (IOException e) {
             if (eventListener != null) {
                 SwingUtilities.invokeLater(() -> 
@@ -472,14 +469,7 @@ public class NetworkClient {
      */
     private void closeConnection() {
         try {
-            if (input != null) {
-                input.close();
-                input = null;
-            }
-            if (output != null) {
-                output.close();
-                output = null;
-            }
+            codec = null;
             if (socket != null && !socket.isClosed()) {
                 socket.close();
                 socket = null;
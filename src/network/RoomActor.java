@@ -0,0 +1,208 @@
+package network;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 房间执行者
+ * <p>
+ * 一个房间的所有事件（加入、走子、离开）投递到该房间的邮箱，按投递顺序逐个执行，
+ * 同一时刻最多有一个线程在处理该房间，因此房间状态不需要全局锁。
+ * 所有房间共用一个固定大小的线程池：邮箱有事件时才占用一个线程，每次最多处理
+ * {@link #BATCH_SIZE} 个事件后让出线程，避免繁忙的房间饿死其他房间。
+ * <p>
+ * 同时统计事件在邮箱中的排队时间，用于观察房间是否处理不过来。
+ */
+public class RoomActor {
+
+    /** 每次占用线程最多处理的事件数 */
+    static final int BATCH_SIZE = 64;
+
+    // 排队时间直方图：第i个桶统计 [2^(i-1), 2^i) 微秒
+    private static final int BUCKETS = 32;
+
+    private final Room room;
+    private final Executor executor;
+    private final Consumer<Throwable> errorHandler;
+
+    private final Queue<Envelope> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // 仅由当前处理邮箱的线程修改
+    private boolean closed;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    private static final class Envelope {
+        final Runnable event;
+        final long enqueuedAt;
+
+        Envelope(Runnable event) {
+            this.event = event;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+
+    RoomActor(Room room, Executor executor, Consumer<Throwable> errorHandler) {
+        this.room = room;
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * 投递一个事件，由房间按顺序执行；可在任意线程调用
+     */
+    void tell(Runnable event) {
+        mailbox.add(new Envelope(event));
+        queueDepth.incrementAndGet();
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 服务器正在关闭，丢弃剩余事件
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Envelope envelope = mailbox.poll();
+                if (envelope == null) {
+                    break;
+                }
+                queueDepth.decrementAndGet();
+                recordQueueTime(System.nanoTime() - envelope.enqueuedAt);
+                try {
+                    envelope.event.run();
+                } catch (RuntimeException e) {
+                    errorHandler.accept(e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            // 释放后再检查一次，避免与并发投递的事件擦肩而过
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private void recordQueueTime(long nanos) {
+        processed.incrementAndGet();
+        totalQueueNanos.addAndGet(nanos);
+        if (nanos > maxQueueNanos.get()) {
+            maxQueueNanos.set(nanos);
+        }
+        long micros = nanos / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        histogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * 房间已解散：之后投递的事件仍会执行，由事件自行检查 {@link #isClosed()}。
+     * 只能在房间事件中调用。
+     */
+    void close() {
+        closed = true;
+    }
+
+    /** 只能在房间事件中调用 */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /** 只能在房间事件中访问房间状态 */
+    Room getRoom() {
+        return room;
+    }
+
+    /**
+     * 获取排队时间统计的快照
+     */
+    QueueStats getQueueStats() {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(i);
+        }
+        return new QueueStats(room.getRoomId(), processed.get(), totalQueueNanos.get(),
+                maxQueueNanos.get(), queueDepth.get(), buckets);
+    }
+
+    /**
+     * 房间邮箱的排队时间统计
+     */
+    public static class QueueStats {
+        private final String roomId;
+        private final long processed;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final int queueDepth;
+        private final long[] buckets;
+
+        QueueStats(String roomId, long processed, long totalNanos, long maxNanos, int queueDepth, long[] buckets) {
+            this.roomId = roomId;
+            this.processed = processed;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.queueDepth = queueDepth;
+            this.buckets = buckets;
+        }
+
+        public String getRoomId() { return roomId; }
+        public long getProcessed() { return processed; }
+        public int getQueueDepth() { return queueDepth; }
+
+        public double getAverageMillis() {
+            return processed == 0 ? 0 : totalNanos / 1e6 / processed;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        /**
+         * 排队时间的分位数（按直方图桶的上界估算）
+         */
+        public double getPercentileMillis(double percentile) {
+            long total = 0;
+            for (long count : buckets) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min((1L << i) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("房间 %s: 事件 %d, 排队 平均 %.2fms p99 %.2fms 最大 %.2fms, 积压 %d",
+                    roomId, processed, getAverageMillis(), getPercentileMillis(99), getMaxMillis(), queueDepth);
+        }
+    }
+}